@@ -20,6 +20,48 @@ describe('MRAID', function() {
       BRIDGE.executeNativeCall(['commandname', 'arg1', true, 'arg2', false]);
       expect(lastCall()).toEqual('mraid://commandname?arg1=true&arg2=false');
     });
+
+    describe("with a native command channel", function() {
+      var channel;
+
+      beforeEach(function() {
+        channel = window.mopubMraidCommandChannel = {
+          postCommands: jasmine.createSpy()
+        };
+      });
+
+      afterEach(function() {
+        delete window.mopubMraidCommandChannel;
+      });
+
+      it("sends commands from the same turn as one batch", function() {
+        BRIDGE.executeNativeCall(['resize', 'width', 320, 'height', 50, 'offsetX', null]);
+        BRIDGE.executeNativeCall(['usecustomclose', 'shouldUseCustomClose', true]);
+        expect(channel.postCommands).not.toHaveBeenCalled();
+
+        BRIDGE.flushNativeCalls();
+
+        expect(channel.postCommands.callCount).toEqual(1);
+        expect(JSON.parse(channel.postCommands.mostRecentCall.args[0])).toEqual([
+          {command: 'resize', params: {width: '320', height: '50'}},
+          {command: 'usecustomclose', params: {shouldUseCustomClose: 'true'}}
+        ]);
+        expect(BRIDGE.nativeCallQueue.length).toEqual(0);
+      });
+
+      it("fires an error event for each failed command", function() {
+        spyOn(BRIDGE, 'notifyErrorEvent');
+
+        BRIDGE.nativeCallsComplete([
+          {command: 'resize', error: 'Invalid numeric parameter: x'},
+          {command: 'close'}
+        ]);
+
+        expect(BRIDGE.notifyErrorEvent.callCount).toEqual(1);
+        expect(BRIDGE.notifyErrorEvent).toHaveBeenCalledWith(
+            'Invalid numeric parameter: x', 'resize');
+      });
+    });
   });
   
   describe('.removeEventListener', function() {
@@ -1,2 +1,33 @@
-/*! 3.2.1 - mraid 2014-11-26 */
-!function(){var a=/iphone|ipad|ipod/i.test(window.navigator.userAgent.toLowerCase());a&&(console={},console.log=function(a){var b=document.createElement("iframe");b.setAttribute("src","ios-log: "+a),document.documentElement.appendChild(b),b.parentNode.removeChild(b),b=null},console.debug=console.info=console.warn=console.error=console.log)}(),function(){var a=window.mraidbridge={},b=!1,c={},d=[],e=!1;a.fireReadyEvent=function(){b=!0,a.fireEvent("ready")},a.fireChangeEvent=function(b){a.fireEvent("change",b)},a.fireErrorEvent=function(b,c){a.fireEvent("error",b,c)},a.fireEvent=function(a){var b=c[a];if(b){var d=Array.prototype.slice.call(arguments);d.shift();for(var e=b.length,f=0;e>f;f++)b[f].apply(null,d)}},a.nativeCallComplete=function(){if(0===d.length)return void(e=!1);var a=d.pop();window.location=a},a.executeNativeCall=function(c){if(!b)return console.log("rejecting "+c+" because mraid is not ready"),void a.fireErrorEvent("mraid is not ready",c);for(var f,g,h="mraid://"+c,i=!0,j=1;j<arguments.length;j+=2)f=arguments[j],g=arguments[j+1],null!==g&&(i?(h+="?",i=!1):h+="&",h+=encodeURIComponent(f)+"="+encodeURIComponent(g));e?d.push(h):(e=!0,window.location=h)},a.addEventListener=function(a,b){var d;c[a]=c[a]||[],d=c[a];for(var e in d)if(b===e)return;d.push(b)},a.removeEventListener=function(a,b){if(c.hasOwnProperty(a)){var d=c[a];if(d){var e=d.indexOf(b);-1!==e&&d.splice(e,1)}}}}(),function(){var a=window.mraid={},b=window.mraidbridge;b.setCurrentPosition=function(a,b,c,d){k={x:a,y:b,width:c,height:d},v(e.INFO,"Set current position to "+x(k))},b.setDefaultPosition=function(a,b,c,d){l={x:a,y:b,width:c,height:d},v(e.INFO,"Set default position to "+x(l))},b.setMaxSize=function(a,b){j={width:a,height:b},v(e.INFO,"Set max size to "+x(j))},b.setPlacementType=function(a){s=a,v(e.INFO,"Set placement type to "+x(s))},b.setScreenSize=function(a,b){m={width:a,height:b},v(e.INFO,"Set screen size to "+x(m))},b.setState=function(a){q=a,v(e.INFO,"Set state to "+x(q)),v(e.STATECHANGE,q)},b.setIsViewable=function(a){r=a,v(e.INFO,"Set isViewable to "+x(r)),v(e.VIEWABLECHANGE,r)},b.setSupports=function(){},b.notifySizeChangeEvent=function(a,b){c&&a==c.width&&b==c.height||(c={width:a,height:b},v(e.SIZECHANGE,a,b))};var c,d=(a.VERSION="1.0",a.STATES={LOADING:"loading",DEFAULT:"default",EXPANDED:"expanded",HIDDEN:"hidden",RESIZED:"resized"}),e=a.EVENTS={ERROR:"error",INFO:"info",READY:"ready",STATECHANGE:"stateChange",VIEWABLECHANGE:"viewableChange",SIZECHANGE:"sizeChange"},f=a.PLACEMENT_TYPES={UNKNOWN:"unknown",INLINE:"inline",INTERSTITIAL:"interstitial"},g={width:-1,height:-1,useCustomClose:!1,isModal:!0,lockOrientation:!1},h={width:!1,height:!1,offsetX:!1,offsetY:!1,customClosePosition:"top-right",allowOffscreen:!0},i={allowOrientationChange:!0,forceOrientation:"none"},j={},k={},l={},m={},n=!1,o=!1,p={},q=d.LOADING,r=!1,s=f.UNKNOWN,t={sms:!1,tel:!1,calendar:!1,storePicture:!1,inlineVideo:!1},u=function(a){this.event=a,this.count=0;var b={};this.add=function(a){var c=String(a);b[c]||(b[c]=a,this.count++)},this.remove=function(a){var c=String(a);return b[c]?(b[c]=null,delete b[c],this.count--,!0):!1},this.removeAll=function(){for(var a in b)b.hasOwnProperty(a)&&this.remove(b[a])},this.broadcast=function(a){for(var c in b)b.hasOwnProperty(c)&&b[c].apply({},a)},this.toString=function(){var c=[a,":"];for(var d in b)b.hasOwnProperty(d)&&c.push("|",d,"|");return c.join("")}},v=function(){for(var a=new Array(arguments.length),b=arguments.length,c=0;b>c;c++)a[c]=arguments[c];var d=a.shift();p[d]&&p[d].broadcast(a)},w=function(a,b){for(var c in b)if(b[c]===a)return!0;return!1},x=function(a){if("object"==typeof a){var b=[];if(a.push){for(var c in a)b.push(a[c]);return"["+b.join(",")+"]"}for(var c in a)b.push("'"+c+"': "+a[c]);return"{"+b.join(",")+"}"}return String(a)},y={state:function(a){q===d.LOADING&&v(e.INFO,"Native SDK initialized."),q=a,v(e.INFO,"Set state to "+x(a)),v(e.STATECHANGE,q)},viewable:function(a){r=a,v(e.INFO,"Set isViewable to "+x(a)),v(e.VIEWABLECHANGE,r)},placementType:function(a){v(e.INFO,"Set placementType to "+x(a)),s=a},sizeChange:function(a){v(e.INFO,"Set screenSize to "+x(a));for(var b in a)a.hasOwnProperty(b)&&(m[b]=a[b]);n||(g.width=m.width,g.height=m.height)},supports:function(a){v(e.INFO,"Set supports to "+x(a)),t=a}},z=function(a,b,c,d){if(!d){if(null===a)return v(e.ERROR,"Required object not provided.",c),!1;for(var f in b)if(b.hasOwnProperty(f)&&void 0===a[f])return v(e.ERROR,"Object is missing required property: "+f+".",c),!1}for(var g in a){var h=b[g],i=a[g];if(h&&!h(i))return v(e.ERROR,"Value of property "+g+" is invalid.",c),!1}return!0},A={width:function(a){return!isNaN(a)&&a>=0},height:function(a){return!isNaN(a)&&a>=0},useCustomClose:function(a){return"boolean"==typeof a},lockOrientation:function(a){return"boolean"==typeof a}};b.addEventListener("change",function(a){for(var b in a)if(a.hasOwnProperty(b)){var c=y[b];c(a[b])}}),b.addEventListener("error",function(a,b){v(e.ERROR,a,b)}),b.addEventListener("ready",function(){v(e.READY)}),a.addEventListener=function(a,b){a&&b?w(a,e)?(p[a]||(p[a]=new u(a)),p[a].add(b)):v(e.ERROR,"Unknown MRAID event: "+a,"addEventListener"):v(e.ERROR,"Both event and listener are required.","addEventListener")},a.close=function(){q===d.HIDDEN?v(e.ERROR,"Ad cannot be closed when it is already hidden.","close"):b.executeNativeCall("close")},a.expand=function(a){if(this.getState()!==d.DEFAULT)v(e.ERROR,"Ad can only be expanded from the default state.","expand");else{var c=["expand"];this.getHasSetCustomClose()&&(c=c.concat(["shouldUseCustomClose",g.useCustomClose?"true":"false"])),"undefined"!=typeof g.lockOrientation&&(c=c.concat(["lockOrientation",g.lockOrientation])),a&&(c=c.concat(["url",a])),b.executeNativeCall.apply(this,c)}},a.getHasSetCustomClose=function(){return o},a.getHasSetCustomSize=function(){return n},a.getExpandProperties=function(){var a={width:g.width,height:g.height,useCustomClose:g.useCustomClose,isModal:g.isModal};return a},a.getCurrentPosition=function(){return{x:k.x,y:k.y,width:k.width,height:k.height}},a.getDefaultPosition=function(){return{x:l.x,y:l.y,width:l.width,height:l.height}},a.getMaxSize=function(){return{width:j.width,height:j.height}},a.getPlacementType=function(){return s},a.getScreenSize=function(){return{width:m.width,height:m.height}},a.getState=function(){return q},a.isViewable=function(){return r},a.getVersion=function(){return a.VERSION},a.open=function(a){a?b.executeNativeCall("open","url",a):v(e.ERROR,"URL is required.","open")},a.removeEventListener=function(a,b){if(!a)return void v(e.ERROR,"Event is required.","removeEventListener");if(b){var c=!1;if(p[a]&&(c=p[a].remove(b)),!c)return void v(e.ERROR,"Listener not currently registered for event.","removeEventListener")}else!b&&p[a]&&p[a].removeAll();p[a]&&0===p[a].count&&(p[a]=null,delete p[a])},a.setExpandProperties=function(a){if(z(a,A,"setExpandProperties",!0)){(a.hasOwnProperty("width")||a.hasOwnProperty("height"))&&(n=!0),a.hasOwnProperty("useCustomClose")&&(o=!0);for(var b=["width","height","useCustomClose","lockOrientation"],c=b.length,d=0;c>d;d++){var e=b[d];a.hasOwnProperty(e)&&(g[e]=a[e])}}},a.useCustomClose=function(a){g.useCustomClose=a,o=!0,b.executeNativeCall("usecustomclose","shouldUseCustomClose",a)},a.createCalendarEvent=function(a){C.initialize(a),C.parse()?b.executeNativeCall.apply(this,C.arguments):v(e.ERROR,C.errors[0],"createCalendarEvent")},a.supports=function(a){return t[a]},a.playVideo=function(c){return a.isViewable()?void(c?b.executeNativeCall.apply(this,["playVideo","uri",c]):v(e.ERROR,"playVideo must be called with a valid URI","playVideo")):void v(e.ERROR,"playVideo cannot be called until the ad is viewable","playVideo")},a.storePicture=function(c){return a.isViewable()?void(c?b.executeNativeCall.apply(this,["storePicture","uri",c]):v(e.ERROR,"storePicture must be called with a valid URI","storePicture")):void v(e.ERROR,"storePicture cannot be called until the ad is viewable","storePicture")};var B={width:function(a){return!isNaN(a)&&a>0},height:function(a){return!isNaN(a)&&a>0},offsetX:function(a){return!isNaN(a)},offsetY:function(a){return!isNaN(a)},customClosePosition:function(a){return"string"==typeof a&&["top-right","bottom-right","top-left","bottom-left","center","top-center","bottom-center"].indexOf(a)>-1},allowOffscreen:function(a){return"boolean"==typeof a}};a.setOrientationProperties=function(a){a.hasOwnProperty("allowOrientationChange")&&(i.allowOrientationChange=a.allowOrientationChange),a.hasOwnProperty("forceOrientation")&&(i.forceOrientation=a.forceOrientation);var c=["setOrientationProperties","allowOrientationChange",i.allowOrientationChange,"forceOrientation",i.forceOrientation];b.executeNativeCall.apply(this,c)},a.getOrientationProperties=function(){return{allowOrientationChange:i.allowOrientationChange,forceOrientation:i.forceOrientation}},a.resize=function(){if(this.getState()!==d.DEFAULT&&this.getState()!==d.RESIZED)v(e.ERROR,"Ad can only be resized from the default or resized state.","resize");else if(z(h,B,"setResizeProperties",!0)){var a=["resize","width",h.width,"height",h.height,"offsetX",h.offsetX||0,"offsetY",h.offsetY||0,"customClosePosition",h.customClosePosition,"allowOffscreen",!!h.allowOffscreen];b.executeNativeCall.apply(this,a)}else v(e.ERROR,"Must set valid resize properties before calling resize()","resize")},a.getResizeProperties=function(){var a={width:h.width,height:h.height,offsetX:h.offsetX,offsetY:h.offsetY,customClosePosition:h.customClosePosition,allowOffscreen:h.allowOffscreen};return a},a.setResizeProperties=function(a){if(z(a,B,"setResizeProperties",!0))for(var b=["width","height","offsetX","offsetY","customClosePosition","allowOffscreen"],c=b.length,d=0;c>d;d++){var f=b[d];a.hasOwnProperty(f)&&(h[f]=a[f])}else v(e.ERROR,"Must include width, height, offsetX, and offsetY","resize")};var C={initialize:function(a){this.parameters=a,this.errors=[],this.arguments=["createCalendarEvent"]},parse:function(){this.parameters?(this.parseDescription(),this.parseLocation(),this.parseSummary(),this.parseStartAndEndDates(),this.parseReminder(),this.parseRecurrence(),this.parseTransparency()):this.errors.push("The object passed to createCalendarEvent cannot be null.");var a=this.errors.length;return a&&(this.arguments.length=0),0===a},parseDescription:function(){this._processStringValue("description")},parseLocation:function(){this._processStringValue("location")},parseSummary:function(){this._processStringValue("summary")},parseStartAndEndDates:function(){this._processDateValue("start"),this._processDateValue("end")},parseReminder:function(){var a=this._getParameter("reminder");a&&(0>a?(this.arguments.push("relativeReminder"),this.arguments.push(parseInt(a)/1e3)):(this.arguments.push("absoluteReminder"),this.arguments.push(a)))},parseRecurrence:function(){var a=this._getParameter("recurrence");a&&(this.parseRecurrenceInterval(a),this.parseRecurrenceFrequency(a),this.parseRecurrenceEndDate(a),this.parseRecurrenceArrayValue(a,"daysInWeek"),this.parseRecurrenceArrayValue(a,"daysInMonth"),this.parseRecurrenceArrayValue(a,"daysInYear"),this.parseRecurrenceArrayValue(a,"monthsInYear"))},parseTransparency:function(){var a=["opaque","transparent"];if(this.parameters.hasOwnProperty("transparency")){var b=this.parameters.transparency;w(b,a)?(this.arguments.push("transparency"),this.arguments.push(b)):this.errors.push("transparency must be opaque or transparent")}},parseRecurrenceArrayValue:function(a,b){if(a.hasOwnProperty(b)){var c=a[b];if(c&&c instanceof Array){var d=c.join(",");this.arguments.push(b),this.arguments.push(d)}else this.errors.push(b+" must be an array.")}},parseRecurrenceInterval:function(a){if(a.hasOwnProperty("interval")){var b=a.interval;b?(this.arguments.push("interval"),this.arguments.push(b)):this.errors.push("Recurrence interval cannot be null.")}else this.arguments.push("interval"),this.arguments.push(1)},parseRecurrenceFrequency:function(a){if(a.hasOwnProperty("frequency")){var b=a.frequency,c=["daily","weekly","monthly","yearly"];w(b,c)?(this.arguments.push("frequency"),this.arguments.push(b)):this.errors.push('Recurrence frequency must be one of: "daily", "weekly", "monthly", "yearly".')}},parseRecurrenceEndDate:function(a){var b=a.expires;b&&(this.arguments.push("expires"),this.arguments.push(b))},_getParameter:function(a){return this.parameters.hasOwnProperty(a)?this.parameters[a]:null},_processStringValue:function(a){if(this.parameters.hasOwnProperty(a)){var b=this.parameters[a];this.arguments.push(a),this.arguments.push(b)}},_processDateValue:function(a){if(this.parameters.hasOwnProperty(a)){var b=this._getParameter(a);this.arguments.push(a),this.arguments.push(b)}}}}();
\ No newline at end of file
+/*! 3.2.2 - mraid 2026-10-19 */
+(function(){var isIOS=(/iphone|ipad|ipod/i).test(window.navigator.userAgent.toLowerCase());if(isIOS){console={};console.log=function(log){var iframe=document.createElement('iframe');iframe.setAttribute('src','ios-log: '+log);document.documentElement.appendChild(iframe);iframe.parentNode.removeChild(iframe);iframe=null;};console.debug=console.info=console.warn=console.error=console.log;}}());(function(){var mraid=window.mraid={};var bridge=window.mraidbridge={nativeSDKFiredReady:false,nativeCallQueue:[],nativeCallInFlight:false,nativeCallBatch:null,lastSizeChangeProperties:null};bridge.fireChangeEvent=function(properties){for(var p in properties){if(properties.hasOwnProperty(p)){var handler=changeHandlers[p];handler(properties[p]);}}};bridge.nativeCallComplete=function(command){if(this.nativeCallQueue.length===0){this.nativeCallInFlight=false;return;}
+var nextCall=this.nativeCallQueue.shift();window.location=nextCall;};bridge.nativeCallsComplete=function(results){for(var i=0;i<results.length;i++){if(results[i].error){bridge.notifyErrorEvent(results[i].error,results[i].command);}}};bridge.getNativeCommandChannel=function(){var channel=window.mopubMraidCommandChannel;if(channel&&typeof channel.postCommands==='function'){return channel;}
+return null;};bridge.flushNativeCalls=function(){var batch=bridge.nativeCallBatch;bridge.nativeCallBatch=null;var channel=bridge.getNativeCommandChannel();if(channel&&batch&&batch.length>0){channel.postCommands(JSON.stringify(batch));}};bridge.executeNativeCall=function(args){var command=args.shift();if(!this.nativeSDKFiredReady){console.log('rejecting '+command+' because mraid is not ready');bridge.notifyErrorEvent('mraid is not ready',command);return;}
+var key,value;if(this.getNativeCommandChannel()){var params={};for(var j=0;j<args.length;j+=2){key=args[j];value=args[j+1];if(value===null)continue;params[key]=String(value);}
+if(!this.nativeCallBatch){this.nativeCallBatch=[];if(window.Promise){Promise.resolve().then(bridge.flushNativeCalls);}else{setTimeout(bridge.flushNativeCalls,0);}}
+this.nativeCallBatch.push({command:command,params:params});return;}
+var call='mraid://'+command;var isFirstArgument=true;for(var i=0;i<args.length;i+=2){key=args[i];value=args[i+1];if(value===null)continue;if(isFirstArgument){call+='?';isFirstArgument=false;}else{call+='&';}
+call+=encodeURIComponent(key)+'='+encodeURIComponent(value);}
+if(this.nativeCallInFlight){this.nativeCallQueue.push(call);}else{this.nativeCallInFlight=true;window.location=call;}};bridge.setCurrentPosition=function(x,y,width,height){currentPosition={x:x,y:y,width:width,height:height};broadcastEvent(EVENTS.INFO,'Set current position to '+stringify(currentPosition));};bridge.setDefaultPosition=function(x,y,width,height){defaultPosition={x:x,y:y,width:width,height:height};broadcastEvent(EVENTS.INFO,'Set default position to '+stringify(defaultPosition));};bridge.setMaxSize=function(width,height){maxSize={width:width,height:height};expandProperties.width=width;expandProperties.height=height;broadcastEvent(EVENTS.INFO,'Set max size to '+stringify(maxSize));};bridge.setPlacementType=function(_placementType){placementType=_placementType;broadcastEvent(EVENTS.INFO,'Set placement type to '+stringify(placementType));};bridge.setScreenSize=function(width,height){screenSize={width:width,height:height};broadcastEvent(EVENTS.INFO,'Set screen size to '+stringify(screenSize));};bridge.setState=function(_state){state=_state;broadcastEvent(EVENTS.INFO,'Set state to '+stringify(state));broadcastEvent(EVENTS.STATECHANGE,state);};bridge.setIsViewable=function(_isViewable){isViewable=_isViewable;broadcastEvent(EVENTS.INFO,'Set isViewable to '+stringify(isViewable));broadcastEvent(EVENTS.VIEWABLECHANGE,isViewable);};bridge.setSupports=function(sms,tel,calendar,storePicture,inlineVideo){supportProperties={sms:sms,tel:tel,calendar:calendar,storePicture:storePicture,inlineVideo:inlineVideo};};bridge.notifyReadyEvent=function(){this.nativeSDKFiredReady=true;broadcastEvent(EVENTS.READY);};bridge.notifyErrorEvent=function(message,action){broadcastEvent(EVENTS.ERROR,message,action);};bridge.fireReadyEvent=bridge.notifyReadyEvent;bridge.fireErrorEvent=bridge.notifyErrorEvent;bridge.notifySizeChangeEvent=function(width,height){if(this.lastSizeChangeProperties&&width==this.lastSizeChangeProperties.width&&height==this.lastSizeChangeProperties.height){return;}
+this.lastSizeChangeProperties={width:width,height:height};broadcastEvent(EVENTS.SIZECHANGE,width,height);};bridge.notifyStateChangeEvent=function(){if(state===STATES.LOADING){broadcastEvent(EVENTS.INFO,'Native SDK initialized.');}
+broadcastEvent(EVENTS.INFO,'Set state to '+stringify(state));broadcastEvent(EVENTS.STATECHANGE,state);};bridge.notifyViewableChangeEvent=function(){broadcastEvent(EVENTS.INFO,'Set isViewable to '+stringify(isViewable));broadcastEvent(EVENTS.VIEWABLECHANGE,isViewable);};var VERSION=mraid.VERSION='2.0';var STATES=mraid.STATES={LOADING:'loading',DEFAULT:'default',EXPANDED:'expanded',HIDDEN:'hidden',RESIZED:'resized'};var EVENTS=mraid.EVENTS={ERROR:'error',INFO:'info',READY:'ready',STATECHANGE:'stateChange',VIEWABLECHANGE:'viewableChange',SIZECHANGE:'sizeChange'};var PLACEMENT_TYPES=mraid.PLACEMENT_TYPES={UNKNOWN:'unknown',INLINE:'inline',INTERSTITIAL:'interstitial'};var expandProperties={width:false,height:false,useCustomClose:false,isModal:true};var resizeProperties={width:false,height:false,offsetX:false,offsetY:false,customClosePosition:'top-right',allowOffscreen:true};var orientationProperties={allowOrientationChange:true,forceOrientation:"none"};var supportProperties={sms:false,tel:false,calendar:false,storePicture:false,inlineVideo:false};var lastSizeChangeProperties;var maxSize={};var currentPosition={};var defaultPosition={};var screenSize={};var hasSetCustomClose=false;var listeners={};var state=STATES.LOADING;var isViewable=false;var placementType=PLACEMENT_TYPES.UNKNOWN;var hostSDKVersion={'major':0,'minor':0,'patch':0};var EventListeners=function(event){this.event=event;this.count=0;var listeners={};this.add=function(func){var id=String(func);if(!listeners[id]){listeners[id]=func;this.count++;}};this.remove=function(func){var id=String(func);if(listeners[id]){listeners[id]=null;delete listeners[id];this.count--;return true;}else{return false;}};this.removeAll=function(){for(var id in listeners){if(listeners.hasOwnProperty(id))this.remove(listeners[id]);}};this.broadcast=function(args){for(var id in listeners){if(listeners.hasOwnProperty(id))listeners[id].apply(mraid,args);}};this.toString=function(){var out=[event,':'];for(var id in listeners){if(listeners.hasOwnProperty(id))out.push('|',id,'|');}
+return out.join('');};};var broadcastEvent=function(){var args=new Array(arguments.length);var l=arguments.length;for(var i=0;i<l;i++)args[i]=arguments[i];var event=args.shift();if(listeners[event])listeners[event].broadcast(args);};var contains=function(value,array){for(var i in array){if(array[i]===value)return true;}
+return false;};var clone=function(obj){if(obj===null)return null;var f=function(){};f.prototype=obj;return new f();};var stringify=function(obj){if(typeof obj==='object'){var out=[];if(obj.push){for(var p in obj)out.push(obj[p]);return'['+out.join(',')+']';}else{for(var p in obj)out.push("'"+p+"': "+obj[p]);return'{'+out.join(',')+'}';}}else return String(obj);};var trim=function(str){return str.replace(/^\s+|\s+$/g,'');};var changeHandlers={state:function(val){if(state===STATES.LOADING){broadcastEvent(EVENTS.INFO,'Native SDK initialized.');}
+state=val;broadcastEvent(EVENTS.INFO,'Set state to '+stringify(val));broadcastEvent(EVENTS.STATECHANGE,state);},viewable:function(val){isViewable=val;broadcastEvent(EVENTS.INFO,'Set isViewable to '+stringify(val));broadcastEvent(EVENTS.VIEWABLECHANGE,isViewable);},placementType:function(val){broadcastEvent(EVENTS.INFO,'Set placementType to '+stringify(val));placementType=val;},sizeChange:function(val){broadcastEvent(EVENTS.INFO,'Set screenSize to '+stringify(val));for(var key in val){if(val.hasOwnProperty(key))screenSize[key]=val[key];}},supports:function(val){broadcastEvent(EVENTS.INFO,'Set supports to '+stringify(val));supportProperties=val;},hostSDKVersion:function(val){var versions=val.split('.').map(function(version){return parseInt(version,10);}).filter(function(version){return version>=0;});if(versions.length>=3){hostSDKVersion['major']=parseInt(versions[0],10);hostSDKVersion['minor']=parseInt(versions[1],10);hostSDKVersion['patch']=parseInt(versions[2],10);broadcastEvent(EVENTS.INFO,'Set hostSDKVersion to '+stringify(hostSDKVersion));}}};var validate=function(obj,validators,action,merge){if(!merge){if(obj===null){broadcastEvent(EVENTS.ERROR,'Required object not provided.',action);return false;}else{for(var i in validators){if(validators.hasOwnProperty(i)&&obj[i]===undefined){broadcastEvent(EVENTS.ERROR,'Object is missing required property: '+i,action);return false;}}}}
+for(var prop in obj){var validator=validators[prop];var value=obj[prop];if(validator&&!validator(value)){broadcastEvent(EVENTS.ERROR,'Value of property '+prop+' is invalid: '+value,action);return false;}}
+return true;};var expandPropertyValidators={useCustomClose:function(v){return(typeof v==='boolean');},};mraid.addEventListener=function(event,listener){if(!event||!listener){broadcastEvent(EVENTS.ERROR,'Both event and listener are required.','addEventListener');}else if(!contains(event,EVENTS)){broadcastEvent(EVENTS.ERROR,'Unknown MRAID event: '+event,'addEventListener');}else{if(!listeners[event]){listeners[event]=new EventListeners(event);}
+listeners[event].add(listener);}};mraid.close=function(){if(state===STATES.HIDDEN){broadcastEvent(EVENTS.ERROR,'Ad cannot be closed when it is already hidden.','close');}else bridge.executeNativeCall(['close']);};mraid.expand=function(URL){if(!(this.getState()===STATES.DEFAULT||this.getState()===STATES.RESIZED)){broadcastEvent(EVENTS.ERROR,'Ad can only be expanded from the default or resized state.','expand');}else{var args=['expand','shouldUseCustomClose',expandProperties.useCustomClose];if(URL){args=args.concat(['url',URL]);}
+bridge.executeNativeCall(args);}};mraid.getExpandProperties=function(){var properties={width:expandProperties.width,height:expandProperties.height,useCustomClose:expandProperties.useCustomClose,isModal:expandProperties.isModal};return properties;};mraid.getCurrentPosition=function(){return{x:currentPosition.x,y:currentPosition.y,width:currentPosition.width,height:currentPosition.height};};mraid.getDefaultPosition=function(){return{x:defaultPosition.x,y:defaultPosition.y,width:defaultPosition.width,height:defaultPosition.height};};mraid.getMaxSize=function(){return{width:maxSize.width,height:maxSize.height};};mraid.getPlacementType=function(){return placementType;};mraid.getScreenSize=function(){return{width:screenSize.width,height:screenSize.height};};mraid.getState=function(){return state;};mraid.isViewable=function(){return isViewable;};mraid.getVersion=function(){return mraid.VERSION;};mraid.open=function(URL){if(!URL)broadcastEvent(EVENTS.ERROR,'URL is required.','open');else bridge.executeNativeCall(['open','url',URL]);};mraid.removeEventListener=function(event,listener){if(!event){broadcastEvent(EVENTS.ERROR,'Event is required.','removeEventListener');return;}
+if(listener){var success=false;if(listeners[event]){success=listeners[event].remove(listener);}
+if(!success){broadcastEvent(EVENTS.ERROR,'Listener not currently registered for event.','removeEventListener');return;}}else if(!listener&&listeners[event]){listeners[event].removeAll();}
+if(listeners[event]&&listeners[event].count===0){listeners[event]=null;delete listeners[event];}};mraid.setExpandProperties=function(properties){if(validate(properties,expandPropertyValidators,'setExpandProperties',true)){if(properties.hasOwnProperty('useCustomClose')){expandProperties.useCustomClose=properties.useCustomClose;}}};mraid.useCustomClose=function(shouldUseCustomClose){expandProperties.useCustomClose=shouldUseCustomClose;hasSetCustomClose=true;bridge.executeNativeCall(['usecustomclose','shouldUseCustomClose',shouldUseCustomClose]);};mraid.createCalendarEvent=function(parameters){CalendarEventParser.initialize(parameters);if(CalendarEventParser.parse()){bridge.executeNativeCall(CalendarEventParser.arguments);}else{broadcastEvent(EVENTS.ERROR,CalendarEventParser.errors[0],'createCalendarEvent');}};mraid.supports=function(feature){return supportProperties[feature];};mraid.playVideo=function(uri){if(!mraid.isViewable()){broadcastEvent(EVENTS.ERROR,'playVideo cannot be called until the ad is viewable','playVideo');return;}
+if(!uri){broadcastEvent(EVENTS.ERROR,'playVideo must be called with a valid URI','playVideo');}else{bridge.executeNativeCall(['playVideo','uri',uri]);}};mraid.storePicture=function(uri){if(!mraid.isViewable()){broadcastEvent(EVENTS.ERROR,'storePicture cannot be called until the ad is viewable','storePicture');return;}
+if(!uri){broadcastEvent(EVENTS.ERROR,'storePicture must be called with a valid URI','storePicture');}else{bridge.executeNativeCall(['storePicture','uri',uri]);}};var resizePropertyValidators={width:function(v){return!isNaN(v)&&v>0;},height:function(v){return!isNaN(v)&&v>0;},offsetX:function(v){return!isNaN(v);},offsetY:function(v){return!isNaN(v);},customClosePosition:function(v){return(typeof v==='string'&&['top-right','bottom-right','top-left','bottom-left','center','top-center','bottom-center'].indexOf(v)>-1);},allowOffscreen:function(v){return(typeof v==='boolean');}};mraid.setOrientationProperties=function(properties){if(properties.hasOwnProperty('allowOrientationChange')){orientationProperties.allowOrientationChange=properties.allowOrientationChange;}
+if(properties.hasOwnProperty('forceOrientation')){orientationProperties.forceOrientation=properties.forceOrientation;}
+var args=['setOrientationProperties','allowOrientationChange',orientationProperties.allowOrientationChange,'forceOrientation',orientationProperties.forceOrientation];bridge.executeNativeCall(args);};mraid.getOrientationProperties=function(){return{allowOrientationChange:orientationProperties.allowOrientationChange,forceOrientation:orientationProperties.forceOrientation};};mraid.resize=function(){if(!(this.getState()===STATES.DEFAULT||this.getState()===STATES.RESIZED)){broadcastEvent(EVENTS.ERROR,'Ad can only be resized from the default or resized state.','resize');}else if(!resizeProperties.width||!resizeProperties.height){broadcastEvent(EVENTS.ERROR,'Must set resize properties before calling resize()','resize');}else{var args=['resize','width',resizeProperties.width,'height',resizeProperties.height,'offsetX',resizeProperties.offsetX||0,'offsetY',resizeProperties.offsetY||0,'customClosePosition',resizeProperties.customClosePosition,'allowOffscreen',!!resizeProperties.allowOffscreen];bridge.executeNativeCall(args);}};mraid.getResizeProperties=function(){var properties={width:resizeProperties.width,height:resizeProperties.height,offsetX:resizeProperties.offsetX,offsetY:resizeProperties.offsetY,customClosePosition:resizeProperties.customClosePosition,allowOffscreen:resizeProperties.allowOffscreen};return properties;};mraid.setResizeProperties=function(properties){if(validate(properties,resizePropertyValidators,'setResizeProperties',true)){var desiredProperties=['width','height','offsetX','offsetY','customClosePosition','allowOffscreen'];var length=desiredProperties.length;for(var i=0;i<length;i++){var propname=desiredProperties[i];if(properties.hasOwnProperty(propname)){resizeProperties[propname]=properties[propname];}}}};mraid.getHostSDKVersion=function(){return hostSDKVersion;}
+var CalendarEventParser={initialize:function(parameters){this.parameters=parameters;this.errors=[];this.arguments=['createCalendarEvent'];},parse:function(){if(!this.parameters){this.errors.push('The object passed to createCalendarEvent cannot be null.');}else{this.parseDescription();this.parseLocation();this.parseSummary();this.parseStartAndEndDates();this.parseReminder();this.parseRecurrence();this.parseTransparency();}
+var errorCount=this.errors.length;if(errorCount){this.arguments.length=0;}
+return(errorCount===0);},parseDescription:function(){this._processStringValue('description');},parseLocation:function(){this._processStringValue('location');},parseSummary:function(){this._processStringValue('summary');},parseStartAndEndDates:function(){this._processDateValue('start');this._processDateValue('end');},parseReminder:function(){var reminder=this._getParameter('reminder');if(!reminder){return;}
+if(reminder<0){this.arguments.push('relativeReminder');this.arguments.push(parseInt(reminder)/1000);}else{this.arguments.push('absoluteReminder');this.arguments.push(reminder);}},parseRecurrence:function(){var recurrenceDict=this._getParameter('recurrence');if(!recurrenceDict){return;}
+this.parseRecurrenceInterval(recurrenceDict);this.parseRecurrenceFrequency(recurrenceDict);this.parseRecurrenceEndDate(recurrenceDict);this.parseRecurrenceArrayValue(recurrenceDict,'daysInWeek');this.parseRecurrenceArrayValue(recurrenceDict,'daysInMonth');this.parseRecurrenceArrayValue(recurrenceDict,'daysInYear');this.parseRecurrenceArrayValue(recurrenceDict,'monthsInYear');},parseTransparency:function(){var validValues=['opaque','transparent'];if(this.parameters.hasOwnProperty('transparency')){var transparency=this.parameters.transparency;if(contains(transparency,validValues)){this.arguments.push('transparency');this.arguments.push(transparency);}else{this.errors.push('transparency must be opaque or transparent');}}},parseRecurrenceArrayValue:function(recurrenceDict,kind){if(recurrenceDict.hasOwnProperty(kind)){var array=recurrenceDict[kind];if(!array||!(array instanceof Array)){this.errors.push(kind+' must be an array.');}else{var arrayStr=array.join(',');this.arguments.push(kind);this.arguments.push(arrayStr);}}},parseRecurrenceInterval:function(recurrenceDict){if(recurrenceDict.hasOwnProperty('interval')){var interval=recurrenceDict.interval;if(!interval){this.errors.push('Recurrence interval cannot be null.');}else{this.arguments.push('interval');this.arguments.push(interval);}}else{this.arguments.push('interval');this.arguments.push(1);}},parseRecurrenceFrequency:function(recurrenceDict){if(recurrenceDict.hasOwnProperty('frequency')){var frequency=recurrenceDict.frequency;var validFrequencies=['daily','weekly','monthly','yearly'];if(contains(frequency,validFrequencies)){this.arguments.push('frequency');this.arguments.push(frequency);}else{this.errors.push('Recurrence frequency must be one of: "daily", "weekly", "monthly", "yearly".');}}},parseRecurrenceEndDate:function(recurrenceDict){var expires=recurrenceDict.expires;if(!expires){return;}
+this.arguments.push('expires');this.arguments.push(expires);},_getParameter:function(key){if(this.parameters.hasOwnProperty(key)){return this.parameters[key];}
+return null;},_processStringValue:function(kind){if(this.parameters.hasOwnProperty(kind)){var value=this.parameters[kind];this.arguments.push(kind);this.arguments.push(value);}},_processDateValue:function(kind){if(this.parameters.hasOwnProperty(kind)){var dateString=this._getParameter(kind);this.arguments.push(kind);this.arguments.push(dateString);}}};}());
\ No newline at end of file
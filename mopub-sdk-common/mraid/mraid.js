@@ -25,6 +25,7 @@
     nativeSDKFiredReady: false,
     nativeCallQueue: [],
     nativeCallInFlight: false,
+    nativeCallBatch: null,
     lastSizeChangeProperties: null
   };
 
@@ -44,10 +45,38 @@
       return;
     }
 
-    var nextCall = this.nativeCallQueue.pop();
+    var nextCall = this.nativeCallQueue.shift();
     window.location = nextCall;
   };
 
+  // Called by the SDK once a batch sent through the command channel has run. Each result has
+  // the command name and, if the command failed, an error message.
+  bridge.nativeCallsComplete = function(results) {
+    for (var i = 0; i < results.length; i++) {
+      if (results[i].error) {
+        bridge.notifyErrorEvent(results[i].error, results[i].command);
+      }
+    }
+  };
+
+  bridge.getNativeCommandChannel = function() {
+    var channel = window.mopubMraidCommandChannel;
+    if (channel && typeof channel.postCommands === 'function') {
+      return channel;
+    }
+    return null;
+  };
+
+  bridge.flushNativeCalls = function() {
+    var batch = bridge.nativeCallBatch;
+    bridge.nativeCallBatch = null;
+
+    var channel = bridge.getNativeCommandChannel();
+    if (channel && batch && batch.length > 0) {
+      channel.postCommands(JSON.stringify(batch));
+    }
+  };
+
   bridge.executeNativeCall = function(args) {
     var command = args.shift();
 
@@ -57,9 +86,35 @@
         return;
     }
 
+    var key, value;
+
+    // Commands issued in the same script turn are sent to the SDK as one batch. The mraid://
+    // URLs below are only used if the SDK did not add the command channel.
+    if (this.getNativeCommandChannel()) {
+      var params = {};
+      for (var j = 0; j < args.length; j += 2) {
+        key = args[j];
+        value = args[j + 1];
+
+        if (value === null) continue;
+
+        params[key] = String(value);
+      }
+
+      if (!this.nativeCallBatch) {
+        this.nativeCallBatch = [];
+        if (window.Promise) {
+          Promise.resolve().then(bridge.flushNativeCalls);
+        } else {
+          setTimeout(bridge.flushNativeCalls, 0);
+        }
+      }
+      this.nativeCallBatch.push({command: command, params: params});
+      return;
+    }
+
     var call = 'mraid://' + command;
 
-    var key, value;
     var isFirstArgument = true;
 
     for (var i = 0; i < args.length; i += 2) {
@@ -11,6 +11,7 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.AdFormat;
 import com.mopub.common.DataKeys;
 import com.mopub.common.MoPubReward;
 import com.mopub.common.VisibleForTesting;
@@ -92,6 +93,12 @@ public class InlineAdAdapter extends AdAdapter {
         }
     }
 
+    @NonNull
+    @Override
+    AdFormat getAdFormat() {
+        return AdFormat.BANNER;
+    }
+
     void doInvalidate() {
         if (mBaseAd != null) {
             // Base ad classes can be developed by any third party and may not be tested.
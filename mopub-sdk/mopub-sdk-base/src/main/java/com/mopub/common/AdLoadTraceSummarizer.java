@@ -0,0 +1,183 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AdLoadTracer.Listener} that keeps a latency histogram per ad unit and stage. Buckets use
+ * fixed 1-2-5 bounds from 1ms to 30s, so histograms from different devices can be added up by a
+ * metrics backend. Call {@link #snapshotAndReset()} periodically to ship what was collected.
+ *
+ * <pre>
+ * AdLoadTraceSummarizer summarizer = new AdLoadTraceSummarizer();
+ * AdLoadTracer.setListener(summarizer);
+ * ...
+ * Map&lt;String, Map&lt;Stage, Histogram&gt;&gt; histograms = summarizer.snapshotAndReset();
+ * </pre>
+ *
+ * This class is thread safe.
+ */
+public class AdLoadTraceSummarizer implements AdLoadTracer.Listener {
+    /**
+     * Spans without a known ad unit are summarized under this key.
+     */
+    public static final String UNKNOWN_AD_UNIT = "unknown";
+
+    // The last bucket holds everything above the largest bound.
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000, 30000
+    };
+
+    /**
+     * Latency counts for one ad unit and stage.
+     */
+    public static class Histogram {
+        @NonNull private final long[] mCounts;
+        private long mFailureCount;
+        private long mTotalMillis;
+
+        Histogram() {
+            mCounts = new long[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+        }
+
+        Histogram(@NonNull final Histogram other) {
+            mCounts = Arrays.copyOf(other.mCounts, other.mCounts.length);
+            mFailureCount = other.mFailureCount;
+            mTotalMillis = other.mTotalMillis;
+        }
+
+        void add(final long durationMillis, final boolean success) {
+            int index = 0;
+            while (index < BUCKET_UPPER_BOUNDS_MILLIS.length
+                    && durationMillis > BUCKET_UPPER_BOUNDS_MILLIS[index]) {
+                index++;
+            }
+            mCounts[index]++;
+            mTotalMillis += durationMillis;
+            if (!success) {
+                mFailureCount++;
+            }
+        }
+
+        /**
+         * @return upper bound of each bucket in milliseconds. Counts have one more bucket, for
+         * everything above the last bound.
+         */
+        @NonNull
+        public static long[] getBucketUpperBoundsMillis() {
+            return Arrays.copyOf(BUCKET_UPPER_BOUNDS_MILLIS, BUCKET_UPPER_BOUNDS_MILLIS.length);
+        }
+
+        @NonNull
+        public long[] getCounts() {
+            return Arrays.copyOf(mCounts, mCounts.length);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (final long bucketCount : mCounts) {
+                count += bucketCount;
+            }
+            return count;
+        }
+
+        public long getFailureCount() {
+            return mFailureCount;
+        }
+
+        public long getTotalMillis() {
+            return mTotalMillis;
+        }
+
+        /**
+         * @param quantile value between 0 and 1, such as 0.95
+         * @return upper bound of the bucket holding the quantile, {@link Long#MAX_VALUE} if it is
+         * above the last bound, or -1 if the histogram is empty
+         */
+        public long getQuantileMillis(final double quantile) {
+            final long count = getCount();
+            if (count == 0) {
+                return -1;
+            }
+
+            final double target = Math.max(1, Math.ceil(quantile * count));
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++) {
+                cumulativeCount += mCounts[i];
+                if (cumulativeCount >= target) {
+                    return BUCKET_UPPER_BOUNDS_MILLIS[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "count=" + getCount() +
+                    ", failures=" + mFailureCount +
+                    ", p50=" + getQuantileMillis(0.5) +
+                    ", p95=" + getQuantileMillis(0.95);
+        }
+    }
+
+    @NonNull
+    private final Map<String, Map<AdLoadTracer.Stage, Histogram>> mHistograms = new HashMap<>();
+
+    @Override
+    public synchronized void onSpan(@NonNull final AdLoadTracer.Stage stage,
+            @Nullable final String adUnitId, @Nullable final String requestId,
+            final long startUptimeMillis, final long durationMillis, final boolean success) {
+        final String key = adUnitId != null ? adUnitId : UNKNOWN_AD_UNIT;
+        Map<AdLoadTracer.Stage, Histogram> stages = mHistograms.get(key);
+        if (stages == null) {
+            stages = new EnumMap<>(AdLoadTracer.Stage.class);
+            mHistograms.put(key, stages);
+        }
+        Histogram histogram = stages.get(stage);
+        if (histogram == null) {
+            histogram = new Histogram();
+            stages.put(stage, histogram);
+        }
+        histogram.add(durationMillis, success);
+    }
+
+    /**
+     * @return copies of the histograms collected so far, by ad unit ID and stage
+     */
+    @NonNull
+    public synchronized Map<String, Map<AdLoadTracer.Stage, Histogram>> getHistograms() {
+        final Map<String, Map<AdLoadTracer.Stage, Histogram>> copy = new HashMap<>();
+        for (final Map.Entry<String, Map<AdLoadTracer.Stage, Histogram>> entry :
+                mHistograms.entrySet()) {
+            final Map<AdLoadTracer.Stage, Histogram> stages =
+                    new EnumMap<>(AdLoadTracer.Stage.class);
+            for (final Map.Entry<AdLoadTracer.Stage, Histogram> stageEntry :
+                    entry.getValue().entrySet()) {
+                stages.put(stageEntry.getKey(), new Histogram(stageEntry.getValue()));
+            }
+            copy.put(entry.getKey(), Collections.unmodifiableMap(stages));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * @return the histograms collected so far, after which collection starts over
+     */
+    @NonNull
+    public synchronized Map<String, Map<AdLoadTracer.Stage, Histogram>> snapshotAndReset() {
+        final Map<String, Map<AdLoadTracer.Stage, Histogram>> histograms = getHistograms();
+        mHistograms.clear();
+        return histograms;
+    }
+}
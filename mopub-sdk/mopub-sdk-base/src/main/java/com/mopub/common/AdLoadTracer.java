@@ -0,0 +1,268 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.logging.MoPubLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * Records how long each stage of an ad load took. Spans are correlated by the request ID the
+ * server assigns in the {@link com.mopub.network.MultiAdResponse}. Stages that finish before the
+ * response arrives, such as building the request, are recorded once the ID is known.
+ *
+ * The last {@link #CAPACITY} spans are kept in a ring buffer made of parallel arrays, so recording a
+ * span does not allocate. Spans are also handed to the {@link Listener}, if one is set, for
+ * example an {@link AdLoadTraceSummarizer}. This class is thread safe.
+ */
+public class AdLoadTracer {
+
+    public enum Stage {
+        REQUEST_BUILD,
+        NETWORK,
+        PARSE,
+        ADAPTER_LOAD,
+        CREATIVE_DOWNLOAD,
+        RENDER,
+        IMPRESSION;
+
+        private static final Stage[] VALUES = values();
+    }
+
+    /**
+     * Receives every span as it is recorded. Called on the thread that finished the stage, so
+     * implementations must be thread safe and fast.
+     */
+    public interface Listener {
+        void onSpan(@NonNull Stage stage, @Nullable String adUnitId, @Nullable String requestId,
+                long startUptimeMillis, long durationMillis, boolean success);
+    }
+
+    /**
+     * A copy of a recorded span.
+     */
+    public static class Span {
+        @NonNull private final Stage mStage;
+        @Nullable private final String mAdUnitId;
+        @Nullable private final String mRequestId;
+        private final long mStartUptimeMillis;
+        private final long mDurationMillis;
+        private final boolean mSuccess;
+
+        Span(@NonNull final Stage stage, @Nullable final String adUnitId,
+                @Nullable final String requestId, final long startUptimeMillis,
+                final long durationMillis, final boolean success) {
+            mStage = stage;
+            mAdUnitId = adUnitId;
+            mRequestId = requestId;
+            mStartUptimeMillis = startUptimeMillis;
+            mDurationMillis = durationMillis;
+            mSuccess = success;
+        }
+
+        @NonNull
+        public Stage getStage() {
+            return mStage;
+        }
+
+        @Nullable
+        public String getAdUnitId() {
+            return mAdUnitId;
+        }
+
+        @Nullable
+        public String getRequestId() {
+            return mRequestId;
+        }
+
+        public long getStartUptimeMillis() {
+            return mStartUptimeMillis;
+        }
+
+        public long getDurationMillis() {
+            return mDurationMillis;
+        }
+
+        public boolean isSuccess() {
+            return mSuccess;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return mStage + " " + mDurationMillis + "ms" + (mSuccess ? "" : " failed") +
+                    " adUnitId=" + mAdUnitId + " requestId=" + mRequestId;
+        }
+    }
+
+    @VisibleForTesting
+    static final int CAPACITY = 256;
+    private static final int MAX_KNOWN_REQUESTS = 64;
+
+    private static final byte[] sStages = new byte[CAPACITY];
+    private static final String[] sAdUnitIds = new String[CAPACITY];
+    private static final String[] sRequestIds = new String[CAPACITY];
+    private static final long[] sStartUptimeMillis = new long[CAPACITY];
+    private static final long[] sDurationMillis = new long[CAPACITY];
+    private static final boolean[] sSuccess = new boolean[CAPACITY];
+    // Total number of spans recorded. The next span goes to sSpanCount % CAPACITY.
+    private static long sSpanCount;
+
+    // Ad unit of recent request IDs, so later stages only need to know the request ID
+    @NonNull
+    private static final Map<String, String> sAdUnitIdsByRequestId =
+            new LinkedHashMap<String, String>(MAX_KNOWN_REQUESTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+                    return size() > MAX_KNOWN_REQUESTS;
+                }
+            };
+
+    @Nullable private static volatile Listener sListener;
+    private static volatile boolean sLogSpansEnabled;
+
+    private AdLoadTracer() {
+    }
+
+    /**
+     * @return the current time on the clock spans are measured with
+     */
+    public static long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Sets the listener that receives every span from now on, replacing any previous listener.
+     *
+     * @param listener the listener, or null to stop exporting spans
+     */
+    public static void setListener(@Nullable final Listener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * Turns on logging the trace of each ad once its impression is recorded. This is meant for
+     * debugging, so it is off by default.
+     */
+    public static void setLogSpansEnabled(final boolean enabled) {
+        sLogSpansEnabled = enabled;
+    }
+
+    /**
+     * Records a stage that started at startUptimeMillis and finished now.
+     */
+    public static void record(@NonNull final Stage stage, @Nullable final String adUnitId,
+            @Nullable final String requestId, final long startUptimeMillis,
+            final boolean success) {
+        record(stage, adUnitId, requestId, startUptimeMillis, now(), success);
+    }
+
+    /**
+     * Records a stage with the given start and end times, both from {@link #now()}. If adUnitId
+     * is null it is looked up from an earlier span of the same request.
+     */
+    public static void record(@NonNull final Stage stage, @Nullable String adUnitId,
+            @Nullable final String requestId, final long startUptimeMillis,
+            final long endUptimeMillis, final boolean success) {
+        Preconditions.checkNotNull(stage);
+
+        final long durationMillis = Math.max(0, endUptimeMillis - startUptimeMillis);
+        synchronized (AdLoadTracer.class) {
+            if (requestId != null) {
+                if (adUnitId != null) {
+                    sAdUnitIdsByRequestId.put(requestId, adUnitId);
+                } else {
+                    adUnitId = sAdUnitIdsByRequestId.get(requestId);
+                }
+            }
+
+            final int index = (int) (sSpanCount % CAPACITY);
+            sStages[index] = (byte) stage.ordinal();
+            sAdUnitIds[index] = adUnitId;
+            sRequestIds[index] = requestId;
+            sStartUptimeMillis[index] = startUptimeMillis;
+            sDurationMillis[index] = durationMillis;
+            sSuccess[index] = success;
+            sSpanCount++;
+        }
+
+        final Listener listener = sListener;
+        if (listener == null) {
+            return;
+        }
+        // Listeners are supplied by the app and may not be tested.
+        try {
+            listener.onSpan(stage, adUnitId, requestId, startUptimeMillis, durationMillis,
+                    success);
+        } catch (Exception e) {
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Ad load trace listener failed", e);
+        }
+    }
+
+    /**
+     * @return copies of the spans still in the ring buffer, oldest first
+     */
+    @NonNull
+    public static List<Span> getRecentSpans() {
+        return getSpans(null);
+    }
+
+    /**
+     * @return copies of the spans of this request still in the ring buffer, oldest first
+     */
+    @NonNull
+    public static List<Span> getSpans(@Nullable final String requestId) {
+        synchronized (AdLoadTracer.class) {
+            final long first = Math.max(0, sSpanCount - CAPACITY);
+            final List<Span> spans = new ArrayList<>((int) (sSpanCount - first));
+            for (long i = first; i < sSpanCount; i++) {
+                final int index = (int) (i % CAPACITY);
+                if (requestId != null && !requestId.equals(sRequestIds[index])) {
+                    continue;
+                }
+                spans.add(new Span(Stage.VALUES[sStages[index]], sAdUnitIds[index],
+                        sRequestIds[index], sStartUptimeMillis[index], sDurationMillis[index],
+                        sSuccess[index]));
+            }
+            return spans;
+        }
+    }
+
+    /**
+     * Logs the spans of this request, for example once its ad has been shown. Does nothing unless
+     * {@link #setLogSpansEnabled(boolean)} turned it on.
+     */
+    public static void logSpans(@Nullable final String requestId) {
+        if (!sLogSpansEnabled || requestId == null) {
+            return;
+        }
+        MoPubLog.log(CUSTOM, "Ad load trace for request " + requestId + ": " +
+                getSpans(requestId));
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized void clearForTesting() {
+        for (int i = 0; i < CAPACITY; i++) {
+            sAdUnitIds[i] = null;
+            sRequestIds[i] = null;
+        }
+        sSpanCount = 0;
+        sAdUnitIdsByRequestId.clear();
+        sListener = null;
+        sLogSpansEnabled = false;
+    }
+}
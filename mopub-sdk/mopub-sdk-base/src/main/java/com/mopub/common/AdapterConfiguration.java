@@ -11,6 +11,9 @@ import androidx.annotation.Nullable;
 import java.util.Map;
 
 public interface AdapterConfiguration {
+    long DEFAULT_BIDDING_TOKEN_TTL_MILLIS = 5 * 60 * 1000;
+    long DEFAULT_BIDDING_TOKEN_DEADLINE_MILLIS = 1000;
+
     /**
      * Gets the adapter version.
      *
@@ -29,6 +32,29 @@ public interface AdapterConfiguration {
     @Nullable
     String getBiddingToken(@NonNull final Context context);
 
+    /**
+     * How long a token from {@link #getBiddingToken(Context)} may be sent with ad requests before
+     * it is fetched again. Tokens are fetched in the background, never while an ad request is
+     * built.
+     *
+     * @return Time to live of a bidding token in milliseconds.
+     */
+    default long getBiddingTokenTtlMillis() {
+        return DEFAULT_BIDDING_TOKEN_TTL_MILLIS;
+    }
+
+    /**
+     * How long {@link #getBiddingToken(Context)} is expected to take. Slower fetches are counted
+     * as timed out. Once its time to live has passed, a token is only sent this much longer while
+     * a new one is being fetched. A token older than its time to live plus this deadline is never
+     * sent, even if the new one has not arrived yet.
+     *
+     * @return Deadline of a bidding token fetch in milliseconds.
+     */
+    default long getBiddingTokenDeadlineMillis() {
+        return DEFAULT_BIDDING_TOKEN_DEADLINE_MILLIS;
+    }
+
     /**
      * The MoPub-internal name for this particular adapter.
      *
@@ -8,36 +8,49 @@ import android.content.Context;
 import android.os.AsyncTask;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import android.text.TextUtils;
 
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.AsyncTasks;
 import com.mopub.common.util.Reflection;
 import com.mopub.mobileads.MoPubErrorCode;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
-import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR;
 
 /**
- * Gets Advanced Bidders through an Async Task and stores it in memory for retrieval.
+ * Gets Advanced Bidders through an Async Task and stores it in memory for retrieval. Adapter
+ * configurations are initialized in parallel on a small pool, and each one gets its own deadline
+ * so that a slow network SDK does not hold up the others. Advanced bidding tokens are fetched in
+ * the background and read from a {@link BiddingTokenCache}.
  */
 public class AdapterConfigurationManager implements AdapterConfigurationsInitializationListener {
 
-    private static final String TOKEN_KEY = "token";
+    private static final int MAX_INITIALIZATION_THREADS = 4;
+    private static final long INITIALIZATION_THREAD_KEEP_ALIVE_SECONDS = 30;
+    private static final long START_POLL_INTERVAL_MILLIS = 50;
+    static final long DEFAULT_ADAPTER_INITIALIZATION_TIMEOUT_MILLIS = 5 * 1000;
+
+    @Nullable private static Executor sInitializationExecutor;
+    private static volatile long sAdapterInitializationTimeoutMillis =
+            DEFAULT_ADAPTER_INITIALIZATION_TIMEOUT_MILLIS;
 
     @Nullable private volatile Map<String, AdapterConfiguration> mAdapterConfigurations;
+    @Nullable private volatile BiddingTokenCache mBiddingTokenCache;
     @Nullable private SdkInitializationListener mSdkInitializationListener;
 
     AdapterConfigurationManager(
@@ -54,10 +67,15 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
         Preconditions.checkNotNull(networkMediationConfigurations);
         Preconditions.checkNotNull(moPubRequestOptions);
 
+        final Context applicationContext = context.getApplicationContext();
+        final Map<String, AdapterConfiguration> adapterConfigurations = new ConcurrentHashMap<>();
+        final BiddingTokenCache biddingTokenCache = new BiddingTokenCache(applicationContext,
+                adapterConfigurations);
+        mBiddingTokenCache = biddingTokenCache;
         AsyncTasks.safeExecuteOnExecutor(
-                new AdapterConfigurationsInitializationAsyncTask(context.getApplicationContext(),
+                new AdapterConfigurationsInitializationAsyncTask(applicationContext,
                         adapterConfigurationClasses, networkMediationConfigurations,
-                        moPubRequestOptions, this));
+                        moPubRequestOptions, adapterConfigurations, biddingTokenCache, this));
     }
 
     @Nullable
@@ -100,46 +118,31 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
         return abNames;
     }
 
+    /**
+     * @return the cached advanced bidding tokens. This never calls into an adapter, so it is
+     * cheap enough for every ad request.
+     */
     @Nullable
     String getTokensAsJsonString(@NonNull final Context context) {
         Preconditions.checkNotNull(context);
 
-        final JSONObject tokens = getTokensAsJsonObject(context);
-        if (tokens == null) {
+        final Map<String, AdapterConfiguration>
+                adapterConfigurations = mAdapterConfigurations;
+        final BiddingTokenCache biddingTokenCache = mBiddingTokenCache;
+        if (adapterConfigurations == null || adapterConfigurations.isEmpty()
+                || biddingTokenCache == null) {
             return null;
         }
-        return tokens.toString();
+        return biddingTokenCache.getTokensAsJsonString();
     }
 
     @Nullable
-    private JSONObject getTokensAsJsonObject(@NonNull final Context context) {
-        Preconditions.checkNotNull(context);
-
-        final Map<String, AdapterConfiguration>
-                adapterConfigurations = mAdapterConfigurations;
-        if (adapterConfigurations == null || adapterConfigurations.isEmpty()) {
+    BiddingTokenMetrics getBiddingTokenMetrics() {
+        final BiddingTokenCache biddingTokenCache = mBiddingTokenCache;
+        if (mAdapterConfigurations == null || biddingTokenCache == null) {
             return null;
         }
-
-        JSONObject jsonObject = null;
-        for (final AdapterConfiguration adapterConfiguration : adapterConfigurations.values()) {
-            try {
-                final String token = adapterConfiguration.getBiddingToken(context);
-                if (TextUtils.isEmpty(token)) {
-                    continue;
-                }
-                final JSONObject bidderJsonObject = new JSONObject();
-                bidderJsonObject.put(TOKEN_KEY, token);
-                if (jsonObject == null) {
-                    jsonObject = new JSONObject();
-                }
-                jsonObject.put(adapterConfiguration.getMoPubNetworkName(), bidderJsonObject);
-            } catch (JSONException e) {
-                MoPubLog.log(ERROR, "JSON parsing failed for MoPub network name: " +
-                        adapterConfiguration.getMoPubNetworkName());
-            }
-        }
-        return jsonObject;
+        return biddingTokenCache.getMetrics();
     }
 
     @VisibleForTesting
@@ -168,6 +171,16 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
         }
     }
 
+    @Override
+    public void onAdapterInitializationReport(@NonNull final AdapterInitializationReport report) {
+        Preconditions.checkNotNull(report);
+
+        final SdkInitializationListener sdkInitializationListener = mSdkInitializationListener;
+        if (sdkInitializationListener != null) {
+            sdkInitializationListener.onAdapterInitializationReport(report);
+        }
+    }
+
     @Override
     public void onNetworkInitializationFinished(
             @NonNull final Class<? extends AdapterConfiguration> adapterConfigurationClass,
@@ -179,91 +192,290 @@ public class AdapterConfigurationManager implements AdapterConfigurationsInitial
                 moPubErrorCode);
     }
 
+    @VisibleForTesting
+    public static synchronized void setInitializationExecutor(@Nullable final Executor executor) {
+        sInitializationExecutor = executor;
+    }
+
+    @VisibleForTesting
+    static void setAdapterInitializationTimeoutMillis(final long timeoutMillis) {
+        sAdapterInitializationTimeoutMillis = timeoutMillis;
+    }
+
+    @NonNull
+    private static synchronized Executor getInitializationExecutor() {
+        if (sInitializationExecutor == null) {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_INITIALIZATION_THREADS,
+                    MAX_INITIALIZATION_THREADS, INITIALIZATION_THREAD_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+            sInitializationExecutor = executor;
+        }
+        return sInitializationExecutor;
+    }
+
+    /**
+     * Creates and initializes a single adapter configuration. Runs on the initialization pool so
+     * that a slow network SDK only holds up its own adapter.
+     */
+    private static class AdapterInitializationTask implements Runnable,
+            OnNetworkInitializationFinishedListener {
+        @NonNull private final String mAdapterConfigurationClass;
+        @NonNull private final WeakReference<Context> mWeakContext;
+        @Nullable private final Map<String, String> mNetworkMediationConfiguration;
+        @Nullable private final Map<String, String> mMoPubRequestOption;
+        @NonNull private final Map<String, AdapterConfiguration> mAdapterConfigurations;
+        @NonNull private final OnNetworkInitializationFinishedListener mListener;
+        @NonNull private final CountDownLatch mFinishedLatch = new CountDownLatch(1);
+
+        // All times are System.nanoTime values. That is the clock CountDownLatch.await times out
+        // on, so a wait that ends on its timeout has really reached the deadline.
+        private volatile long mStartNanos = -1;
+        private volatile long mReturnedNanos = -1;
+        private volatile long mReportedNanos = -1;
+        @Nullable private volatile MoPubErrorCode mErrorCode;
+        private volatile boolean mFailed;
+
+        AdapterInitializationTask(@NonNull final String adapterConfigurationClass,
+                @NonNull final WeakReference<Context> weakContext,
+                @Nullable final Map<String, String> networkMediationConfiguration,
+                @Nullable final Map<String, String> moPubRequestOption,
+                @NonNull final Map<String, AdapterConfiguration> adapterConfigurations,
+                @NonNull final OnNetworkInitializationFinishedListener listener) {
+            mAdapterConfigurationClass = adapterConfigurationClass;
+            mWeakContext = weakContext;
+            mNetworkMediationConfiguration = networkMediationConfiguration;
+            mMoPubRequestOption = moPubRequestOption;
+            mAdapterConfigurations = adapterConfigurations;
+            mListener = listener;
+        }
+
+        @Override
+        public void run() {
+            mStartNanos = System.nanoTime();
+            try {
+                final AdapterConfiguration adapterConfiguration = initialize();
+                if (adapterConfiguration == null) {
+                    mFailed = true;
+                } else {
+                    // Adapters that run past their deadline are still added once they are ready.
+                    mAdapterConfigurations.put(mAdapterConfigurationClass, adapterConfiguration);
+                }
+            } catch (Exception e) {
+                // Adapter configurations can be developed by any third party and may not be tested.
+                MoPubLog.log(CUSTOM_WITH_THROWABLE,
+                        "Unable to initialize " + mAdapterConfigurationClass, e);
+                mFailed = true;
+            } finally {
+                mReturnedNanos = System.nanoTime();
+                mFinishedLatch.countDown();
+            }
+        }
+
+        @Nullable
+        private AdapterConfiguration initialize() {
+            AdapterConfiguration adapterConfiguration;
+            try {
+                adapterConfiguration = Reflection.instantiateClassWithEmptyConstructor(
+                        mAdapterConfigurationClass, AdapterConfiguration.class);
+            } catch (Exception e) {
+                MoPubLog.log(CUSTOM_WITH_THROWABLE,
+                        "Unable to find class " + mAdapterConfigurationClass, e);
+                return null;
+            }
+
+            final Context context = mWeakContext.get();
+            if (context == null) {
+                MoPubLog.log(CUSTOM,
+                        "Context null. Unable to initialize adapter configuration " +
+                                mAdapterConfigurationClass);
+                return null;
+            }
+
+            // Merge and overwrite configuration from the cache with newly passed in values.
+            // Making a new HashMap here because getCachedInitializationParameters may
+            // return an unmodifiable map.
+            final Map<String, String> mergedParameters = new HashMap<>(
+                    adapterConfiguration.getCachedInitializationParameters(context));
+            if (mNetworkMediationConfiguration != null) {
+                mergedParameters.putAll(mNetworkMediationConfiguration);
+                adapterConfiguration.setCachedInitializationParameters(context,
+                        mergedParameters);
+            }
+
+            if (mMoPubRequestOption != null) {
+                adapterConfiguration.setMoPubRequestOptions(mMoPubRequestOption);
+            }
+
+            MoPubLog.log(CUSTOM, String.format(Locale.US, "Initializing %s version %s " +
+                            "with network sdk version %s and with params %s",
+                    mAdapterConfigurationClass, adapterConfiguration.getAdapterVersion(),
+                    adapterConfiguration.getNetworkSdkVersion(), mergedParameters));
+
+            adapterConfiguration.initializeNetwork(context, mergedParameters, this);
+            return adapterConfiguration;
+        }
+
+        @Override
+        public void onNetworkInitializationFinished(
+                @NonNull final Class<? extends AdapterConfiguration> clazz,
+                @NonNull final MoPubErrorCode moPubErrorCode) {
+            if (mReportedNanos < 0) {
+                mReportedNanos = System.nanoTime();
+                mErrorCode = moPubErrorCode;
+            }
+            mListener.onNetworkInitializationFinished(clazz, moPubErrorCode);
+        }
+
+        /**
+         * Waits until this adapter has returned from initializeNetwork or until its deadline has
+         * passed. The deadline starts when the adapter starts initializing, so time spent queued
+         * behind other adapters does not count against it. No adapter is waited on past
+         * {@code latestDeadlineNanos}, a {@link System#nanoTime()} value.
+         *
+         * @return true if the adapter finished in time
+         */
+        boolean await(final long timeoutMillis, final long latestDeadlineNanos) {
+            try {
+                while (true) {
+                    final long startNanos = mStartNanos;
+                    final long deadlineNanos = startNanos >= 0
+                            ? Math.min(startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis),
+                                    latestDeadlineNanos)
+                            : latestDeadlineNanos;
+                    final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(
+                            deadlineNanos - System.nanoTime());
+                    if (remainingMillis <= 0) {
+                        return mFinishedLatch.getCount() == 0;
+                    }
+                    // Until the adapter starts, check back regularly so its own deadline is used.
+                    final long waitMillis = startNanos >= 0
+                            ? remainingMillis
+                            : Math.min(remainingMillis, START_POLL_INTERVAL_MILLIS);
+                    if (mFinishedLatch.await(waitMillis, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return mFinishedLatch.getCount() == 0;
+            }
+        }
+
+        @NonNull
+        AdapterInitializationReport.Entry getReportEntry(final boolean finishedInTime) {
+            final long startNanos = mStartNanos;
+            final long endNanos;
+            final AdapterInitializationReport.Status status;
+            final MoPubErrorCode errorCode = mErrorCode;
+            if (!finishedInTime) {
+                status = AdapterInitializationReport.Status.TIMED_OUT;
+                endNanos = System.nanoTime();
+            } else {
+                if (mFailed) {
+                    status = AdapterInitializationReport.Status.FAILED;
+                } else if (errorCode == null) {
+                    status = AdapterInitializationReport.Status.PENDING;
+                } else if (errorCode == MoPubErrorCode.ADAPTER_INITIALIZATION_SUCCESS) {
+                    status = AdapterInitializationReport.Status.INITIALIZED;
+                } else {
+                    status = AdapterInitializationReport.Status.FAILED;
+                }
+                endNanos = mReportedNanos >= 0 ? mReportedNanos : mReturnedNanos;
+            }
+            final long durationMillis = startNanos >= 0
+                    ? TimeUnit.NANOSECONDS.toMillis(Math.max(0, endNanos - startNanos))
+                    : 0;
+            return new AdapterInitializationReport.Entry(mAdapterConfigurationClass, status,
+                    durationMillis, errorCode);
+        }
+    }
+
     private static class AdapterConfigurationsInitializationAsyncTask extends AsyncTask<Void, Void, Map<String, AdapterConfiguration>> {
 
         @NonNull private final WeakReference<Context> weakContext;
         @NonNull private final Set<String> adapterConfigurationClasses;
         @NonNull private final Map<String, Map<String, String>> networkMediationConfigurations;
         @NonNull private final Map<String, Map<String, String>> moPubRequestOptions;
+        @NonNull private final Map<String, AdapterConfiguration> adapterConfigurations;
+        @NonNull private final BiddingTokenCache biddingTokenCache;
         @NonNull private final AdapterConfigurationsInitializationListener
                 adapterConfigurationsInitializationListener;
+        @Nullable private AdapterInitializationReport report;
 
         AdapterConfigurationsInitializationAsyncTask(
                 @NonNull final Context context,
                 @NonNull final Set<String> adapterConfigurationClasses,
                 @NonNull final Map<String, Map<String, String>> networkMediationConfigurations,
                 @NonNull final Map<String, Map<String, String>> moPubRequestOptions,
+                @NonNull final Map<String, AdapterConfiguration> adapterConfigurations,
+                @NonNull final BiddingTokenCache biddingTokenCache,
                 @NonNull final AdapterConfigurationsInitializationListener adapterConfigurationsInitializationListener) {
             Preconditions.checkNotNull(context);
             Preconditions.checkNotNull(adapterConfigurationClasses);
             Preconditions.checkNotNull(networkMediationConfigurations);
             Preconditions.checkNotNull(moPubRequestOptions);
+            Preconditions.checkNotNull(adapterConfigurations);
+            Preconditions.checkNotNull(biddingTokenCache);
             Preconditions.checkNotNull(adapterConfigurationsInitializationListener);
 
             this.weakContext = new WeakReference<>(context);
             this.adapterConfigurationClasses = adapterConfigurationClasses;
             this.networkMediationConfigurations = networkMediationConfigurations;
             this.moPubRequestOptions = moPubRequestOptions;
+            this.adapterConfigurations = adapterConfigurations;
+            this.biddingTokenCache = biddingTokenCache;
             this.adapterConfigurationsInitializationListener = adapterConfigurationsInitializationListener;
         }
 
         @Override
         protected Map<String, AdapterConfiguration> doInBackground(final Void... voids) {
-            final Map<String, AdapterConfiguration> adapterConfigurations = new HashMap<>();
+            final List<AdapterInitializationTask> tasks = new ArrayList<>();
+            final Executor executor = getInitializationExecutor();
             for (final String adapterConfigurationClass : adapterConfigurationClasses) {
-                AdapterConfiguration adapterConfiguration;
-                try {
-                    adapterConfiguration = Reflection.instantiateClassWithEmptyConstructor(
-                            adapterConfigurationClass, AdapterConfiguration.class);
-                } catch (Exception e) {
-                    MoPubLog.log(CUSTOM_WITH_THROWABLE,
-                            "Unable to find class " + adapterConfigurationClass, e);
-                    continue;
-                }
-
-                final Context context = weakContext.get();
-                if (context == null) {
-                    MoPubLog.log(CUSTOM,
-                            "Context null. Unable to initialize adapter configuration " +
-                                    adapterConfigurationClass);
-                    continue;
-                }
-
-                // Merge and overwrite configuration from the cache with newly passed in values.
-                final Map<String, String> networkMediationConfiguration =
-                        networkMediationConfigurations.get(adapterConfigurationClass);
-                // Making a new HashMap here because getCachedInitializationParameters may
-                // return an unmodifiable map.
-                final Map<String, String> mergedParameters = new HashMap<>(
-                        adapterConfiguration.getCachedInitializationParameters(context));;
-                if (networkMediationConfiguration != null) {
-                    mergedParameters.putAll(networkMediationConfiguration);
-                    adapterConfiguration.setCachedInitializationParameters(context,
-                            mergedParameters);
-                }
+                final AdapterInitializationTask task = new AdapterInitializationTask(
+                        adapterConfigurationClass, weakContext,
+                        networkMediationConfigurations.get(adapterConfigurationClass),
+                        moPubRequestOptions.get(adapterConfigurationClass),
+                        adapterConfigurations, adapterConfigurationsInitializationListener);
+                tasks.add(task);
+                executor.execute(task);
+            }
 
-                final Map<String, String> moPubRequestOption =
-                        moPubRequestOptions.get(adapterConfigurationClass);
-                if (moPubRequestOption != null) {
-                    adapterConfiguration.setMoPubRequestOptions(moPubRequestOption);
+            // Every adapter gets its own deadline, but adapters that could not even start because
+            // the pool was busy are given up on once all the rounds the pool needs have passed.
+            final long timeoutMillis = sAdapterInitializationTimeoutMillis;
+            final int rounds = Math.max(1,
+                    (tasks.size() + MAX_INITIALIZATION_THREADS - 1) / MAX_INITIALIZATION_THREADS);
+            final long latestDeadlineNanos = System.nanoTime() +
+                    TimeUnit.MILLISECONDS.toNanos(timeoutMillis * rounds);
+
+            final Map<String, AdapterInitializationReport.Entry> entries = new LinkedHashMap<>();
+            for (final AdapterInitializationTask task : tasks) {
+                final boolean finishedInTime = task.await(timeoutMillis, latestDeadlineNanos);
+                if (!finishedInTime) {
+                    MoPubLog.log(CUSTOM, task.mAdapterConfigurationClass + " did not finish " +
+                            "initializing within " + timeoutMillis + "ms. Continuing without it.");
                 }
-
-                MoPubLog.log(CUSTOM, String.format(Locale.US, "Initializing %s version %s " +
-                                "with network sdk version %s and with params %s",
-                        adapterConfigurationClass, adapterConfiguration.getAdapterVersion(),
-                        adapterConfiguration.getNetworkSdkVersion(), mergedParameters));
-
-                adapterConfiguration.initializeNetwork(context, mergedParameters,
-                        adapterConfigurationsInitializationListener);
-
-                adapterConfigurations.put(adapterConfigurationClass, adapterConfiguration);
+                entries.put(task.mAdapterConfigurationClass, task.getReportEntry(finishedInTime));
             }
+            report = new AdapterInitializationReport(entries);
+
+            // Start fetching the first tokens now. Initialization does not wait for them: an ad
+            // request sent before they arrive goes out without tokens, as it would if a bidder
+            // were slow.
+            biddingTokenCache.refresh();
             return adapterConfigurations;
         }
 
         @Override
         protected void onPostExecute(
                 @NonNull final Map<String, AdapterConfiguration> adapterConfigurations) {
+            final AdapterInitializationReport adapterInitializationReport = report;
+            if (adapterInitializationReport != null) {
+                adapterConfigurationsInitializationListener.onAdapterInitializationReport(
+                        adapterInitializationReport);
+            }
             adapterConfigurationsInitializationListener.onAdapterConfigurationsInitialized(
                     adapterConfigurations);
         }
@@ -11,4 +11,6 @@ import java.util.Map;
 interface AdapterConfigurationsInitializationListener extends OnNetworkInitializationFinishedListener{
     void onAdapterConfigurationsInitialized(
             @NonNull final Map<String, AdapterConfiguration> adapterConfigurations);
+
+    void onAdapterInitializationReport(@NonNull final AdapterInitializationReport report);
 }
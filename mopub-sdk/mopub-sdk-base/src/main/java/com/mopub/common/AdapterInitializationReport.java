@@ -0,0 +1,117 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.mobileads.MoPubErrorCode;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How long each adapter configuration took to initialize, and how it ended. Delivered through
+ * {@link SdkInitializationListener#onAdapterInitializationReport(AdapterInitializationReport)}
+ * once every adapter has either finished or run past its deadline.
+ */
+public class AdapterInitializationReport {
+
+    public enum Status {
+        /**
+         * initializeNetwork returned and the network reported success.
+         */
+        INITIALIZED,
+        /**
+         * initializeNetwork returned, but the network has not reported a result yet.
+         */
+        PENDING,
+        /**
+         * The adapter could not be created, threw, or the network reported an error.
+         */
+        FAILED,
+        /**
+         * initializeNetwork did not return before the deadline. It keeps running in the
+         * background and the adapter becomes available once it returns.
+         */
+        TIMED_OUT
+    }
+
+    public static class Entry {
+        @NonNull private final String mAdapterConfigurationClass;
+        @NonNull private final Status mStatus;
+        private final long mDurationMillis;
+        @Nullable private final MoPubErrorCode mErrorCode;
+
+        Entry(@NonNull final String adapterConfigurationClass,
+                @NonNull final Status status,
+                final long durationMillis,
+                @Nullable final MoPubErrorCode errorCode) {
+            Preconditions.checkNotNull(adapterConfigurationClass);
+            Preconditions.checkNotNull(status);
+
+            mAdapterConfigurationClass = adapterConfigurationClass;
+            mStatus = status;
+            mDurationMillis = durationMillis;
+            mErrorCode = errorCode;
+        }
+
+        @NonNull
+        public String getAdapterConfigurationClass() {
+            return mAdapterConfigurationClass;
+        }
+
+        @NonNull
+        public Status getStatus() {
+            return mStatus;
+        }
+
+        /**
+         * @return time from the start of this adapter's initialization until the network reported
+         * its result, or until initializeNetwork returned if no result was reported
+         */
+        public long getDurationMillis() {
+            return mDurationMillis;
+        }
+
+        /**
+         * @return result reported by the network, or null if none was reported yet
+         */
+        @Nullable
+        public MoPubErrorCode getErrorCode() {
+            return mErrorCode;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return mAdapterConfigurationClass + ": " + mStatus + " in " + mDurationMillis + "ms" +
+                    (mErrorCode != null ? " (" + mErrorCode + ")" : "");
+        }
+    }
+
+    @NonNull private final Map<String, Entry> mEntries;
+
+    AdapterInitializationReport(@NonNull final Map<String, Entry> entries) {
+        Preconditions.checkNotNull(entries);
+
+        mEntries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    /**
+     * @return one entry per adapter configuration class name
+     */
+    @NonNull
+    public Map<String, Entry> getEntries() {
+        return mEntries;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "AdapterInitializationReport" + mEntries.values();
+    }
+}
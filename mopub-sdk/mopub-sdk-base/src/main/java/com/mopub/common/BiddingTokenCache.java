@@ -0,0 +1,403 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.logging.MoPubLog;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * Holds the advanced bidding token of every adapter configuration along with a pre-serialized
+ * JSON snapshot of them for ad requests. Tokens are fetched on a small background pool, each
+ * adapter with its own time to live and deadline, so reading the snapshot never calls into an
+ * adapter and one slow bidder can not stall building an ad request.
+ *
+ * While ad requests keep reading tokens, each token is refreshed on a schedule once its time to
+ * live has passed. If nothing read tokens since the last refresh, the schedule stops and the next
+ * read starts it again. A token past its time to live is still served while its replacement is
+ * fetched, but only for the adapter's deadline. After that it is dropped from the snapshot, so a
+ * stale token is never sent however long the replacement takes or however long reads stopped.
+ */
+class BiddingTokenCache {
+
+    private static final String TOKEN_KEY = "token";
+    private static final int MAX_REFRESH_THREADS = 2;
+    private static final long REFRESH_THREAD_KEEP_ALIVE_SECONDS = 30;
+    static final long MIN_TOKEN_TTL_MILLIS = 1000;
+
+    @Nullable private static ScheduledExecutorService sRefreshExecutor;
+
+    @NonNull private final Context mContext;
+    @NonNull private final Map<String, AdapterConfiguration> mAdapterConfigurations;
+    // Guarded by this
+    @NonNull private final Map<String, Entry> mEntries = new LinkedHashMap<>();
+
+    @Nullable private volatile String mTokensJson;
+    private volatile int mEntryCount;
+    private volatile long mNextCheckUptimeMillis;
+    private volatile long mLastReadUptimeMillis = -1;
+
+    /**
+     * @param adapterConfigurations live map of initialized adapter configurations. Adapters that
+     *                              are added later are picked up on the next read.
+     */
+    BiddingTokenCache(@NonNull final Context context,
+            @NonNull final Map<String, AdapterConfiguration> adapterConfigurations) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(adapterConfigurations);
+
+        mContext = context.getApplicationContext();
+        mAdapterConfigurations = adapterConfigurations;
+    }
+
+    /**
+     * Returns the cached tokens as {@code {"networkName": {"token": "..."}}}, or null if there
+     * are none. Never fetches a token itself, but starts background refreshes for tokens that are
+     * due.
+     */
+    @Nullable
+    String getTokensAsJsonString() {
+        final long now = SystemClock.uptimeMillis();
+        mLastReadUptimeMillis = now;
+        if (now >= mNextCheckUptimeMillis || mAdapterConfigurations.size() != mEntryCount) {
+            refreshDue();
+        }
+        return mTokensJson;
+    }
+
+    /**
+     * Starts a background refresh for every token that is due. Does not wait for them.
+     */
+    void refresh() {
+        refreshDue();
+    }
+
+    /**
+     * Starts a refresh for every token that is due and waits until they return, or until their
+     * deadlines pass.
+     */
+    @VisibleForTesting
+    void refreshAndAwait() {
+        final List<Entry> started = refreshDue();
+        if (started.isEmpty()) {
+            return;
+        }
+
+        // Entries that have to wait for a free thread get the rounds the pool needs on top.
+        final int rounds = (started.size() + MAX_REFRESH_THREADS - 1) / MAX_REFRESH_THREADS;
+        final long startNanos = System.nanoTime();
+        synchronized (this) {
+            while (true) {
+                long remainingNanos = 0;
+                for (final Entry entry : started) {
+                    if (entry.mRefreshStartUptimeMillis >= 0) {
+                        remainingNanos = Math.max(remainingNanos, startNanos +
+                                TimeUnit.MILLISECONDS.toNanos(entry.mDeadlineMillis * rounds) -
+                                System.nanoTime());
+                    }
+                }
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remainingNanos);
+                if (remainingMillis <= 0) {
+                    if (isAnyRefreshing(started)) {
+                        MoPubLog.log(CUSTOM, "Continuing without bidding tokens that are " +
+                                "still being fetched.");
+                    }
+                    return;
+                }
+                try {
+                    wait(remainingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @NonNull
+    synchronized BiddingTokenMetrics getMetrics() {
+        final long now = SystemClock.uptimeMillis();
+        final Map<String, BiddingTokenMetrics.Entry> entries = new LinkedHashMap<>();
+        for (final Entry entry : mEntries.values()) {
+            entries.put(entry.mAdapterConfigurationClass, new BiddingTokenMetrics.Entry(
+                    entry.mAdapterConfigurationClass, entry.mNetworkName,
+                    entry.getToken(now) != null,
+                    entry.mFetchedUptimeMillis >= 0 ? now - entry.mFetchedUptimeMillis : -1,
+                    entry.mLastLatencyMillis, entry.mMaxLatencyMillis, entry.mRefreshCount,
+                    entry.mTimeoutCount, entry.mFailureCount,
+                    entry.mRefreshStartUptimeMillis >= 0));
+        }
+        return new BiddingTokenMetrics(entries);
+    }
+
+    @NonNull
+    private List<Entry> refreshDue() {
+        final long now = SystemClock.uptimeMillis();
+        final List<Entry> started = new ArrayList<>();
+        synchronized (this) {
+            for (final Map.Entry<String, AdapterConfiguration> configuration :
+                    mAdapterConfigurations.entrySet()) {
+                Entry entry = mEntries.get(configuration.getKey());
+                if (entry == null) {
+                    entry = new Entry(configuration.getKey(), configuration.getValue());
+                    mEntries.put(configuration.getKey(), entry);
+                }
+                if (entry.isDue(now)) {
+                    entry.mRefreshStartUptimeMillis = now;
+                    started.add(entry);
+                }
+            }
+            mEntryCount = mEntries.size();
+            updateSnapshot(now);
+        }
+
+        final ScheduledExecutorService executor = getRefreshExecutor();
+        for (final Entry entry : started) {
+            try {
+                executor.execute(new RefreshTask(entry));
+            } catch (RejectedExecutionException e) {
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to refresh bidding token for " +
+                        entry.mNetworkName, e);
+                synchronized (this) {
+                    entry.mRefreshStartUptimeMillis = -1;
+                }
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void updateSnapshot(final long now) {
+        final Map<String, String> tokens = new LinkedHashMap<>();
+        long nextCheckUptimeMillis = Long.MAX_VALUE;
+        for (final Entry entry : mEntries.values()) {
+            final String token = entry.getToken(now);
+            if (token != null) {
+                tokens.put(entry.mNetworkName, token);
+            }
+            nextCheckUptimeMillis = Math.min(nextCheckUptimeMillis,
+                    entry.getNextCheckUptimeMillis());
+        }
+        mNextCheckUptimeMillis = nextCheckUptimeMillis;
+
+        if (tokens.isEmpty()) {
+            mTokensJson = null;
+            return;
+        }
+        // Same output as a JSONObject tree, without building one for every ad request.
+        final StringBuilder json = new StringBuilder("{");
+        for (final Map.Entry<String, String> token : tokens.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(JSONObject.quote(token.getKey()))
+                    .append(":{")
+                    .append(JSONObject.quote(TOKEN_KEY))
+                    .append(':')
+                    .append(JSONObject.quote(token.getValue()))
+                    .append('}');
+        }
+        mTokensJson = json.append('}').toString();
+    }
+
+    private static boolean isAnyRefreshing(@NonNull final List<Entry> entries) {
+        for (final Entry entry : entries) {
+            if (entry.mRefreshStartUptimeMillis >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scheduleRefresh(@NonNull final Entry entry, final long refreshStartUptimeMillis) {
+        try {
+            getRefreshExecutor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (mLastReadUptimeMillis < refreshStartUptimeMillis) {
+                        // Nothing read tokens since the last refresh. The next read refreshes.
+                        return;
+                    }
+                    refreshDue();
+                }
+            }, entry.mTtlMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to schedule bidding token refresh for " +
+                    entry.mNetworkName, e);
+        }
+    }
+
+    @VisibleForTesting
+    static synchronized void setRefreshExecutor(
+            @Nullable final ScheduledExecutorService executor) {
+        sRefreshExecutor = executor;
+    }
+
+    @NonNull
+    private static synchronized ScheduledExecutorService getRefreshExecutor() {
+        if (sRefreshExecutor == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                    MAX_REFRESH_THREADS);
+            executor.setKeepAliveTime(REFRESH_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            sRefreshExecutor = executor;
+        }
+        return sRefreshExecutor;
+    }
+
+    private class RefreshTask implements Runnable {
+        @NonNull private final Entry mEntry;
+
+        RefreshTask(@NonNull final Entry entry) {
+            mEntry = entry;
+        }
+
+        @Override
+        public void run() {
+            final long startUptimeMillis = SystemClock.uptimeMillis();
+            final long startNanos = System.nanoTime();
+            String token = null;
+            boolean failed = false;
+            try {
+                token = mEntry.mAdapterConfiguration.getBiddingToken(mContext);
+            } catch (Exception e) {
+                // Adapter configurations can be developed by any third party and may not be tested.
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "Unable to get bidding token for " +
+                        mEntry.mNetworkName, e);
+                failed = true;
+            }
+            final long endUptimeMillis = SystemClock.uptimeMillis();
+            final long latencyMillis = TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - startNanos);
+            final boolean timedOut = latencyMillis > mEntry.mDeadlineMillis;
+            if (timedOut) {
+                MoPubLog.log(CUSTOM, "Fetching the bidding token for " + mEntry.mNetworkName +
+                        " took " + latencyMillis + "ms, past its deadline of " +
+                        mEntry.mDeadlineMillis + "ms.");
+            }
+
+            synchronized (BiddingTokenCache.this) {
+                mEntry.onRefreshed(TextUtils.isEmpty(token) ? null : token, endUptimeMillis,
+                        latencyMillis, timedOut, failed);
+                updateSnapshot(endUptimeMillis);
+                BiddingTokenCache.this.notifyAll();
+            }
+            scheduleRefresh(mEntry, startUptimeMillis);
+        }
+    }
+
+    /**
+     * Token state of one adapter configuration. Mutable fields are guarded by the cache.
+     */
+    private static class Entry {
+        @NonNull final String mAdapterConfigurationClass;
+        @NonNull final AdapterConfiguration mAdapterConfiguration;
+        @NonNull final String mNetworkName;
+        final long mTtlMillis;
+        final long mDeadlineMillis;
+
+        @Nullable String mToken;
+        long mFetchedUptimeMillis = -1;
+        long mAttemptUptimeMillis = -1;
+        long mRefreshStartUptimeMillis = -1;
+        long mLastLatencyMillis = -1;
+        long mMaxLatencyMillis = -1;
+        int mRefreshCount;
+        int mTimeoutCount;
+        int mFailureCount;
+
+        Entry(@NonNull final String adapterConfigurationClass,
+                @NonNull final AdapterConfiguration adapterConfiguration) {
+            mAdapterConfigurationClass = adapterConfigurationClass;
+            mAdapterConfiguration = adapterConfiguration;
+            mNetworkName = adapterConfiguration.getMoPubNetworkName();
+            mTtlMillis = Math.max(MIN_TOKEN_TTL_MILLIS,
+                    adapterConfiguration.getBiddingTokenTtlMillis());
+            mDeadlineMillis = Math.max(0, adapterConfiguration.getBiddingTokenDeadlineMillis());
+        }
+
+        boolean isDue(final long now) {
+            return mRefreshStartUptimeMillis < 0 &&
+                    (mAttemptUptimeMillis < 0 || now - mAttemptUptimeMillis >= mTtlMillis);
+        }
+
+        /**
+         * @return the token to send with ad requests, or null if there is none or it was fetched
+         * more than its time to live plus its deadline ago. Between those two, the token is still
+         * sent while the refresh that replaces it runs.
+         */
+        @Nullable
+        String getToken(final long now) {
+            if (mToken == null || now >= getExpiryUptimeMillis()) {
+                return null;
+            }
+            return mToken;
+        }
+
+        /**
+         * @return when the token stops being sent, or Long.MAX_VALUE if there is no token.
+         */
+        private long getExpiryUptimeMillis() {
+            final long maxAgeMillis = mTtlMillis + mDeadlineMillis;
+            // Adapters can return times to live long enough to overflow.
+            if (mToken == null || maxAgeMillis < 0 ||
+                    maxAgeMillis >= Long.MAX_VALUE - 1 - mFetchedUptimeMillis) {
+                return Long.MAX_VALUE;
+            }
+            return mFetchedUptimeMillis + maxAgeMillis + 1;
+        }
+
+        long getNextCheckUptimeMillis() {
+            if (mRefreshStartUptimeMillis >= 0) {
+                // The refresh in flight updates the snapshot when it returns, unless the token
+                // expires first.
+                return getExpiryUptimeMillis();
+            }
+            return mAttemptUptimeMillis >= 0
+                    ? Math.min(mAttemptUptimeMillis + mTtlMillis, getExpiryUptimeMillis())
+                    : Long.MIN_VALUE;
+        }
+
+        void onRefreshed(@Nullable final String token, final long endUptimeMillis,
+                final long latencyMillis, final boolean timedOut, final boolean failed) {
+            mRefreshStartUptimeMillis = -1;
+            mAttemptUptimeMillis = endUptimeMillis;
+            mLastLatencyMillis = latencyMillis;
+            mMaxLatencyMillis = Math.max(mMaxLatencyMillis, latencyMillis);
+            mRefreshCount++;
+            if (timedOut) {
+                mTimeoutCount++;
+            }
+            if (failed) {
+                // Keep the previous token until a refresh succeeds or it expires.
+                mFailureCount++;
+                return;
+            }
+            mToken = token;
+            mFetchedUptimeMillis = endUptimeMillis;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the advanced bidding token cache: how old the token of each adapter configuration
+ * is, and how long fetching it took. Ad requests only ever read cached tokens, so a slow bidder
+ * shows up here as a high refresh latency instead of as slow ad requests.
+ */
+public class BiddingTokenMetrics {
+
+    public static class Entry {
+        @NonNull private final String mAdapterConfigurationClass;
+        @NonNull private final String mNetworkName;
+        private final boolean mHasToken;
+        private final long mTokenAgeMillis;
+        private final long mLastRefreshLatencyMillis;
+        private final long mMaxRefreshLatencyMillis;
+        private final int mRefreshCount;
+        private final int mTimeoutCount;
+        private final int mFailureCount;
+        private final boolean mRefreshing;
+
+        Entry(@NonNull final String adapterConfigurationClass,
+                @NonNull final String networkName,
+                final boolean hasToken,
+                final long tokenAgeMillis,
+                final long lastRefreshLatencyMillis,
+                final long maxRefreshLatencyMillis,
+                final int refreshCount,
+                final int timeoutCount,
+                final int failureCount,
+                final boolean refreshing) {
+            Preconditions.checkNotNull(adapterConfigurationClass);
+            Preconditions.checkNotNull(networkName);
+
+            mAdapterConfigurationClass = adapterConfigurationClass;
+            mNetworkName = networkName;
+            mHasToken = hasToken;
+            mTokenAgeMillis = tokenAgeMillis;
+            mLastRefreshLatencyMillis = lastRefreshLatencyMillis;
+            mMaxRefreshLatencyMillis = maxRefreshLatencyMillis;
+            mRefreshCount = refreshCount;
+            mTimeoutCount = timeoutCount;
+            mFailureCount = failureCount;
+            mRefreshing = refreshing;
+        }
+
+        @NonNull
+        public String getAdapterConfigurationClass() {
+            return mAdapterConfigurationClass;
+        }
+
+        @NonNull
+        public String getNetworkName() {
+            return mNetworkName;
+        }
+
+        /**
+         * @return true if a token is currently sent with ad requests for this network
+         */
+        public boolean hasToken() {
+            return mHasToken;
+        }
+
+        /**
+         * @return time since the last fetch returned, or -1 if no fetch has returned yet
+         */
+        public long getTokenAgeMillis() {
+            return mTokenAgeMillis;
+        }
+
+        /**
+         * @return how long the last fetch took, or -1 if no fetch has returned yet
+         */
+        public long getLastRefreshLatencyMillis() {
+            return mLastRefreshLatencyMillis;
+        }
+
+        /**
+         * @return the longest any fetch took, or -1 if no fetch has returned yet
+         */
+        public long getMaxRefreshLatencyMillis() {
+            return mMaxRefreshLatencyMillis;
+        }
+
+        public int getRefreshCount() {
+            return mRefreshCount;
+        }
+
+        /**
+         * @return number of fetches that ran past the adapter's deadline
+         */
+        public int getTimeoutCount() {
+            return mTimeoutCount;
+        }
+
+        /**
+         * @return number of fetches that threw
+         */
+        public int getFailureCount() {
+            return mFailureCount;
+        }
+
+        /**
+         * @return true if a fetch is running right now
+         */
+        public boolean isRefreshing() {
+            return mRefreshing;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return mNetworkName + ": " + (mHasToken ? "token" : "no token") +
+                    " aged " + mTokenAgeMillis + "ms, last refresh " + mLastRefreshLatencyMillis +
+                    "ms, max " + mMaxRefreshLatencyMillis + "ms, " + mRefreshCount +
+                    " refreshes, " + mTimeoutCount + " timeouts, " + mFailureCount + " failures" +
+                    (mRefreshing ? ", refreshing" : "");
+        }
+    }
+
+    @NonNull private final Map<String, Entry> mEntries;
+
+    BiddingTokenMetrics(@NonNull final Map<String, Entry> entries) {
+        Preconditions.checkNotNull(entries);
+
+        mEntries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    /**
+     * @return one entry per adapter configuration class name
+     */
+    @NonNull
+    public Map<String, Entry> getEntries() {
+        return mEntries;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "BiddingTokenMetrics" + mEntries.values();
+    }
+}
@@ -0,0 +1,188 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.webkit.CookieManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.AsyncTasks;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * Warms up what a click on an ad that is on screen will need, without requesting anything from
+ * the ad's servers. The host of the click destination is looked up in DNS, which the platform
+ * caches for every network stack on the device, and the first warm-up also loads the WebView
+ * provider used by the in-app browser once the main thread is idle. On click, the browser still
+ * follows the click-through redirects itself, so redirect and tracking servers only ever see
+ * requests for real clicks.
+ *
+ * Only runs when {@link MoPub#isClickDestinationPrefetchEnabled()}. Each host is looked up at
+ * most once per {@link #BUDGET_WINDOW_MILLIS}, at most {@link #MAX_LOOKUPS_PER_WINDOW} hosts are
+ * looked up in that window, and at most {@link #MAX_CONCURRENT_LOOKUPS} lookups run at once.
+ *
+ * All methods must be called on the main thread.
+ */
+public class ClickDestinationPrefetcher {
+    @VisibleForTesting
+    static final long BUDGET_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    @VisibleForTesting
+    static final int MAX_LOOKUPS_PER_WINDOW = 20;
+    @VisibleForTesting
+    static final int MAX_CONCURRENT_LOOKUPS = 2;
+
+    @NonNull private static final Set<String> sLookedUpHosts = new HashSet<>();
+    private static long sWindowStartMillis;
+    private static int sLookupsInFlight;
+    private static boolean sBrowserWarmUpScheduled;
+
+    private ClickDestinationPrefetcher() {
+    }
+
+    /**
+     * Starts warming up the click destination of an ad that is on screen. Does nothing if
+     * prefetching is disabled, the URL would not be opened in the in-app browser, its host was
+     * already looked up in this window, or the budget is used up.
+     *
+     * @param context Any context.
+     * @param clickDestinationUrl The URL that is opened when the ad is clicked. It is never
+     *                            requested.
+     * @return true if a DNS lookup was started
+     */
+    @UiThread
+    public static boolean prefetch(@NonNull final Context context,
+            @Nullable final String clickDestinationUrl) {
+        Preconditions.checkNotNull(context);
+
+        if (!MoPub.isClickDestinationPrefetchEnabled() || TextUtils.isEmpty(clickDestinationUrl)) {
+            return false;
+        }
+        final Uri uri = Uri.parse(clickDestinationUrl);
+        if (!UrlResolutionTask.isResolvable(uri)) {
+            return false;
+        }
+
+        scheduleBrowserWarmUp(context);
+
+        final String host = uri.getHost();
+        if (TextUtils.isEmpty(host)) {
+            return false;
+        }
+
+        rollBudgetWindow();
+        if (sLookedUpHosts.contains(host) || sLookupsInFlight >= MAX_CONCURRENT_LOOKUPS) {
+            return false;
+        }
+        if (sLookedUpHosts.size() >= MAX_LOOKUPS_PER_WINDOW) {
+            MoPubLog.log(CUSTOM, "Click destination prefetch budget used up. Skipping " + host);
+            return false;
+        }
+
+        sLookedUpHosts.add(host);
+        sLookupsInFlight++;
+
+        final LookupTask lookupTask = new LookupTask(host);
+        try {
+            AsyncTasks.safeExecuteOnExecutor(lookupTask);
+        } catch (Exception e) {
+            MoPubLog.log(CUSTOM_WITH_THROWABLE, "Failed to look up click destination host", e);
+            sLookupsInFlight--;
+            return false;
+        }
+        return true;
+    }
+
+    private static void rollBudgetWindow() {
+        final long now = SystemClock.uptimeMillis();
+        if (now - sWindowStartMillis >= BUDGET_WINDOW_MILLIS) {
+            sWindowStartMillis = now;
+            sLookedUpHosts.clear();
+        }
+    }
+
+    /**
+     * Loading the WebView provider takes tens of milliseconds on first use. Doing it while the
+     * main thread is idle keeps that cost out of both scrolling and the click.
+     */
+    private static void scheduleBrowserWarmUp(@NonNull final Context context) {
+        if (sBrowserWarmUpScheduled || MoPub.getBrowserAgent() != MoPub.BrowserAgent.IN_APP) {
+            return;
+        }
+        sBrowserWarmUpScheduled = true;
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                try {
+                    CookieManager.getInstance();
+                } catch (Exception e) {
+                    MoPubLog.log(CUSTOM_WITH_THROWABLE, "Failed to warm up the in-app browser", e);
+                }
+                return false;
+            }
+        });
+    }
+
+    @VisibleForTesting
+    static int getLookupsInWindow() {
+        return sLookedUpHosts.size();
+    }
+
+    @VisibleForTesting
+    static int getLookupsInFlight() {
+        return sLookupsInFlight;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static void clearForTesting() {
+        sLookedUpHosts.clear();
+        sWindowStartMillis = 0;
+        sLookupsInFlight = 0;
+        sBrowserWarmUpScheduled = false;
+    }
+
+    private static class LookupTask extends AsyncTask<Void, Void, Void> {
+        @NonNull private final String mHost;
+
+        LookupTask(@NonNull final String host) {
+            mHost = host;
+        }
+
+        @Nullable
+        @Override
+        protected Void doInBackground(final Void... voids) {
+            try {
+                InetAddress.getAllByName(mHost);
+            } catch (UnknownHostException | SecurityException e) {
+                MoPubLog.log(CUSTOM, "Unable to look up click destination host " + mHost);
+            }
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(@Nullable final Void result) {
+            sLookupsInFlight--;
+        }
+    }
+}
@@ -33,6 +33,18 @@ class CompositeSdkInitializationListener implements SdkInitializationListener {
         mTimes = times;
     }
 
+    @Override
+    public void onAdapterInitializationReport(@NonNull final AdapterInitializationReport report) {
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                if (mSdkInitializationListener != null) {
+                    mSdkInitializationListener.onAdapterInitializationReport(report);
+                }
+            }
+        });
+    }
+
     @Override
     public void onInitializationFinished() {
         mTimes--;
@@ -14,12 +14,14 @@ public class DataKeys {
     public static final String CREATIVE_ORIENTATION_KEY = "com_mopub_orientation";
     public static final String VAST_CLICK_EXP_ENABLED_KEY = "com_mopub_vast_click_exp_enabled";
     public static final String JSON_BODY_KEY = "com_mopub_native_json";
+    public static final String NATIVE_AD_PAYLOAD_KEY = "com_mopub_native_payload";
     public static final String BROADCAST_IDENTIFIER_KEY = "broadcastIdentifier";
     public static final String AD_UNIT_ID_KEY = "com_mopub_ad_unit_id";
     public static final String AD_WIDTH = "com_mopub_ad_width";
     public static final String AD_HEIGHT = "com_mopub_ad_height";
     public static final String ADUNIT_FORMAT = "adunit_format";
     public static final String AD_DATA_KEY = "com_mopub_ad_data";
+    public static final String AD_DATA_HANDLE_KEY = "com_mopub_ad_data_handle";
 
     // Banner imp tracking fields
     public static final String BANNER_IMPRESSION_MIN_VISIBLE_DIPS = "banner-impression-min-pixels";
@@ -0,0 +1,305 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.logging.MoPubLog;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * Attributes main thread time to the periodic tasks the SDK runs there. Each task is timed with
+ * {@link #begin()} and {@link #end(Task, long)}, which only read the clock, so sampling is always
+ * on.
+ *
+ * When a {@link BudgetListener} is set or a workload is being recorded, the time of all tasks
+ * that ran within one frame is added up on the next {@link Choreographer} frame. The frame
+ * callback is only posted when SDK work ran, so idle frames cost nothing. Recorded workloads list
+ * how often each task ran per frame and can be replayed offline to catch regressions.
+ *
+ * All methods except {@link #getStats(Task)} must be called on the main thread.
+ */
+public class MainThreadSampler {
+
+    public enum Task {
+        VIDEO_PROGRESS,
+        VIDEO_COUNTDOWN,
+        CLOSE_BUTTON_COUNTDOWN,
+        REPEATING_TASK,
+        VISIBILITY_PRE_DRAW,
+        VISIBILITY_CHECK,
+        IMPRESSION_POLL,
+        WEBVIEW_CACHE_TRIM;
+
+        private static final Task[] VALUES = values();
+    }
+
+    /**
+     * Called on the main thread after a frame in which SDK tasks used more than the budget.
+     */
+    public interface BudgetListener {
+        void onFrameBudgetExceeded(@NonNull FrameSample frameSample);
+    }
+
+    /**
+     * SDK work done on the main thread within one frame.
+     */
+    public static class FrameSample {
+        private final long mFrameTimeNanos;
+        @NonNull private final long[] mNanosByTask;
+        @NonNull private final int[] mCountsByTask;
+
+        FrameSample(final long frameTimeNanos, @NonNull final long[] nanosByTask,
+                @NonNull final int[] countsByTask) {
+            mFrameTimeNanos = frameTimeNanos;
+            mNanosByTask = Arrays.copyOf(nanosByTask, nanosByTask.length);
+            mCountsByTask = Arrays.copyOf(countsByTask, countsByTask.length);
+        }
+
+        /**
+         * @return the {@link Choreographer} time of the frame that followed the work
+         */
+        public long getFrameTimeNanos() {
+            return mFrameTimeNanos;
+        }
+
+        public long getNanos(@NonNull final Task task) {
+            return mNanosByTask[task.ordinal()];
+        }
+
+        public int getCount(@NonNull final Task task) {
+            return mCountsByTask[task.ordinal()];
+        }
+
+        public long getSdkNanos() {
+            long total = 0;
+            for (final long nanos : mNanosByTask) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder("FrameSample{sdkNanos=")
+                    .append(getSdkNanos());
+            for (final Task task : Task.VALUES) {
+                if (mCountsByTask[task.ordinal()] > 0) {
+                    builder.append(", ").append(task).append('=')
+                            .append(mNanosByTask[task.ordinal()]);
+                }
+            }
+            return builder.append('}').toString();
+        }
+    }
+
+    /**
+     * Totals for one task since the process started.
+     */
+    public static class TaskStats {
+        private final long mCount;
+        private final long mTotalNanos;
+        private final long mMaxNanos;
+
+        TaskStats(final long count, final long totalNanos, final long maxNanos) {
+            mCount = count;
+            mTotalNanos = totalNanos;
+            mMaxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getTotalNanos() {
+            return mTotalNanos;
+        }
+
+        public long getMaxNanos() {
+            return mMaxNanos;
+        }
+    }
+
+    /**
+     * The SDK's share of a 60fps frame.
+     */
+    public static final long DEFAULT_FRAME_BUDGET_MILLIS = 2;
+
+    private static final int TASK_COUNT = Task.VALUES.length;
+
+    private static final long[] sTotalCounts = new long[TASK_COUNT];
+    private static final long[] sTotalNanos = new long[TASK_COUNT];
+    private static final long[] sMaxNanos = new long[TASK_COUNT];
+
+    private static final long[] sFrameNanos = new long[TASK_COUNT];
+    private static final int[] sFrameCounts = new int[TASK_COUNT];
+    private static boolean sFrameCallbackPosted;
+
+    @Nullable private static BudgetListener sBudgetListener;
+    private static long sFrameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET_MILLIS);
+    @Nullable private static StringBuilder sRecording;
+
+    @NonNull
+    private static final Choreographer.FrameCallback sFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(final long frameTimeNanos) {
+                    onFrame(frameTimeNanos);
+                }
+            };
+
+    private MainThreadSampler() {
+    }
+
+    /**
+     * @return the start time to pass to {@link #end(Task, long)}
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Attributes the time since startNanos to the task.
+     */
+    public static void end(@NonNull final Task task, final long startNanos) {
+        final long nanos = System.nanoTime() - startNanos;
+        final int index = task.ordinal();
+
+        synchronized (MainThreadSampler.class) {
+            sTotalCounts[index]++;
+            sTotalNanos[index] += nanos;
+            if (nanos > sMaxNanos[index]) {
+                sMaxNanos[index] = nanos;
+            }
+
+            if (sBudgetListener == null && sRecording == null) {
+                return;
+            }
+            sFrameNanos[index] += nanos;
+            sFrameCounts[index]++;
+        }
+
+        if (!sFrameCallbackPosted) {
+            sFrameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(sFrameCallback);
+        }
+    }
+
+    /**
+     * Sets the listener that is told about frames in which SDK tasks took longer than
+     * frameBudgetMillis in total.
+     *
+     * @param budgetListener the listener, or null to stop checking frames
+     */
+    public static void setBudgetListener(@Nullable final BudgetListener budgetListener,
+            final long frameBudgetMillis) {
+        Preconditions.checkArgument(frameBudgetMillis >= 0);
+
+        synchronized (MainThreadSampler.class) {
+            sBudgetListener = budgetListener;
+            sFrameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(frameBudgetMillis);
+        }
+    }
+
+    /**
+     * Starts recording which tasks run in each frame. Any earlier recording is discarded.
+     */
+    public static synchronized void startRecording() {
+        sRecording = new StringBuilder();
+    }
+
+    /**
+     * Stops recording. Frames that are still pending are not included.
+     *
+     * @return the workload, one frame per line as space separated TASK:count pairs, for
+     * replaying offline
+     */
+    @NonNull
+    public static synchronized String stopRecording() {
+        final String workload = sRecording != null ? sRecording.toString() : "";
+        sRecording = null;
+        return workload;
+    }
+
+    /**
+     * @return totals for the task since the process started
+     */
+    @NonNull
+    public static synchronized TaskStats getStats(@NonNull final Task task) {
+        final int index = task.ordinal();
+        return new TaskStats(sTotalCounts[index], sTotalNanos[index], sMaxNanos[index]);
+    }
+
+    private static void onFrame(final long frameTimeNanos) {
+        final BudgetListener budgetListener;
+        FrameSample frameSample = null;
+        synchronized (MainThreadSampler.class) {
+            sFrameCallbackPosted = false;
+            budgetListener = sBudgetListener;
+
+            if (sRecording != null) {
+                appendFrame(sRecording);
+            }
+
+            long frameNanos = 0;
+            for (final long nanos : sFrameNanos) {
+                frameNanos += nanos;
+            }
+            if (budgetListener != null && frameNanos > sFrameBudgetNanos) {
+                frameSample = new FrameSample(frameTimeNanos, sFrameNanos, sFrameCounts);
+            }
+
+            Arrays.fill(sFrameNanos, 0);
+            Arrays.fill(sFrameCounts, 0);
+        }
+
+        if (budgetListener != null && frameSample != null) {
+            // Listeners are supplied by the app and may not be tested.
+            try {
+                budgetListener.onFrameBudgetExceeded(frameSample);
+            } catch (Exception e) {
+                MoPubLog.log(CUSTOM_WITH_THROWABLE, "Frame budget listener failed", e);
+            }
+        }
+    }
+
+    private static void appendFrame(@NonNull final StringBuilder recording) {
+        boolean first = true;
+        for (final Task task : Task.VALUES) {
+            final int count = sFrameCounts[task.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            if (!first) {
+                recording.append(' ');
+            }
+            recording.append(task.name()).append(':').append(count);
+            first = false;
+        }
+        recording.append('\n');
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized void clearForTesting() {
+        Arrays.fill(sTotalCounts, 0);
+        Arrays.fill(sTotalNanos, 0);
+        Arrays.fill(sMaxNanos, 0);
+        Arrays.fill(sFrameNanos, 0);
+        Arrays.fill(sFrameCounts, 0);
+        sFrameCallbackPosted = false;
+        sBudgetListener = null;
+        sFrameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET_MILLIS);
+        sRecording = null;
+    }
+}
@@ -0,0 +1,261 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.logging.MoPubLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
+
+/**
+ * Keeps track of the memory held by the SDK's caches. Each cache registers a {@link Component}
+ * that reports its retained bytes and can shed some of them on request.
+ *
+ * Once a total budget is set with {@link #setBudgetBytes(long)}, components that grew call
+ * {@link #onRetainedBytesIncreased()} and the largest components are asked to shed until the
+ * total fits again. {@link ComponentCallbacks2#onTrimMemory(int)} shrinks the SDK further the more
+ * pressure the system reports. Only critical levels shed ads that are ready to show.
+ *
+ * Components are held weakly, so registering does not keep them alive. This class must be used
+ * on the main thread.
+ */
+public class MemoryAccountant {
+
+    /**
+     * A cache whose memory is accounted for.
+     */
+    public interface Component {
+        /**
+         * @return the bytes this component retains, estimated where they cannot be measured
+         */
+        long getRetainedBytes();
+
+        /**
+         * Releases up to bytesToFree bytes, oldest or cheapest to rebuild first.
+         *
+         * @param critical true if memory is critically low, in which case loaded ads and
+         *                 in-flight work may be dropped as well
+         * @return the bytes released
+         */
+        long shed(long bytesToFree, boolean critical);
+    }
+
+    /**
+     * Budget used until {@link #setBudgetBytes(long)} is called, meaning no budget.
+     */
+    public static final long NO_BUDGET = Long.MAX_VALUE;
+
+    @NonNull
+    private static final Map<Component, String> sComponents = new WeakHashMap<>();
+    private static long sBudgetBytes = NO_BUDGET;
+    private static boolean sShedding;
+    @Nullable private static Context sCallbacksContext;
+
+    @NonNull
+    private static final ComponentCallbacks2 sComponentCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(final int level) {
+            MemoryAccountant.onTrimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            MemoryAccountant.onTrimMemory(TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull final Configuration newConfig) {
+        }
+    };
+
+    private MemoryAccountant() {
+    }
+
+    /**
+     * Starts accounting for the component. Components with the same name are reported together.
+     */
+    public static synchronized void register(@NonNull final String name,
+            @NonNull final Component component) {
+        Preconditions.checkNotNull(name);
+        Preconditions.checkNotNull(component);
+
+        sComponents.put(component, name);
+    }
+
+    public static synchronized void unregister(@NonNull final Component component) {
+        Preconditions.checkNotNull(component);
+
+        sComponents.remove(component);
+    }
+
+    /**
+     * Starts listening for memory pressure. Only the first call has an effect.
+     */
+    public static synchronized void listenForTrimMemory(@NonNull final Context context) {
+        Preconditions.checkNotNull(context);
+
+        if (sCallbacksContext != null) {
+            return;
+        }
+        final Context applicationContext = context.getApplicationContext();
+        sCallbacksContext = applicationContext != null ? applicationContext : context;
+        sCallbacksContext.registerComponentCallbacks(sComponentCallbacks);
+    }
+
+    /**
+     * Sets the most memory the SDK's caches should retain together and sheds load if they
+     * retain more right now.
+     *
+     * @param budgetBytes the budget, or {@link #NO_BUDGET}
+     */
+    public static void setBudgetBytes(final long budgetBytes) {
+        Preconditions.checkArgument(budgetBytes >= 0);
+
+        synchronized (MemoryAccountant.class) {
+            sBudgetBytes = budgetBytes;
+        }
+        onRetainedBytesIncreased();
+    }
+
+    public static synchronized long getBudgetBytes() {
+        return sBudgetBytes;
+    }
+
+    /**
+     * @return retained bytes by component name
+     */
+    @NonNull
+    public static Map<String, Long> getRetainedBytes() {
+        final Map<String, Long> retainedBytes = new HashMap<>();
+        for (final Map.Entry<Component, String> entry : getComponents().entrySet()) {
+            final Long bytes = retainedBytes.get(entry.getValue());
+            retainedBytes.put(entry.getValue(),
+                    (bytes != null ? bytes : 0) + entry.getKey().getRetainedBytes());
+        }
+        return retainedBytes;
+    }
+
+    public static long getTotalRetainedBytes() {
+        long total = 0;
+        for (final Component component : getComponents().keySet()) {
+            total += component.getRetainedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Called by components after they grew, so the budget can be enforced.
+     */
+    public static void onRetainedBytesIncreased() {
+        final long budgetBytes = getBudgetBytes();
+        if (budgetBytes == NO_BUDGET) {
+            return;
+        }
+        shedTo(budgetBytes, false);
+    }
+
+    @VisibleForTesting
+    static void onTrimMemory(final int level) {
+        final long totalBytes = getTotalRetainedBytes();
+        final long targetBytes;
+        final boolean critical;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            targetBytes = 0;
+            critical = true;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            targetBytes = totalBytes / 4;
+            critical = false;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            targetBytes = totalBytes / 2;
+            critical = false;
+        } else {
+            return;
+        }
+
+        MoPubLog.log(CUSTOM, "Trimming SDK memory for level " + level + ". Retained bytes: " +
+                totalBytes);
+        shedTo(Math.min(targetBytes, getBudgetBytes()), critical);
+    }
+
+    private static void shedTo(final long targetBytes, final boolean critical) {
+        // Shedding can make components call back into onRetainedBytesIncreased.
+        if (sShedding) {
+            return;
+        }
+
+        final List<Component> components = new ArrayList<>(getComponents().keySet());
+        final Map<Component, Long> retainedBytes = new HashMap<>();
+        long totalBytes = 0;
+        for (final Component component : components) {
+            final long bytes = component.getRetainedBytes();
+            retainedBytes.put(component, bytes);
+            totalBytes += bytes;
+        }
+        if (totalBytes <= targetBytes) {
+            return;
+        }
+
+        // Ask the largest components first, they are most likely to free enough on their own.
+        Collections.sort(components, new Comparator<Component>() {
+            @Override
+            public int compare(final Component first, final Component second) {
+                final long firstBytes = retainedBytes.get(first);
+                final long secondBytes = retainedBytes.get(second);
+                return firstBytes < secondBytes ? 1 : (firstBytes == secondBytes ? 0 : -1);
+            }
+        });
+
+        sShedding = true;
+        try {
+            for (final Component component : components) {
+                if (totalBytes <= targetBytes) {
+                    break;
+                }
+                try {
+                    totalBytes -= component.shed(totalBytes - targetBytes, critical);
+                } catch (Exception e) {
+                    MoPubLog.log(CUSTOM_WITH_THROWABLE, "Failed to shed memory", e);
+                }
+            }
+        } finally {
+            sShedding = false;
+        }
+    }
+
+    @NonNull
+    private static synchronized Map<Component, String> getComponents() {
+        return new HashMap<>(sComponents);
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized void clearForTesting() {
+        sComponents.clear();
+        sBudgetBytes = NO_BUDGET;
+        sShedding = false;
+        if (sCallbacksContext != null) {
+            sCallbacksContext.unregisterComponentCallbacks(sComponentCallbacks);
+            sCallbacksContext = null;
+        }
+    }
+}
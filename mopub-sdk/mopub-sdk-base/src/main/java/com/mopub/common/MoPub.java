@@ -7,6 +7,7 @@ package com.mopub.common;
 import android.app.Activity;
 import android.content.Context;
 import android.content.pm.ApplicationInfo;
+import android.os.AsyncTask;
 import android.os.Handler;
 import android.os.Looper;
 import android.text.TextUtils;
@@ -16,8 +17,11 @@ import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 
 import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.privacy.PersonalInfoData;
 import com.mopub.common.privacy.PersonalInfoManager;
+import com.mopub.common.util.AsyncTasks;
 import com.mopub.common.util.Reflection;
+import com.mopub.mobileads.AdLoadLatencyTracker;
 import com.mopub.network.Networking;
 
 import java.lang.reflect.InvocationTargetException;
@@ -73,12 +77,15 @@ public class MoPub {
 
     @NonNull private static volatile BrowserAgent sBrowserAgent = BrowserAgent.IN_APP;
     private static volatile boolean sIsBrowserAgentOverriddenByClient = false;
+    private static volatile boolean sClickDestinationPrefetchEnabled = false;
     private static boolean sSearchedForUpdateActivityMethod = false;
     @Nullable private static Method sUpdateActivityMethod;
     private static boolean sSdkInitialized = false;
     private static boolean sSdkInitializing = false;
     private static AdapterConfigurationManager sAdapterConfigurationManager;
     private static PersonalInfoManager sPersonalInfoManager;
+    @Nullable private static Runnable sPendingPersonalInfoManagerCreation;
+    @Nullable private static volatile SdkInitializationTimings sSdkInitializationTimings;
 
     @NonNull
     public static LocationAwareness getLocationAwareness() {
@@ -138,6 +145,22 @@ public class MoPub {
         return sBrowserAgent;
     }
 
+    /**
+     * Enables warming up the click destinations of native ads while the ads are on screen: the
+     * destination host is looked up in DNS and the in-app browser is loaded ahead of the click.
+     * No request is sent to the click destination or any click tracker before the user clicks.
+     * See {@link ClickDestinationPrefetcher} for the budgets that apply.
+     *
+     * @param enabled true to warm up click destinations
+     */
+    public static void setClickDestinationPrefetchEnabled(final boolean enabled) {
+        sClickDestinationPrefetchEnabled = enabled;
+    }
+
+    public static boolean isClickDestinationPrefetchEnabled() {
+        return sClickDestinationPrefetchEnabled;
+    }
+
     /**
      * Set optional application engine information, for example {'unity', "123"}
      *
@@ -179,6 +202,9 @@ public class MoPub {
         Preconditions.checkNotNull(sdkConfiguration);
 
         MoPubLog.setLogLevel(sdkConfiguration.getLogLevel());
+        if (sdkConfiguration.getAdaptiveTimeoutsEnabled()) {
+            AdLoadLatencyTracker.setAdaptiveTimeoutsEnabled(true);
+        }
 
         MoPubLog.log(INIT_STARTED);
         MoPubLog.log(CUSTOM, "SDK initialize has been called with ad unit: " + sdkConfiguration.getAdUnitId());
@@ -188,13 +214,23 @@ public class MoPub {
                     " was built with target SDK version of " + appInfo.targetSdkVersion);
         }
 
-        ViewabilityManager.activate(context.getApplicationContext());
+        final SdkInitializationTimings timings = new SdkInitializationTimings();
+
+        // Starts reading the SDK settings file in the background.
+        SdkKeyValueStore.getInstance(context);
+
+        // OM SDK has to be activated on the main thread.
+        timings.runStage(SdkInitializationTimings.STAGE_VIEWABILITY,
+                () -> ViewabilityManager.activate(context.getApplicationContext()));
 
         if (context instanceof Activity) {
             final Activity activity = (Activity) context;
             initializeRewardedAd(activity, sdkConfiguration);
         }
 
+        // Lets the SDK's caches give memory back when the system runs low.
+        MemoryAccountant.listenForTrimMemory(context);
+
         if (sSdkInitialized) {
             MoPubLog.log(CUSTOM, "MoPub SDK is already initialized");
             initializationFinished(sdkInitializationListener);
@@ -211,29 +247,59 @@ public class MoPub {
         }
 
         sSdkInitializing = true;
+        sSdkInitializationTimings = timings;
 
-        // Guarantees initialization of the request queue on the main thread.
-        Networking.getRequestQueue(context);
+        // The WebView user agent can only be read on the main thread. Cache it now so that the
+        // request queue built in the background uses it.
+        timings.runStage(SdkInitializationTimings.STAGE_USER_AGENT,
+                () -> Networking.getUserAgent(context.getApplicationContext()));
 
         final InternalSdkInitializationListener internalSdkInitializationListener =
-                new InternalSdkInitializationListener(sdkInitializationListener);
+                new InternalSdkInitializationListener(sdkInitializationListener, timings);
 
         final SdkInitializationListener compositeSdkInitializationListener =
                 new CompositeSdkInitializationListener(internalSdkInitializationListener, 2);
 
-        sPersonalInfoManager = new PersonalInfoManager(context, sdkConfiguration.getAdUnitId(),
-                compositeSdkInitializationListener);
-        sPersonalInfoManager.setAllowLegitimateInterest(sdkConfiguration.getLegitimateInterestAllowed());
-
-        ClientMetadata.getInstance(context);
-
-        sAdapterConfigurationManager = new AdapterConfigurationManager(compositeSdkInitializationListener);
+        // Everything else that does disk or system service work runs in the background. The
+        // PersonalInfoManager is created back on the main thread once its data is loaded, or
+        // earlier if the app asks for it first.
+        final Context appContext = context.getApplicationContext();
+        sPendingPersonalInfoManagerCreation = () -> createPersonalInfoManager(appContext,
+                sdkConfiguration, timings, compositeSdkInitializationListener);
+        AsyncTasks.safeExecuteOnExecutor(new SdkInitializationAsyncTask(appContext, timings));
+
+        final long adapterConfigurationsStartMillis = timings.getElapsedMillis();
+        sAdapterConfigurationManager = new AdapterConfigurationManager(
+                new SdkInitializationListener() {
+                    @Override
+                    public void onInitializationFinished() {
+                        timings.recordStage(SdkInitializationTimings.STAGE_ADAPTER_CONFIGURATIONS,
+                                timings.getElapsedMillis() - adapterConfigurationsStartMillis,
+                                false);
+                        compositeSdkInitializationListener.onInitializationFinished();
+                    }
+
+                    @Override
+                    public void onAdapterInitializationReport(
+                            @NonNull final AdapterInitializationReport report) {
+                        compositeSdkInitializationListener.onAdapterInitializationReport(report);
+                    }
+                });
         sAdapterConfigurationManager.initialize(context,
                 sdkConfiguration.getAdapterConfigurationClasses(),
                 sdkConfiguration.getMediatedNetworkConfigurations(),
                 sdkConfiguration.getMoPubRequestOptions());
     }
 
+    /**
+     * @return time spent in each initialization stage, or null if initializeSdk has not started
+     * initializing the SDK yet
+     */
+    @Nullable
+    public static SdkInitializationTimings getSdkInitializationTimings() {
+        return sSdkInitializationTimings;
+    }
+
     /**
      * @return true if SDK is initialized.
      */
@@ -282,12 +348,17 @@ public class MoPub {
     }
 
     /**
-     * Gets the consent manager for handling user data.
+     * Gets the consent manager for handling user data. If the SDK is still initializing, calling
+     * this on the main thread creates the manager right away instead of waiting for its data to
+     * be loaded in the background.
      *
      * @return A PersonalInfoManager that handles consent management.
      */
     @Nullable
     public static PersonalInfoManager getPersonalInformationManager() {
+        if (sPersonalInfoManager == null && Looper.getMainLooper() == Looper.myLooper()) {
+            createPendingPersonalInfoManager();
+        }
         return sPersonalInfoManager;
     }
 
@@ -363,6 +434,19 @@ public class MoPub {
         return null;
     }
 
+    /**
+     * @return age and refresh latency of the advanced bidding token of every adapter
+     * configuration, or null if the SDK has not finished initializing
+     */
+    @Nullable
+    public static BiddingTokenMetrics getBiddingTokenMetrics() {
+        final AdapterConfigurationManager configurationManager = sAdapterConfigurationManager;
+        if (configurationManager != null) {
+            return configurationManager.getBiddingTokenMetrics();
+        }
+        return null;
+    }
+
     private static void initializeRewardedAd(@NonNull Activity activity, @NonNull SdkConfiguration sdkConfiguration) {
         Preconditions.checkNotNull(activity);
         Preconditions.checkNotNull(sdkConfiguration);
@@ -395,16 +479,100 @@ public class MoPub {
         });
     }
 
+    /**
+     * Runs the PersonalInfoManager creation queued by initializeSdk, at most once. Only call this
+     * on the main thread.
+     */
+    private static void createPendingPersonalInfoManager() {
+        final Runnable creation = sPendingPersonalInfoManagerCreation;
+        sPendingPersonalInfoManagerCreation = null;
+        if (creation != null) {
+            creation.run();
+        }
+    }
+
+    private static void createPersonalInfoManager(@NonNull final Context context,
+            @NonNull final SdkConfiguration sdkConfiguration,
+            @NonNull final SdkInitializationTimings timings,
+            @NonNull final SdkInitializationListener sdkInitializationListener) {
+        if (sPersonalInfoManager != null) {
+            // Already provided, nothing left to wait for.
+            sPersonalInfoManager.setAllowLegitimateInterest(sdkConfiguration.getLegitimateInterestAllowed());
+            sdkInitializationListener.onInitializationFinished();
+            return;
+        }
+
+        timings.runStage(SdkInitializationTimings.STAGE_PERSONAL_INFO_MANAGER, () -> {
+            final PersonalInfoManager personalInfoManager = new PersonalInfoManager(context,
+                    sdkConfiguration.getAdUnitId(), sdkInitializationListener);
+            personalInfoManager.setAllowLegitimateInterest(sdkConfiguration.getLegitimateInterestAllowed());
+            sPersonalInfoManager = personalInfoManager;
+        });
+    }
+
+    /**
+     * Builds the request queue, client metadata, and loads the privacy data from disk in the
+     * background, then creates the PersonalInfoManager on the main thread.
+     */
+    private static class SdkInitializationAsyncTask extends AsyncTask<Void, Void, Void> {
+        @NonNull private final Context mAppContext;
+        @NonNull private final SdkInitializationTimings mTimings;
+
+        SdkInitializationAsyncTask(@NonNull final Context appContext,
+                @NonNull final SdkInitializationTimings timings) {
+            mAppContext = appContext;
+            mTimings = timings;
+        }
+
+        @Override
+        protected Void doInBackground(final Void... voids) {
+            try {
+                mTimings.runStage(SdkInitializationTimings.STAGE_REQUEST_QUEUE,
+                        () -> Networking.getRequestQueue(mAppContext));
+                mTimings.runStage(SdkInitializationTimings.STAGE_CLIENT_METADATA,
+                        () -> ClientMetadata.getInstance(mAppContext));
+                mTimings.runStage(SdkInitializationTimings.STAGE_SETTINGS,
+                        () -> SdkKeyValueStore.getInstance(mAppContext).awaitLoaded());
+                mTimings.runStage(SdkInitializationTimings.STAGE_PERSONAL_INFO_DATA,
+                        () -> SharedPreferencesHelper.getSharedPreferences(mAppContext,
+                                PersonalInfoData.PERSONAL_INFO_DATA_SHARED_PREFS).getAll());
+            } catch (Exception e) {
+                // Each of these is created again on first use, so a failure here only costs time.
+                MoPubLog.log(ERROR_WITH_THROWABLE, "Error while initializing the SDK in the background", e);
+            }
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(final Void unused) {
+            createPendingPersonalInfoManager();
+        }
+    }
+
     private static class InternalSdkInitializationListener implements SdkInitializationListener {
         @Nullable
         private SdkInitializationListener mSdkInitializationListener;
+        @NonNull
+        private final SdkInitializationTimings mTimings;
 
-        InternalSdkInitializationListener(@Nullable SdkInitializationListener sdkInitializationListener) {
+        InternalSdkInitializationListener(@Nullable SdkInitializationListener sdkInitializationListener,
+                @NonNull final SdkInitializationTimings timings) {
             mSdkInitializationListener = sdkInitializationListener;
+            mTimings = timings;
+        }
+
+        @Override
+        public void onAdapterInitializationReport(@NonNull final AdapterInitializationReport report) {
+            MoPubLog.log(CUSTOM, "Adapter initialization timings: " + report);
+            if (mSdkInitializationListener != null) {
+                mSdkInitializationListener.onAdapterInitializationReport(report);
+            }
         }
 
         @Override
         public void onInitializationFinished() {
+            mTimings.finish();
+            MoPubLog.log(CUSTOM, "SDK initialization timings: " + mTimings);
             final AdapterConfigurationManager adapterConfigurationManager = sAdapterConfigurationManager;
             if (adapterConfigurationManager != null) {
                 MoPubLog.log(INIT_FINISHED, adapterConfigurationManager.getAdapterConfigurationInfo());
@@ -448,6 +616,8 @@ public class MoPub {
     static void resetMoPub() {
         sAdapterConfigurationManager = null;
         sPersonalInfoManager = null;
+        sPendingPersonalInfoManagerCreation = null;
+        sSdkInitializationTimings = null;
         sSdkInitialized = false;
         sSdkInitializing = false;
     }
@@ -61,6 +61,11 @@ public class SdkConfiguration {
      */
     private final boolean mLegitimateInterestAllowed;
 
+    /**
+     * Whether ad load timeouts are shortened based on how long each network has taken to load.
+     */
+    private final boolean mAdaptiveTimeoutsEnabled;
+
     /**
      * Holds data for SDK initialization. Do not call this constructor directly; use the Builder.
      */
@@ -70,7 +75,8 @@ public class SdkConfiguration {
             @NonNull final LogLevel logLevel,
             @NonNull final Map<String, Map<String, String>> mediatedNetworkConfigurations,
             @NonNull final Map<String, Map<String, String>> moPubRequestOptions,
-            final boolean legitimateInterestAllowed) {
+            final boolean legitimateInterestAllowed,
+            final boolean adaptiveTimeoutsEnabled) {
         Preconditions.checkNotNull(adUnitId);
         Preconditions.checkNotNull(adapterConfigurationClasses);
         Preconditions.checkNotNull(mediatedNetworkConfigurations);
@@ -83,6 +89,7 @@ public class SdkConfiguration {
         mMediatedNetworkConfigurations = mediatedNetworkConfigurations;
         mMoPubRequestOptions = moPubRequestOptions;
         mLegitimateInterestAllowed = legitimateInterestAllowed;
+        mAdaptiveTimeoutsEnabled = adaptiveTimeoutsEnabled;
     }
 
     @NonNull
@@ -118,6 +125,10 @@ public class SdkConfiguration {
         return mLegitimateInterestAllowed;
     }
 
+    public boolean getAdaptiveTimeoutsEnabled() {
+        return mAdaptiveTimeoutsEnabled;
+    }
+
     public static class Builder {
         @NonNull private String adUnitId;
         @NonNull private final Set<String> adapterConfigurations;
@@ -126,6 +137,7 @@ public class SdkConfiguration {
         @NonNull private final Map<String, Map<String, String>> mediatedNetworkConfigurations;
         @NonNull private final Map<String, Map<String, String>> moPubRequestOptions;
         private boolean legitimateInterestAllowed;
+        private boolean adaptiveTimeoutsEnabled;
 
         /**
          * Use this builder instead of creating a new SdkConfiguration. This Builder needs any ad
@@ -150,6 +162,7 @@ public class SdkConfiguration {
             mediatedNetworkConfigurations = new HashMap<>();
             moPubRequestOptions = new HashMap<>();
             legitimateInterestAllowed = false;
+            adaptiveTimeoutsEnabled = false;
         }
 
         /**
@@ -242,9 +255,26 @@ public class SdkConfiguration {
             return this;
         }
 
+        /**
+         * Turns on adaptive ad load timeouts. Once a network has loaded enough ads of a format,
+         * its loads time out shortly after the time most of them took, instead of at the
+         * server's timeout. Disabled by default.
+         * Adaptive timeouts can also be turned on or off at any time with
+         * {@link com.mopub.mobileads.AdLoadLatencyTracker#setAdaptiveTimeoutsEnabled(boolean)}.
+         *
+         * @param adaptiveTimeoutsEnabled should be true to turn adaptive timeouts on. False leaves
+         *                                the current setting.
+         * @return The builder.
+         */
+        public Builder withAdaptiveTimeoutsEnabled(final boolean adaptiveTimeoutsEnabled) {
+            this.adaptiveTimeoutsEnabled = adaptiveTimeoutsEnabled;
+            return this;
+        }
+
         public SdkConfiguration build() {
             return new SdkConfiguration(adUnitId, adapterConfigurations, mediationSettings,
-                    logLevel, mediatedNetworkConfigurations, moPubRequestOptions, legitimateInterestAllowed);
+                    logLevel, mediatedNetworkConfigurations, moPubRequestOptions, legitimateInterestAllowed,
+                    adaptiveTimeoutsEnabled);
         }
     }
 }
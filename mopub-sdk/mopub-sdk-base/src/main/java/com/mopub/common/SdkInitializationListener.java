@@ -6,10 +6,19 @@ package com.mopub.common;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
+
 /**
  * Called when Sdk initialization completes from
  * {@link MoPub#initializeSdk(Context, SdkConfiguration, SdkInitializationListener)}
  */
 public interface SdkInitializationListener {
     void onInitializationFinished();
+
+    /**
+     * Called on the main thread before {@link #onInitializationFinished()} with the time each
+     * adapter configuration took to initialize.
+     */
+    default void onAdapterInitializationReport(@NonNull final AdapterInitializationReport report) {
+    }
 }
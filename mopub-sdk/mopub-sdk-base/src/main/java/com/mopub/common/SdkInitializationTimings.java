@@ -0,0 +1,116 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.mopub.common.logging.MoPubLog;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Time spent in each stage of {@link MoPub#initializeSdk(android.content.Context,
+ * SdkConfiguration, SdkInitializationListener)}. Stages that ran on the main thread are tracked
+ * separately so the cost to app start up can be read directly.
+ */
+public class SdkInitializationTimings {
+    public static final String STAGE_VIEWABILITY = "viewability";
+    public static final String STAGE_USER_AGENT = "user_agent";
+    public static final String STAGE_REQUEST_QUEUE = "request_queue";
+    public static final String STAGE_CLIENT_METADATA = "client_metadata";
+    public static final String STAGE_SETTINGS = "settings";
+    public static final String STAGE_PERSONAL_INFO_DATA = "personal_info_data";
+    public static final String STAGE_PERSONAL_INFO_MANAGER = "personal_info_manager";
+    public static final String STAGE_ADAPTER_CONFIGURATIONS = "adapter_configurations";
+
+    @NonNull
+    private final Map<String, Long> mStageDurationsMillis = new LinkedHashMap<>();
+    private final long mStartUptimeMillis;
+    private long mMainThreadMillis;
+    private long mTotalMillis = -1;
+
+    SdkInitializationTimings() {
+        mStartUptimeMillis = SystemClock.uptimeMillis();
+    }
+
+    long getElapsedMillis() {
+        return SystemClock.uptimeMillis() - mStartUptimeMillis;
+    }
+
+    /**
+     * Runs the stage on the calling thread and records how long it took.
+     */
+    void runStage(@NonNull final String stage, @NonNull final Runnable runnable) {
+        Preconditions.checkNotNull(stage);
+        Preconditions.checkNotNull(runnable);
+
+        final long start = SystemClock.uptimeMillis();
+        try {
+            runnable.run();
+        } finally {
+            recordStage(stage, SystemClock.uptimeMillis() - start,
+                    Looper.getMainLooper() == Looper.myLooper());
+        }
+    }
+
+    /**
+     * @param onMainThread true if the stage blocked the main thread for its whole duration
+     */
+    synchronized void recordStage(@NonNull final String stage, final long durationMillis,
+            final boolean onMainThread) {
+        mStageDurationsMillis.put(stage, durationMillis);
+        if (onMainThread) {
+            mMainThreadMillis += durationMillis;
+        }
+        MoPubLog.log(CUSTOM, "SDK initialization stage " + stage + " took " + durationMillis +
+                "ms" + (onMainThread ? " on the main thread." : " in the background."));
+    }
+
+    synchronized void finish() {
+        if (mTotalMillis < 0) {
+            mTotalMillis = getElapsedMillis();
+        }
+    }
+
+    /**
+     * @return duration of each stage in milliseconds, in the order the stages finished
+     */
+    @NonNull
+    public synchronized Map<String, Long> getStageDurationsMillis() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(mStageDurationsMillis));
+    }
+
+    /**
+     * @return total time spent blocking the main thread
+     */
+    public synchronized long getMainThreadMillis() {
+        return mMainThreadMillis;
+    }
+
+    /**
+     * @return time from the call to initializeSdk until initialization finished, or -1 if it has
+     * not finished yet
+     */
+    public synchronized long getTotalMillis() {
+        return mTotalMillis;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return "SdkInitializationTimings{" +
+                "stages=" + mStageDurationsMillis +
+                ", mainThreadMillis=" + mMainThreadMillis +
+                ", totalMillis=" + mTotalMillis +
+                '}';
+    }
+}
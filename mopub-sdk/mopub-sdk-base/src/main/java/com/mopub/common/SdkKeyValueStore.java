@@ -0,0 +1,783 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.AtomicFile;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import com.mopub.common.logging.MoPubLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static android.content.Context.MODE_PRIVATE;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR_WITH_THROWABLE;
+
+/**
+ * Holds every SDK preference group in memory and persists them together in one binary file.
+ *
+ * The file is read once, in the background, when the store is first used. Reads wait for that
+ * load and are served from memory afterwards. Writes update memory right away and are coalesced
+ * into a single atomic file write {@link #WRITE_DELAY_MILLIS} after the first of them, or as soon
+ * as the app goes to the background. Editor.commit() writes right away on the calling thread,
+ * and {@link #flushInBackground()} starts a write without waiting for it.
+ *
+ * A group that is not in the file yet is imported from the SharedPreferences file of the same
+ * name the first time it is used. Importing alone does not write the file. The old file is deleted
+ * once a write has saved the group.
+ *
+ * Each group is exposed as a {@link SharedPreferences} so existing callers do not change.
+ */
+public class SdkKeyValueStore {
+    static final String FILE_NAME = "mopub_settings.bin";
+    static final long WRITE_DELAY_MILLIS = 500;
+
+    private static final int MAGIC = 0x4d505356;
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_FLOAT = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_STRING_SET = 5;
+
+    @Nullable private static volatile SdkKeyValueStore sInstance;
+    @Nullable private static ScheduledExecutorService sExecutor;
+
+    @NonNull private final Context mAppContext;
+    @NonNull private final AtomicFile mFile;
+    @NonNull private final ScheduledExecutorService mExecutor;
+    @NonNull private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // Guards everything below, and is notified once loading finishes.
+    @NonNull private final Object mLock = new Object();
+    @NonNull private final Map<String, Map<String, Object>> mGroups = new HashMap<>();
+    @NonNull private final Set<String> mImportedGroups = new HashSet<>();
+    // Imported groups whose SharedPreferences file can be deleted once the next write succeeds.
+    @NonNull private final Set<String> mLegacyGroupsToDelete = new HashSet<>();
+    @NonNull private final Map<String, Preferences> mPreferences = new HashMap<>();
+    private boolean mLoaded;
+    private boolean mWriteScheduled;
+    private long mGeneration;
+    private long mWrittenGeneration;
+    private long mLoadMillis = -1;
+    private long mImportMillis;
+
+    // Serializes file writes so an older snapshot never replaces a newer one.
+    @NonNull private final Object mWriteLock = new Object();
+
+    @NonNull
+    public static SdkKeyValueStore getInstance(@NonNull final Context context) {
+        Preconditions.checkNotNull(context);
+
+        SdkKeyValueStore store = sInstance;
+        if (store == null) {
+            synchronized (SdkKeyValueStore.class) {
+                store = sInstance;
+                if (store == null) {
+                    final Context appContext = context.getApplicationContext();
+                    store = new SdkKeyValueStore(appContext,
+                            new File(appContext.getFilesDir(), FILE_NAME));
+                    store.startLoading();
+                    store.flushWhenBackgrounded();
+                    sInstance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    private SdkKeyValueStore(@NonNull final Context appContext, @NonNull final File file) {
+        this(appContext, file, getExecutor());
+    }
+
+    @VisibleForTesting
+    SdkKeyValueStore(@NonNull final Context appContext, @NonNull final File file,
+            @NonNull final ScheduledExecutorService executor) {
+        mAppContext = appContext;
+        mFile = new AtomicFile(file);
+        mExecutor = executor;
+    }
+
+    /**
+     * @return the group with the given name. Reading from it blocks until the store is loaded.
+     */
+    @NonNull
+    public SharedPreferences getPreferences(@NonNull final String group) {
+        Preconditions.checkNotNull(group);
+
+        synchronized (mLock) {
+            Preferences preferences = mPreferences.get(group);
+            if (preferences == null) {
+                preferences = new Preferences(group);
+                mPreferences.put(group, preferences);
+            }
+            return preferences;
+        }
+    }
+
+    /**
+     * Blocks until the file has been read.
+     */
+    public void awaitLoaded() {
+        synchronized (mLock) {
+            boolean interrupted = false;
+            while (!mLoaded) {
+                try {
+                    mLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return time spent reading and decoding the file, or -1 if it has not been loaded yet
+     */
+    public long getLoadMillis() {
+        synchronized (mLock) {
+            return mLoadMillis;
+        }
+    }
+
+    /**
+     * @return total time spent importing groups from their SharedPreferences files
+     */
+    public long getImportMillis() {
+        synchronized (mLock) {
+            return mImportMillis;
+        }
+    }
+
+    /**
+     * Writes every pending change to disk on the calling thread.
+     *
+     * @return true if the file is up to date
+     */
+    public boolean flush() {
+        awaitLoaded();
+
+        synchronized (mWriteLock) {
+            final byte[] bytes;
+            final long generation;
+            final List<String> legacyGroupsToDelete;
+            synchronized (mLock) {
+                mWriteScheduled = false;
+                if (mGeneration == mWrittenGeneration) {
+                    return true;
+                }
+                generation = mGeneration;
+                legacyGroupsToDelete = new ArrayList<>(mLegacyGroupsToDelete);
+                try {
+                    bytes = encode();
+                } catch (IOException e) {
+                    MoPubLog.log(ERROR_WITH_THROWABLE, "Unable to encode SDK settings", e);
+                    return false;
+                }
+            }
+
+            FileOutputStream outputStream = null;
+            try {
+                outputStream = mFile.startWrite();
+                outputStream.write(bytes);
+                mFile.finishWrite(outputStream);
+            } catch (IOException e) {
+                if (outputStream != null) {
+                    mFile.failWrite(outputStream);
+                }
+                MoPubLog.log(ERROR_WITH_THROWABLE, "Unable to write SDK settings", e);
+                return false;
+            }
+
+            synchronized (mLock) {
+                mWrittenGeneration = generation;
+                mLegacyGroupsToDelete.removeAll(legacyGroupsToDelete);
+            }
+            for (final String group : legacyGroupsToDelete) {
+                deleteLegacyPreferences(group);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes pending changes in the background right away, instead of waiting for the write
+     * delay. Does not block the calling thread.
+     */
+    public void flushInBackground() {
+        synchronized (mLock) {
+            if (mGeneration == mWrittenGeneration) {
+                return;
+            }
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        });
+    }
+
+    /**
+     * The process may be killed at any time once the app is in the background.
+     */
+    @VisibleForTesting
+    void onAppBackgrounded() {
+        flushInBackground();
+    }
+
+    private void flushWhenBackgrounded() {
+        // Lifecycle observers have to be added on the main thread.
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                ProcessLifecycleOwner.get().getLifecycle().addObserver(
+                        (LifecycleEventObserver) (source, event) -> {
+                            if (event == Lifecycle.Event.ON_STOP) {
+                                onAppBackgrounded();
+                            }
+                        });
+            }
+        });
+    }
+
+    private void deleteLegacyPreferences(@NonNull final String group) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            mAppContext.deleteSharedPreferences(group);
+            return;
+        }
+        final File directory = new File(mAppContext.getApplicationInfo().dataDir, "shared_prefs");
+        final File file = new File(directory, group + ".xml");
+        if (!file.delete() && file.exists()) {
+            MoPubLog.log(CUSTOM, "Unable to delete imported SDK settings " + file);
+        }
+        new File(directory, group + ".xml.bak").delete();
+    }
+
+    private void startLoading() {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    @VisibleForTesting
+    void load() {
+        final long start = SystemClock.uptimeMillis();
+        byte[] bytes = null;
+        try {
+            bytes = mFile.readFully();
+        } catch (FileNotFoundException e) {
+            // Nothing has been written yet. Groups are imported as they are used.
+        } catch (IOException e) {
+            MoPubLog.log(ERROR_WITH_THROWABLE, "Unable to read SDK settings", e);
+        }
+
+        synchronized (mLock) {
+            if (bytes != null) {
+                try {
+                    decode(bytes);
+                } catch (IOException e) {
+                    MoPubLog.log(ERROR_WITH_THROWABLE, "Ignoring corrupt SDK settings", e);
+                    mGroups.clear();
+                    mImportedGroups.clear();
+                    mLegacyGroupsToDelete.clear();
+                }
+            }
+            mLoadMillis = SystemClock.uptimeMillis() - start;
+            mLoaded = true;
+            mLock.notifyAll();
+        }
+        MoPubLog.log(CUSTOM, "Loaded SDK settings in " + mLoadMillis + "ms.");
+    }
+
+    /**
+     * @return the values of the group, importing them if needed. Must hold mLock.
+     */
+    @NonNull
+    private Map<String, Object> getGroupLocked(@NonNull final String group) {
+        Map<String, Object> values = mGroups.get(group);
+        if (values != null) {
+            return values;
+        }
+
+        values = new HashMap<>();
+        mGroups.put(group, values);
+        if (mImportedGroups.add(group)) {
+            final long start = SystemClock.uptimeMillis();
+            final Map<String, ?> legacyValues =
+                    mAppContext.getSharedPreferences(group, MODE_PRIVATE).getAll();
+            for (final Map.Entry<String, ?> entry : legacyValues.entrySet()) {
+                values.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            final long importMillis = SystemClock.uptimeMillis() - start;
+            mImportMillis += importMillis;
+            MoPubLog.log(CUSTOM, "Imported " + values.size() + " SDK settings from " + group +
+                    " in " + importMillis + "ms.");
+            // Reading the group does not change it, so it is saved with the next real write.
+            if (!legacyValues.isEmpty()) {
+                mLegacyGroupsToDelete.add(group);
+            }
+        }
+        return values;
+    }
+
+    private void onChangedLocked() {
+        mGeneration++;
+        if (!mWriteScheduled) {
+            mWriteScheduled = true;
+            mExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Nullable
+    private static Object copyValue(@Nullable final Object value) {
+        if (value instanceof Set) {
+            return Collections.unmodifiableSet(new HashSet<>((Set<?>) value));
+        }
+        return value;
+    }
+
+    /**
+     * Must hold mLock.
+     */
+    @NonNull
+    private byte[] encode() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(mImportedGroups.size());
+        for (final String group : mImportedGroups) {
+            writeString(out, group);
+        }
+
+        out.writeInt(mGroups.size());
+        for (final Map.Entry<String, Map<String, Object>> group : mGroups.entrySet()) {
+            writeString(out, group.getKey());
+            out.writeInt(group.getValue().size());
+            for (final Map.Entry<String, Object> entry : group.getValue().entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Must hold mLock.
+     */
+    private void decode(@NonNull final byte[] bytes) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an SDK settings file.");
+        }
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported SDK settings version " + version);
+        }
+
+        final int importedCount = readCount(in);
+        for (int i = 0; i < importedCount; i++) {
+            mImportedGroups.add(readString(in));
+        }
+
+        final int groupCount = readCount(in);
+        for (int i = 0; i < groupCount; i++) {
+            final String group = readString(in);
+            final int entryCount = readCount(in);
+            final Map<String, Object> values = new HashMap<>();
+            for (int j = 0; j < entryCount; j++) {
+                final String key = readString(in);
+                values.put(key, readValue(in));
+            }
+            mGroups.put(group, values);
+        }
+    }
+
+    private static void writeValue(@NonNull final DataOutputStream out,
+            @NonNull final Object value) throws IOException {
+        if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Set) {
+            out.writeByte(TYPE_STRING_SET);
+            final Set<?> set = (Set<?>) value;
+            out.writeInt(set.size());
+            for (final Object item : set) {
+                writeString(out, (String) item);
+            }
+        } else {
+            throw new IOException("Unsupported value type " + value.getClass());
+        }
+    }
+
+    @NonNull
+    private static Object readValue(@NonNull final DataInputStream in) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_STRING_SET:
+                final int size = readCount(in);
+                final Set<String> set = new HashSet<>();
+                for (int i = 0; i < size; i++) {
+                    set.add(readString(in));
+                }
+                return Collections.unmodifiableSet(set);
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private static void writeString(@NonNull final DataOutputStream out,
+            @NonNull final String value) throws IOException {
+        // DataOutputStream.writeUTF is limited to 64KB, which some consent strings can exceed.
+        final byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @NonNull
+    private static String readString(@NonNull final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readCount(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int readCount(@NonNull final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Invalid length " + count);
+        }
+        return count;
+    }
+
+    @NonNull
+    private static synchronized ScheduledExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "MoPubSettings");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    public static void clearForTesting() {
+        sInstance = null;
+    }
+
+    private class Preferences implements SharedPreferences {
+        @NonNull private final String mGroup;
+        // Guarded by mLock
+        @NonNull private final WeakHashMap<OnSharedPreferenceChangeListener, Object> mListeners =
+                new WeakHashMap<>();
+
+        Preferences(@NonNull final String group) {
+            mGroup = group;
+        }
+
+        @NonNull
+        private Map<String, Object> values() {
+            awaitLoaded();
+            return getGroupLocked(mGroup);
+        }
+
+        @Override
+        public Map<String, ?> getAll() {
+            synchronized (mLock) {
+                return new HashMap<>(values());
+            }
+        }
+
+        @Nullable
+        @Override
+        public String getString(final String key, @Nullable final String defValue) {
+            synchronized (mLock) {
+                final String value = (String) values().get(key);
+                return value != null ? value : defValue;
+            }
+        }
+
+        @Nullable
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<String> getStringSet(final String key, @Nullable final Set<String> defValues) {
+            synchronized (mLock) {
+                final Set<String> value = (Set<String>) values().get(key);
+                return value != null ? value : defValues;
+            }
+        }
+
+        @Override
+        public int getInt(final String key, final int defValue) {
+            synchronized (mLock) {
+                final Integer value = (Integer) values().get(key);
+                return value != null ? value : defValue;
+            }
+        }
+
+        @Override
+        public long getLong(final String key, final long defValue) {
+            synchronized (mLock) {
+                final Long value = (Long) values().get(key);
+                return value != null ? value : defValue;
+            }
+        }
+
+        @Override
+        public float getFloat(final String key, final float defValue) {
+            synchronized (mLock) {
+                final Float value = (Float) values().get(key);
+                return value != null ? value : defValue;
+            }
+        }
+
+        @Override
+        public boolean getBoolean(final String key, final boolean defValue) {
+            synchronized (mLock) {
+                final Boolean value = (Boolean) values().get(key);
+                return value != null ? value : defValue;
+            }
+        }
+
+        @Override
+        public boolean contains(final String key) {
+            synchronized (mLock) {
+                return values().containsKey(key);
+            }
+        }
+
+        @Override
+        public Editor edit() {
+            return new StoreEditor(this);
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(
+                final OnSharedPreferenceChangeListener listener) {
+            synchronized (mLock) {
+                mListeners.put(listener, this);
+            }
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(
+                final OnSharedPreferenceChangeListener listener) {
+            synchronized (mLock) {
+                mListeners.remove(listener);
+            }
+        }
+
+        private void notifyListeners(@NonNull final List<String> changedKeys) {
+            final List<OnSharedPreferenceChangeListener> listeners;
+            synchronized (mLock) {
+                if (mListeners.isEmpty() || changedKeys.isEmpty()) {
+                    return;
+                }
+                listeners = new ArrayList<>(mListeners.keySet());
+            }
+
+            final Runnable notification = new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = changedKeys.size() - 1; i >= 0; i--) {
+                        for (final OnSharedPreferenceChangeListener listener : listeners) {
+                            listener.onSharedPreferenceChanged(Preferences.this,
+                                    changedKeys.get(i));
+                        }
+                    }
+                }
+            };
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                notification.run();
+            } else {
+                mMainHandler.post(notification);
+            }
+        }
+    }
+
+    private class StoreEditor implements SharedPreferences.Editor {
+        @NonNull private final Preferences mPreferences;
+        @NonNull private final Object mEditLock = new Object();
+        // A value of this editor means the key is removed.
+        @NonNull private final Map<String, Object> mModified = new HashMap<>();
+        private boolean mClear;
+
+        StoreEditor(@NonNull final Preferences preferences) {
+            mPreferences = preferences;
+        }
+
+        @Override
+        public SharedPreferences.Editor putString(final String key,
+                @Nullable final String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putStringSet(final String key,
+                @Nullable final Set<String> values) {
+            return put(key, values == null ? null : copyValue(values));
+        }
+
+        @Override
+        public SharedPreferences.Editor putInt(final String key, final int value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putLong(final String key, final long value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putFloat(final String key, final float value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor putBoolean(final String key, final boolean value) {
+            return put(key, value);
+        }
+
+        @Override
+        public SharedPreferences.Editor remove(final String key) {
+            return put(key, null);
+        }
+
+        @Override
+        public SharedPreferences.Editor clear() {
+            synchronized (mEditLock) {
+                mClear = true;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            commitToMemory();
+            return flush();
+        }
+
+        @Override
+        public void apply() {
+            commitToMemory();
+        }
+
+        @NonNull
+        private SharedPreferences.Editor put(final String key, @Nullable final Object value) {
+            synchronized (mEditLock) {
+                mModified.put(key, value == null ? this : value);
+            }
+            return this;
+        }
+
+        private void commitToMemory() {
+            final List<String> changedKeys = new ArrayList<>();
+            synchronized (mLock) {
+                final Map<String, Object> values = mPreferences.values();
+                synchronized (mEditLock) {
+                    if (mClear) {
+                        changedKeys.addAll(values.keySet());
+                        values.clear();
+                        mClear = false;
+                    }
+                    for (final Map.Entry<String, Object> entry : mModified.entrySet()) {
+                        final String key = entry.getKey();
+                        final Object value = entry.getValue();
+                        if (value == this) {
+                            if (values.remove(key) == null) {
+                                continue;
+                            }
+                        } else if (value.equals(values.put(key, value))) {
+                            continue;
+                        }
+                        if (!changedKeys.contains(key)) {
+                            changedKeys.add(key);
+                        }
+                    }
+                    mModified.clear();
+                }
+                if (!changedKeys.isEmpty()) {
+                    onChangedLocked();
+                }
+            }
+            mPreferences.notifyListeners(changedKeys);
+        }
+    }
+}
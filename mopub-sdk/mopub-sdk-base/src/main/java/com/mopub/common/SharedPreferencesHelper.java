@@ -8,8 +8,6 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import androidx.annotation.NonNull;
 
-import static android.content.Context.MODE_PRIVATE;
-
 public final class SharedPreferencesHelper {
     public static final String DEFAULT_PREFERENCE_NAME = "mopubSettings";
 
@@ -17,10 +15,14 @@ public final class SharedPreferencesHelper {
         SharedPreferences getSharedPreferences(@NonNull final Context context, @NonNull final String preferenceName);
     }
 
+    /**
+     * Serves every SDK preference group from {@link SdkKeyValueStore}, which imports the
+     * SharedPreferences file of the same name the first time a group is used.
+     */
     public static CanGetPreferences IMPL = new CanGetPreferences() {
         @Override
         public SharedPreferences getSharedPreferences(@NonNull Context context, @NonNull String preferenceName) {
-            return context.getSharedPreferences(preferenceName, MODE_PRIVATE);
+            return SdkKeyValueStore.getInstance(context).getPreferences(preferenceName);
         }
     };
 
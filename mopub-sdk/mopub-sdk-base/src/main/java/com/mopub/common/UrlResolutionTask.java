@@ -6,11 +6,13 @@ package com.mopub.common;
 
 import android.net.Uri;
 import android.os.AsyncTask;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.common.util.AsyncTasks;
+import com.mopub.common.util.Streams;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,23 +20,118 @@ import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM_WITH_THROWABLE;
 
+/**
+ * Follows the redirects of a click-through URL in the background.
+ *
+ * Connections are released without calling {@link HttpURLConnection#disconnect()} whenever the
+ * response body is small enough to drain, so the platform's connection pool keeps them alive and
+ * later hops to the same host skip DNS, TCP and TLS setup. All hops together must finish within
+ * {@link #RESOLUTION_DEADLINE_MILLIS}. Resolved chains are cached for
+ * {@link #CACHE_TTL_MILLIS}, so clicking the same creative again resolves immediately.
+ */
 @VisibleForTesting
 public class UrlResolutionTask extends AsyncTask<String, Void, String> {
     private static final int REDIRECT_LIMIT = 10;
 
+    @VisibleForTesting
+    static final long RESOLUTION_DEADLINE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    @VisibleForTesting
+    static final long CACHE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    @VisibleForTesting
+    static final int CACHE_SIZE = 32;
+
+    /**
+     * Response bodies up to this size are read to the end so the connection can be reused.
+     * Larger ones are not worth the transfer, so their connection is closed instead.
+     */
+    private static final int MAX_DRAIN_BYTES = 8 * 1024;
+
     interface UrlResolutionListener {
         void onSuccess(@NonNull final String resolvedUrl);
         void onFailure(@NonNull final String message, @Nullable final Throwable throwable);
     }
 
+    /**
+     * The hops followed for one URL and how long each took.
+     */
+    static class RedirectChain {
+        static class Hop {
+            @NonNull final String mUrl;
+            final int mResponseCode;
+            final long mDurationMillis;
+
+            Hop(@NonNull final String url, final int responseCode, final long durationMillis) {
+                mUrl = url;
+                mResponseCode = responseCode;
+                mDurationMillis = durationMillis;
+            }
+
+            @NonNull
+            @Override
+            public String toString() {
+                return mResponseCode + " " + mDurationMillis + "ms " + mUrl;
+            }
+        }
+
+        @NonNull final String mResolvedUrl;
+        @NonNull final List<Hop> mHops;
+        final long mResolvedUptimeMillis;
+
+        RedirectChain(@NonNull final String resolvedUrl, @NonNull final List<Hop> hops,
+                final long resolvedUptimeMillis) {
+            mResolvedUrl = resolvedUrl;
+            mHops = Collections.unmodifiableList(new ArrayList<>(hops));
+            mResolvedUptimeMillis = resolvedUptimeMillis;
+        }
+
+        long getTotalMillis() {
+            long total = 0;
+            for (final Hop hop : mHops) {
+                total += hop.mDurationMillis;
+            }
+            return total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "RedirectChain{resolvedUrl=" + mResolvedUrl +
+                    ", totalMillis=" + getTotalMillis() +
+                    ", hops=" + mHops + "}";
+        }
+    }
+
+    @NonNull
+    private static final Map<String, RedirectChain> sResolvedChains =
+            new LinkedHashMap<String, RedirectChain>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<String, RedirectChain> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
     @NonNull private final UrlResolutionListener mListener;
 
     public static void getResolvedUrl(@NonNull final String urlString,
             @NonNull final UrlResolutionListener listener) {
+        final RedirectChain cachedChain = getCachedChain(urlString);
+        if (cachedChain != null) {
+            MoPubLog.log(CUSTOM, "Using cached redirects for " + urlString);
+            listener.onSuccess(cachedChain.mResolvedUrl);
+            return;
+        }
+
         final UrlResolutionTask urlResolutionTask = new UrlResolutionTask(listener);
 
         try {
@@ -44,6 +141,56 @@ public class UrlResolutionTask extends AsyncTask<String, Void, String> {
         }
     }
 
+    /**
+     * @return the redirect chain resolved for this URL within the last {@link #CACHE_TTL_MILLIS},
+     * or null if there is none or the URL would no longer be resolved in the app (for example
+     * because the browser agent changed)
+     */
+    @Nullable
+    static RedirectChain getCachedChain(@Nullable final String urlString) {
+        if (urlString == null) {
+            return null;
+        }
+        if (!isResolvable(Uri.parse(urlString))) {
+            return null;
+        }
+        synchronized (sResolvedChains) {
+            final RedirectChain chain = sResolvedChains.get(urlString);
+            if (chain == null) {
+                return null;
+            }
+            if (SystemClock.uptimeMillis() - chain.mResolvedUptimeMillis > CACHE_TTL_MILLIS) {
+                sResolvedChains.remove(urlString);
+                return null;
+            }
+            return chain;
+        }
+    }
+
+    /**
+     * Only http(s) URLs that will be opened in the in-app browser have their redirects followed.
+     * Anything else, such as deep links or URLs for the native browser, is handed off as is.
+     */
+    static boolean isResolvable(@NonNull final Uri uri) {
+        return UrlAction.OPEN_IN_APP_BROWSER.shouldTryHandlingUrl(uri)
+                && !UrlAction.OPEN_NATIVE_BROWSER.shouldTryHandlingUrl(uri);
+    }
+
+    static void cacheChain(@NonNull final String urlString,
+            @NonNull final RedirectChain chain) {
+        synchronized (sResolvedChains) {
+            sResolvedChains.put(urlString, chain);
+        }
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static void clearForTesting() {
+        synchronized (sResolvedChains) {
+            sResolvedChains.clear();
+        }
+    }
+
     UrlResolutionTask(@NonNull UrlResolutionListener listener) {
         mListener = listener;
     }
@@ -55,25 +202,51 @@ public class UrlResolutionTask extends AsyncTask<String, Void, String> {
             return null;
         }
 
+        final RedirectChain chain = resolve(urls[0]);
+        return chain != null ? chain.mResolvedUrl : null;
+    }
+
+    /**
+     * Follows the redirects of the URL on the calling thread. Chains that needed at least one
+     * request are cached.
+     *
+     * @return the resolved chain, or null if resolution failed or ran past the deadline
+     */
+    @Nullable
+    static RedirectChain resolve(@Nullable final String urlString) {
+        final long deadlineNanos = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(RESOLUTION_DEADLINE_MILLIS);
+        final List<RedirectChain.Hop> hops = new ArrayList<>();
+
         String previousUrl = null;
         try {
-            String locationUrl = urls[0];
+            String locationUrl = urlString;
 
             int redirectCount = 0;
             while (locationUrl != null && redirectCount < REDIRECT_LIMIT) {
+                final Uri locationUri = Uri.parse(locationUrl);
+
                 // if location url is not http(s), assume it's an Android deep link
                 // this scheme will fail URL validation so we have to check early
-                if (!UrlAction.OPEN_IN_APP_BROWSER.shouldTryHandlingUrl(Uri.parse(locationUrl))) {
-                    return locationUrl;
+                if (!UrlAction.OPEN_IN_APP_BROWSER.shouldTryHandlingUrl(locationUri)) {
+                    return finishChain(urlString, locationUrl, hops);
                 }
 
                 // Do not resolve redirects if native browser will handle the URL.
-                if (UrlAction.OPEN_NATIVE_BROWSER.shouldTryHandlingUrl(Uri.parse(locationUrl))) {
-                    return locationUrl;
+                if (UrlAction.OPEN_NATIVE_BROWSER.shouldTryHandlingUrl(locationUri)) {
+                    return finishChain(urlString, locationUrl, hops);
+                }
+
+                final long remainingMillis =
+                        TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    MoPubLog.log(CUSTOM, "Redirect resolution passed its " +
+                            RESOLUTION_DEADLINE_MILLIS + "ms deadline after " + hops);
+                    return null;
                 }
 
                 previousUrl = locationUrl;
-                locationUrl = getRedirectLocation(locationUrl);
+                locationUrl = getRedirectLocation(locationUrl, (int) remainingMillis, hops);
                 redirectCount++;
             }
         } catch (IOException | NullPointerException | URISyntaxException e) {
@@ -82,35 +255,87 @@ public class UrlResolutionTask extends AsyncTask<String, Void, String> {
             return null;
         }
 
-        return previousUrl;
+        return previousUrl != null ? finishChain(urlString, previousUrl, hops) : null;
+    }
+
+    @NonNull
+    private static RedirectChain finishChain(@Nullable final String urlString,
+            @NonNull final String resolvedUrl, @NonNull final List<RedirectChain.Hop> hops) {
+        final RedirectChain chain = new RedirectChain(resolvedUrl, hops,
+                SystemClock.uptimeMillis());
+        if (urlString != null && !hops.isEmpty()) {
+            MoPubLog.log(CUSTOM, "Resolved redirects in " + chain.getTotalMillis() + "ms: " +
+                    chain.mHops);
+            cacheChain(urlString, chain);
+        }
+        return chain;
     }
 
     @Nullable
-    private String getRedirectLocation(@NonNull final String urlString) throws IOException,
-            URISyntaxException {
+    private static String getRedirectLocation(@NonNull final String urlString,
+            final int timeoutMillis, @NonNull final List<RedirectChain.Hop> hops)
+            throws IOException, URISyntaxException {
         final URL url = new URL(urlString);
+        final long start = SystemClock.uptimeMillis();
 
         HttpURLConnection httpUrlConnection = null;
         try {
             httpUrlConnection = (HttpURLConnection) url.openConnection();
             httpUrlConnection.setInstanceFollowRedirects(false);
+            httpUrlConnection.setConnectTimeout(timeoutMillis);
+            httpUrlConnection.setReadTimeout(timeoutMillis);
 
-            return resolveRedirectLocation(urlString, httpUrlConnection);
+            final String location = resolveRedirectLocation(urlString, httpUrlConnection);
+            hops.add(new RedirectChain.Hop(urlString, httpUrlConnection.getResponseCode(),
+                    SystemClock.uptimeMillis() - start));
+            return location;
         } finally {
             if (httpUrlConnection != null) {
-                try {
-                    final InputStream is = httpUrlConnection.getInputStream();
-                    if (is != null) {
-                        is.close();
-                    }
-                } catch (IOException e) {
-                    MoPubLog.log(CUSTOM, "IOException when closing httpUrlConnection. Ignoring.");
-                }
+                releaseConnection(httpUrlConnection);
+            }
+        }
+    }
+
+    /**
+     * Reads a small response body to the end and closes it, which hands the connection back to
+     * the platform's keep-alive pool. Connections with larger or unreadable bodies are closed.
+     */
+    @VisibleForTesting
+    static void releaseConnection(@NonNull final HttpURLConnection httpUrlConnection) {
+        InputStream inputStream = null;
+        boolean reusable = false;
+        try {
+            inputStream = httpUrlConnection.getResponseCode() >= 400
+                    ? httpUrlConnection.getErrorStream()
+                    : httpUrlConnection.getInputStream();
+            reusable = inputStream == null || drain(inputStream, MAX_DRAIN_BYTES);
+        } catch (IOException e) {
+            MoPubLog.log(CUSTOM, "IOException when closing httpUrlConnection. Ignoring.");
+        } finally {
+            Streams.closeStream(inputStream);
+            if (!reusable) {
                 httpUrlConnection.disconnect();
             }
         }
     }
 
+    /**
+     * @return true if the stream ended within maxBytes
+     */
+    private static boolean drain(@NonNull final InputStream inputStream, final int maxBytes)
+            throws IOException {
+        final byte[] buffer = new byte[1024];
+        int total = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @VisibleForTesting
     @Nullable
     static String resolveRedirectLocation(@NonNull final String baseUrl,
@@ -105,7 +105,9 @@ public class VisibilityTracker {
         mOnPreDrawListener = new OnPreDrawListener() {
             @Override
             public boolean onPreDraw() {
+                final long startNanos = MainThreadSampler.begin();
                 scheduleVisibilityCheck();
+                MainThreadSampler.end(MainThreadSampler.Task.VISIBILITY_PRE_DRAW, startNanos);
                 return true;
             }
         };
@@ -250,6 +252,7 @@ public class VisibilityTracker {
 
         @Override
         public void run() {
+            final long startNanos = MainThreadSampler.begin();
             mIsVisibilityScheduled = false;
             for (final Map.Entry<View, TrackingInfo> entry : mTrackedViews.entrySet()) {
                 final View view = entry.getKey();
@@ -274,6 +277,7 @@ public class VisibilityTracker {
             // Clear these immediately so that we don't leak memory
             mVisibleViews.clear();
             mInvisibleViews.clear();
+            MainThreadSampler.end(MainThreadSampler.Task.VISIBILITY_CHECK, startNanos);
         }
     }
 
@@ -14,6 +14,7 @@ import androidx.annotation.Nullable;
 
 import com.mopub.common.ClientMetadata;
 import com.mopub.common.Preconditions;
+import com.mopub.common.SdkKeyValueStore;
 import com.mopub.common.SharedPreferencesHelper;
 import com.mopub.common.VisibleForTesting;
 
@@ -189,6 +190,9 @@ public class PersonalInfoData implements ConsentData {
         editor.putString(CONSENT_STATUS_BEFORE_DNT_SP_KEY,
                 mConsentStatusBeforeDnt == null ? null : mConsentStatusBeforeDnt.name());
         editor.apply();
+        // Consent has to survive the process being killed right after it changes, so its write
+        // starts now instead of with the next coalesced write. It does not block the caller.
+        SdkKeyValueStore.getInstance(mAppContext).flushInBackground();
     }
 
     @NonNull
@@ -0,0 +1,257 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Separable box blur over ARGB pixels. A few passes look close to a Gaussian blur, and every pass
+ * costs the same no matter the radius. Each pass blurs rows, then columns, with the image split
+ * into bands of rows that are blurred in parallel. Scratch buffers are kept between calls, so
+ * blurring images of the same size does not allocate.
+ *
+ * The output is opaque; alpha is not blurred.
+ */
+public class BoxBlur {
+    public static final int MAX_RADIUS = 127;
+    private static final int MAX_THREADS = 4;
+    private static final int MIN_ROWS_PER_BAND = 32;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 10;
+
+    @Nullable private static Executor sExecutor;
+
+    private final int mMaxBands;
+    @NonNull private int[] mScratch = new int[0];
+    @NonNull private int[][] mColumnSums = new int[0][];
+
+    public BoxBlur() {
+        this(Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param maxBands most bands of rows to blur at the same time, including the calling thread
+     */
+    public BoxBlur(final int maxBands) {
+        mMaxBands = Math.max(1, maxBands);
+    }
+
+    /**
+     * Blurs {@code pixels} in place.
+     *
+     * @param pixels ARGB pixels, row by row, at least {@code width * height} long
+     * @param radius pixels on each side of the center that are averaged, up to
+     *               {@link #MAX_RADIUS}
+     * @param passes times the box filter is applied. Three passes are close to a Gaussian blur.
+     */
+    public synchronized void blur(@NonNull final int[] pixels, final int width, final int height,
+            final int radius, final int passes) {
+        Preconditions.checkNotNull(pixels);
+        Preconditions.checkArgument(width >= 0 && height >= 0, "Invalid size");
+        Preconditions.checkArgument(pixels.length >= width * height, "Too few pixels");
+        Preconditions.checkArgument(radius >= 0 && radius <= MAX_RADIUS, "Invalid radius");
+
+        if (width == 0 || height == 0 || radius == 0 || passes <= 0) {
+            return;
+        }
+
+        final int size = width * height;
+        if (mScratch.length < size) {
+            mScratch = new int[size];
+        }
+        final int bands = Math.max(1, Math.min(mMaxBands, height / MIN_ROWS_PER_BAND));
+        if (mColumnSums.length < bands || mColumnSums[0].length < width * 3) {
+            mColumnSums = new int[bands][width * 3];
+        }
+
+        final int[] scratch = mScratch;
+        final int[][] columnSums = mColumnSums;
+        for (int pass = 0; pass < passes; pass++) {
+            runInBands(bands, height, new Band() {
+                @Override
+                public void run(final int band, final int startRow, final int endRow) {
+                    blurRows(pixels, scratch, width, radius, startRow, endRow);
+                }
+            });
+            runInBands(bands, height, new Band() {
+                @Override
+                public void run(final int band, final int startRow, final int endRow) {
+                    blurColumns(scratch, pixels, width, height, radius, startRow, endRow,
+                            columnSums[band]);
+                }
+            });
+        }
+    }
+
+    private interface Band {
+        void run(int band, int startRow, int endRow);
+    }
+
+    /**
+     * Runs one band on the calling thread and the others on the shared pool, and waits for all
+     * of them.
+     */
+    private static void runInBands(final int bands, final int height, @NonNull final Band band) {
+        if (bands == 1) {
+            band.run(0, 0, height);
+            return;
+        }
+
+        final CountDownLatch latch = new CountDownLatch(bands - 1);
+        final RuntimeException[] failure = new RuntimeException[1];
+        final Executor executor = getExecutor();
+        for (int i = 1; i < bands; i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        band.run(index, height * index / bands, height * (index + 1) / bands);
+                    } catch (RuntimeException e) {
+                        failure[0] = e;
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        band.run(0, 0, height / bands);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                // The other bands write into the caller's buffers, so they must finish first.
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        // The latch makes the write visible.
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Horizontal pass over rows {@code [startRow, endRow)}. Pixels past the edges repeat the edge
+     * pixel.
+     */
+    @VisibleForTesting
+    static void blurRows(@NonNull final int[] src, @NonNull final int[] dst, final int width,
+            final int radius, final int startRow, final int endRow) {
+        final int multiplier = getMultiplier(radius);
+        final int last = width - 1;
+        for (int y = startRow; y < endRow; y++) {
+            final int row = y * width;
+            int red = 0;
+            int green = 0;
+            int blue = 0;
+            for (int i = -radius; i <= radius; i++) {
+                final int pixel = src[row + clamp(i, last)];
+                red += (pixel >> 16) & 0xFF;
+                green += (pixel >> 8) & 0xFF;
+                blue += pixel & 0xFF;
+            }
+            for (int x = 0; x < width; x++) {
+                dst[row + x] = pack(red, green, blue, multiplier);
+
+                final int removed = src[row + clamp(x - radius, last)];
+                final int added = src[row + clamp(x + radius + 1, last)];
+                red += ((added >> 16) & 0xFF) - ((removed >> 16) & 0xFF);
+                green += ((added >> 8) & 0xFF) - ((removed >> 8) & 0xFF);
+                blue += (added & 0xFF) - (removed & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Vertical pass that writes rows {@code [startRow, endRow)}. Keeps a running sum per column
+     * and walks down row by row, so memory is read in order.
+     */
+    @VisibleForTesting
+    static void blurColumns(@NonNull final int[] src, @NonNull final int[] dst, final int width,
+            final int height, final int radius, final int startRow, final int endRow,
+            @NonNull final int[] sums) {
+        final int multiplier = getMultiplier(radius);
+        final int last = height - 1;
+        for (int x = 0; x < width * 3; x++) {
+            sums[x] = 0;
+        }
+        for (int i = startRow - radius; i <= startRow + radius; i++) {
+            final int row = clamp(i, last) * width;
+            for (int x = 0, s = 0; x < width; x++, s += 3) {
+                final int pixel = src[row + x];
+                sums[s] += (pixel >> 16) & 0xFF;
+                sums[s + 1] += (pixel >> 8) & 0xFF;
+                sums[s + 2] += pixel & 0xFF;
+            }
+        }
+        for (int y = startRow; y < endRow; y++) {
+            final int row = y * width;
+            final int removedRow = clamp(y - radius, last) * width;
+            final int addedRow = clamp(y + radius + 1, last) * width;
+            for (int x = 0, s = 0; x < width; x++, s += 3) {
+                dst[row + x] = pack(sums[s], sums[s + 1], sums[s + 2], multiplier);
+
+                final int removed = src[removedRow + x];
+                final int added = src[addedRow + x];
+                sums[s] += ((added >> 16) & 0xFF) - ((removed >> 16) & 0xFF);
+                sums[s + 1] += ((added >> 8) & 0xFF) - ((removed >> 8) & 0xFF);
+                sums[s + 2] += (added & 0xFF) - (removed & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Dividing by the box size is replaced by a multiply and shift. Rounding the multiplier up
+     * keeps the average of equal pixels exact and never exceeds 255 for radii up to
+     * {@link #MAX_RADIUS}.
+     */
+    private static int getMultiplier(final int radius) {
+        final int boxSize = radius * 2 + 1;
+        return ((1 << 16) + boxSize - 1) / boxSize;
+    }
+
+    private static int pack(final int red, final int green, final int blue, final int multiplier) {
+        return 0xFF000000 |
+                (((red * multiplier) >>> 16) << 16) |
+                (((green * multiplier) >>> 16) << 8) |
+                ((blue * multiplier) >>> 16);
+    }
+
+    private static int clamp(final int index, final int last) {
+        return index < 0 ? 0 : (index > last ? last : index);
+    }
+
+    @VisibleForTesting
+    public static synchronized void setExecutor(@Nullable final Executor executor) {
+        sExecutor = executor;
+    }
+
+    @NonNull
+    private static synchronized Executor getExecutor() {
+        if (sExecutor == null) {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS - 1,
+                    MAX_THREADS - 1, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+            executor.allowCoreThreadTimeOut(true);
+            sExecutor = executor;
+        }
+        return sExecutor;
+    }
+}
@@ -8,6 +8,10 @@ import android.graphics.Bitmap;
 import androidx.annotation.NonNull;
 
 public class ImageUtils {
+    private static final int BOX_BLUR_PASSES = 3;
+
+    @NonNull private static final BoxBlur sBoxBlur = new BoxBlur();
+    @NonNull private static int[] sPixels = new int[0];
 
     /**
      * Fast Gaussian blurring algorithm source:
@@ -44,4 +48,34 @@ public class ImageUtils {
         mutableBitmap.setPixels(pixels, 0, w, 0, 0, w, h);
         return mutableBitmap;
     }
+
+    /**
+     * Blurs the bitmap with three passes of a {@link BoxBlur}, which looks close to a Gaussian
+     * blur. The work is split across cores and the pixel buffers are reused between calls, but it
+     * still scales with the number of pixels, so downscale large bitmaps first.
+     *
+     * @return the same bitmap if it is mutable, otherwise a blurred copy
+     */
+    @NonNull
+    public static Bitmap applyBoxBlurToBitmap(@NonNull final Bitmap bitmap, final int radius) {
+        final int w = bitmap.getWidth();
+        final int h = bitmap.getHeight();
+        if (w <= 0 || h <= 0) {
+            return bitmap;
+        }
+
+        final Bitmap result = bitmap.isMutable()
+                ? bitmap
+                : Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        synchronized (ImageUtils.class) {
+            if (sPixels.length < w * h) {
+                sPixels = new int[w * h];
+            }
+            final int[] pixels = sPixels;
+            bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
+            sBoxBlur.blur(pixels, w, h, Math.min(radius, BoxBlur.MAX_RADIUS), BOX_BLUR_PASSES);
+            result.setPixels(pixels, 0, w, 0, 0, w, h);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,141 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Compact latency digest with exponentially sized buckets. Bucket bounds grow by 25% from 100ms
+ * up to about 100s, so any quantile is accurate to within one bucket. Once more than
+ * {@link #MAX_TOTAL_COUNT} samples have been added all counts are halved, which lets the digest
+ * follow a network whose behavior changes over time.
+ *
+ * This class is not thread safe.
+ */
+public class LatencyHistogram {
+    private static final int FIRST_BUCKET_MILLIS = 100;
+    private static final double BUCKET_GROWTH = 1.25;
+    private static final int BUCKET_COUNT = 32;
+    static final int MAX_TOTAL_COUNT = 256;
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = new long[BUCKET_COUNT];
+
+    static {
+        double bound = FIRST_BUCKET_MILLIS;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            BUCKET_UPPER_BOUNDS_MILLIS[i] = Math.round(bound);
+            bound *= BUCKET_GROWTH;
+        }
+    }
+
+    // One extra bucket holds everything above the largest bound.
+    @NonNull
+    private final int[] mCounts = new int[BUCKET_COUNT + 1];
+    private int mTotalCount;
+
+    public void add(final long latencyMillis) {
+        mCounts[getBucketIndex(latencyMillis)]++;
+        mTotalCount++;
+
+        if (mTotalCount > MAX_TOTAL_COUNT) {
+            decay();
+        }
+    }
+
+    public int getTotalCount() {
+        return mTotalCount;
+    }
+
+    /**
+     * @param quantile value between 0 and 1, such as 0.95
+     * @return upper bound of the bucket holding the quantile, or -1 if the digest is empty
+     */
+    public long getQuantileMillis(final double quantile) {
+        if (mTotalCount == 0) {
+            return -1;
+        }
+
+        final double target = Math.max(1, Math.ceil(quantile * mTotalCount));
+        int cumulativeCount = 0;
+        for (int i = 0; i < mCounts.length; i++) {
+            cumulativeCount += mCounts[i];
+            if (cumulativeCount >= target) {
+                return getBucketUpperBound(i);
+            }
+        }
+        return getBucketUpperBound(mCounts.length - 1);
+    }
+
+    /**
+     * @return bucket counts as a comma separated string, suitable for {@link #fromString(String)}
+     */
+    @NonNull
+    public String serialize() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < mCounts.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(mCounts[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return a digest restored from {@link #serialize()}, or an empty digest if the string is
+     * missing or malformed
+     */
+    @NonNull
+    public static LatencyHistogram fromString(@Nullable final String serialized) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        if (serialized == null) {
+            return histogram;
+        }
+
+        final String[] parts = serialized.split(",");
+        if (parts.length != histogram.mCounts.length) {
+            return histogram;
+        }
+
+        try {
+            int totalCount = 0;
+            for (int i = 0; i < parts.length; i++) {
+                final int count = Math.max(0, Integer.parseInt(parts[i]));
+                histogram.mCounts[i] = count;
+                totalCount += count;
+            }
+            histogram.mTotalCount = totalCount;
+        } catch (NumberFormatException e) {
+            return new LatencyHistogram();
+        }
+        return histogram;
+    }
+
+    private void decay() {
+        int totalCount = 0;
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] >>= 1;
+            totalCount += mCounts[i];
+        }
+        mTotalCount = totalCount;
+    }
+
+    private static int getBucketIndex(final long latencyMillis) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (latencyMillis <= BUCKET_UPPER_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_COUNT;
+    }
+
+    private static long getBucketUpperBound(final int index) {
+        if (index >= BUCKET_COUNT) {
+            return Long.MAX_VALUE;
+        }
+        return BUCKET_UPPER_BOUNDS_MILLIS[index];
+    }
+}
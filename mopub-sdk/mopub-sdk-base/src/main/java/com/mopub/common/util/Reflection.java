@@ -15,12 +15,19 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * NOTE: Any methods accessed via this class should be annotated with
  * {@link com.mopub.common.util.ReflectionTarget}
  */
 public class Reflection {
+    // Class lookups and constructor resolution are slow on some devices, so only do them once per
+    // class name.
+    private static final Map<String, Constructor<?>> sEmptyConstructorCache =
+            new ConcurrentHashMap<>();
+
     public static class MethodBuilder {
         @Nullable private final Object mInstance;
         @NonNull private final String mMethodName;
@@ -155,12 +162,18 @@ public class Reflection {
         Preconditions.checkNotNull(className);
         Preconditions.checkNotNull(superclass);
 
-        final Class<? extends T> clazz = Class.forName(className).asSubclass(superclass);
-        // noinspection unchecked
-        final Constructor<? extends T> constructor = clazz.getDeclaredConstructor((Class[]) null);
-        constructor.setAccessible(true);
+        Constructor<?> constructor = sEmptyConstructorCache.get(className);
+        if (constructor == null) {
+            final Class<?> clazz = Class.forName(className);
+            constructor = clazz.getDeclaredConstructor((Class[]) null);
+            constructor.setAccessible(true);
+            sEmptyConstructorCache.put(className, constructor);
+        }
 
-        return constructor.newInstance();
+        // Same check as Class.asSubclass, done on every call since the cache is shared by callers
+        // expecting different superclasses.
+        final Class<? extends T> clazz = constructor.getDeclaringClass().asSubclass(superclass);
+        return clazz.cast(constructor.newInstance());
     }
 
     @NonNull
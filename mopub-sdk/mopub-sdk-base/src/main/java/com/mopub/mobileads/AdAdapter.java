@@ -7,10 +7,13 @@ package com.mopub.mobileads;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.AdFormat;
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.MoPubReward;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
@@ -38,6 +41,9 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
 
     protected boolean mIsReady = false;
 
+    private long mLoadStartMillis = -1;
+    private boolean mLoadLatencyRecorded;
+
     @Nullable
     protected AdLifecycleListener.LoadListener mLoadListener;
     @Nullable
@@ -47,6 +53,9 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
 
     abstract void doInvalidate();
 
+    @NonNull
+    abstract AdFormat getAdFormat();
+
     public AdAdapter(@NonNull final Context context,
                      @NonNull final String className,
                      @NonNull final AdData adData) {
@@ -75,6 +84,7 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
         }
 
         mLoadListener = loadListener;
+        mLoadStartMillis = SystemClock.uptimeMillis();
 
         mMainHandler.postDelayed(mTimeout, getTimeoutDelayMilliseconds());
 
@@ -108,7 +118,22 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
     }
 
     private int getTimeoutDelayMilliseconds() {
-        return mAdData.getTimeoutDelayMillis();
+        return AdLoadLatencyTracker.getInstance(mContext).getTimeoutMillis(getBaseAdClassName(),
+                getAdFormat(), mAdData.getTimeoutDelayMillis());
+    }
+
+    private void recordLoadLatency(final boolean success, final boolean timedOut) {
+        if (mLoadStartMillis < 0 || mLoadLatencyRecorded || mContext == null) {
+            return;
+        }
+
+        mLoadLatencyRecorded = true;
+        AdLoadLatencyTracker.getInstance(mContext).recordLoad(getBaseAdClassName(), getAdFormat(),
+                SystemClock.uptimeMillis() - mLoadStartMillis, success, timedOut);
+        if (mAdData != null) {
+            AdLoadTracer.record(AdLoadTracer.Stage.ADAPTER_LOAD, mAdData.getAdUnit(),
+                    mAdData.getRequestId(), mLoadStartMillis, success);
+        }
     }
 
     @Nullable
@@ -116,6 +141,11 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
         return mBaseAd != null ? mBaseAd.getClass().getName() : null;
     }
 
+    @Nullable
+    String getRequestId() {
+        return mAdData != null ? mAdData.getRequestId() : null;
+    }
+
     @VisibleForTesting
     protected void setLoadListener(@NonNull final AdLifecycleListener.LoadListener loadListener) {
         Preconditions.checkNotNull(loadListener);
@@ -159,6 +189,7 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
         MoPubLog.log(LOAD_SUCCESS);
         mIsReady = true;
         cancelTimeout();
+        recordLoadLatency(true, false);
 
         mMainHandler.post(() -> {
             if (mLoadListener != null) {
@@ -175,6 +206,7 @@ public abstract class AdAdapter implements AdLifecycleListener.LoadListener, AdL
         }
 
         cancelTimeout();
+        recordLoadLatency(false, errorCode == NETWORK_TIMEOUT);
 
         mMainHandler.post(() -> {
             if (mLoadListener != null) {
@@ -34,7 +34,8 @@ data class AdData(
     var fullAdType: String?,
     var customerId: String?,
     var allowCustomClose: Boolean,
-    var viewabilityVendors: Set<ViewabilityVendor>?
+    var viewabilityVendors: Set<ViewabilityVendor>?,
+    var requestId: String?
 ) : Parcelable {
     companion object {
         const val MILLIS_IN_SECOND: Int = 1_000
@@ -75,7 +76,8 @@ data class AdData(
         builder.fullAdType,
         builder.customerId,
         builder.allowCustomClose,
-        builder.viewabilityVendors
+        builder.viewabilityVendors,
+        builder.requestId
     )
 
     class Builder() {
@@ -121,6 +123,8 @@ data class AdData(
             private set
         var viewabilityVendors: Set<ViewabilityVendor>? = null
             private set
+        var requestId: String? = null
+            private set
 
         fun vastVideoConfig(vastVideoConfigString: String?) =
             apply { this.vastVideoConfigString = vastVideoConfigString }
@@ -180,6 +184,8 @@ data class AdData(
                 }
             }
 
+        fun requestId(requestId: String?) = apply { this.requestId = requestId }
+
         fun build() = AdData(this)
 
         fun fromAdData(adData: AdData) = apply {
@@ -204,6 +210,7 @@ data class AdData(
             this.customerId = adData.customerId
             this.allowCustomClose = adData.allowCustomClose
             this.viewabilityVendors = adData.viewabilityVendors
+            this.requestId = adData.requestId
         }
     }
 }
@@ -0,0 +1,213 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.AdFormat;
+import com.mopub.common.Preconditions;
+import com.mopub.common.SharedPreferencesHelper;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.LatencyHistogram;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Learns how long each base ad class takes to load for each ad format and derives the load timeout
+ * from that history. The timeout is the p95 load time plus headroom, kept between
+ * {@link #MIN_TIMEOUT_MILLIS} and the timeout sent by the server. Timeouts are recorded at the
+ * timeout value, so a network that starts timing out often pushes its own timeout back up. Until a
+ * network has loaded {@link #MIN_SUCCESSES} ads, it gets the full server timeout, so a network
+ * that only ever fails is not cut short before it had a fair chance to load.
+ *
+ * History is kept in a {@link LatencyHistogram} per base ad class and persisted in
+ * SharedPreferences so it survives app restarts.
+ */
+public class AdLoadLatencyTracker {
+    private static final String PREFERENCE_NAME = "mopubAdLoadLatency";
+    private static final String SEPARATOR = ";";
+
+    static final int MIN_SAMPLES = 20;
+    static final int MIN_SUCCESSES = 10;
+    static final int MIN_TIMEOUT_MILLIS = 2000;
+    static final double TIMEOUT_QUANTILE = 0.95;
+    static final double TIMEOUT_HEADROOM = 1.5;
+    private static final int MAX_ATTEMPTS = 256;
+
+    private static volatile AdLoadLatencyTracker sInstance;
+    private static volatile boolean sAdaptiveTimeoutsEnabled = false;
+
+    static class LoadStats {
+        @NonNull
+        final LatencyHistogram latencies;
+        int attempts;
+        int successes;
+
+        LoadStats(@NonNull final LatencyHistogram latencies, final int attempts, final int successes) {
+            this.latencies = latencies;
+            this.attempts = attempts;
+            this.successes = successes;
+        }
+
+        void record(final long latencyMillis, final boolean success, final boolean timedOut) {
+            attempts++;
+            if (success) {
+                successes++;
+            }
+            if (success || timedOut) {
+                latencies.add(latencyMillis);
+            }
+            // Decay attempts along with the digest so the success rate follows recent behavior.
+            if (attempts > MAX_ATTEMPTS) {
+                attempts >>= 1;
+                successes >>= 1;
+            }
+        }
+
+        @NonNull
+        String serialize() {
+            return attempts + SEPARATOR + successes + SEPARATOR + latencies.serialize();
+        }
+
+        @NonNull
+        static LoadStats fromString(@Nullable final String serialized) {
+            if (serialized != null) {
+                final String[] parts = serialized.split(SEPARATOR);
+                if (parts.length == 3) {
+                    try {
+                        return new LoadStats(LatencyHistogram.fromString(parts[2]),
+                                Math.max(0, Integer.parseInt(parts[0])),
+                                Math.max(0, Integer.parseInt(parts[1])));
+                    } catch (NumberFormatException e) {
+                        MoPubLog.log(CUSTOM, "Ignoring malformed ad load latency history.");
+                    }
+                }
+            }
+            return new LoadStats(new LatencyHistogram(), 0, 0);
+        }
+    }
+
+    @NonNull
+    private final SharedPreferences mSharedPreferences;
+    @NonNull
+    private final Map<String, LoadStats> mStats = new HashMap<>();
+
+    private AdLoadLatencyTracker(@NonNull final Context context) {
+        mSharedPreferences = SharedPreferencesHelper.getSharedPreferences(
+                context.getApplicationContext(), PREFERENCE_NAME);
+    }
+
+    @NonNull
+    public static AdLoadLatencyTracker getInstance(@NonNull final Context context) {
+        Preconditions.checkNotNull(context);
+
+        AdLoadLatencyTracker result = sInstance;
+        if (result == null) {
+            synchronized (AdLoadLatencyTracker.class) {
+                result = sInstance;
+                if (result == null) {
+                    result = new AdLoadLatencyTracker(context);
+                    sInstance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Turns adaptive timeouts on or off. Load times are recorded either way. Disabled by default.
+     * Can also be turned on with {@link com.mopub.common.SdkConfiguration.Builder#withAdaptiveTimeoutsEnabled(boolean)}.
+     */
+    public static void setAdaptiveTimeoutsEnabled(final boolean enabled) {
+        sAdaptiveTimeoutsEnabled = enabled;
+    }
+
+    public static boolean isAdaptiveTimeoutsEnabled() {
+        return sAdaptiveTimeoutsEnabled;
+    }
+
+    /**
+     * @param baseAdClassName     base ad being loaded
+     * @param adFormat            format the base ad is loaded for
+     * @param serverTimeoutMillis timeout from the server or the format default, used as the
+     *                            upper bound
+     * @return timeout to use for this load
+     */
+    public synchronized int getTimeoutMillis(@Nullable final String baseAdClassName,
+                                             @NonNull final AdFormat adFormat,
+                                             final int serverTimeoutMillis) {
+        if (!sAdaptiveTimeoutsEnabled || TextUtils.isEmpty(baseAdClassName)) {
+            return serverTimeoutMillis;
+        }
+
+        final LoadStats stats = getStats(getKey(baseAdClassName, adFormat));
+        if (stats.attempts < MIN_SAMPLES || stats.successes < MIN_SUCCESSES) {
+            return serverTimeoutMillis;
+        }
+
+        final long quantileMillis = stats.latencies.getQuantileMillis(TIMEOUT_QUANTILE);
+        if (quantileMillis < 0) {
+            return serverTimeoutMillis;
+        }
+
+        final double timeoutMillis = quantileMillis * TIMEOUT_HEADROOM;
+        final long lowerBound = Math.min(MIN_TIMEOUT_MILLIS, serverTimeoutMillis);
+        return (int) Math.max(lowerBound, Math.min(serverTimeoutMillis, timeoutMillis));
+    }
+
+    /**
+     * Records the outcome of one load attempt.
+     *
+     * @param latencyMillis time from the start of the load to the result
+     * @param success       true if the base ad loaded
+     * @param timedOut      true if the load was abandoned because of the timeout
+     */
+    public synchronized void recordLoad(@Nullable final String baseAdClassName,
+                                        @NonNull final AdFormat adFormat,
+                                        final long latencyMillis,
+                                        final boolean success,
+                                        final boolean timedOut) {
+        if (TextUtils.isEmpty(baseAdClassName) || latencyMillis < 0) {
+            return;
+        }
+
+        final String key = getKey(baseAdClassName, adFormat);
+        final LoadStats stats = getStats(key);
+        stats.record(latencyMillis, success, timedOut);
+        mSharedPreferences.edit().putString(key, stats.serialize()).apply();
+    }
+
+    @NonNull
+    private LoadStats getStats(@NonNull final String key) {
+        LoadStats stats = mStats.get(key);
+        if (stats == null) {
+            stats = LoadStats.fromString(mSharedPreferences.getString(key, null));
+            mStats.put(key, stats);
+        }
+        return stats;
+    }
+
+    @NonNull
+    private static String getKey(@NonNull final String baseAdClassName,
+                                 @NonNull final AdFormat adFormat) {
+        return adFormat.name() + SEPARATOR + baseAdClassName;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    public static void clearForTesting() {
+        sInstance = null;
+        sAdaptiveTimeoutsEnabled = false;
+    }
+}
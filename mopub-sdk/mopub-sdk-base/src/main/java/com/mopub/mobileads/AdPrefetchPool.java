@@ -0,0 +1,387 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.AdFormat;
+import com.mopub.common.Constants;
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.common.util.DateAndTime;
+import com.mopub.network.AdLoader;
+import com.mopub.network.AdResponse;
+import com.mopub.network.RequestRateTracker;
+import com.mopub.volley.Request;
+import com.mopub.volley.VolleyError;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.mobileads.MoPubErrorCode.ADAPTER_NOT_FOUND;
+
+/**
+ * Opt-in pool of ads that have already been requested and loaded for a single ad unit. When the
+ * pool is enabled, {@link AdViewController} hands out a warm {@link AdAdapter} on load instead of
+ * going to the network, and the pool refills itself in the background one waterfall at a time.
+ *
+ * All methods must be called on the main thread.
+ */
+public class AdPrefetchPool {
+
+    /**
+     * Supplies everything the pool needs from the owning {@link AdViewController}.
+     */
+    interface PrefetchSource {
+        @Nullable
+        Context getContext();
+
+        @Nullable
+        String getAdUnitId();
+
+        @Nullable
+        AdFormat getAdFormat();
+
+        @Nullable
+        String generateAdUrl();
+
+        @Nullable
+        AdAdapter createAdAdapter(@NonNull AdResponse adResponse);
+    }
+
+    /**
+     * Counters used to tune the pool depth. Wasted prefetches are ads that were fully loaded but
+     * never handed out, either because they expired or because the pool was cleared.
+     */
+    public static class Metrics {
+        private int mHits;
+        private int mMisses;
+        private int mExpired;
+        private int mDiscarded;
+        private int mFailedPrefetches;
+
+        public int getHits() {
+            return mHits;
+        }
+
+        public int getMisses() {
+            return mMisses;
+        }
+
+        public int getExpired() {
+            return mExpired;
+        }
+
+        public int getDiscarded() {
+            return mDiscarded;
+        }
+
+        public int getFailedPrefetches() {
+            return mFailedPrefetches;
+        }
+
+        public int getWastedPrefetches() {
+            return mExpired + mDiscarded;
+        }
+
+        public double getHitRate() {
+            final int total = mHits + mMisses;
+            return total == 0 ? 0 : (double) mHits / total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "hits=" + mHits
+                    + ", misses=" + mMisses
+                    + ", expired=" + mExpired
+                    + ", discarded=" + mDiscarded
+                    + ", failed=" + mFailedPrefetches;
+        }
+    }
+
+    static class Entry {
+        @NonNull
+        final AdResponse adResponse;
+        @NonNull
+        final AdAdapter adAdapter;
+        final long expirationTimeMillis;
+
+        Entry(@NonNull final AdResponse adResponse, @NonNull final AdAdapter adAdapter) {
+            this.adResponse = adResponse;
+            this.adAdapter = adAdapter;
+            this.expirationTimeMillis = adResponse.getTimestamp() + Constants.AD_EXPIRATION_DELAY;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= expirationTimeMillis;
+        }
+    }
+
+    @NonNull
+    private final PrefetchSource mSource;
+    @NonNull
+    private final ArrayDeque<Entry> mReadyEntries = new ArrayDeque<>();
+    @NonNull
+    private final Metrics mMetrics = new Metrics();
+
+    @Nullable
+    private AdLoader mInFlightLoader;
+    @Nullable
+    private Request<?> mInFlightRequest;
+    @Nullable
+    private AdAdapter mInFlightAdapter;
+
+    private int mDepth;
+    private boolean mIsDestroyed;
+
+    AdPrefetchPool(@NonNull final PrefetchSource source) {
+        Preconditions.checkNotNull(source);
+
+        mSource = source;
+    }
+
+    void setDepth(final int depth) {
+        mDepth = Math.max(0, depth);
+        while (mReadyEntries.size() > mDepth) {
+            discard(mReadyEntries.pollLast());
+        }
+        replenish();
+    }
+
+    int getDepth() {
+        return mDepth;
+    }
+
+    int getReadyCount() {
+        return mReadyEntries.size();
+    }
+
+    @NonNull
+    Metrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Removes and returns the oldest unexpired ad in the pool, or null if there is none. Expired
+     * ads encountered along the way are invalidated. A refill is started either way.
+     */
+    @Nullable
+    Entry take() {
+        final long now = DateAndTime.now().getTime();
+        Entry entry;
+        while ((entry = mReadyEntries.pollFirst()) != null) {
+            if (!entry.isExpired(now) && !entry.adAdapter.isInvalidated()) {
+                break;
+            }
+            mMetrics.mExpired++;
+            entry.adAdapter.invalidate();
+        }
+
+        if (entry != null) {
+            mMetrics.mHits++;
+        } else {
+            mMetrics.mMisses++;
+        }
+
+        replenish();
+        return entry;
+    }
+
+    /**
+     * Starts loading one more ad if the pool is below its depth, nothing is currently being
+     * prefetched, and the ad unit is not being rate limited by the server.
+     */
+    void replenish() {
+        if (mIsDestroyed || mInFlightLoader != null || mReadyEntries.size() >= mDepth) {
+            return;
+        }
+
+        final Context context = mSource.getContext();
+        final String adUnitId = mSource.getAdUnitId();
+        final AdFormat adFormat = mSource.getAdFormat();
+        if (context == null || adFormat == null || TextUtils.isEmpty(adUnitId)) {
+            return;
+        }
+
+        if (RequestRateTracker.getInstance().isBlockedByRateLimit(adUnitId)) {
+            MoPubLog.log(CUSTOM, "Not prefetching for " + adUnitId + " because it is rate limited.");
+            return;
+        }
+
+        final String url = mSource.generateAdUrl();
+        if (TextUtils.isEmpty(url)) {
+            return;
+        }
+
+        MoPubLog.log(CUSTOM, "Prefetching an ad for " + adUnitId + ".");
+        mInFlightLoader = createAdLoader(url, adFormat, adUnitId, context, new AdLoader.Listener() {
+            @Override
+            public void onSuccess(final AdResponse response) {
+                onPrefetchResponse(response);
+            }
+
+            @Override
+            public void onErrorResponse(final VolleyError volleyError) {
+                onPrefetchFinished(false);
+            }
+        });
+        mInFlightRequest = mInFlightLoader.loadNextAd(null);
+    }
+
+    /**
+     * Invalidates every ready ad and cancels the prefetch in flight. The pool can be refilled
+     * afterwards with {@link #replenish()}.
+     */
+    void clear() {
+        Entry entry;
+        while ((entry = mReadyEntries.pollFirst()) != null) {
+            discard(entry);
+        }
+        cancelInFlight();
+    }
+
+    void destroy() {
+        clear();
+        mIsDestroyed = true;
+    }
+
+    @VisibleForTesting
+    @NonNull
+    AdLoader createAdLoader(@NonNull final String url,
+                            @NonNull final AdFormat adFormat,
+                            @NonNull final String adUnitId,
+                            @NonNull final Context context,
+                            @NonNull final AdLoader.Listener listener) {
+        return new AdLoader(url, adFormat, adUnitId, context, listener);
+    }
+
+    @VisibleForTesting
+    void addReadyEntry(@NonNull final Entry entry) {
+        mReadyEntries.addLast(entry);
+    }
+
+    private void onPrefetchResponse(@NonNull final AdResponse adResponse) {
+        if (mIsDestroyed || mInFlightLoader == null) {
+            return;
+        }
+
+        final AdAdapter adAdapter = mSource.createAdAdapter(adResponse);
+        if (adAdapter == null) {
+            loadNextInWaterfall(ADAPTER_NOT_FOUND);
+            return;
+        }
+
+        mInFlightAdapter = adAdapter;
+        adAdapter.load(new PrefetchLoadListener(adResponse, adAdapter));
+    }
+
+    private void loadNextInWaterfall(@NonNull final MoPubErrorCode errorCode) {
+        final AdLoader adLoader = mInFlightLoader;
+        mInFlightAdapter = null;
+        if (adLoader != null && adLoader.hasMoreAds()) {
+            mInFlightRequest = adLoader.loadNextAd(errorCode);
+        } else {
+            onPrefetchFinished(false);
+        }
+    }
+
+    private void onPrefetchFinished(final boolean success) {
+        if (!success) {
+            mMetrics.mFailedPrefetches++;
+        }
+        mInFlightLoader = null;
+        mInFlightRequest = null;
+        mInFlightAdapter = null;
+
+        // Only keep filling while prefetches succeed. A failure waits for the next take() so a
+        // no-fill ad unit does not turn into a request loop.
+        if (success) {
+            replenish();
+        }
+    }
+
+    private void cancelInFlight() {
+        if (mInFlightRequest != null && !mInFlightRequest.isCanceled()) {
+            mInFlightRequest.cancel();
+        }
+        if (mInFlightAdapter != null) {
+            mInFlightAdapter.invalidate();
+        }
+        mInFlightLoader = null;
+        mInFlightRequest = null;
+        mInFlightAdapter = null;
+    }
+
+    private void discard(@Nullable final Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        mMetrics.mDiscarded++;
+        entry.adAdapter.invalidate();
+    }
+
+    private class PrefetchLoadListener implements AdLifecycleListener.LoadListener {
+        @NonNull
+        private final AdResponse mAdResponse;
+        @NonNull
+        private final AdAdapter mAdAdapter;
+        @Nullable
+        private Entry mEntry;
+
+        PrefetchLoadListener(@NonNull final AdResponse adResponse,
+                             @NonNull final AdAdapter adAdapter) {
+            mAdResponse = adResponse;
+            mAdAdapter = adAdapter;
+        }
+
+        @Override
+        public void onAdLoaded() {
+            if (mIsDestroyed || mAdAdapter != mInFlightAdapter || mInFlightLoader == null) {
+                return;
+            }
+
+            mInFlightLoader.creativeDownloadSuccess();
+            mEntry = new Entry(mAdResponse, mAdAdapter);
+            mReadyEntries.addLast(mEntry);
+            onPrefetchFinished(true);
+        }
+
+        @Override
+        public void onAdLoadFailed(@NotNull final MoPubErrorCode errorCode) {
+            if (mIsDestroyed) {
+                return;
+            }
+
+            if (mEntry != null) {
+                // The base ad gave up on an ad that was already sitting in the pool.
+                final Iterator<Entry> iterator = mReadyEntries.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next() == mEntry) {
+                        iterator.remove();
+                        mMetrics.mExpired++;
+                        mAdAdapter.invalidate();
+                        replenish();
+                        break;
+                    }
+                }
+                return;
+            }
+
+            if (mAdAdapter == mInFlightAdapter) {
+                mAdAdapter.invalidate();
+                loadNextInWaterfall(errorCode);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.AdFormat;
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.Constants;
 import com.mopub.common.DataKeys;
 import com.mopub.common.LocationService;
@@ -48,9 +49,11 @@ import com.mopub.volley.VolleyError;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
 
@@ -66,6 +69,7 @@ import static com.mopub.mobileads.MoPubErrorCode.UNSPECIFIED;
 
 public class AdViewController implements AdLifecycleListener.LoadListener, AdLifecycleListener.InteractionListener {
     static final int DEFAULT_REFRESH_TIME_MILLISECONDS = 60000;  // 1 minute
+    static final int DEFAULT_PARALLEL_LOAD_BUDGET_MILLISECONDS = 3000;
     private static final int MAX_REFRESH_TIME_MILLISECONDS = 600000; // 10 minutes
     private static final double BACKOFF_FACTOR = 1.5;
     private static final FrameLayout.LayoutParams WRAP_AND_CENTER_LAYOUT_PARAMS =
@@ -140,6 +144,16 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
     private String mLastTrackedRequestId;
     private long mOnPauseViewedTimeMillis;
     private long mShowStartedTimestampMillis;
+    // Timestamps for AdLoadTracer spans that end later, or -1
+    private long mRequestBuildStartMillis = -1;
+    private long mRequestBuildEndMillis = -1;
+    private long mImpressionWaitStartMillis = -1;
+    @Nullable
+    private AdPrefetchPool mPrefetchPool;
+    @Nullable
+    private ParallelWaterfall mParallelWaterfall;
+    private int mParallelLoadCount = 1;
+    private int mParallelLoadBudgetMillis = DEFAULT_PARALLEL_LOAD_BUDGET_MILLISECONDS;
 
     public static void setShouldHonorServerDimensions(View view) {
         sViewShouldHonorServerDimensions.put(view, true);
@@ -187,6 +201,8 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
 
     @VisibleForTesting
     void onAdLoadSuccess(@NonNull final AdResponse adResponse) {
+        traceRequestBuild(adResponse.getRequestId());
+        mImpressionWaitStartMillis = -1;
         mBackoffPower = 1;
         mAdResponse = adResponse;
         mBaseAdClassName = adResponse.getBaseAdClassName();
@@ -194,13 +210,24 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
         mRefreshTimeMillis = mAdResponse.getRefreshTimeMillis();
         mActiveRequest = null;
 
-        loadBaseAd();
+        final List<AdResponse> parallelAdResponses = mParallelLoadCount > 1 && mAdLoader != null
+                ? mAdLoader.takePreloadedAds(mParallelLoadCount - 1)
+                : Collections.<AdResponse>emptyList();
+        if (parallelAdResponses.isEmpty()) {
+            loadBaseAd();
+        } else {
+            final List<AdResponse> adResponses = new ArrayList<>(parallelAdResponses.size() + 1);
+            adResponses.add(adResponse);
+            adResponses.addAll(parallelAdResponses);
+            loadBaseAdsInParallel(adResponses);
+        }
 
         scheduleRefreshTimerIfEnabled();
     }
 
     @VisibleForTesting
     void onAdLoadError(final VolleyError error) {
+        traceRequestBuild(null);
         if (error instanceof MoPubNetworkError) {
             // If provided, the MoPubNetworkError's refresh time takes precedence over the
             // previously set refresh time.
@@ -291,10 +318,130 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
             return;
         }
 
+        if (mPrefetchPool != null && mActiveRequest == null) {
+            final AdPrefetchPool.Entry entry = mPrefetchPool.take();
+            if (entry != null) {
+                MoPubLog.log(CUSTOM, "Serving prefetched ad for " + mAdUnitId + ".");
+                // Keep the callback asynchronous, just like a network load.
+                mHandler.post(() -> onPrefetchedAdLoaded(entry));
+                return;
+            }
+        }
+
+        final long requestBuildStartMillis = AdLoadTracer.now();
         String adUrl = generateAdUrl();
+        mRequestBuildStartMillis = requestBuildStartMillis;
+        mRequestBuildEndMillis = AdLoadTracer.now();
         loadNonJavascript(adUrl, null);
     }
 
+    /**
+     * The request ID is only known once the response arrives, so the time spent building the
+     * request is recorded then.
+     */
+    private void traceRequestBuild(@Nullable final String requestId) {
+        if (mRequestBuildStartMillis < 0) {
+            return;
+        }
+        AdLoadTracer.record(AdLoadTracer.Stage.REQUEST_BUILD, mAdUnitId, requestId,
+                mRequestBuildStartMillis, mRequestBuildEndMillis, true);
+        mRequestBuildStartMillis = -1;
+    }
+
+    private void onPrefetchedAdLoaded(@NonNull final AdPrefetchPool.Entry entry) {
+        if (mIsDestroyed) {
+            entry.adAdapter.invalidate();
+            return;
+        }
+
+        invalidateAdapter();
+        setNotLoading();
+
+        mBackoffPower = 1;
+        mAdResponse = entry.adResponse;
+        mBaseAdClassName = entry.adResponse.getBaseAdClassName();
+        mRefreshTimeMillis = entry.adResponse.getRefreshTimeMillis();
+        mAdAdapter = entry.adAdapter;
+        mAdAdapter.setLoadListener(this);
+
+        scheduleRefreshTimerIfEnabled();
+
+        final MoPubAd moPubAd = getMoPubAd();
+        if (moPubAd != null) {
+            moPubAd.onAdLoaded();
+        }
+    }
+
+    /**
+     * Keeps up to {@code depth} ads loaded ahead of time for this ad unit. A depth of 0, the
+     * default, disables prefetching and invalidates any ads already in the pool.
+     */
+    public void setPrefetchDepth(final int depth) {
+        if (depth <= 0) {
+            if (mPrefetchPool != null) {
+                mPrefetchPool.destroy();
+                mPrefetchPool = null;
+            }
+            return;
+        }
+
+        if (mIsDestroyed) {
+            return;
+        }
+
+        if (mPrefetchPool == null) {
+            mPrefetchPool = new AdPrefetchPool(new AdPrefetchPool.PrefetchSource() {
+                @Nullable
+                @Override
+                public Context getContext() {
+                    return mContext;
+                }
+
+                @Nullable
+                @Override
+                public String getAdUnitId() {
+                    return mAdUnitId;
+                }
+
+                @Nullable
+                @Override
+                public AdFormat getAdFormat() {
+                    final MoPubAd moPubAd = getMoPubAd();
+                    return moPubAd != null ? moPubAd.getAdFormat() : null;
+                }
+
+                @Nullable
+                @Override
+                public String generateAdUrl() {
+                    return AdViewController.this.generateAdUrl();
+                }
+
+                @Nullable
+                @Override
+                public AdAdapter createAdAdapter(@NonNull final AdResponse adResponse) {
+                    final AdFormat adFormat = getAdFormat();
+                    if (adFormat == null) {
+                        return null;
+                    }
+                    // Prefetched ads sit side by side, so each one needs its own broadcast
+                    // identifier to keep fullscreen events and cached WebViews apart.
+                    return AdViewController.this.createAdAdapter(adResponse, adFormat,
+                            Utils.generateUniqueId());
+                }
+            });
+        }
+        mPrefetchPool.setDepth(depth);
+    }
+
+    public int getPrefetchDepth() {
+        return mPrefetchPool != null ? mPrefetchPool.getDepth() : 0;
+    }
+
+    @Nullable
+    public AdPrefetchPool.Metrics getPrefetchMetrics() {
+        return mPrefetchPool != null ? mPrefetchPool.getMetrics() : null;
+    }
+
     void loadNonJavascript(@Nullable final String url, @Nullable final MoPubError moPubError) {
         if (url == null) {
             adDidFail(MoPubErrorCode.NO_FILL);
@@ -347,6 +494,7 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
     }
 
     void setNotLoading() {
+        cancelParallelWaterfall();
         if (mActiveRequest != null) {
             if (!mActiveRequest.isCanceled()) {
                 mActiveRequest.cancel();
@@ -528,6 +676,11 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
 
         setNotLoading();
 
+        if (mPrefetchPool != null) {
+            mPrefetchPool.destroy();
+            mPrefetchPool = null;
+        }
+
         setAutoRefreshStatus(false);
         cancelRefreshTimer();
 
@@ -546,6 +699,12 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
 
     @NonNull
     Integer getAdTimeoutDelay(final AdFormat adFormat) {
+        return getAdTimeoutDelay(adFormat, mAdResponse);
+    }
+
+    @NonNull
+    private static Integer getAdTimeoutDelay(final AdFormat adFormat,
+                                             @Nullable final AdResponse adResponse) {
         int defaultValue;
         if (adFormat == AdFormat.BANNER) {
             defaultValue = DEFAULT_INLINE_TIMEOUT_DELAY;
@@ -553,10 +712,10 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
             defaultValue = DEFAULT_FULLSCREEN_TIMEOUT_DELAY;
         }
 
-        if (mAdResponse == null) {
+        if (adResponse == null) {
             return defaultValue;
         }
-        return mAdResponse.getAdTimeoutMillis(defaultValue);
+        return adResponse.getAdTimeoutMillis(defaultValue);
     }
 
     void registerClick() {
@@ -687,11 +846,19 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
     void setAdContentView(final View view) {
         final MoPubAd moPubAd = getMoPubAd();
         if (moPubAd instanceof MoPubView) {
+            final long renderStartMillis = AdLoadTracer.now();
+            final AdResponse adResponse = mAdResponse;
             mHandler.post(new Runnable() {
                 @Override
                 public void run() {
                     ((MoPubView) moPubAd).removeAllViews();
                     ((MoPubView) moPubAd).addView(view, getAdLayoutParams(view));
+
+                    if (adResponse != null) {
+                        AdLoadTracer.record(AdLoadTracer.Stage.RENDER, adResponse.getAdUnitId(),
+                                adResponse.getRequestId(), renderStartMillis, true);
+                    }
+                    mImpressionWaitStartMillis = AdLoadTracer.now();
                 }
             });
         }
@@ -718,15 +885,6 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
 
     protected void loadBaseAd() {
         final String baseAdClassName = mAdResponse.getBaseAdClassName();
-        final Map<String, String> serverExtras = mAdResponse.getServerExtras();
-        final String adType = mAdResponse.getAdType();
-        final String fullAdType = mAdResponse.getFullAdType();
-        final String impressionMinVisibleDipsString = mAdResponse.getImpressionMinVisibleDips();
-        final String impressionMinVisibleMsString = mAdResponse.getImpressionMinVisibleMs();
-        final boolean allowCustomClose = mAdResponse.allowCustomClose();
-        final Set<ViewabilityVendor> viewabilityVendors = mAdResponse.getViewabilityVendors();
-
-        Preconditions.checkNotNull(serverExtras);
 
         final MoPubAd moPubAd = getMoPubAd();
         if (moPubAd == null) {
@@ -745,6 +903,108 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
 
         MoPubLog.log(CUSTOM, "Loading ad adapter.");
 
+        mAdAdapter = createAdAdapter(mAdResponse, moPubAd.getAdFormat(), getBroadcastIdentifier());
+        if (mAdAdapter == null) {
+            loadFailUrl(ADAPTER_NOT_FOUND);
+            return;
+        }
+
+        try {
+            mAdAdapter.load(this);
+        } catch (Exception e) {
+            MoPubLog.log(ERROR_WITH_THROWABLE, "Error loading ad adapter", e);
+            loadFailUrl(ADAPTER_NOT_FOUND);
+        }
+    }
+
+    private void loadBaseAdsInParallel(@NonNull final List<AdResponse> adResponses) {
+        final MoPubAd moPubAd = getMoPubAd();
+        final AdLoader adLoader = mAdLoader;
+        if (moPubAd == null || adLoader == null) {
+            MoPubLog.log(CUSTOM, "Can't load an ad in this ad view because it was destroyed.");
+            loadFailUrl(INTERNAL_ERROR);
+            return;
+        }
+
+        invalidateAdapter();
+        cancelParallelWaterfall();
+
+        final AdFormat adFormat = moPubAd.getAdFormat();
+        mParallelWaterfall = new ParallelWaterfall(adLoader, adResponses, mParallelLoadBudgetMillis,
+                new ParallelWaterfall.Listener() {
+                    @Override
+                    public void onWinnerLoaded(@NonNull final AdResponse adResponse,
+                                               @NonNull final AdAdapter adAdapter) {
+                        onParallelAdLoaded(adResponse, adAdapter);
+                    }
+
+                    @Override
+                    public void onAllFailed(@NonNull final MoPubErrorCode lastErrorCode) {
+                        mParallelWaterfall = null;
+                        onAdLoadFailed(lastErrorCode);
+                    }
+                });
+        // Only the highest priority ad keeps this controller's broadcast identifier. The others
+        // are loaded side by side and must not share fullscreen events or cached WebViews.
+        mParallelWaterfall.start((adResponse, priority) ->
+                createAdAdapter(adResponse, adFormat,
+                        priority == 0 ? getBroadcastIdentifier() : Utils.generateUniqueId()));
+    }
+
+    private void onParallelAdLoaded(@NonNull final AdResponse adResponse,
+                                    @NonNull final AdAdapter adAdapter) {
+        mParallelWaterfall = null;
+        mAdResponse = adResponse;
+        mBaseAdClassName = adResponse.getBaseAdClassName();
+        mRefreshTimeMillis = adResponse.getRefreshTimeMillis();
+        mAdAdapter = adAdapter;
+        mAdAdapter.setLoadListener(this);
+
+        // After-load tracking was already reported by the parallel waterfall.
+        mAdLoader = null;
+        scheduleRefreshTimerIfEnabled();
+
+        final MoPubAd moPubAd = getMoPubAd();
+        if (moPubAd != null) {
+            moPubAd.onAdLoaded();
+        }
+    }
+
+    private void cancelParallelWaterfall() {
+        if (mParallelWaterfall != null) {
+            mParallelWaterfall.cancel();
+            mParallelWaterfall = null;
+        }
+    }
+
+    /**
+     * Loads up to {@code maxConcurrentAds} ads of the waterfall at the same time instead of one
+     * after another. The highest priority ad that loads is shown. Lower priority ads are only
+     * used once the ads above them fail or {@code budgetMillis} has passed. A value of 1, the
+     * default, keeps the regular one-at-a-time waterfall.
+     */
+    public void setParallelWaterfall(final int maxConcurrentAds, final int budgetMillis) {
+        mParallelLoadCount = Math.max(1, maxConcurrentAds);
+        mParallelLoadBudgetMillis = Math.max(0, budgetMillis);
+    }
+
+    public int getParallelLoadCount() {
+        return mParallelLoadCount;
+    }
+
+    @Nullable
+    AdAdapter createAdAdapter(@NonNull final AdResponse adResponse,
+                              @NonNull final AdFormat adFormat,
+                              final long broadcastIdentifier) {
+        final String baseAdClassName = adResponse.getBaseAdClassName();
+        final Map<String, String> serverExtras = adResponse.getServerExtras();
+
+        Preconditions.checkNotNull(serverExtras);
+
+        if (TextUtils.isEmpty(baseAdClassName)) {
+            return null;
+        }
+
         final Map<String, String> extras = new TreeMap<>(serverExtras);
         for (final String key : mLocalExtras.keySet()) {
             final Object value = mLocalExtras.get(key);
@@ -754,58 +1014,60 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
         }
 
         String adapterClassName;
-        if (moPubAd.getAdFormat() == AdFormat.BANNER) {
+        if (adFormat == AdFormat.BANNER) {
             adapterClassName = INLINE_AD_ADAPTER;
         } else {
             adapterClassName = FULLSCREEN_AD_ADAPTER;
         }
 
         final String adPayload = serverExtras.remove(DataKeys.HTML_RESPONSE_BODY_KEY);
+        final Integer width = adResponse.getWidth();
+        final Integer height = adResponse.getHeight();
 
         final AdData adData = new AdData.Builder()
                 .extras(extras)
-                .broadcastIdentifier(getBroadcastIdentifier())
-                .timeoutDelayMillis(getAdTimeoutDelay(moPubAd.getAdFormat()))
-                .impressionMinVisibleDips(impressionMinVisibleDipsString)
-                .impressionMinVisibleMs(impressionMinVisibleMsString)
-                .dspCreativeId(getDspCreativeId())
+                .broadcastIdentifier(broadcastIdentifier)
+                .timeoutDelayMillis(getAdTimeoutDelay(adFormat, adResponse))
+                .impressionMinVisibleDips(adResponse.getImpressionMinVisibleDips())
+                .impressionMinVisibleMs(adResponse.getImpressionMinVisibleMs())
+                .dspCreativeId(adResponse.getDspCreativeId())
                 .adPayload(adPayload != null ? adPayload : "")
-                .adWidth(getAdWidth())
-                .adHeight(getAdHeight())
-                .adType(adType)
-                .fullAdType(fullAdType)
-                .allowCustomClose(allowCustomClose)
-                .viewabilityVendors(viewabilityVendors)
+                .adWidth(width != null ? width : 0)
+                .adHeight(height != null ? height : 0)
+                .adType(adResponse.getAdType())
+                .fullAdType(adResponse.getFullAdType())
+                .allowCustomClose(adResponse.allowCustomClose())
+                .viewabilityVendors(adResponse.getViewabilityVendors())
+                .requestId(adResponse.getRequestId())
                 .build();
 
-        if (Reflection.classFound(adapterClassName)) {
-            try {
-                Class<? extends AdAdapter> adAdapterClass = Class.forName(adapterClassName)
-                        .asSubclass(AdAdapter.class);
-                Constructor<?> adAdapterConstructor = adAdapterClass.getDeclaredConstructor(
-                        new Class[]{
-                                Context.class,
-                                String.class,
-                                AdData.class
-                        }
-                );
-                adAdapterConstructor.setAccessible(true);
-                mAdAdapter = (AdAdapter) adAdapterConstructor.newInstance(
-                        mContext,
-                        baseAdClassName,
-                        adData
-                );
-                mAdAdapter.load(this);
-            } catch (Exception e) {
-                MoPubLog.log(ERROR_WITH_THROWABLE, "Error loading ad adapter", e);
-                loadFailUrl(ADAPTER_NOT_FOUND);
-            }
-        } else {
+        if (!Reflection.classFound(adapterClassName)) {
             MoPubLog.log(CUSTOM_WITH_THROWABLE,
                     "Could not load adapter",
                     ADAPTER_NOT_FOUND,
                     ADAPTER_NOT_FOUND.getIntCode());
-            loadFailUrl(ADAPTER_NOT_FOUND);
+            return null;
+        }
+
+        try {
+            Class<? extends AdAdapter> adAdapterClass = Class.forName(adapterClassName)
+                    .asSubclass(AdAdapter.class);
+            Constructor<?> adAdapterConstructor = adAdapterClass.getDeclaredConstructor(
+                    new Class[]{
+                            Context.class,
+                            String.class,
+                            AdData.class
+                    }
+            );
+            adAdapterConstructor.setAccessible(true);
+            return (AdAdapter) adAdapterConstructor.newInstance(
+                    mContext,
+                    baseAdClassName,
+                    adData
+            );
+        } catch (Exception e) {
+            MoPubLog.log(ERROR_WITH_THROWABLE, "Error loading ad adapter", e);
+            return null;
         }
     }
 
@@ -847,6 +1109,10 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
         if (moPubAd != null) {
             moPubAd.onAdLoaded();
         }
+
+        if (mPrefetchPool != null) {
+            mPrefetchPool.replenish();
+        }
     }
 
     @Override
@@ -866,6 +1132,10 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
 
     @Override
     public void onAdShown() {
+        if (mImpressionWaitStartMillis < 0) {
+            mImpressionWaitStartMillis = AdLoadTracer.now();
+        }
+
         final MoPubAd moPubAd = getMoPubAd();
         if (moPubAd != null) {
             moPubAd.onAdShown();
@@ -893,6 +1163,12 @@ public class AdViewController implements AdLifecycleListener.LoadListener, AdLif
             if (requestId != null) {
                 mLastTrackedRequestId = requestId;
             }
+            if (mImpressionWaitStartMillis >= 0) {
+                AdLoadTracer.record(AdLoadTracer.Stage.IMPRESSION, mAdResponse.getAdUnitId(),
+                        requestId, mImpressionWaitStartMillis, true);
+                mImpressionWaitStartMillis = -1;
+                AdLoadTracer.logSpans(requestId);
+            }
             TrackingRequest.makeTrackingHttpRequest(mAdResponse.getImpressionTrackingUrls(), mContext);
 
             new SingleImpression(mAdResponse.getAdUnitId(), mAdResponse.getImpressionData()).sendImpression();
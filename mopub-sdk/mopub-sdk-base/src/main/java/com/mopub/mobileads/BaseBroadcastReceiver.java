@@ -18,15 +18,29 @@ import com.mopub.common.Preconditions;
 public abstract class BaseBroadcastReceiver extends BroadcastReceiver {
     private final long mBroadcastIdentifier;
     @Nullable private Context mContext;
+    @Nullable private FullscreenEventBus.Listener mFullscreenEventListener;
+    private boolean mRegisteredWithLocalBroadcastManager;
 
     public BaseBroadcastReceiver(final long broadcastIdentifier) {
         mBroadcastIdentifier = broadcastIdentifier;
     }
 
+    /**
+     * Sends the action to the receivers registered for this broadcast identifier. The fullscreen
+     * actions in {@link com.mopub.common.IntentActions} go through {@link FullscreenEventBus}
+     * without creating an Intent. Any other action is still sent with LocalBroadcastManager.
+     */
     public static void broadcastAction(@NonNull final Context context, final long broadcastIdentifier,
             @NonNull final String action) {
         Preconditions.checkNotNull(context, "context cannot be null");
         Preconditions.checkNotNull(action, "action cannot be null");
+
+        final FullscreenEventBus.Event event = FullscreenEventBus.Event.fromAction(action);
+        if (event != null) {
+            FullscreenEventBus.post(broadcastIdentifier, event);
+            return;
+        }
+
         Intent intent = new Intent(action);
         intent.putExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, broadcastIdentifier);
         LocalBroadcastManager.getInstance(context.getApplicationContext()).sendBroadcast(intent);
@@ -35,20 +49,84 @@ public abstract class BaseBroadcastReceiver extends BroadcastReceiver {
     @NonNull
     public abstract IntentFilter getIntentFilter();
 
+    /**
+     * Registers the receiver for the actions in {@link #getIntentFilter()}. Fullscreen actions
+     * arrive through {@link FullscreenEventBus}. The receiver is only registered with
+     * LocalBroadcastManager when its filter also has other actions.
+     */
     public void register(@NonNull final BroadcastReceiver broadcastReceiver,
                          @NonNull final Context context) {
+        Preconditions.checkNotNull(broadcastReceiver);
+        Preconditions.checkNotNull(context);
+
+        unregister(broadcastReceiver);
         mContext = context.getApplicationContext();
-        LocalBroadcastManager.getInstance(mContext).registerReceiver(broadcastReceiver,
-                getIntentFilter());
+        final IntentFilter intentFilter = getIntentFilter();
+
+        boolean hasFullscreenAction = false;
+        boolean hasOtherAction = false;
+        for (int i = 0; i < intentFilter.countActions(); i++) {
+            if (FullscreenEventBus.Event.fromAction(intentFilter.getAction(i)) != null) {
+                hasFullscreenAction = true;
+            } else {
+                hasOtherAction = true;
+            }
+        }
+
+        if (hasFullscreenAction) {
+            final Context applicationContext = mContext;
+            mFullscreenEventListener = new FullscreenEventBus.Listener() {
+                @Override
+                public void onFullscreenEvent(@NonNull final FullscreenEventBus.Event event) {
+                    if (!intentFilter.hasAction(event.getAction())) {
+                        return;
+                    }
+                    if (broadcastReceiver == BaseBroadcastReceiver.this) {
+                        BaseBroadcastReceiver.this.onFullscreenEvent(event);
+                    } else {
+                        broadcastReceiver.onReceive(applicationContext, createIntent(event));
+                    }
+                }
+            };
+            FullscreenEventBus.register(mBroadcastIdentifier, mFullscreenEventListener);
+        }
+        if (hasOtherAction) {
+            LocalBroadcastManager.getInstance(mContext).registerReceiver(broadcastReceiver,
+                    intentFilter);
+            mRegisteredWithLocalBroadcastManager = true;
+        }
     }
 
     public void unregister(final @Nullable BroadcastReceiver broadcastReceiver) {
         if (mContext != null && broadcastReceiver != null) {
-            LocalBroadcastManager.getInstance(mContext).unregisterReceiver(broadcastReceiver);
+            if (mFullscreenEventListener != null) {
+                FullscreenEventBus.unregister(mBroadcastIdentifier, mFullscreenEventListener);
+                mFullscreenEventListener = null;
+            }
+            if (mRegisteredWithLocalBroadcastManager) {
+                LocalBroadcastManager.getInstance(mContext).unregisterReceiver(broadcastReceiver);
+                mRegisteredWithLocalBroadcastManager = false;
+            }
             mContext = null;
         }
     }
 
+    /**
+     * Called on the main thread for fullscreen events sent to this broadcast identifier. By
+     * default this hands the event to {@link #onReceive(Context, Intent)} as an Intent. Receivers
+     * in this package can override it to skip the Intent.
+     */
+    void onFullscreenEvent(@NonNull final FullscreenEventBus.Event event) {
+        onReceive(mContext, createIntent(event));
+    }
+
+    @NonNull
+    private Intent createIntent(@NonNull final FullscreenEventBus.Event event) {
+        final Intent intent = new Intent(event.getAction());
+        intent.putExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, mBroadcastIdentifier);
+        return intent;
+    }
+
     /**
      * Only consume this broadcast if the identifier on the received Intent and this broadcast
      * match up. This allows us to target broadcasts to the ad that spawned them. We include
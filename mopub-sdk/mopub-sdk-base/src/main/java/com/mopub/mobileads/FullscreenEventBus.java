@@ -0,0 +1,159 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.annotation.SuppressLint;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.IntentActions;
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers fullscreen lifecycle events to the listeners registered for a broadcast identifier.
+ * This replaces sending an Intent through LocalBroadcastManager, which matched every registered
+ * IntentFilter on every event. Here the listeners are found with one map lookup, and events are
+ * posted as pooled {@link Message}s, so nothing is allocated per event.
+ *
+ * Events are always delivered on the main thread, in the order they were posted, and only to the
+ * listeners registered when the event is delivered.
+ */
+class FullscreenEventBus {
+
+    enum Event {
+        FAIL(IntentActions.ACTION_FULLSCREEN_FAIL),
+        SHOW(IntentActions.ACTION_FULLSCREEN_SHOW),
+        DISMISS(IntentActions.ACTION_FULLSCREEN_DISMISS),
+        CLICK(IntentActions.ACTION_FULLSCREEN_CLICK),
+        REWARDED_AD_COMPLETE(IntentActions.ACTION_REWARDED_AD_COMPLETE);
+
+        private static final Event[] VALUES = values();
+
+        @NonNull private final String mAction;
+
+        Event(@NonNull final String action) {
+            mAction = action;
+        }
+
+        @NonNull
+        String getAction() {
+            return mAction;
+        }
+
+        @Nullable
+        static Event fromAction(@Nullable final String action) {
+            for (final Event event : VALUES) {
+                if (event.mAction.equals(action)) {
+                    return event;
+                }
+            }
+            return null;
+        }
+    }
+
+    interface Listener {
+        void onFullscreenEvent(@NonNull Event event);
+    }
+
+    @SuppressLint("UseSparseArrays")
+    @NonNull
+    private static final Map<Long, List<Listener>> sListeners = new HashMap<>();
+
+    @NonNull
+    private static final Handler sHandler = new Handler(Looper.getMainLooper()) {
+        @Override
+        public void handleMessage(@NonNull final Message message) {
+            final long broadcastIdentifier = ((long) message.arg1 << 32) |
+                    (message.arg2 & 0xFFFFFFFFL);
+            dispatch(broadcastIdentifier, Event.VALUES[message.what]);
+        }
+    };
+
+    private FullscreenEventBus() {
+    }
+
+    /**
+     * Registers the listener for events with this broadcast identifier, next to any listeners
+     * already registered for it. Registering the same listener twice has no effect.
+     */
+    static synchronized void register(final long broadcastIdentifier,
+            @NonNull final Listener listener) {
+        Preconditions.checkNotNull(listener);
+
+        List<Listener> listeners = sListeners.get(broadcastIdentifier);
+        if (listeners == null) {
+            listeners = new ArrayList<>(1);
+            sListeners.put(broadcastIdentifier, listeners);
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters the listener from this broadcast identifier, if it was registered.
+     */
+    static synchronized void unregister(final long broadcastIdentifier,
+            @NonNull final Listener listener) {
+        Preconditions.checkNotNull(listener);
+
+        final List<Listener> listeners = sListeners.get(broadcastIdentifier);
+        if (listeners != null && listeners.remove(listener) && listeners.isEmpty()) {
+            sListeners.remove(broadcastIdentifier);
+        }
+    }
+
+    /**
+     * Queues the event for the listeners of this broadcast identifier. Can be called from any
+     * thread.
+     */
+    static void post(final long broadcastIdentifier, @NonNull final Event event) {
+        Preconditions.checkNotNull(event);
+
+        Message.obtain(sHandler, event.ordinal(), (int) (broadcastIdentifier >>> 32),
+                (int) broadcastIdentifier).sendToTarget();
+    }
+
+    private static void dispatch(final long broadcastIdentifier, @NonNull final Event event) {
+        final Listener[] listeners;
+        synchronized (FullscreenEventBus.class) {
+            final List<Listener> registered = sListeners.get(broadcastIdentifier);
+            if (registered == null) {
+                return;
+            }
+            listeners = registered.toArray(new Listener[0]);
+        }
+        // Called outside the lock, since a listener may unregister itself. A listener that an
+        // earlier one unregistered still gets this event, like with LocalBroadcastManager.
+        for (final Listener listener : listeners) {
+            listener.onFullscreenEvent(event);
+        }
+    }
+
+    @VisibleForTesting
+    static synchronized int getListenerCount() {
+        int count = 0;
+        for (final List<Listener> listeners : sListeners.values()) {
+            count += listeners.size();
+        }
+        return count;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized void clearForTesting() {
+        sListeners.clear();
+    }
+}
@@ -102,6 +102,33 @@ interface MoPubAd : LoadListener, InteractionListener {
         getAdViewController()?.let { it.localExtras = localExtras }
     }
 
+    /**
+     * Keeps up to [depth] ads loaded ahead of time so that the next load is served immediately.
+     * Prefetching is disabled by default. Pass 0 to disable it again.
+     */
+    @JvmDefault
+    fun setPrefetchDepth(depth: Int) {
+        getAdViewController()?.setPrefetchDepth(depth)
+    }
+
+    /**
+     * @return hit rate and wasted prefetch counters, or null if prefetching is disabled
+     */
+    @JvmDefault
+    fun getPrefetchMetrics(): AdPrefetchPool.Metrics? {
+        return getAdViewController()?.prefetchMetrics
+    }
+
+    /**
+     * Loads up to [maxConcurrentAds] waterfall ads at the same time. The highest priority ad that
+     * loads is used, waiting at most [budgetMillis] for higher priority ads once a lower priority
+     * one is ready. Pass 1 to go back to loading one ad at a time, which is the default.
+     */
+    @JvmDefault
+    fun setParallelWaterfall(maxConcurrentAds: Int, budgetMillis: Int) {
+        getAdViewController()?.setParallelWaterfall(maxConcurrentAds, budgetMillis)
+    }
+
     /**
      * @return current SDK location value
      */
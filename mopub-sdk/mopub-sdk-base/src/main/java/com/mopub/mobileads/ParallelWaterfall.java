@@ -0,0 +1,258 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.network.AdLoader;
+import com.mopub.network.AdResponse;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.mobileads.MoPubErrorCode.ADAPTER_NOT_FOUND;
+import static com.mopub.mobileads.MoPubErrorCode.CANCELLED;
+
+/**
+ * Loads the top few ads of a waterfall at the same time instead of one after another. The ad with
+ * the highest priority that loads wins. A lower priority ad is only picked once every ad above it
+ * has failed, or once the time budget has run out. Every other adapter is invalidated.
+ *
+ * Each ad's outcome is reported to the {@link AdLoader} exactly once so that after-load tracking
+ * stays correct. Ads that are invalidated because another ad won are reported as
+ * {@link MoPubErrorCode#CANCELLED}.
+ *
+ * All methods must be called on the main thread.
+ */
+class ParallelWaterfall {
+
+    interface Listener {
+        void onWinnerLoaded(@NonNull AdResponse adResponse, @NonNull AdAdapter adAdapter);
+
+        void onAllFailed(@NonNull MoPubErrorCode lastErrorCode);
+    }
+
+    interface AdapterFactory {
+        @Nullable
+        AdAdapter createAdAdapter(@NonNull AdResponse adResponse, int priority);
+    }
+
+    enum State {
+        LOADING,
+        LOADED,
+        FAILED
+    }
+
+    @VisibleForTesting
+    class Candidate implements AdLifecycleListener.LoadListener {
+        @NonNull
+        final AdResponse adResponse;
+        @Nullable
+        AdAdapter adAdapter;
+        @NonNull
+        State state = State.LOADING;
+
+        Candidate(@NonNull final AdResponse adResponse) {
+            this.adResponse = adResponse;
+        }
+
+        @Override
+        public void onAdLoaded() {
+            if (mFinished || state != State.LOADING) {
+                return;
+            }
+
+            state = State.LOADED;
+            evaluate();
+        }
+
+        @Override
+        public void onAdLoadFailed(@NotNull final MoPubErrorCode errorCode) {
+            if (mFinished || state == State.FAILED) {
+                return;
+            }
+
+            fail(this, errorCode);
+            evaluate();
+        }
+    }
+
+    @NonNull
+    private final AdLoader mAdLoader;
+    @NonNull
+    private final List<Candidate> mCandidates;
+    @NonNull
+    private final Listener mListener;
+    @NonNull
+    private final Handler mHandler;
+    @NonNull
+    private final Runnable mBudgetRunnable;
+    private final long mBudgetMillis;
+
+    @NonNull
+    private MoPubErrorCode mLastErrorCode = MoPubErrorCode.NETWORK_NO_FILL;
+    private boolean mBudgetExpired;
+    private boolean mFinished;
+
+    /**
+     * @param adLoader     loader the ads came from, used for after-load tracking
+     * @param adResponses  ads in waterfall order, highest priority first
+     * @param budgetMillis how long to wait for a higher priority ad once a lower priority one
+     *                     has loaded
+     * @param listener     notified once with the winner or with the failure
+     */
+    ParallelWaterfall(@NonNull final AdLoader adLoader,
+                      @NonNull final List<AdResponse> adResponses,
+                      final long budgetMillis,
+                      @NonNull final Listener listener) {
+        Preconditions.checkNotNull(adLoader);
+        Preconditions.checkNotNull(adResponses);
+        Preconditions.checkNotNull(listener);
+
+        mAdLoader = adLoader;
+        mCandidates = new ArrayList<>(adResponses.size());
+        for (final AdResponse adResponse : adResponses) {
+            mCandidates.add(new Candidate(adResponse));
+        }
+        mBudgetMillis = budgetMillis;
+        mListener = listener;
+        mHandler = new Handler(Looper.getMainLooper());
+        mBudgetRunnable = () -> {
+            mBudgetExpired = true;
+            evaluate();
+        };
+    }
+
+    void start(@NonNull final AdapterFactory adapterFactory) {
+        Preconditions.checkNotNull(adapterFactory);
+
+        MoPubLog.log(CUSTOM, "Loading " + mCandidates.size() + " ads in parallel.");
+
+        for (int i = 0; i < mCandidates.size(); i++) {
+            final Candidate candidate = mCandidates.get(i);
+            candidate.adAdapter = adapterFactory.createAdAdapter(candidate.adResponse, i);
+            if (candidate.adAdapter == null) {
+                fail(candidate, ADAPTER_NOT_FOUND);
+            }
+        }
+
+        mHandler.postDelayed(mBudgetRunnable, mBudgetMillis);
+
+        for (final Candidate candidate : mCandidates) {
+            final AdAdapter adAdapter = candidate.adAdapter;
+            if (mFinished || adAdapter == null || candidate.state != State.LOADING) {
+                continue;
+            }
+
+            // Base ad classes can be developed by any third party and may not be tested.
+            try {
+                adAdapter.load(candidate);
+            } catch (Exception e) {
+                fail(candidate, MoPubErrorCode.INTERNAL_ERROR);
+            }
+        }
+
+        evaluate();
+    }
+
+    /**
+     * Stops waiting for any result and invalidates every adapter without reporting. Used when the
+     * whole load is abandoned, such as on destroy or a forced refresh.
+     */
+    void cancel() {
+        if (mFinished) {
+            return;
+        }
+
+        mFinished = true;
+        mHandler.removeCallbacks(mBudgetRunnable);
+        for (final Candidate candidate : mCandidates) {
+            if (candidate.adAdapter != null) {
+                candidate.adAdapter.invalidate();
+            }
+        }
+    }
+
+    boolean isFinished() {
+        return mFinished;
+    }
+
+    @VisibleForTesting
+    @NonNull
+    List<Candidate> getCandidates() {
+        return mCandidates;
+    }
+
+    private void fail(@NonNull final Candidate candidate, @NonNull final MoPubErrorCode errorCode) {
+        candidate.state = State.FAILED;
+        mLastErrorCode = errorCode;
+        if (candidate.adAdapter != null) {
+            candidate.adAdapter.invalidate();
+        }
+        mAdLoader.creativeDownloadFailed(candidate.adResponse, errorCode);
+    }
+
+    @VisibleForTesting
+    void evaluate() {
+        if (mFinished) {
+            return;
+        }
+
+        // Walk in priority order. A loaded ad wins unless a higher priority ad is still loading
+        // and the budget has not run out yet.
+        for (final Candidate candidate : mCandidates) {
+            if (candidate.state == State.LOADED) {
+                finish(candidate);
+                return;
+            }
+            if (candidate.state == State.LOADING && !mBudgetExpired) {
+                return;
+            }
+        }
+
+        for (final Candidate candidate : mCandidates) {
+            if (candidate.state == State.LOADING) {
+                return;
+            }
+        }
+
+        finish(null);
+    }
+
+    private void finish(@Nullable final Candidate winner) {
+        mFinished = true;
+        mHandler.removeCallbacks(mBudgetRunnable);
+
+        for (final Candidate candidate : mCandidates) {
+            if (candidate == winner || candidate.state == State.FAILED) {
+                continue;
+            }
+
+            candidate.state = State.FAILED;
+            if (candidate.adAdapter != null) {
+                candidate.adAdapter.invalidate();
+            }
+            mAdLoader.creativeDownloadFailed(candidate.adResponse, CANCELLED);
+        }
+
+        if (winner == null || winner.adAdapter == null) {
+            mListener.onAllFailed(mLastErrorCode);
+            return;
+        }
+
+        mAdLoader.creativeDownloadSuccess(winner.adResponse);
+        mListener.onWinnerLoaded(winner.adResponse, winner.adAdapter);
+    }
+}
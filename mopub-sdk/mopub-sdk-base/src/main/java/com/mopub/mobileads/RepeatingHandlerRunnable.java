@@ -7,6 +7,7 @@ package com.mopub.mobileads;
 import android.os.Handler;
 import androidx.annotation.NonNull;
 
+import com.mopub.common.MainThreadSampler;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
 
@@ -27,13 +28,23 @@ public abstract class RepeatingHandlerRunnable implements Runnable {
     @Override
     public void run() {
         if (mIsRunning) {
+            final long startNanos = MainThreadSampler.begin();
             doWork();
+            MainThreadSampler.end(getSampledTask(), startNanos);
             mHandler.postDelayed(this, mUpdateIntervalMillis);
         }
     }
 
     public abstract void doWork();
 
+    /**
+     * The task that {@link #doWork()} is attributed to in the {@link MainThreadSampler}.
+     */
+    @NonNull
+    protected MainThreadSampler.Task getSampledTask() {
+        return MainThreadSampler.Task.REPEATING_TASK;
+    }
+
     /**
      * Start this runnable immediately, repeating at the provided interval.
      */
@@ -12,6 +12,7 @@ import android.view.WindowManager;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.CacheService;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
@@ -56,11 +57,24 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
 
     private final boolean mShouldPreCacheVideo;
 
+    @Nullable
+    private String mRequestId;
+    private long mPrepareStartMillis = -1;
+
     public VastManager(@NonNull final Context context, boolean shouldPreCacheVideo) {
         initializeScreenDimensions(context);
         mShouldPreCacheVideo = shouldPreCacheVideo;
     }
 
+    /**
+     * Sets the request ID the time spent preparing the video is traced under.
+     *
+     * @see AdLoadTracer
+     */
+    public void setRequestId(@Nullable final String requestId) {
+        mRequestId = requestId;
+    }
+
     /**
      * Creates and starts an async task that parses the VAST xml document.
      *
@@ -82,12 +96,13 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
                     mScreenWidthDp,
                     context.getApplicationContext());
             mDspCreativeId = dspCreativeId;
+            mPrepareStartMillis = AdLoadTracer.now();
 
             try {
                 AsyncTasks.safeExecuteOnExecutor(mVastXmlManagerAggregator, vastXml);
             } catch (Exception e) {
                 MoPubLog.log(ERROR_WITH_THROWABLE, "Failed to aggregate vast xml", e);
-                mVastManagerListener.onVastVideoConfigurationPrepared(null);
+                onVastVideoConfigurationPrepared(null);
             }
         }
     }
@@ -111,7 +126,7 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
         }
 
         if (vastVideoConfig == null) {
-            mVastManagerListener.onVastVideoConfigurationPrepared(null);
+            onVastVideoConfigurationPrepared(null);
             return;
         }
 
@@ -121,7 +136,7 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
 
         // Return immediately if we already have a cached video or if video precache is not required.
         if (!mShouldPreCacheVideo || updateDiskMediaFileUrl(vastVideoConfig)) {
-            mVastManagerListener.onVastVideoConfigurationPrepared(vastVideoConfig);
+            onVastVideoConfigurationPrepared(vastVideoConfig);
             return;
         }
 
@@ -129,10 +144,10 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
             @Override
             public void onComplete(boolean success) {
                 if (success && updateDiskMediaFileUrl(vastVideoConfig)) {
-                    mVastManagerListener.onVastVideoConfigurationPrepared(vastVideoConfig);
+                    onVastVideoConfigurationPrepared(vastVideoConfig);
                 } else {
                     MoPubLog.log(CUSTOM, "Failed to download VAST video.");
-                    mVastManagerListener.onVastVideoConfigurationPrepared(null);
+                    onVastVideoConfigurationPrepared(null);
                 }
             }
         };
@@ -140,6 +155,17 @@ public class VastManager implements VastXmlManagerAggregator.VastXmlManagerAggre
         VideoDownloader.cache(vastVideoConfig.getNetworkMediaFileUrl(), videoDownloaderListener);
     }
 
+    private void onVastVideoConfigurationPrepared(@Nullable final VastVideoConfig vastVideoConfig) {
+        if (mPrepareStartMillis >= 0) {
+            AdLoadTracer.record(AdLoadTracer.Stage.CREATIVE_DOWNLOAD, null, mRequestId,
+                    mPrepareStartMillis, vastVideoConfig != null);
+            mPrepareStartMillis = -1;
+        }
+        if (mVastManagerListener != null) {
+            mVastManagerListener.onVastVideoConfigurationPrepared(vastVideoConfig);
+        }
+    }
+
     /**
      * This method takes the media file http url and checks to see if we have the media file downloaded
      * and cached in the Disk LRU cache. If it is cached, then the {@link VastVideoConfig} is
@@ -7,6 +7,7 @@ package com.mopub.mobileads;
 import android.graphics.Bitmap;
 import android.media.MediaMetadataRetriever;
 import android.os.AsyncTask;
+import android.os.Build;
 import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
@@ -29,10 +30,21 @@ public class VastVideoBlurLastVideoFrameTask extends AsyncTask<String, Void, Boo
      */
     private static final int OFFSET_IN_MICROSECONDS = 200000;
 
+    /**
+     * The frame is only shown blurred, so it is extracted no larger than this on either side. This
+     * keeps the decode and the blur cheap even for 1080p creatives.
+     */
+    @VisibleForTesting
+    static final int MAX_FRAME_DIMENSION = 360;
+
+    /**
+     * Blur radius at {@link #MAX_FRAME_DIMENSION}.
+     */
+    private static final int BLUR_RADIUS = 2;
+
     @NonNull private final MediaMetadataRetriever mMediaMetadataRetriever;
     @NonNull private final ImageView mBlurredLastVideoFrameImageView;
     private int mVideoDuration;
-    @Nullable private Bitmap mLastVideoFrame;
     @Nullable private Bitmap mBlurredLastVideoFrame;
 
     public VastVideoBlurLastVideoFrameTask(
@@ -57,16 +69,14 @@ public class VastVideoBlurLastVideoFrameTask extends AsyncTask<String, Void, Boo
             // This actually gets a frame just before the video ends. If we try to get a frame
             // that's actually past the end of the video or before 0, this will pick some
             // arbitrary frame.
-            mLastVideoFrame = mMediaMetadataRetriever.getFrameAtTime(
-                    mVideoDuration * MICROSECONDS_PER_MILLISECOND - OFFSET_IN_MICROSECONDS,
-                    MediaMetadataRetriever.OPTION_CLOSEST);
+            final Bitmap lastVideoFrame = getScaledFrameAtTime(
+                    mVideoDuration * MICROSECONDS_PER_MILLISECOND - OFFSET_IN_MICROSECONDS);
 
-            if (mLastVideoFrame == null) {
+            if (lastVideoFrame == null) {
                 return false;
             }
 
-            mBlurredLastVideoFrame = ImageUtils.applyFastGaussianBlurToBitmap(
-                    mLastVideoFrame, 4);
+            mBlurredLastVideoFrame = ImageUtils.applyBoxBlurToBitmap(lastVideoFrame, BLUR_RADIUS);
 
             return true;
         } catch (Exception e) {
@@ -75,6 +85,39 @@ public class VastVideoBlurLastVideoFrameTask extends AsyncTask<String, Void, Boo
         }
     }
 
+    /**
+     * Gets the frame no larger than {@link #MAX_FRAME_DIMENSION} on either side. Before API 27
+     * the retriever can only return full size frames, which are scaled down before blurring.
+     */
+    @Nullable
+    private Bitmap getScaledFrameAtTime(final long timeUs) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            return mMediaMetadataRetriever.getScaledFrameAtTime(timeUs,
+                    MediaMetadataRetriever.OPTION_CLOSEST, MAX_FRAME_DIMENSION,
+                    MAX_FRAME_DIMENSION);
+        }
+
+        final Bitmap frame = mMediaMetadataRetriever.getFrameAtTime(timeUs,
+                MediaMetadataRetriever.OPTION_CLOSEST);
+        if (frame == null) {
+            return null;
+        }
+        final int width = frame.getWidth();
+        final int height = frame.getHeight();
+        final int largestDimension = Math.max(width, height);
+        if (largestDimension <= MAX_FRAME_DIMENSION) {
+            return frame;
+        }
+        final float scale = (float) MAX_FRAME_DIMENSION / largestDimension;
+        final Bitmap scaledFrame = Bitmap.createScaledBitmap(frame,
+                Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale)),
+                true);
+        if (scaledFrame != frame) {
+            frame.recycle();
+        }
+        return scaledFrame;
+    }
+
     @Override
     protected void onPostExecute(final Boolean success) {
         if (isCancelled()) {
@@ -8,16 +8,8 @@ import android.app.Activity
 import android.content.ActivityNotFoundException
 import android.content.Context
 import android.os.Bundle
-import com.google.gson.Gson
-import com.google.gson.GsonBuilder
-import com.google.gson.TypeAdapter
-import com.google.gson.TypeAdapterFactory
 import com.google.gson.annotations.Expose
 import com.google.gson.annotations.SerializedName
-import com.google.gson.reflect.TypeToken
-import com.google.gson.stream.JsonReader
-import com.google.gson.stream.JsonToken
-import com.google.gson.stream.JsonWriter
 import com.mopub.common.*
 import com.mopub.common.UrlHandler.ResultActions
 import com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM
@@ -41,12 +33,9 @@ class VastVideoConfig : Serializable {
     companion object {
         private const val serialVersionUID: Long = 3L
 
-        @Throws(IOException::class, ClassNotFoundException::class)
+        @Throws(IOException::class)
         fun fromVastVideoConfigString(input: String): VastVideoConfig {
-            val gson = GsonBuilder()
-                .registerTypeAdapterFactory(VastVideoConfigTypeAdapterFactory())
-                .create()
-            return gson.fromJson(input, VastVideoConfig::class.java)
+            return VastVideoConfigCodec.decode(input)
         }
     }
 
@@ -617,10 +606,7 @@ class VastVideoConfig : Serializable {
      * @return a String representing this VastVideoConfig.
      */
     fun toJsonString(): String {
-        val gson = GsonBuilder()
-            .registerTypeAdapterFactory(VastVideoConfigTypeAdapterFactory())
-            .create()
-        return gson.toJson(this@VastVideoConfig)
+        return VastVideoConfigCodec.encode(this)
     }
 
     private fun hydrateUrls(event: String?, urls: JSONArray): List<String>? {
@@ -682,44 +668,4 @@ class VastVideoConfig : Serializable {
             addVastCompanionAdConfig(it)
         }
     }
-
-    private class VastVideoConfigTypeAdapterFactory : TypeAdapterFactory {
-        override fun <T : Any?> create(gson: Gson?, typeToken: TypeToken<T>?): TypeAdapter<T>? {
-            return if (typeToken == null || !Class::class.java.isAssignableFrom(typeToken.rawType)) {
-                null
-            } else VastVideoConfig.VastVideoConfigTypeAdapter() as TypeAdapter<T>
-        }
-    }
-
-    class VastVideoConfigTypeAdapter : TypeAdapter<Class<*>?>() {
-        @Throws(IOException::class)
-        override fun write(jsonWriter: JsonWriter?, clazz: Class<*>?) {
-            when {
-                jsonWriter == null -> return
-                clazz == null -> {
-                    jsonWriter.nullValue()
-                    return
-                }
-                else -> jsonWriter.value(clazz.name)
-            }
-        }
-
-        @Throws(IOException::class)
-        override fun read(jsonReader: JsonReader?): Class<*>? {
-            return when {
-                jsonReader == null -> null
-                jsonReader.peek() == JsonToken.NULL -> {
-                    jsonReader.nextNull()
-                    null
-                }
-                else -> try {
-                    Class.forName(jsonReader.nextString())
-                } catch (exception: ClassNotFoundException) {
-                    throw IOException(exception)
-                    null
-                }
-            }
-        }
-    }
-
 }
@@ -0,0 +1,709 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.mopub.common.Constants;
+import com.mopub.common.Preconditions;
+import com.mopub.common.ViewabilityVendor;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a {@link VastVideoConfig} to JSON and reads it back without reflection. Every field is
+ * written by hand with a streaming {@link JsonWriter}, so no Gson instance is built and no class
+ * is inspected when an ad is prepared or shown.
+ *
+ * The field names are the ones Gson used for the {@code SerializedName} annotations, so strings
+ * written before {@link #VERSION_KEY} was added still decode. Unknown fields are skipped. A string
+ * written by a newer schema version is rejected.
+ */
+class VastVideoConfigCodec {
+    static final String VERSION_KEY = "codec_version";
+    static final int VERSION = 1;
+
+    // ViewabilityVendor has no SerializedName annotations, so Gson used its field names.
+    private static final String VENDOR_KEY = "vendorKey";
+    private static final String VENDOR_JAVASCRIPT_RESOURCE_URL = "javascriptResourceUrl";
+    private static final String VENDOR_VERIFICATION_PARAMETERS = "verificationParameters";
+    private static final String VENDOR_VERIFICATION_NOT_EXECUTED = "verificationNotExecuted";
+    private static final String TRACKER_IS_TRACKED = "isTracked";
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private VastVideoConfigCodec() {
+    }
+
+    @NonNull
+    static String encode(@NonNull final VastVideoConfig config) {
+        Preconditions.checkNotNull(config);
+
+        final StringWriter stringWriter = new StringWriter(INITIAL_BUFFER_SIZE);
+        final JsonWriter writer = new JsonWriter(stringWriter);
+        try {
+            writer.beginObject();
+            writer.name(VERSION_KEY).value(VERSION);
+
+            writeTrackers(writer, Constants.VAST_TRACKERS_IMPRESSION,
+                    config.getImpressionTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_PAUSE, config.getPauseTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_RESUME, config.getResumeTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_COMPLETE, config.getCompleteTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_CLOSE, config.getCloseTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_SKIP, config.getSkipTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_CLICK, config.getClickTrackers());
+            writeTrackers(writer, Constants.VAST_TRACKERS_ERROR, config.getErrorTrackers());
+
+            writer.name(Constants.VAST_TRACKERS_FRACTIONAL).beginArray();
+            for (final VastFractionalProgressTracker tracker : config.getFractionalTrackers()) {
+                writer.beginObject();
+                writer.name(Constants.VAST_TRACKER_TRACKING_FRACTION)
+                        .value((Number) tracker.getTrackingFraction());
+                writeTrackerFields(writer, tracker);
+                writer.endObject();
+            }
+            writer.endArray();
+
+            writer.name(Constants.VAST_TRACKERS_ABSOLUTE).beginArray();
+            for (final VastAbsoluteProgressTracker tracker : config.getAbsoluteTrackers()) {
+                writer.beginObject();
+                writer.name(Constants.VAST_TRACKER_TRACKING_MS)
+                        .value(tracker.getTrackingMilliseconds());
+                writeTrackerFields(writer, tracker);
+                writer.endObject();
+            }
+            writer.endArray();
+
+            writer.name(Constants.VIEWABILITY_VERIFICATION_RESOURCES).beginArray();
+            for (final ViewabilityVendor vendor : config.getViewabilityVendors()) {
+                writeViewabilityVendor(writer, vendor);
+            }
+            writer.endArray();
+
+            writeString(writer, Constants.VAST_URL_CLICKTHROUGH, config.getClickThroughUrl());
+            writeString(writer, Constants.VAST_URL_NETWORK_MEDIA_FILE,
+                    config.getNetworkMediaFileUrl());
+            writeString(writer, Constants.VAST_URL_DISK_MEDIA_FILE, config.getDiskMediaFileUrl());
+            writeString(writer, Constants.VAST_SKIP_OFFSET, config.getSkipOffset());
+
+            writer.name(Constants.VAST_COMPANION_ADS).beginArray();
+            for (final VastCompanionAdConfig companionAd : config.getVastCompanionAdConfigs()) {
+                writeCompanionAdConfig(writer, companionAd);
+            }
+            writer.endArray();
+
+            final VastIconConfig iconConfig = config.getVastIconConfig();
+            if (iconConfig != null) {
+                writer.name(Constants.VAST_ICON_CONFIG);
+                writeIconConfig(writer, iconConfig);
+            }
+
+            writer.name(Constants.VAST_IS_REWARDED).value(config.isRewarded());
+            writer.name(Constants.VAST_COUNTDOWN_TIMER_DURATION)
+                    .value(config.getCountdownTimerDuration());
+            writer.name(Constants.VAST_ENABLE_CLICK_EXP).value(config.getEnableClickExperiment());
+            writeString(writer, Constants.VAST_CUSTOM_TEXT_CTA, config.getCustomCtaText());
+            writeString(writer, Constants.VAST_CUSTOM_TEXT_SKIP, config.getCustomSkipText());
+            writeString(writer, Constants.VAST_CUSTOM_CLOSE_ICON_URL,
+                    config.getCustomCloseIconUrl());
+
+            final VideoViewabilityTracker viewabilityTracker = config.getVideoViewabilityTracker();
+            if (viewabilityTracker != null) {
+                writer.name(Constants.VAST_VIDEO_VIEWABILITY_TRACKER).beginObject();
+                writer.name(Constants.VAST_TRACKER_PLAYTIME_MS)
+                        .value(viewabilityTracker.getViewablePlaytimeMS());
+                writer.name(Constants.VAST_TRACKER_PERCENT_VIEWABLE)
+                        .value(viewabilityTracker.getPercentViewable());
+                writeTrackerFields(writer, viewabilityTracker);
+                writer.endObject();
+            }
+
+            writeString(writer, Constants.VAST_DSP_CREATIVE_ID, config.getDspCreativeId());
+            writeString(writer, Constants.VAST_PRIVACY_ICON_IMAGE_URL,
+                    config.getPrivacyInformationIconImageUrl());
+            writeString(writer, Constants.VAST_PRIVACY_ICON_CLICK_URL,
+                    config.getPrivacyInformationIconClickthroughUrl());
+            writer.endObject();
+            writer.close();
+        } catch (IOException e) {
+            // A StringWriter does not throw.
+            throw new IllegalStateException(e);
+        }
+        return stringWriter.toString();
+    }
+
+    @NonNull
+    static VastVideoConfig decode(@NonNull final String input) throws IOException {
+        Preconditions.checkNotNull(input);
+
+        final VastVideoConfig config = new VastVideoConfig();
+        final JsonReader reader = new JsonReader(new StringReader(input));
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case VERSION_KEY:
+                        final int version = reader.nextInt();
+                        if (version > VERSION) {
+                            throw new IOException("Unsupported VastVideoConfig version " +
+                                    version);
+                        }
+                        break;
+                    case Constants.VAST_TRACKERS_IMPRESSION:
+                        config.addImpressionTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_PAUSE:
+                        config.addPauseTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_RESUME:
+                        config.addResumeTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_COMPLETE:
+                        config.addCompleteTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_CLOSE:
+                        config.addCloseTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_SKIP:
+                        config.addSkipTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_CLICK:
+                        config.addClickTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_ERROR:
+                        config.addErrorTrackers(readTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_FRACTIONAL:
+                        config.addFractionalTrackers(readFractionalTrackers(reader));
+                        break;
+                    case Constants.VAST_TRACKERS_ABSOLUTE:
+                        config.addAbsoluteTrackers(readAbsoluteTrackers(reader));
+                        break;
+                    case Constants.VIEWABILITY_VERIFICATION_RESOURCES:
+                        config.addViewabilityVendors(readViewabilityVendors(reader));
+                        break;
+                    case Constants.VAST_URL_CLICKTHROUGH:
+                        config.setClickThroughUrl(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_URL_NETWORK_MEDIA_FILE:
+                        config.setNetworkMediaFileUrl(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_URL_DISK_MEDIA_FILE:
+                        config.setDiskMediaFileUrl(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_SKIP_OFFSET:
+                        config.setSkipOffset(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_COMPANION_ADS:
+                        readCompanionAdConfigs(reader, config.getVastCompanionAdConfigs());
+                        break;
+                    case Constants.VAST_ICON_CONFIG:
+                        config.setVastIconConfig(readIconConfig(reader));
+                        break;
+                    case Constants.VAST_IS_REWARDED:
+                        config.setRewarded(reader.nextBoolean());
+                        break;
+                    case Constants.VAST_COUNTDOWN_TIMER_DURATION:
+                        config.setCountdownTimerDuration(reader.nextInt());
+                        break;
+                    case Constants.VAST_ENABLE_CLICK_EXP:
+                        config.setEnableClickExperiment(reader.nextBoolean());
+                        break;
+                    case Constants.VAST_CUSTOM_TEXT_CTA:
+                        config.setCustomCtaText(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_CUSTOM_TEXT_SKIP:
+                        config.setCustomSkipText(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_CUSTOM_CLOSE_ICON_URL:
+                        config.setCustomCloseIconUrl(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_VIDEO_VIEWABILITY_TRACKER:
+                        config.setVideoViewabilityTracker(readVideoViewabilityTracker(reader));
+                        break;
+                    case Constants.VAST_DSP_CREATIVE_ID:
+                        config.setDspCreativeId(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_PRIVACY_ICON_IMAGE_URL:
+                        config.setPrivacyInformationIconImageUrl(nextStringOrNull(reader));
+                        break;
+                    case Constants.VAST_PRIVACY_ICON_CLICK_URL:
+                        config.setPrivacyInformationIconClickthroughUrl(nextStringOrNull(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader reports unexpected tokens this way.
+            throw new IOException(e);
+        } finally {
+            reader.close();
+        }
+        return config;
+    }
+
+    private static void writeString(@NonNull final JsonWriter writer, @NonNull final String name,
+            @Nullable final String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+
+    private static void writeTrackers(@NonNull final JsonWriter writer, @NonNull final String name,
+            @NonNull final Collection<VastTracker> trackers) throws IOException {
+        writer.name(name).beginArray();
+        for (final VastTracker tracker : trackers) {
+            writer.beginObject();
+            writeTrackerFields(writer, tracker);
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private static void writeTrackerFields(@NonNull final JsonWriter writer,
+            @NonNull final VastTracker tracker) throws IOException {
+        writer.name(Constants.VAST_TRACKER_CONTENT).value(tracker.getContent());
+        writer.name(Constants.VAST_TRACKER_MESSAGE_TYPE).value(tracker.getMessageType().name());
+        writer.name(Constants.VAST_TRACKER_REPEATABLE).value(tracker.isRepeatable());
+        writer.name(TRACKER_IS_TRACKED).value(tracker.isTracked());
+    }
+
+    private static void writeResource(@NonNull final JsonWriter writer,
+            @NonNull final VastResource resource) throws IOException {
+        writer.name(Constants.VAST_RESOURCE).beginObject();
+        writer.name(Constants.VAST_RESOURCE).value(resource.getResource());
+        writer.name(Constants.VAST_TYPE).value(resource.getType().name());
+        writer.name(Constants.VAST_CREATIVE_TYPE).value(resource.getCreativeType().name());
+        writer.name(Constants.VAST_WIDTH).value(resource.getWidth());
+        writer.name(Constants.VAST_HEIGHT).value(resource.getHeight());
+        writer.endObject();
+    }
+
+    private static void writeCompanionAdConfig(@NonNull final JsonWriter writer,
+            @NonNull final VastCompanionAdConfig companionAdConfig) throws IOException {
+        writer.beginObject();
+        writer.name(Constants.VAST_WIDTH).value(companionAdConfig.getWidth());
+        writer.name(Constants.VAST_HEIGHT).value(companionAdConfig.getHeight());
+        writeResource(writer, companionAdConfig.getVastResource());
+        writeString(writer, Constants.VAST_URL_CLICKTHROUGH,
+                companionAdConfig.getClickThroughUrl());
+        writeTrackers(writer, Constants.VAST_TRACKERS_CLICK, companionAdConfig.getClickTrackers());
+        writeTrackers(writer, Constants.VAST_TRACKERS_IMPRESSION,
+                companionAdConfig.getCreativeViewTrackers());
+        writeString(writer, Constants.VAST_CUSTOM_TEXT_CTA, companionAdConfig.getCustomCtaText());
+        writer.endObject();
+    }
+
+    private static void writeIconConfig(@NonNull final JsonWriter writer,
+            @NonNull final VastIconConfig iconConfig) throws IOException {
+        writer.beginObject();
+        writer.name(Constants.VAST_WIDTH).value(iconConfig.getWidth());
+        writer.name(Constants.VAST_HEIGHT).value(iconConfig.getHeight());
+        writer.name(Constants.VAST_SKIP_OFFSET_MS).value(iconConfig.getOffsetMS());
+        final Integer durationMS = iconConfig.getDurationMS();
+        if (durationMS != null) {
+            writer.name(Constants.VAST_DURATION_MS).value(durationMS);
+        }
+        writeResource(writer, iconConfig.getVastResource());
+        writeTrackers(writer, Constants.VAST_TRACKERS_CLICK, iconConfig.getClickTrackingUris());
+        writeString(writer, Constants.VAST_URL_CLICKTHROUGH, iconConfig.getClickThroughUri());
+        writeTrackers(writer, Constants.VAST_VIDEO_VIEWABILITY_TRACKER,
+                iconConfig.getViewTrackingUris());
+        writer.endObject();
+    }
+
+    private static void writeViewabilityVendor(@NonNull final JsonWriter writer,
+            @NonNull final ViewabilityVendor vendor) throws IOException {
+        writer.beginObject();
+        writeString(writer, VENDOR_KEY, vendor.getVendorKey());
+        writer.name(VENDOR_JAVASCRIPT_RESOURCE_URL)
+                .value(vendor.getJavascriptResourceUrl().toExternalForm());
+        writeString(writer, VENDOR_VERIFICATION_PARAMETERS, vendor.getVerificationParameters());
+        writeString(writer, VENDOR_VERIFICATION_NOT_EXECUTED,
+                vendor.getVerificationNotExecuted());
+        writer.endObject();
+    }
+
+    @Nullable
+    private static String nextStringOrNull(@NonNull final JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static boolean skipNull(@NonNull final JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    @NonNull
+    private static <T extends Enum<T>> T nextEnum(@NonNull final JsonReader reader,
+            @NonNull final Class<T> enumClass) throws IOException {
+        final String name = reader.nextString();
+        try {
+            return Enum.valueOf(enumClass, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + enumClass.getSimpleName() + " " + name);
+        }
+    }
+
+    /**
+     * Fields shared by all tracker types. Trackers are read into this first, since the JSON
+     * object does not say which type it was written from.
+     */
+    private static class TrackerFields {
+        @Nullable String mContent;
+        @NonNull VastTracker.MessageType mMessageType = VastTracker.MessageType.TRACKING_URL;
+        boolean mIsRepeatable;
+        boolean mIsTracked;
+        float mTrackingFraction;
+        int mTrackingMilliseconds;
+        int mViewablePlaytimeMS;
+        int mPercentViewable;
+
+        void read(@NonNull final JsonReader reader) throws IOException {
+            mContent = null;
+            mMessageType = VastTracker.MessageType.TRACKING_URL;
+            mIsRepeatable = false;
+            mIsTracked = false;
+            mTrackingFraction = 0;
+            mTrackingMilliseconds = 0;
+            mViewablePlaytimeMS = 0;
+            mPercentViewable = 0;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case Constants.VAST_TRACKER_CONTENT:
+                        mContent = nextStringOrNull(reader);
+                        break;
+                    case Constants.VAST_TRACKER_MESSAGE_TYPE:
+                        mMessageType = nextEnum(reader, VastTracker.MessageType.class);
+                        break;
+                    case Constants.VAST_TRACKER_REPEATABLE:
+                        mIsRepeatable = reader.nextBoolean();
+                        break;
+                    case TRACKER_IS_TRACKED:
+                        mIsTracked = reader.nextBoolean();
+                        break;
+                    case Constants.VAST_TRACKER_TRACKING_FRACTION:
+                        mTrackingFraction = (float) reader.nextDouble();
+                        break;
+                    case Constants.VAST_TRACKER_TRACKING_MS:
+                        mTrackingMilliseconds = reader.nextInt();
+                        break;
+                    case Constants.VAST_TRACKER_PLAYTIME_MS:
+                        mViewablePlaytimeMS = reader.nextInt();
+                        break;
+                    case Constants.VAST_TRACKER_PERCENT_VIEWABLE:
+                        mPercentViewable = reader.nextInt();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (mContent == null) {
+                throw new IOException("VastTracker without content");
+            }
+        }
+
+        @NonNull
+        <T extends VastTracker> T applyTracked(@NonNull final T tracker) {
+            if (mIsTracked) {
+                tracker.setTracked();
+            }
+            return tracker;
+        }
+    }
+
+    @NonNull
+    private static List<VastTracker> readTrackers(@NonNull final JsonReader reader)
+            throws IOException {
+        final List<VastTracker> trackers = new ArrayList<>();
+        if (skipNull(reader)) {
+            return trackers;
+        }
+        final TrackerFields fields = new TrackerFields();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            fields.read(reader);
+            trackers.add(fields.applyTracked(new VastTracker(fields.mContent, fields.mMessageType,
+                    fields.mIsRepeatable)));
+        }
+        reader.endArray();
+        return trackers;
+    }
+
+    @NonNull
+    private static List<VastFractionalProgressTracker> readFractionalTrackers(
+            @NonNull final JsonReader reader) throws IOException {
+        final List<VastFractionalProgressTracker> trackers = new ArrayList<>();
+        if (skipNull(reader)) {
+            return trackers;
+        }
+        final TrackerFields fields = new TrackerFields();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            fields.read(reader);
+            trackers.add(fields.applyTracked(new VastFractionalProgressTracker(
+                    fields.mTrackingFraction, fields.mContent, fields.mMessageType,
+                    fields.mIsRepeatable)));
+        }
+        reader.endArray();
+        return trackers;
+    }
+
+    @NonNull
+    private static List<VastAbsoluteProgressTracker> readAbsoluteTrackers(
+            @NonNull final JsonReader reader) throws IOException {
+        final List<VastAbsoluteProgressTracker> trackers = new ArrayList<>();
+        if (skipNull(reader)) {
+            return trackers;
+        }
+        final TrackerFields fields = new TrackerFields();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            fields.read(reader);
+            trackers.add(fields.applyTracked(new VastAbsoluteProgressTracker(
+                    fields.mTrackingMilliseconds, fields.mContent, fields.mMessageType,
+                    fields.mIsRepeatable)));
+        }
+        reader.endArray();
+        return trackers;
+    }
+
+    @Nullable
+    private static VideoViewabilityTracker readVideoViewabilityTracker(
+            @NonNull final JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        final TrackerFields fields = new TrackerFields();
+        fields.read(reader);
+        return fields.applyTracked(new VideoViewabilityTracker(fields.mViewablePlaytimeMS,
+                fields.mPercentViewable, fields.mContent, fields.mMessageType,
+                fields.mIsRepeatable));
+    }
+
+    @NonNull
+    private static VastResource readResource(@NonNull final JsonReader reader)
+            throws IOException {
+        String resource = null;
+        VastResource.Type type = null;
+        VastResource.CreativeType creativeType = null;
+        int width = 0;
+        int height = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case Constants.VAST_RESOURCE:
+                    resource = nextStringOrNull(reader);
+                    break;
+                case Constants.VAST_TYPE:
+                    type = nextEnum(reader, VastResource.Type.class);
+                    break;
+                case Constants.VAST_CREATIVE_TYPE:
+                    creativeType = nextEnum(reader, VastResource.CreativeType.class);
+                    break;
+                case Constants.VAST_WIDTH:
+                    width = reader.nextInt();
+                    break;
+                case Constants.VAST_HEIGHT:
+                    height = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (resource == null || type == null || creativeType == null) {
+            throw new IOException("Incomplete VastResource");
+        }
+        return new VastResource(resource, type, creativeType, width, height);
+    }
+
+    private static void readCompanionAdConfigs(@NonNull final JsonReader reader,
+            @NonNull final Set<VastCompanionAdConfig> companionAdConfigs) throws IOException {
+        if (skipNull(reader)) {
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int width = 0;
+            int height = 0;
+            VastResource resource = null;
+            String clickThroughUrl = null;
+            List<VastTracker> clickTrackers = new ArrayList<>();
+            List<VastTracker> creativeViewTrackers = new ArrayList<>();
+            String customCtaText = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case Constants.VAST_WIDTH:
+                        width = reader.nextInt();
+                        break;
+                    case Constants.VAST_HEIGHT:
+                        height = reader.nextInt();
+                        break;
+                    case Constants.VAST_RESOURCE:
+                        resource = readResource(reader);
+                        break;
+                    case Constants.VAST_URL_CLICKTHROUGH:
+                        clickThroughUrl = nextStringOrNull(reader);
+                        break;
+                    case Constants.VAST_TRACKERS_CLICK:
+                        clickTrackers = readTrackers(reader);
+                        break;
+                    case Constants.VAST_TRACKERS_IMPRESSION:
+                        creativeViewTrackers = readTrackers(reader);
+                        break;
+                    case Constants.VAST_CUSTOM_TEXT_CTA:
+                        customCtaText = nextStringOrNull(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (resource == null) {
+                throw new IOException("VastCompanionAdConfig without resource");
+            }
+            companionAdConfigs.add(new VastCompanionAdConfig(width, height, resource,
+                    clickThroughUrl, clickTrackers, creativeViewTrackers, customCtaText));
+        }
+        reader.endArray();
+    }
+
+    @Nullable
+    private static VastIconConfig readIconConfig(@NonNull final JsonReader reader)
+            throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        int width = 0;
+        int height = 0;
+        Integer offsetMS = null;
+        Integer durationMS = null;
+        VastResource resource = null;
+        List<VastTracker> clickTrackers = new ArrayList<>();
+        String clickThroughUri = null;
+        List<VastTracker> viewTrackers = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case Constants.VAST_WIDTH:
+                    width = reader.nextInt();
+                    break;
+                case Constants.VAST_HEIGHT:
+                    height = reader.nextInt();
+                    break;
+                case Constants.VAST_SKIP_OFFSET_MS:
+                    offsetMS = reader.nextInt();
+                    break;
+                case Constants.VAST_DURATION_MS:
+                    durationMS = skipNull(reader) ? null : reader.nextInt();
+                    break;
+                case Constants.VAST_RESOURCE:
+                    resource = readResource(reader);
+                    break;
+                case Constants.VAST_TRACKERS_CLICK:
+                    clickTrackers = readTrackers(reader);
+                    break;
+                case Constants.VAST_URL_CLICKTHROUGH:
+                    clickThroughUri = nextStringOrNull(reader);
+                    break;
+                case Constants.VAST_VIDEO_VIEWABILITY_TRACKER:
+                    viewTrackers = readTrackers(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (resource == null) {
+            throw new IOException("VastIconConfig without resource");
+        }
+        return new VastIconConfig(width, height, offsetMS, durationMS, resource, clickTrackers,
+                clickThroughUri, viewTrackers);
+    }
+
+    @NonNull
+    private static Set<ViewabilityVendor> readViewabilityVendors(@NonNull final JsonReader reader)
+            throws IOException {
+        final Set<ViewabilityVendor> vendors = new HashSet<>();
+        if (skipNull(reader)) {
+            return vendors;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String vendorKey = null;
+            String javascriptResourceUrl = null;
+            String verificationParameters = null;
+            String verificationNotExecuted = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case VENDOR_KEY:
+                        vendorKey = nextStringOrNull(reader);
+                        break;
+                    case VENDOR_JAVASCRIPT_RESOURCE_URL:
+                        javascriptResourceUrl = nextStringOrNull(reader);
+                        break;
+                    case VENDOR_VERIFICATION_PARAMETERS:
+                        verificationParameters = nextStringOrNull(reader);
+                        break;
+                    case VENDOR_VERIFICATION_NOT_EXECUTED:
+                        verificationNotExecuted = nextStringOrNull(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (javascriptResourceUrl == null) {
+                continue;
+            }
+            final ViewabilityVendor vendor = new ViewabilityVendor.Builder(javascriptResourceUrl)
+                    .withVendorKey(vendorKey)
+                    .withVerificationParameters(verificationParameters)
+                    .withVerificationNotExecuted(verificationNotExecuted)
+                    .build();
+            if (vendor != null) {
+                vendors.add(vendor);
+            }
+        }
+        reader.endArray();
+        return vendors;
+    }
+}
@@ -5,6 +5,7 @@
 package com.mopub.mobileads
 
 import android.os.Handler
+import com.mopub.common.MainThreadSampler
 
 /**
  * A runnable that is used to update a [VastVideoViewController]'s countdown display according
@@ -14,6 +15,8 @@ open class VastVideoViewCountdownRunnable(
     private val videoViewController: VastVideoViewController,
     handler: Handler
 ) : RepeatingHandlerRunnable(handler) {
+    override fun getSampledTask() = MainThreadSampler.Task.VIDEO_COUNTDOWN
+
     override fun doWork() {
         videoViewController.updateCountdown()
     }
@@ -5,6 +5,7 @@
 package com.mopub.mobileads
 
 import android.os.Handler
+import com.mopub.common.MainThreadSampler
 import com.mopub.common.VideoEvent
 import com.mopub.network.TrackingRequest
 import java.util.*
@@ -20,6 +21,8 @@ class VastVideoViewProgressRunnable(
     handler: Handler
 ) : RepeatingHandlerRunnable(handler) {
 
+    override fun getSampledTask() = MainThreadSampler.Task.VIDEO_PROGRESS
+
     override fun doWork() {
         val videoLength = videoViewController.getDuration()
         val currentPosition = videoViewController.getCurrentPosition()
@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.CacheService;
+import com.mopub.common.MemoryAccountant;
 import com.mopub.common.MoPubHttpUrlConnection;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
@@ -23,6 +24,7 @@ import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Iterator;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR_WITH_THROWABLE;
@@ -31,6 +33,45 @@ public class VideoDownloader {
     private static final int MAX_VIDEO_SIZE = 25 * 1024 * 1024; // 25 MiB
     private static final Deque<WeakReference<VideoDownloaderTask>> sDownloaderTasks =
             new ArrayDeque<WeakReference<VideoDownloaderTask>>();
+    // Rough heap cost of an in-flight download: its stream buffer and connection. The video
+    // itself goes to the disk cache.
+    @VisibleForTesting
+    static final long ESTIMATED_TASK_BYTES = 16 * 1024;
+
+    /**
+     * Drops tasks that were garbage collected. When memory is critically low, also cancels the
+     * most recent downloads.
+     */
+    @VisibleForTesting
+    @NonNull
+    static final MemoryAccountant.Component sMemoryComponent = new MemoryAccountant.Component() {
+        @Override
+        public long getRetainedBytes() {
+            return sDownloaderTasks.size() * ESTIMATED_TASK_BYTES;
+        }
+
+        @Override
+        public long shed(final long bytesToFree, final boolean critical) {
+            final long retainedBytes = getRetainedBytes();
+            final Iterator<WeakReference<VideoDownloaderTask>> iterator =
+                    sDownloaderTasks.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().get() == null) {
+                    iterator.remove();
+                }
+            }
+
+            while (critical && !sDownloaderTasks.isEmpty()
+                    && retainedBytes - getRetainedBytes() < bytesToFree) {
+                cancelLastDownloadTask();
+            }
+            return retainedBytes - getRetainedBytes();
+        }
+    };
+
+    static {
+        MemoryAccountant.register("VideoDownloader", sMemoryComponent);
+    }
 
     interface VideoDownloaderListener {
         void onComplete(boolean success);
@@ -54,6 +95,7 @@ public class VideoDownloader {
         } catch (Exception e) {
             listener.onComplete(false);
         }
+        MemoryAccountant.onRetainedBytesIncreased();
     }
 
 
@@ -10,6 +10,8 @@ import android.os.Handler;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.MainThreadSampler;
+import com.mopub.common.MemoryAccountant;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
@@ -85,6 +87,12 @@ public class WebViewCacheService {
     @VisibleForTesting
     static final long TRIM_CACHE_FREQUENCY_MILLIS = FIFTEEN_MINUTES_MILLIS;
 
+    /**
+     * Rough heap cost of a cached WebView and its content, which cannot be measured directly.
+     */
+    @VisibleForTesting
+    static final long ESTIMATED_WEBVIEW_BYTES = 1024 * 1024;
+
     @SuppressLint("UseSparseArrays")
     @NonNull
     private static final Map<Long, Config> sWebViewConfigs =
@@ -96,6 +104,41 @@ public class WebViewCacheService {
     @NonNull
     private static Handler sHandler = new Handler();
 
+    /**
+     * Drops WebViews whose ad is gone. When memory is critically low, also destroys WebViews of
+     * ads that have not been shown yet, which then fail to show.
+     */
+    @VisibleForTesting
+    @NonNull
+    static final MemoryAccountant.Component sMemoryComponent = new MemoryAccountant.Component() {
+        @Override
+        public long getRetainedBytes() {
+            return sWebViewConfigs.size() * ESTIMATED_WEBVIEW_BYTES;
+        }
+
+        @Override
+        public long shed(final long bytesToFree, final boolean critical) {
+            final long retainedBytes = getRetainedBytes();
+            trimCache();
+            if (!critical) {
+                return retainedBytes - getRetainedBytes();
+            }
+
+            synchronized (sWebViewConfigs) {
+                final Iterator<Config> iterator = sWebViewConfigs.values().iterator();
+                while (iterator.hasNext() && retainedBytes - getRetainedBytes() < bytesToFree) {
+                    iterator.next().invalidate();
+                    iterator.remove();
+                }
+            }
+            return retainedBytes - getRetainedBytes();
+        }
+    };
+
+    static {
+        MemoryAccountant.register("WebViewCache", sMemoryComponent);
+    }
+
     private WebViewCacheService() {
     }
 
@@ -125,6 +168,7 @@ public class WebViewCacheService {
 
         sWebViewConfigs.put(broadcastIdentifier,
                 new Config(baseWebView, baseAd, controller));
+        MemoryAccountant.onRetainedBytesIncreased();
     }
 
     @Nullable
@@ -155,7 +199,9 @@ public class WebViewCacheService {
     private static class TrimCacheRunnable implements Runnable {
         @Override
         public void run() {
+            final long startNanos = MainThreadSampler.begin();
             trimCache();
+            MainThreadSampler.end(MainThreadSampler.Task.WEBVIEW_CACHE_TRIM, startNanos);
         }
     }
 
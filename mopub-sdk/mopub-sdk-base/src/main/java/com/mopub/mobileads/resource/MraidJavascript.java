@@ -33,6 +33,7 @@ public class MraidJavascript {
             "    nativeSDKFiredReady: false,\n" +
             "    nativeCallQueue: [],\n" +
             "    nativeCallInFlight: false,\n" +
+            "    nativeCallBatch: null,\n" +
             "    lastSizeChangeProperties: null\n" +
             "  };\n" +
             "\n" +
@@ -53,10 +54,38 @@ public class MraidJavascript {
             "      return;\n" +
             "    }\n" +
             "\n" +
-            "    var nextCall = this.nativeCallQueue.pop();\n" +
+            "    var nextCall = this.nativeCallQueue.shift();\n" +
             "    window.location = nextCall;\n" +
             "  };\n" +
             "\n" +
+            "  // Called by the SDK once a batch sent through the command channel has run. Each result has\n" +
+            "  // the command name and, if the command failed, an error message.\n" +
+            "  bridge.nativeCallsComplete = function(results) {\n" +
+            "    for (var i = 0; i < results.length; i++) {\n" +
+            "      if (results[i].error) {\n" +
+            "        bridge.notifyErrorEvent(results[i].error, results[i].command);\n" +
+            "      }\n" +
+            "    }\n" +
+            "  };\n" +
+            "\n" +
+            "  bridge.getNativeCommandChannel = function() {\n" +
+            "    var channel = window.mopubMraidCommandChannel;\n" +
+            "    if (channel && typeof channel.postCommands === 'function') {\n" +
+            "      return channel;\n" +
+            "    }\n" +
+            "    return null;\n" +
+            "  };\n" +
+            "\n" +
+            "  bridge.flushNativeCalls = function() {\n" +
+            "    var batch = bridge.nativeCallBatch;\n" +
+            "    bridge.nativeCallBatch = null;\n" +
+            "\n" +
+            "    var channel = bridge.getNativeCommandChannel();\n" +
+            "    if (channel && batch && batch.length > 0) {\n" +
+            "      channel.postCommands(JSON.stringify(batch));\n" +
+            "    }\n" +
+            "  };\n" +
+            "\n" +
             "  bridge.executeNativeCall = function(args) {\n" +
             "    var command = args.shift();\n" +
             "\n" +
@@ -66,9 +95,35 @@ public class MraidJavascript {
             "        return;\n" +
             "    }\n" +
             "\n" +
+            "    var key, value;\n" +
+            "\n" +
+            "    // Commands issued in the same script turn are sent to the SDK as one batch. The mraid://\n" +
+            "    // URLs below are only used if the SDK did not add the command channel.\n" +
+            "    if (this.getNativeCommandChannel()) {\n" +
+            "      var params = {};\n" +
+            "      for (var j = 0; j < args.length; j += 2) {\n" +
+            "        key = args[j];\n" +
+            "        value = args[j + 1];\n" +
+            "\n" +
+            "        if (value === null) continue;\n" +
+            "\n" +
+            "        params[key] = String(value);\n" +
+            "      }\n" +
+            "\n" +
+            "      if (!this.nativeCallBatch) {\n" +
+            "        this.nativeCallBatch = [];\n" +
+            "        if (window.Promise) {\n" +
+            "          Promise.resolve().then(bridge.flushNativeCalls);\n" +
+            "        } else {\n" +
+            "          setTimeout(bridge.flushNativeCalls, 0);\n" +
+            "        }\n" +
+            "      }\n" +
+            "      this.nativeCallBatch.push({command: command, params: params});\n" +
+            "      return;\n" +
+            "    }\n" +
+            "\n" +
             "    var call = 'mraid://' + command;\n" +
             "\n" +
-            "    var key, value;\n" +
             "    var isFirstArgument = true;\n" +
             "\n" +
             "    for (var i = 0; i < args.length; i += 2) {\n" +
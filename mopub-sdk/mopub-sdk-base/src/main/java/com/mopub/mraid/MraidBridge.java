@@ -10,11 +10,14 @@ import android.graphics.Color;
 import android.graphics.Rect;
 import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.View.OnTouchListener;
 import android.webkit.ConsoleMessage;
+import android.webkit.JavascriptInterface;
 import android.webkit.JsResult;
 import android.webkit.RenderProcessGoneDetail;
 import android.webkit.WebChromeClient;
@@ -36,12 +39,17 @@ import com.mopub.mobileads.MoPubErrorCode;
 import com.mopub.mobileads.ViewGestureDetector;
 import com.mopub.network.Networking;
 
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -82,6 +90,15 @@ public class MraidBridge {
 
     static final String MRAID_OPEN = "mraid://open?url=";
 
+    /**
+     * Name of the {@link MraidCommandChannel} in the page. mraid.js sends commands through it
+     * when it is present and falls back to mraid:// URLs otherwise.
+     */
+    static final String COMMAND_CHANNEL_NAME = "mopubMraidCommandChannel";
+    private static final String KEY_COMMAND = "command";
+    private static final String KEY_PARAMS = "params";
+    private static final String KEY_ERROR = "error";
+
     @NonNull private final PlacementType mPlacementType;
 
     @NonNull private final MraidNativeCommandHandler mMraidNativeCommandHandler;
@@ -96,6 +113,10 @@ public class MraidBridge {
 
     private boolean mAllowCustomClose;
 
+    @NonNull private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @NonNull private final MraidCommandChannel mCommandChannel = new MraidCommandChannel();
+
     MraidBridge(@NonNull final PlacementType placementType, final boolean allowCustomClose) {
         this(placementType, new MraidNativeCommandHandler(), allowCustomClose);
     }
@@ -127,6 +148,7 @@ public class MraidBridge {
         mMraidWebView.setBackgroundColor(Color.TRANSPARENT);
 
         mMraidWebView.setWebViewClient(mMraidWebViewClient);
+        mMraidWebView.addJavascriptInterface(mCommandChannel, COMMAND_CHANNEL_NAME);
 
         mMraidWebView.setWebChromeClient(new WebChromeClient() {
             @Override
@@ -230,6 +252,114 @@ public class MraidBridge {
                 + JSONObject.quote(command.toJavascriptString()) + ")");
     }
 
+    /**
+     * A command sent through the {@link MraidCommandChannel}, with its parameters.
+     */
+    @VisibleForTesting
+    static class NativeCall {
+        @NonNull final MraidJavascriptCommand mCommand;
+        @NonNull final Map<String, String> mParams;
+
+        NativeCall(@NonNull final MraidJavascriptCommand command,
+                @NonNull final Map<String, String> params) {
+            mCommand = command;
+            mParams = params;
+        }
+    }
+
+    /**
+     * Receives batches of commands from mraid.js. A batch is a JSON array of objects with a
+     * command name and a map of string parameters, for example
+     * {@code [{"command":"usecustomclose","params":{"shouldUseCustomClose":"true"}}]}.
+     *
+     * This replaces one mraid:// navigation per command. The WebView calls this on a background
+     * thread, so the batch is parsed there and its commands are run in order on the main thread.
+     */
+    @VisibleForTesting
+    class MraidCommandChannel {
+        @JavascriptInterface
+        public void postCommands(@Nullable final String commandsJson) {
+            final List<NativeCall> calls;
+            try {
+                calls = parseNativeCalls(commandsJson);
+            } catch (JSONException e) {
+                MoPubLog.log(CUSTOM, "Invalid MRAID command batch: " + commandsJson);
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        fireErrorEvent(MraidJavascriptCommand.UNSPECIFIED,
+                                "Mraid command batch is invalid");
+                    }
+                });
+                return;
+            }
+
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    runNativeCalls(calls);
+                }
+            });
+        }
+    }
+
+    @VisibleForTesting
+    @NonNull
+    static List<NativeCall> parseNativeCalls(@Nullable final String commandsJson)
+            throws JSONException {
+        if (commandsJson == null) {
+            throw new JSONException("Command batch is null");
+        }
+
+        final JSONArray callsJson = new JSONArray(commandsJson);
+        final List<NativeCall> calls = new ArrayList<>(callsJson.length());
+        for (int i = 0; i < callsJson.length(); i++) {
+            final JSONObject callJson = callsJson.getJSONObject(i);
+            final Map<String, String> params = new HashMap<>();
+            final JSONObject paramsJson = callJson.optJSONObject(KEY_PARAMS);
+            if (paramsJson != null) {
+                final Iterator<String> keys = paramsJson.keys();
+                while (keys.hasNext()) {
+                    final String key = keys.next();
+                    params.put(key, paramsJson.getString(key));
+                }
+            }
+            calls.add(new NativeCall(
+                    MraidJavascriptCommand.fromJavascriptString(callJson.getString(KEY_COMMAND)),
+                    params));
+        }
+        return calls;
+    }
+
+    /**
+     * Runs a batch of commands in order, then reports the result of every command back to
+     * mraid.js in a single call.
+     */
+    @VisibleForTesting
+    void runNativeCalls(@NonNull final List<NativeCall> calls) {
+        final JSONArray results = new JSONArray();
+        for (final NativeCall call : calls) {
+            String error = null;
+            try {
+                runCommand(call.mCommand, call.mParams);
+            } catch (MraidCommandException | IllegalArgumentException exception) {
+                error = exception.getMessage() != null
+                        ? exception.getMessage()
+                        : "Mraid command failed";
+            }
+
+            final JSONObject result = new JSONObject();
+            try {
+                result.put(KEY_COMMAND, call.mCommand.toJavascriptString());
+                result.putOpt(KEY_ERROR, error);
+            } catch (JSONException e) {
+                // Only thrown for null keys and non-finite numbers.
+            }
+            results.put(result);
+        }
+        injectJavaScript("window.mraidbridge.nativeCallsComplete(" + results + ")");
+    }
+
     public static class MraidWebView extends BaseWebViewViewability {
 
         private static final int DEFAULT_MIN_VISIBLE_PX = 1;
@@ -13,6 +13,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.AdFormat;
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.Preconditions;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.mobileads.MoPubError;
@@ -22,6 +23,10 @@ import com.mopub.volley.Response;
 import com.mopub.volley.VolleyError;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.mopub.common.logging.MoPubLog.AdLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.AdLogEvent.REQUESTED;
@@ -52,6 +57,8 @@ public class AdLoader {
     protected AdResponse mLastDeliveredResponse = null;
     @Nullable
     private ContentDownloadAnalytics mDownloadTracker;
+    @NonNull
+    private final Map<AdResponse, ContentDownloadAnalytics> mParallelDownloadTrackers = new HashMap<>();
 
     private volatile boolean mRunning;
     private volatile boolean mFailed;
@@ -87,6 +94,13 @@ public class AdLoader {
             public void onErrorResponse(VolleyError volleyError) {
                 MoPubLog.log(RESPONSE_RECEIVED, volleyError.getMessage());
 
+                // Responses that failed to parse were already traced by MultiAdRequest
+                final MultiAdRequest request = mMultiAdRequest;
+                if (!(volleyError instanceof MoPubNetworkError) && request.mSubmitUptimeMillis >= 0) {
+                    AdLoadTracer.record(AdLoadTracer.Stage.NETWORK, request.mAdUnitId, null,
+                            request.mSubmitUptimeMillis, false);
+                }
+
                 mFailed = true;
                 mRunning = false;
                 deliverError(volleyError);
@@ -239,6 +253,85 @@ public class AdLoader {
         mDownloadTracker.reportAfterLoadSuccess(context);
     }
 
+    /**
+     * Removes up to {@code maxCount} more ads from the current server response without making a
+     * new request, so they can be loaded side by side with the ad delivered last. Before-load
+     * analytics are reported for each returned ad right away. Every returned ad must later be
+     * reported with {@link #creativeDownloadSuccess(AdResponse)} or
+     * {@link #creativeDownloadFailed(AdResponse, MoPubError)}.
+     *
+     * @param maxCount maximum number of ads to return
+     * @return ads in waterfall order, possibly empty
+     */
+    @NonNull
+    public List<AdResponse> takePreloadedAds(final int maxCount) {
+        final List<AdResponse> adResponses = new ArrayList<>();
+        final Context context = mContext.get();
+
+        synchronized (lock) {
+            while (adResponses.size() < maxCount
+                    && mMultiAdResponse != null
+                    && mMultiAdResponse.hasNext()) {
+                final AdResponse adResponse = mMultiAdResponse.next();
+                final ContentDownloadAnalytics downloadTracker = new ContentDownloadAnalytics(adResponse);
+                downloadTracker.reportBeforeLoad(context);
+                mParallelDownloadTrackers.put(adResponse, downloadTracker);
+                adResponses.add(adResponse);
+            }
+        }
+        return adResponses;
+    }
+
+    /**
+     * Reports a successful creative download for an ad that was loaded in parallel. Use
+     * {@link #creativeDownloadSuccess()} for ads loaded one at a time.
+     */
+    public void creativeDownloadSuccess(@NonNull final AdResponse adResponse) {
+        Preconditions.checkNotNull(adResponse);
+
+        if (adResponse == mLastDeliveredResponse) {
+            creativeDownloadSuccess();
+            mDownloadTracker = null;
+            return;
+        }
+
+        final ContentDownloadAnalytics downloadTracker = mParallelDownloadTrackers.remove(adResponse);
+        mContentDownloaded = true;
+        final Context context = mContext.get();
+        if (downloadTracker == null || context == null) {
+            return;
+        }
+
+        downloadTracker.reportAfterLoad(context, null);
+        downloadTracker.reportAfterLoadSuccess(context);
+    }
+
+    /**
+     * Reports a failed creative download for an ad that was loaded in parallel. Ads loaded one at a
+     * time report their failure through {@link #loadNextAd(MoPubError)} instead. Each ad is only
+     * reported once.
+     */
+    public void creativeDownloadFailed(@NonNull final AdResponse adResponse,
+                                       @NonNull final MoPubError errorCode) {
+        Preconditions.checkNotNull(adResponse);
+        Preconditions.checkNotNull(errorCode);
+
+        if (adResponse == mLastDeliveredResponse) {
+            creativeDownloadFailed(errorCode);
+            mDownloadTracker = null;
+            return;
+        }
+
+        final ContentDownloadAnalytics downloadTracker = mParallelDownloadTrackers.remove(adResponse);
+        final Context context = mContext.get();
+        if (downloadTracker == null || context == null) {
+            return;
+        }
+
+        downloadTracker.reportAfterLoad(context, errorCode);
+        downloadTracker.reportAfterLoadFail(context, errorCode);
+    }
+
     private void creativeDownloadFailed(@Nullable final MoPubError errorCode) {
         if (null == errorCode) {
             MoPubLog.log(CUSTOM, "Must provide error code to report creative download error");
@@ -282,6 +375,7 @@ public class AdLoader {
         mRunning = true;
         RequestQueue requestQueue = Networking.getRequestQueue(context);
         mMultiAdRequest = request;
+        request.mSubmitUptimeMillis = AdLoadTracer.now();
         requestQueue.add(request);
         return request;
     }
@@ -87,6 +87,9 @@ public class AdResponse implements Serializable {
     private final String mResponseBody;
     @Nullable
     private final JSONObject mJsonBody;
+    // Not serialized. Native ads fall back to parsing the JSON body when it is missing.
+    @Nullable
+    private final transient NativeAdPayload mNativeAdPayload;
 
     @Nullable
     private final String mBaseAdClassName;
@@ -134,6 +137,7 @@ public class AdResponse implements Serializable {
         mDspCreativeId = builder.dspCreativeId;
         mResponseBody = builder.responseBody;
         mJsonBody = builder.jsonBody;
+        mNativeAdPayload = builder.nativeAdPayload;
         mBaseAdClassName = builder.customEventClassName;
         mBrowserAgent = builder.browserAgent;
         mServerExtras = builder.serverExtras;
@@ -151,6 +155,15 @@ public class AdResponse implements Serializable {
         return mJsonBody;
     }
 
+    /**
+     * @return the native ad body, parsed while the response was processed, or null if this is not
+     * a static native ad or its body could not be parsed
+     */
+    @Nullable
+    public NativeAdPayload getNativeAdPayload() {
+        return mNativeAdPayload;
+    }
+
     @Nullable
     public String getStringBody() {
         return mResponseBody;
@@ -350,6 +363,7 @@ public class AdResponse implements Serializable {
                 .setDspCreativeId(mDspCreativeId)
                 .setResponseBody(mResponseBody)
                 .setJsonBody(mJsonBody)
+                .setNativeAdPayload(mNativeAdPayload)
                 .setBaseAdClassName(mBaseAdClassName)
                 .setBrowserAgent(mBrowserAgent)
                 .setAllowCustomClose(mAllowCustomClose)
@@ -390,6 +404,7 @@ public class AdResponse implements Serializable {
 
         private String responseBody;
         private JSONObject jsonBody;
+        private NativeAdPayload nativeAdPayload;
 
         private String customEventClassName;
         private BrowserAgent browserAgent;
@@ -549,6 +564,11 @@ public class AdResponse implements Serializable {
             return this;
         }
 
+        public Builder setNativeAdPayload(@Nullable final NativeAdPayload nativeAdPayload) {
+            this.nativeAdPayload = nativeAdPayload;
+            return this;
+        }
+
         public Builder setBaseAdClassName(@Nullable final String customEventClassName) {
             this.customEventClassName = customEventClassName;
             return this;
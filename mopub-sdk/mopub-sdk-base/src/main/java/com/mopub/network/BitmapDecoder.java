@@ -0,0 +1,171 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Point;
+import android.os.SystemClock;
+import android.widget.ImageView.ScaleType;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+
+/**
+ * Decodes images straight to the size they are displayed at. The image is first subsampled with
+ * {@code inSampleSize} into a bitmap from the {@link BitmapPool}, so the full size image is never
+ * allocated. If the subsampled image is still noticeably larger than needed it is scaled down once
+ * more and the intermediate bitmap goes back to the pool.
+ */
+class BitmapDecoder {
+    // A subsampled image up to this much larger than the target is kept as is, since scaling it
+    // again would cost an extra allocation for little gain.
+    private static final float SCALE_TOLERANCE = 1.25f;
+
+    private BitmapDecoder() {
+    }
+
+    /**
+     * @param maxWidth  maximum width, or 0 for no limit
+     * @param maxHeight maximum height, or 0 for no limit
+     * @return the decoded bitmap, or null if the data could not be decoded
+     */
+    @Nullable
+    static Bitmap decode(@NonNull final byte[] data,
+            final int maxWidth,
+            final int maxHeight,
+            @NonNull final ScaleType scaleType,
+            @NonNull final Bitmap.Config config,
+            @Nullable final BitmapPool bitmapPool,
+            @Nullable final ImageDecodeStats decodeStats) {
+        Preconditions.checkNotNull(data);
+        Preconditions.checkNotNull(scaleType);
+        Preconditions.checkNotNull(config);
+
+        final long startMillis = SystemClock.uptimeMillis();
+
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        final int actualWidth = options.outWidth;
+        final int actualHeight = options.outHeight;
+        if (actualWidth <= 0 || actualHeight <= 0) {
+            return null;
+        }
+
+        final Point targetSize = getTargetSize(actualWidth, actualHeight, maxWidth, maxHeight,
+                scaleType);
+        final int sampleSize = getSampleSize(actualWidth, actualHeight, targetSize.x,
+                targetSize.y);
+        final int sampledWidth = divideRoundingUp(actualWidth, sampleSize);
+        final int sampledHeight = divideRoundingUp(actualHeight, sampleSize);
+
+        options.inJustDecodeBounds = false;
+        options.inPreferredConfig = config;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        final Bitmap reusable = bitmapPool != null
+                ? bitmapPool.get(sampledWidth, sampledHeight, config)
+                : null;
+        options.inBitmap = reusable;
+
+        Bitmap sampled;
+        try {
+            sampled = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap could not be reused for this image.
+            if (reusable == null) {
+                throw e;
+            }
+            bitmapPool.put(reusable);
+            options.inBitmap = null;
+            sampled = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        if (sampled == null) {
+            return null;
+        }
+
+        Bitmap result = sampled;
+        if (sampled.getWidth() > targetSize.x * SCALE_TOLERANCE ||
+                sampled.getHeight() > targetSize.y * SCALE_TOLERANCE) {
+            result = Bitmap.createScaledBitmap(sampled, targetSize.x, targetSize.y, true);
+            if (result != sampled) {
+                if (bitmapPool != null) {
+                    bitmapPool.put(sampled);
+                } else {
+                    sampled.recycle();
+                }
+            }
+        }
+
+        if (decodeStats != null) {
+            decodeStats.record(SystemClock.uptimeMillis() - startMillis,
+                    result.getAllocationByteCount(),
+                    (long) actualWidth * actualHeight * BitmapPool.getBytesPerPixel(config),
+                    reusable != null && options.inBitmap != null);
+        }
+        return result;
+    }
+
+    /**
+     * Size to display an image at so it fits the max dimensions the way the scale type asks for,
+     * keeping the aspect ratio. Images are never scaled up.
+     */
+    @VisibleForTesting
+    @NonNull
+    static Point getTargetSize(final int actualWidth,
+            final int actualHeight,
+            final int maxWidth,
+            final int maxHeight,
+            @NonNull final ScaleType scaleType) {
+        if (maxWidth <= 0 && maxHeight <= 0) {
+            return new Point(actualWidth, actualHeight);
+        }
+
+        final double widthRatio = maxWidth > 0 ? (double) maxWidth / actualWidth : Double.NaN;
+        final double heightRatio = maxHeight > 0 ? (double) maxHeight / actualHeight : Double.NaN;
+
+        final double ratio;
+        if (Double.isNaN(widthRatio)) {
+            ratio = heightRatio;
+        } else if (Double.isNaN(heightRatio)) {
+            ratio = widthRatio;
+        } else if (scaleType == ScaleType.CENTER_CROP || scaleType == ScaleType.FIT_XY) {
+            // The image has to cover the whole box.
+            ratio = Math.max(widthRatio, heightRatio);
+        } else {
+            ratio = Math.min(widthRatio, heightRatio);
+        }
+
+        if (ratio >= 1) {
+            return new Point(actualWidth, actualHeight);
+        }
+        return new Point(Math.max(1, (int) Math.round(actualWidth * ratio)),
+                Math.max(1, (int) Math.round(actualHeight * ratio)));
+    }
+
+    /**
+     * @return largest power of two that keeps the subsampled image at least as big as the target
+     */
+    @VisibleForTesting
+    static int getSampleSize(final int actualWidth,
+            final int actualHeight,
+            final int targetWidth,
+            final int targetHeight) {
+        int sampleSize = 1;
+        while (actualWidth / (sampleSize * 2) >= targetWidth &&
+                actualHeight / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static int divideRoundingUp(final int value, final int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,141 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pool of mutable bitmaps that can be decoded into with {@code BitmapFactory.Options.inBitmap}.
+ * Bitmaps are bucketed by allocation size, and a request is served by the smallest pooled bitmap
+ * that is large enough, as long as it does not waste more than {@link #MAX_SIZE_MULTIPLE} times
+ * the requested memory. When the pool is full the largest bitmaps are dropped first.
+ *
+ * Only bitmaps that nobody else references may be put in the pool.
+ */
+public class BitmapPool {
+    static final int MAX_SIZE_MULTIPLE = 4;
+
+    @NonNull
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> mBuckets = new TreeMap<>();
+    private final long mMaxBytes;
+    private long mCurrentBytes;
+    private int mHitCount;
+    private int mMissCount;
+
+    public BitmapPool(final long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * @return a pooled bitmap that can hold a width x height bitmap with the given config, or null
+     * if there is none
+     */
+    @Nullable
+    public synchronized Bitmap get(final int width, final int height,
+            @NonNull final Bitmap.Config config) {
+        final long requiredBytes = (long) width * height * getBytesPerPixel(config);
+        if (requiredBytes <= 0 || requiredBytes > Integer.MAX_VALUE) {
+            mMissCount++;
+            return null;
+        }
+
+        final Integer key = mBuckets.ceilingKey((int) requiredBytes);
+        if (key == null || key > requiredBytes * MAX_SIZE_MULTIPLE) {
+            mMissCount++;
+            return null;
+        }
+
+        final Bitmap bitmap = removeFromBucket(key);
+        mHitCount++;
+        return bitmap;
+    }
+
+    /**
+     * Adds a bitmap to the pool. Immutable, recycled, or oversized bitmaps are ignored.
+     */
+    public synchronized void put(@Nullable final Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+
+        final int size = bitmap.getAllocationByteCount();
+        if (size <= 0 || size > mMaxBytes) {
+            return;
+        }
+
+        ArrayDeque<Bitmap> bucket = mBuckets.get(size);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            mBuckets.put(size, bucket);
+        }
+        bucket.addLast(bitmap);
+        mCurrentBytes += size;
+
+        trimToSize(mMaxBytes);
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized long getCurrentBytes() {
+        return mCurrentBytes;
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    private void trimToSize(final long maxBytes) {
+        while (mCurrentBytes > maxBytes && !mBuckets.isEmpty()) {
+            removeFromBucket(mBuckets.lastKey());
+        }
+    }
+
+    @NonNull
+    private Bitmap removeFromBucket(final int key) {
+        final ArrayDeque<Bitmap> bucket = mBuckets.get(key);
+        final Bitmap bitmap = bucket.removeFirst();
+        if (bucket.isEmpty()) {
+            mBuckets.remove(key);
+        }
+        mCurrentBytes -= key;
+        return bitmap;
+    }
+
+    static int getBytesPerPixel(@NonNull final Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        int count = 0;
+        for (final Map.Entry<Integer, ArrayDeque<Bitmap>> entry : mBuckets.entrySet()) {
+            count += entry.getValue().size();
+        }
+        return "BitmapPool{count=" + count + ", bytes=" + mCurrentBytes + ", hits=" + mHitCount +
+                ", misses=" + mMissCount + '}';
+    }
+}
@@ -0,0 +1,91 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Constants;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.volley.Cache;
+import com.mopub.volley.DefaultRetryPolicy;
+import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.ParseError;
+import com.mopub.volley.Request;
+import com.mopub.volley.Response;
+import com.mopub.volley.toolbox.HttpHeaderParser;
+
+/**
+ * Image request that only puts the encoded image in the disk cache. The image header is read to
+ * make sure it can be decoded, but no pixels are decoded, so the {@link SizedImageRequest} made
+ * when the image is shown decodes it from disk at the size of its view.
+ */
+class EncodedImageRequest extends Request<Void> {
+    // Same as the Volley image requests.
+    private static final int IMAGE_TIMEOUT_MS = 1000;
+    private static final int IMAGE_MAX_RETRIES = 2;
+    private static final float IMAGE_BACKOFF_MULT = 2f;
+
+    /**
+     * Images stay on disk at least as long as the ad they were downloaded for can be shown, even
+     * if the server does not allow caching them.
+     */
+    @VisibleForTesting
+    static final long MIN_CACHE_TTL_MILLIS = Constants.AD_EXPIRATION_DELAY;
+
+    @NonNull private final Response.Listener<Void> mListener;
+
+    EncodedImageRequest(@NonNull final String url,
+            @NonNull final Response.Listener<Void> listener,
+            @Nullable final Response.ErrorListener errorListener) {
+        super(Method.GET, url, errorListener);
+
+        mListener = listener;
+        setShouldCache(true);
+        setRetryPolicy(new DefaultRetryPolicy(IMAGE_TIMEOUT_MS, IMAGE_MAX_RETRIES,
+                IMAGE_BACKOFF_MULT));
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.LOW;
+    }
+
+    @Override
+    protected Response<Void> parseNetworkResponse(final NetworkResponse response) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(response.data, 0, response.data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return Response.error(new ParseError(response));
+        }
+
+        return Response.success(null, getCacheEntry(response, System.currentTimeMillis()));
+    }
+
+    @VisibleForTesting
+    @NonNull
+    static Cache.Entry getCacheEntry(@NonNull final NetworkResponse response,
+            final long nowMillis) {
+        Cache.Entry entry = HttpHeaderParser.parseCacheHeaders(response);
+        if (entry == null) {
+            entry = new Cache.Entry();
+            entry.data = response.data;
+            entry.responseHeaders = response.headers;
+            entry.serverDate = nowMillis;
+        }
+        final long minTtl = nowMillis + MIN_CACHE_TTL_MILLIS;
+        entry.ttl = Math.max(entry.ttl, minTtl);
+        entry.softTtl = Math.max(entry.softTtl, minTtl);
+        return entry;
+    }
+
+    @Override
+    protected void deliverResponse(final Void response) {
+        mListener.onResponse(response);
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Running totals for the image decodes done by {@link MaxWidthImageLoader}. Used to keep an eye on
+ * decode time and on how much heap each decoded image costs.
+ */
+public class ImageDecodeStats {
+    private int mDecodeCount;
+    private int mReusedBitmapCount;
+    private long mTotalDecodeMillis;
+    private long mTotalBytes;
+    private long mTotalSourceBytes;
+
+    synchronized void record(final long decodeMillis, final long bytes, final long sourceBytes,
+            final boolean reusedBitmap) {
+        mDecodeCount++;
+        mTotalDecodeMillis += decodeMillis;
+        mTotalBytes += bytes;
+        mTotalSourceBytes += sourceBytes;
+        if (reusedBitmap) {
+            mReusedBitmapCount++;
+        }
+    }
+
+    public synchronized int getDecodeCount() {
+        return mDecodeCount;
+    }
+
+    /**
+     * @return number of decodes that reused a pooled bitmap for the intermediate decode
+     */
+    public synchronized int getReusedBitmapCount() {
+        return mReusedBitmapCount;
+    }
+
+    public synchronized long getTotalDecodeMillis() {
+        return mTotalDecodeMillis;
+    }
+
+    /**
+     * @return bytes allocated by all decoded bitmaps
+     */
+    public synchronized long getTotalBytes() {
+        return mTotalBytes;
+    }
+
+    /**
+     * @return bytes the same images would have taken if they were decoded at full size
+     */
+    public synchronized long getTotalSourceBytes() {
+        return mTotalSourceBytes;
+    }
+
+    public synchronized double getAverageDecodeMillis() {
+        return mDecodeCount == 0 ? 0 : (double) mTotalDecodeMillis / mDecodeCount;
+    }
+
+    public synchronized long getAverageBytes() {
+        return mDecodeCount == 0 ? 0 : mTotalBytes / mDecodeCount;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return "ImageDecodeStats{decodes=" + mDecodeCount +
+                ", reused=" + mReusedBitmapCount +
+                ", averageDecodeMillis=" + getAverageDecodeMillis() +
+                ", averageBytes=" + getAverageBytes() +
+                ", totalBytes=" + mTotalBytes +
+                ", totalSourceBytes=" + mTotalSourceBytes + '}';
+    }
+}
@@ -5,18 +5,40 @@
 package com.mopub.network;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.view.Display;
 import android.view.WindowManager;
+import android.widget.ImageView.ScaleType;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.volley.Request;
 import com.mopub.volley.RequestQueue;
+import com.mopub.volley.Response;
 
+/**
+ * Image loader that decodes images no larger than they can be displayed. Images fetched without a
+ * size are capped at the skinny side of the display in width and at the long side in height.
+ * Images fetched for a view of known size are decoded at that size instead. Images can also be
+ * pre-cached on disk without decoding them, so they are only decoded once their view is known.
+ */
 public class MaxWidthImageLoader extends com.mopub.volley.toolbox.ImageLoader {
     private final int mMaxImageWidth;
-
+    private final int mMaxImageHeight;
+    @NonNull private final RequestQueue mRequestQueue;
+    @Nullable private final BitmapPool mBitmapPool;
+    @NonNull private final ImageDecodeStats mDecodeStats = new ImageDecodeStats();
 
     public MaxWidthImageLoader(final RequestQueue queue, final Context context, final ImageCache imageCache) {
+        this(queue, context, imageCache, null);
+    }
+
+    public MaxWidthImageLoader(final RequestQueue queue, final Context context,
+            final ImageCache imageCache, @Nullable final BitmapPool bitmapPool) {
         super(queue, imageCache);
+        mRequestQueue = queue;
 
         // Get Display Options
         WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
@@ -26,10 +48,63 @@ public class MaxWidthImageLoader extends com.mopub.volley.toolbox.ImageLoader {
 
         // Make our images no wider than the skinny side of the display.
         mMaxImageWidth = Math.min(size.x, size.y);
+        mMaxImageHeight = Math.max(size.x, size.y);
+        mBitmapPool = bitmapPool;
     }
 
     @Override
     public ImageContainer get(final String requestUrl, final ImageListener listener) {
-        return super.get(requestUrl, listener, mMaxImageWidth, 0 /* no height limit */);
+        // Limit the height as well, so that very tall images are not decoded at full size.
+        return super.get(requestUrl, listener, mMaxImageWidth, mMaxImageHeight);
+    }
+
+    /**
+     * Loads an image for a view of the given size. If the image was already decoded at the
+     * default size it is returned as is rather than decoded again.
+     *
+     * @param width  view width in pixels, or 0 if not known
+     * @param height view height in pixels, or 0 if not known
+     */
+    public ImageContainer getForView(final String requestUrl, final ImageListener listener,
+            final int width, final int height) {
+        if (width <= 0 && height <= 0) {
+            return get(requestUrl, listener);
+        }
+        final int maxWidth = Math.min(width, mMaxImageWidth);
+        final int maxHeight = Math.min(height, mMaxImageHeight);
+        if (!isCached(requestUrl, maxWidth, maxHeight) &&
+                isCached(requestUrl, mMaxImageWidth, mMaxImageHeight)) {
+            return get(requestUrl, listener);
+        }
+        return super.get(requestUrl, listener, maxWidth, maxHeight);
+    }
+
+    /**
+     * Downloads an image into the disk cache without decoding it. The listener is called on the
+     * main thread once the image is on disk and its header can be read, and the error listener if
+     * it can not be downloaded or is not an image.
+     *
+     * @return the request, which can be cancelled
+     */
+    @NonNull
+    public Request<Void> preCache(@NonNull final String requestUrl,
+            @NonNull final Response.Listener<Void> listener,
+            @NonNull final Response.ErrorListener errorListener) {
+        return mRequestQueue.add(new EncodedImageRequest(requestUrl, listener, errorListener));
+    }
+
+    @NonNull
+    public ImageDecodeStats getDecodeStats() {
+        return mDecodeStats;
+    }
+
+    @Override
+    protected Request<Bitmap> makeImageRequest(final String requestUrl, final int maxWidth,
+            final int maxHeight, final ScaleType scaleType, final String cacheKey) {
+        return new SizedImageRequest(requestUrl,
+                response -> onGetImageSuccess(cacheKey, response),
+                maxWidth, maxHeight, scaleType, Bitmap.Config.RGB_565,
+                error -> onGetImageError(cacheKey, error),
+                mBitmapPool, mDecodeStats);
     }
 }
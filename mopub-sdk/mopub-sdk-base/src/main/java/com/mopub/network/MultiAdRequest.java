@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.AdFormat;
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.MoPub;
 import com.mopub.common.Preconditions;
 import com.mopub.common.logging.MoPubLog;
@@ -37,6 +38,9 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
 
     private int hashCode = 0;
 
+    // When this request was handed to the request queue, for AdLoadTracer
+    volatile long mSubmitUptimeMillis = -1;
+
     public interface Listener extends Response.ErrorListener {
         void onSuccessResponse(MultiAdResponse response);
     }
@@ -93,10 +97,14 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
     @Nullable
     @Override
     protected Response<MultiAdResponse> parseNetworkResponse(NetworkResponse networkResponse) {
+        final long parseStartMillis = AdLoadTracer.now();
+        final boolean received = networkResponse != null && networkResponse.data != null &&
+                networkResponse.statusCode >= 200 && networkResponse.statusCode < 300;
         MultiAdResponse multiAdResponse;
         try {
             multiAdResponse = new MultiAdResponse(mContext, networkResponse, mAdFormat, mAdUnitId);
         } catch (Exception ex) {
+            traceNetworkAndParse(null, parseStartMillis, received, false);
             if (ex instanceof MoPubNetworkError) {
                 return Response.error((MoPubNetworkError) ex);
             }
@@ -104,9 +112,24 @@ public class MultiAdRequest extends MoPubRequest<MultiAdResponse> {
             return Response.error(new MoPubNetworkError(ex, MoPubNetworkError.Reason.UNSPECIFIED));
         }
 
+        traceNetworkAndParse(multiAdResponse.getRequestId(), parseStartMillis, received, true);
         return Response.success(multiAdResponse, HttpHeaderParser.parseCacheHeaders(networkResponse));
     }
 
+    /**
+     * The network span ends where parsing starts. Its outcome only depends on whether a response
+     * arrived, so a response that fails to parse counts as a network success and a parse failure.
+     */
+    private void traceNetworkAndParse(@Nullable final String requestId,
+            final long parseStartMillis, final boolean received, final boolean parsed) {
+        if (mSubmitUptimeMillis >= 0) {
+            AdLoadTracer.record(AdLoadTracer.Stage.NETWORK, mAdUnitId, requestId,
+                    mSubmitUptimeMillis, parseStartMillis, received);
+        }
+        AdLoadTracer.record(AdLoadTracer.Stage.PARSE, mAdUnitId, requestId, parseStartMillis,
+                parsed);
+    }
+
     /**
      * Callback from Volley to deliver successful result to listener
      * @param multiAdResponse valid object {@link MultiAdResponse}
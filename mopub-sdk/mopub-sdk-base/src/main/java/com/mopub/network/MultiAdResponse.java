@@ -74,6 +74,17 @@ public class MultiAdResponse implements Iterator<AdResponse> {
         return mFailUrl;
     }
 
+    @Nullable
+    private String mRequestId;
+
+    /**
+     * @return GUID the server assigned to this request, or null if it did not send one
+     */
+    @Nullable
+    public String getRequestId() {
+        return mRequestId;
+    }
+
     @Nullable
     private static ServerOverrideListener sServerOverrideListener;
 
@@ -97,6 +108,7 @@ public class MultiAdResponse implements Iterator<AdResponse> {
         mFailUrl = jsonObject.optString(ResponseHeader.FAIL_URL.getKey());
         final String adUnitFormat = jsonObject.optString(ResponseHeader.ADUNIT_FORMAT.getKey());
         String requestId = jsonObject.optString(ResponseHeader.REQUEST_ID.getKey());
+        mRequestId = TextUtils.isEmpty(requestId) ? null : requestId;
 
         final Integer backoffMs = extractIntegerHeader(jsonObject, ResponseHeader.BACKOFF_MS);
         final String backoffReason = extractHeader(jsonObject, ResponseHeader.BACKOFF_REASON);
@@ -349,12 +361,22 @@ public class MultiAdResponse implements Iterator<AdResponse> {
         builder.setAdTimeoutDelayMilliseconds(adTimeoutDelayMilliseconds);
 
         if (AdType.STATIC_NATIVE.equals(adTypeString)) {
+            final JSONObject jsonBody;
             try {
-                builder.setJsonBody(new JSONObject(content));
+                jsonBody = new JSONObject(content);
             } catch (JSONException e) {
                 throw new MoPubNetworkError("Failed to decode body JSON for native ad format",
                         e, MoPubNetworkError.Reason.BAD_BODY);
             }
+            builder.setJsonBody(jsonBody);
+
+            // Parse the native ad here, off the main thread, so that loading it only binds fields.
+            // An invalid body is left to the native adapter, which reports the failure.
+            try {
+                builder.setNativeAdPayload(NativeAdPayload.fromJson(jsonBody));
+            } catch (IllegalArgumentException e) {
+                MoPubLog.log(CUSTOM, "Unable to parse native ad body: " + e.getMessage());
+            }
         }
 
         // Derive base ad fields
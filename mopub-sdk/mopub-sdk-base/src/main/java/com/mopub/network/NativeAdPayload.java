@@ -0,0 +1,342 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.logging.MoPubLog;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * The parsed body of a MoPub static native ad. It is built once, off the main thread, while the
+ * ad response is processed, so that loading the ad only has to copy fields. Image URLs and
+ * trackers are precomputed, and the payload can not be changed after it is built.
+ */
+public class NativeAdPayload {
+    public static final String IMPRESSION_TRACKER = "imptracker";
+    public static final String CLICK_TRACKER = "clktracker";
+    public static final String TITLE = "title";
+    public static final String TEXT = "text";
+    public static final String MAIN_IMAGE = "mainimage";
+    public static final String ICON_IMAGE = "iconimage";
+    public static final String CLICK_DESTINATION = "clk";
+    public static final String FALLBACK = "fallback";
+    public static final String CALL_TO_ACTION = "ctatext";
+    public static final String STAR_RATING = "starrating";
+    public static final String PRIVACY_INFORMATION_ICON_IMAGE_URL = "privacyicon";
+    public static final String PRIVACY_INFORMATION_ICON_CLICKTHROUGH_URL = "privacyclkurl";
+    public static final String SPONSORED = "sponsored";
+
+    private static final String IMAGE_KEY_SUFFIX = "image";
+
+    @Nullable private final String mTitle;
+    @Nullable private final String mText;
+    @Nullable private final String mMainImageUrl;
+    @Nullable private final String mIconImageUrl;
+    @Nullable private final String mClickDestinationUrl;
+    @Nullable private final String mCallToAction;
+    @Nullable private final Double mStarRating;
+    @Nullable private final String mPrivacyInformationIconImageUrl;
+    @Nullable private final String mPrivacyInformationIconClickThroughUrl;
+    @Nullable private final String mSponsored;
+    @NonNull private final List<String> mImpressionTrackers;
+    @NonNull private final List<String> mClickTrackers;
+    @NonNull private final Map<String, Object> mExtras;
+    @NonNull private final List<String> mExtrasImageUrls;
+    @NonNull private final List<String> mRequiredImageUrls;
+    @NonNull private final List<String> mOptionalImageUrls;
+
+    private NativeAdPayload(@NonNull final Builder builder) {
+        mTitle = builder.title;
+        mText = builder.text;
+        mMainImageUrl = builder.mainImageUrl;
+        mIconImageUrl = builder.iconImageUrl;
+        mClickDestinationUrl = builder.clickDestinationUrl;
+        mCallToAction = builder.callToAction;
+        mStarRating = builder.starRating;
+        mPrivacyInformationIconImageUrl = builder.privacyInformationIconImageUrl;
+        mPrivacyInformationIconClickThroughUrl = builder.privacyInformationIconClickThroughUrl;
+        mSponsored = builder.sponsored;
+        mImpressionTrackers = unmodifiableList(builder.impressionTrackers);
+        mClickTrackers = unmodifiableList(builder.clickTrackers);
+        mExtras = Collections.unmodifiableMap(builder.extras);
+        mExtrasImageUrls = unmodifiableList(builder.extrasImageUrls);
+
+        final List<String> requiredImageUrls = new ArrayList<>(2);
+        addIfNotEmpty(requiredImageUrls, mMainImageUrl);
+        addIfNotEmpty(requiredImageUrls, mIconImageUrl);
+        mRequiredImageUrls = Collections.unmodifiableList(requiredImageUrls);
+
+        final List<String> optionalImageUrls = new ArrayList<>(1 + mExtrasImageUrls.size());
+        addIfNotEmpty(optionalImageUrls, mPrivacyInformationIconImageUrl);
+        optionalImageUrls.addAll(mExtrasImageUrls);
+        mOptionalImageUrls = Collections.unmodifiableList(optionalImageUrls);
+    }
+
+    /**
+     * Parses the body of a static native ad. Known keys with a value of the wrong type are ignored,
+     * except for the trackers, which are required. Unknown keys are kept as extras.
+     *
+     * @throws IllegalArgumentException if the trackers are missing or can not be read
+     */
+    @NonNull
+    public static NativeAdPayload fromJson(@NonNull final JSONObject jsonObject)
+            throws IllegalArgumentException {
+        Preconditions.checkNotNull(jsonObject);
+
+        final Builder builder = new Builder();
+        boolean hasImpressionTrackers = false;
+        boolean hasClickTrackers = false;
+
+        final Iterator<String> keys = jsonObject.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final Object value = jsonObject.opt(key);
+            switch (key) {
+                case IMPRESSION_TRACKER:
+                    if (!(value instanceof JSONArray)) {
+                        throw new IllegalArgumentException("JSONObject key (" + key
+                                + ") contained unexpected value.");
+                    }
+                    addTrackers(builder.impressionTrackers, (JSONArray) value);
+                    hasImpressionTrackers = true;
+                    break;
+                case CLICK_TRACKER:
+                    if (value instanceof JSONArray) {
+                        addTrackers(builder.clickTrackers, (JSONArray) value);
+                    } else if (value instanceof String) {
+                        builder.clickTrackers.add((String) value);
+                    } else {
+                        throw new IllegalArgumentException("JSONObject key (" + key
+                                + ") contained unexpected value.");
+                    }
+                    hasClickTrackers = true;
+                    break;
+                case TITLE:
+                    builder.title = optString(key, value);
+                    break;
+                case TEXT:
+                    builder.text = optString(key, value);
+                    break;
+                case MAIN_IMAGE:
+                    builder.mainImageUrl = optString(key, value);
+                    break;
+                case ICON_IMAGE:
+                    builder.iconImageUrl = optString(key, value);
+                    break;
+                case CLICK_DESTINATION:
+                    builder.clickDestinationUrl = optString(key, value);
+                    break;
+                case FALLBACK:
+                    // Not used by static native ads.
+                    break;
+                case CALL_TO_ACTION:
+                    builder.callToAction = optString(key, value);
+                    break;
+                case STAR_RATING:
+                    builder.starRating = optDouble(key, value);
+                    break;
+                case PRIVACY_INFORMATION_ICON_IMAGE_URL:
+                    builder.privacyInformationIconImageUrl = optString(key, value);
+                    break;
+                case PRIVACY_INFORMATION_ICON_CLICKTHROUGH_URL:
+                    builder.privacyInformationIconClickThroughUrl = optString(key, value);
+                    break;
+                case SPONSORED:
+                    builder.sponsored = optString(key, value);
+                    break;
+                default:
+                    builder.extras.put(key, value);
+                    if (value instanceof String && isImageKey(key)) {
+                        builder.extrasImageUrls.add((String) value);
+                    }
+                    break;
+            }
+        }
+
+        if (!hasImpressionTrackers || !hasClickTrackers) {
+            throw new IllegalArgumentException("JSONObject did not contain required keys.");
+        }
+        return new NativeAdPayload(builder);
+    }
+
+    @Nullable
+    public String getTitle() {
+        return mTitle;
+    }
+
+    @Nullable
+    public String getText() {
+        return mText;
+    }
+
+    @Nullable
+    public String getMainImageUrl() {
+        return mMainImageUrl;
+    }
+
+    @Nullable
+    public String getIconImageUrl() {
+        return mIconImageUrl;
+    }
+
+    @Nullable
+    public String getClickDestinationUrl() {
+        return mClickDestinationUrl;
+    }
+
+    @Nullable
+    public String getCallToAction() {
+        return mCallToAction;
+    }
+
+    @Nullable
+    public Double getStarRating() {
+        return mStarRating;
+    }
+
+    @Nullable
+    public String getPrivacyInformationIconImageUrl() {
+        return mPrivacyInformationIconImageUrl;
+    }
+
+    @Nullable
+    public String getPrivacyInformationIconClickThroughUrl() {
+        return mPrivacyInformationIconClickThroughUrl;
+    }
+
+    @Nullable
+    public String getSponsored() {
+        return mSponsored;
+    }
+
+    @NonNull
+    public List<String> getImpressionTrackers() {
+        return mImpressionTrackers;
+    }
+
+    @NonNull
+    public List<String> getClickTrackers() {
+        return mClickTrackers;
+    }
+
+    /**
+     * @return every key that is not a known native ad field, in the order of the JSON body
+     */
+    @NonNull
+    public Map<String, Object> getExtras() {
+        return mExtras;
+    }
+
+    /**
+     * @return string extras whose key ends with a case-insensitive "image"
+     */
+    @NonNull
+    public List<String> getExtrasImageUrls() {
+        return mExtrasImageUrls;
+    }
+
+    /**
+     * @return images the ad can not be rendered without: the main image and the icon
+     */
+    @NonNull
+    public List<String> getRequiredImageUrls() {
+        return mRequiredImageUrls;
+    }
+
+    /**
+     * @return images that can be downloaded after the ad is ready: the privacy information icon
+     * and any extras images
+     */
+    @NonNull
+    public List<String> getOptionalImageUrls() {
+        return mOptionalImageUrls;
+    }
+
+    static boolean isImageKey(@NonNull final String key) {
+        final int length = IMAGE_KEY_SUFFIX.length();
+        return key.regionMatches(true, key.length() - length, IMAGE_KEY_SUFFIX, 0, length);
+    }
+
+    private static void addTrackers(@NonNull final List<String> trackers,
+            @NonNull final JSONArray jsonArray) {
+        for (int i = 0; i < jsonArray.length(); i++) {
+            final String tracker = jsonArray.optString(i, null);
+            if (tracker != null) {
+                trackers.add(tracker);
+            }
+        }
+    }
+
+    @Nullable
+    private static String optString(@NonNull final String key, @Nullable final Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        MoPubLog.log(CUSTOM, "Ignoring unexpected value for optional key: " + key);
+        return null;
+    }
+
+    @Nullable
+    private static Double optDouble(@NonNull final String key, @Nullable final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.valueOf((String) value);
+            } catch (NumberFormatException e) {
+                // Fall through and log below.
+            }
+        }
+        MoPubLog.log(CUSTOM, "Ignoring unexpected value for optional key: " + key);
+        return null;
+    }
+
+    private static void addIfNotEmpty(@NonNull final List<String> list,
+            @Nullable final String value) {
+        if (!TextUtils.isEmpty(value)) {
+            list.add(value);
+        }
+    }
+
+    @NonNull
+    private static List<String> unmodifiableList(@NonNull final List<String> list) {
+        return Collections.unmodifiableList(Arrays.asList(list.toArray(new String[0])));
+    }
+
+    private static class Builder {
+        private String title;
+        private String text;
+        private String mainImageUrl;
+        private String iconImageUrl;
+        private String clickDestinationUrl;
+        private String callToAction;
+        private Double starRating;
+        private String privacyInformationIconImageUrl;
+        private String privacyInformationIconClickThroughUrl;
+        private String sponsored;
+        private final List<String> impressionTrackers = new ArrayList<>();
+        private final List<String> clickTrackers = new ArrayList<>();
+        private final Map<String, Object> extras = new LinkedHashMap<>();
+        private final List<String> extrasImageUrls = new ArrayList<>();
+    }
+}
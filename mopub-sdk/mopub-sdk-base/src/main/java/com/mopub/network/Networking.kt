@@ -13,6 +13,7 @@ import android.webkit.WebSettings
 import androidx.collection.LruCache
 
 import com.mopub.common.Constants
+import com.mopub.common.MemoryAccountant
 import com.mopub.common.VisibleForTesting
 import com.mopub.common.logging.MoPubLog
 import com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM
@@ -27,6 +28,8 @@ import java.io.File
 object Networking {
     @VisibleForTesting
     private const val CACHE_DIRECTORY_NAME = "mopub-volley-cache"
+    private const val BITMAP_POOL_FRACTION_OF_CACHE = 4
+    private const val IMAGE_CACHE_COMPONENT_NAME = "ImageCache"
     private val DEFAULT_USER_AGENT: String
 
     init {
@@ -50,6 +53,8 @@ object Networking {
     private var userAgent: String? = null
     @Volatile
     private var maxWidthImageLoader: MaxWidthImageLoader? = null
+    // Held here because the MemoryAccountant only keeps a weak reference
+    private var imageCacheMemoryComponent: MemoryAccountant.Component? = null
     private var urlRewriter : HurlStack.UrlRewriter? = null
 
     /**
@@ -110,17 +115,40 @@ object Networking {
                 val queue = getRequestQueue(context)
                 val cacheSize = DeviceUtils.memoryCacheSizeBytes(context)
                 val imageCache = object : LruCache<String, Bitmap>(cacheSize) {
+                    // Count what the bitmap actually holds on the heap, which can be more than
+                    // its pixels when it was decoded into a reused bitmap.
                     override fun sizeOf(key: String, value: Bitmap): Int {
-                        return value.rowBytes * value.height
+                        return value.allocationByteCount
                     }
                 }
+                val bitmapPool = BitmapPool((cacheSize / BITMAP_POOL_FRACTION_OF_CACHE).toLong())
+                val memoryComponent = object : MemoryAccountant.Component {
+                    override fun getRetainedBytes() =
+                        imageCache.size().toLong() + bitmapPool.currentBytes
+
+                    // Pooled bitmaps are only kept for reuse, so they go first.
+                    override fun shed(bytesToFree: Long, critical: Boolean): Long {
+                        val retainedBytes = getRetainedBytes()
+                        val cacheBytesToFree = bytesToFree - bitmapPool.currentBytes
+                        bitmapPool.clear()
+                        if (cacheBytesToFree > 0) {
+                            imageCache.trimToSize(
+                                maxOf(0L, imageCache.size() - cacheBytesToFree).toInt()
+                            )
+                        }
+                        return retainedBytes - getRetainedBytes()
+                    }
+                }
+                imageCacheMemoryComponent = memoryComponent
+                MemoryAccountant.register(IMAGE_CACHE_COMPONENT_NAME, memoryComponent)
 
                 MaxWidthImageLoader(queue, context, object : ImageLoader.ImageCache {
                     override fun getBitmap(key: String) = imageCache.get(key)
                     override fun putBitmap(key: String, bitmap: Bitmap) {
                         imageCache.put(key, bitmap)
+                        MemoryAccountant.onRetainedBytesIncreased()
                     }
-                }).also {
+                }, bitmapPool).also {
                     maxWidthImageLoader = it
                 }
             }()
@@ -167,6 +195,8 @@ object Networking {
     fun clearForTesting() {
         requestQueue = null
         maxWidthImageLoader = null
+        imageCacheMemoryComponent?.let { MemoryAccountant.unregister(it) }
+        imageCacheMemoryComponent = null
         userAgent = null
     }
 
@@ -66,7 +66,7 @@ public class RequestRateTracker {
         }
     }
 
-    boolean isBlockedByRateLimit(@Nullable final String adUnitId) {
+    public boolean isBlockedByRateLimit(@Nullable final String adUnitId) {
         return getTimeUntilLimitEnds(adUnitId) > 0;
     }
 
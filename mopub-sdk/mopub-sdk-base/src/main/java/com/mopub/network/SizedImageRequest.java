@@ -0,0 +1,73 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.Bitmap;
+import android.widget.ImageView.ScaleType;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.volley.NetworkResponse;
+import com.mopub.volley.ParseError;
+import com.mopub.volley.Response;
+import com.mopub.volley.toolbox.HttpHeaderParser;
+import com.mopub.volley.toolbox.ImageRequest;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR_WITH_THROWABLE;
+
+/**
+ * Image request that decodes through {@link BitmapDecoder}, so the bitmap is decoded at the
+ * requested size and the intermediate bitmaps are recycled through the {@link BitmapPool}.
+ */
+class SizedImageRequest extends ImageRequest {
+    // Decode one image at a time, same as the base class, to keep peak memory down.
+    private static final Object sDecodeLock = new Object();
+
+    private final int mMaxWidth;
+    private final int mMaxHeight;
+    @NonNull private final ScaleType mScaleType;
+    @NonNull private final Bitmap.Config mDecodeConfig;
+    @Nullable private final BitmapPool mBitmapPool;
+    @Nullable private final ImageDecodeStats mDecodeStats;
+
+    SizedImageRequest(@NonNull final String url,
+            @NonNull final Response.Listener<Bitmap> listener,
+            final int maxWidth,
+            final int maxHeight,
+            @NonNull final ScaleType scaleType,
+            @NonNull final Bitmap.Config decodeConfig,
+            @Nullable final Response.ErrorListener errorListener,
+            @Nullable final BitmapPool bitmapPool,
+            @Nullable final ImageDecodeStats decodeStats) {
+        super(url, listener, maxWidth, maxHeight, scaleType, decodeConfig, errorListener);
+
+        mMaxWidth = maxWidth;
+        mMaxHeight = maxHeight;
+        mScaleType = scaleType;
+        mDecodeConfig = decodeConfig;
+        mBitmapPool = bitmapPool;
+        mDecodeStats = decodeStats;
+    }
+
+    @Override
+    protected Response<Bitmap> parseNetworkResponse(final NetworkResponse response) {
+        synchronized (sDecodeLock) {
+            try {
+                final Bitmap bitmap = BitmapDecoder.decode(response.data, mMaxWidth, mMaxHeight,
+                        mScaleType, mDecodeConfig, mBitmapPool, mDecodeStats);
+                if (bitmap == null) {
+                    return Response.error(new ParseError(response));
+                }
+                return Response.success(bitmap, HttpHeaderParser.parseCacheHeaders(response));
+            } catch (OutOfMemoryError e) {
+                MoPubLog.log(ERROR_WITH_THROWABLE, "Caught OOM for " + response.data.length +
+                        " byte image, url=" + getUrl(), e);
+                return Response.error(new ParseError(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.common.util.Streams;
+import com.mopub.common.util.Strings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the creatives in mopub-sdk-common/creatives, which are packaged as assets of the
+ * benchmark APK.
+ */
+public class Creatives {
+
+    @NonNull
+    public static final List<String> VAST_FIXTURES = Arrays.asList(
+            "vast.xml",
+            "vast+companion.xml",
+            "vast+extensions.xml",
+            "vast+extensions+companion.xml",
+            "vast+extensions+companion-htmlresource.xml");
+
+    private Creatives() {
+    }
+
+    @NonNull
+    public static String read(@NonNull final String fileName) throws IOException {
+        InputStream inputStream = null;
+        try {
+            inputStream = InstrumentationRegistry.getInstrumentation().getContext().getAssets()
+                    .open(fileName);
+            return Strings.fromStream(inputStream);
+        } finally {
+            Streams.closeStream(inputStream);
+        }
+    }
+}
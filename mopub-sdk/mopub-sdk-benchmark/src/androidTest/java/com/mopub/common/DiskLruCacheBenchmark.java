@@ -0,0 +1,105 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.common.util.Streams;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Stores and reads entries the size of a small image in a cache set up like
+ * {@link CacheService}'s. Results depend on the device's storage.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DiskLruCacheBenchmark {
+    private static final int ENTRY_BYTES = 16 * 1024;
+    private static final int ENTRY_COUNT = 100;
+    private static final long MAX_SIZE_BYTES = 10 * 1024 * 1024;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private DiskLruCache diskLruCache;
+    private String[] keys;
+    private byte[] entry;
+    private byte[] readBuffer;
+
+    @Before
+    public void setUp() throws Exception {
+        final File directory = new File(InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getCacheDir(), "benchmark-disk-cache");
+        diskLruCache = DiskLruCache.open(directory, 1, 1, MAX_SIZE_BYTES);
+        diskLruCache.delete();
+        diskLruCache = DiskLruCache.open(directory, 1, 1, MAX_SIZE_BYTES);
+
+        entry = new byte[ENTRY_BYTES];
+        new Random(0).nextBytes(entry);
+        readBuffer = new byte[ENTRY_BYTES];
+        keys = new String[ENTRY_COUNT];
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            keys[i] = "entry_" + i;
+            put(keys[i]);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        diskLruCache.delete();
+    }
+
+    @Test
+    public void put() throws Exception {
+        int i = 0;
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            put(keys[i++ % ENTRY_COUNT]);
+        }
+    }
+
+    @Test
+    public void get() throws Exception {
+        int i = 0;
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final DiskLruCache.Snapshot snapshot = diskLruCache.get(keys[i++ % ENTRY_COUNT]);
+            assertNotNull(snapshot);
+            final InputStream inputStream = snapshot.getInputStream(0);
+            try {
+                Streams.readStream(inputStream, readBuffer);
+            } finally {
+                snapshot.close();
+            }
+        }
+    }
+
+    private void put(final String key) throws IOException {
+        final DiskLruCache.Editor editor = diskLruCache.edit(key);
+        assertNotNull(editor);
+        final OutputStream outputStream = editor.newOutputStream(0);
+        try {
+            outputStream.write(entry);
+        } finally {
+            Streams.closeStream(outputStream);
+        }
+        editor.commit();
+    }
+}
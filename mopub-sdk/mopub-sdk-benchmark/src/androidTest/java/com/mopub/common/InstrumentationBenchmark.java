@@ -0,0 +1,57 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Cost of the tracing and sampling calls that stay on in production, on every ad load and on
+ * every run of a main thread task.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InstrumentationBenchmark {
+    private static final String AD_UNIT_ID = "b195f8dd8ded45fe847ad89ed1d016da";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @After
+    public void tearDown() {
+        AdLoadTracer.clearForTesting();
+        MainThreadSampler.clearForTesting();
+    }
+
+    @Test
+    public void adLoadTracer_record() {
+        final String[] requestIds = new String[16];
+        for (int i = 0; i < requestIds.length; i++) {
+            requestIds[i] = "request_" + i;
+        }
+
+        int i = 0;
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final long start = AdLoadTracer.now();
+            AdLoadTracer.record(AdLoadTracer.Stage.PARSE, AD_UNIT_ID,
+                    requestIds[i++ % requestIds.length], start, true);
+        }
+    }
+
+    @Test
+    public void mainThreadSampler_beginEnd() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MainThreadSampler.end(MainThreadSampler.Task.VISIBILITY_CHECK,
+                    MainThreadSampler.begin());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.os.SystemClock;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Looks up click destinations in the redirect cache, as resolving a URL that was resolved in the
+ * last minute does before making any request.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UrlResolutionCacheBenchmark {
+    private static final int CACHED_CHAIN_COUNT = 100;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < CACHED_CHAIN_COUNT; i++) {
+            final List<UrlResolutionTask.RedirectChain.Hop> hops = new ArrayList<>();
+            hops.add(new UrlResolutionTask.RedirectChain.Hop(getClickUrl(i), 302, 80));
+            hops.add(new UrlResolutionTask.RedirectChain.Hop(
+                    "https://tracker.example.com/click?id=" + i, 302, 120));
+            UrlResolutionTask.cacheChain(getClickUrl(i), new UrlResolutionTask.RedirectChain(
+                    "https://www.example.com/landing?id=" + i, hops,
+                    SystemClock.uptimeMillis()));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        UrlResolutionTask.clearForTesting();
+    }
+
+    @Test
+    public void getCachedChain_hit() {
+        final String clickUrl = getClickUrl(CACHED_CHAIN_COUNT / 2);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            assertNotNull(UrlResolutionTask.getCachedChain(clickUrl));
+        }
+    }
+
+    @Test
+    public void getCachedChain_miss() {
+        final String clickUrl = getClickUrl(CACHED_CHAIN_COUNT);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            assertNull(UrlResolutionTask.getCachedChain(clickUrl));
+        }
+    }
+
+    private static String getClickUrl(final int index) {
+        return "https://ads.mopub.com/m/aclk?appid=&cid=" + index +
+                "&city=San%20Francisco&ckv=2&country_code=US";
+    }
+}
@@ -0,0 +1,48 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import java.util.WeakHashMap;
+
+/**
+ * Creates {@link VisibilityTracker}s for benchmarks in other packages.
+ */
+public class VisibilityTrackers {
+
+    private VisibilityTrackers() {
+    }
+
+    /**
+     * @return a tracker that runs its visibility check as soon as a frame schedules it, instead of
+     * after the throttle delay, so a whole frame can be measured on one thread
+     */
+    @NonNull
+    public static VisibilityTracker createImmediate(@NonNull final Context context) {
+        return new VisibilityTracker(context,
+                new WeakHashMap<View, VisibilityTracker.TrackingInfo>(),
+                new VisibilityTracker.VisibilityChecker(),
+                new ImmediateHandler());
+    }
+
+    private static class ImmediateHandler extends Handler {
+        ImmediateHandler() {
+            super(Looper.getMainLooper());
+        }
+
+        @Override
+        public boolean sendMessageAtTime(@NonNull final Message message, final long uptimeMillis) {
+            message.getCallback().run();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.util;
+
+import android.graphics.Bitmap;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Blurs a last video frame as large as the one the VAST player blurs behind companion ads.
+ * Every kernel blurs in place, which does not change how long it takes.
+ */
+@RunWith(Parameterized.class)
+public class BlurBenchmark {
+    private static final int WIDTH = 360;
+    private static final int HEIGHT = 203;
+
+    @Parameterized.Parameters(name = "radius={0}")
+    public static List<Integer> radii() {
+        return Arrays.asList(2, 25);
+    }
+
+    @Parameterized.Parameter
+    public int radius;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Bitmap bitmap;
+    private int[] pixels;
+
+    @Before
+    public void setUp() {
+        pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                pixels[y * WIDTH + x] = 0xFF000000 | (x * 255 / WIDTH) << 16 |
+                        (y * 255 / HEIGHT) << 8 | ((x ^ y) & 0xFF);
+            }
+        }
+        bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+    }
+
+    @After
+    public void tearDown() {
+        bitmap.recycle();
+    }
+
+    @Test
+    public void applyFastGaussianBlurToBitmap() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            ImageUtils.applyFastGaussianBlurToBitmap(bitmap, radius);
+        }
+    }
+
+    @Test
+    public void applyBoxBlurToBitmap() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            ImageUtils.applyBoxBlurToBitmap(bitmap, radius);
+        }
+    }
+
+    @Test
+    public void boxBlurKernel() {
+        final BoxBlur boxBlur = new BoxBlur();
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            boxBlur.blur(pixels, WIDTH, HEIGHT, radius, 3);
+        }
+    }
+
+    @Test
+    public void boxBlurKernel_singleThread() {
+        final BoxBlur boxBlur = new BoxBlur(1);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            boxBlur.blur(pixels, WIDTH, HEIGHT, radius, 3);
+        }
+    }
+}
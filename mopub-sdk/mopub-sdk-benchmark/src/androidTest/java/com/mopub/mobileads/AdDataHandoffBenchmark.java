@@ -0,0 +1,78 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.os.Parcel;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mopub.benchmark.Creatives;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Hands the ad data of a VAST ad to the fullscreen activity through {@link AdDataRegistry}, and
+ * through a parcel as Intent extras used to, for comparison.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AdDataHandoffBenchmark {
+    private static final long BROADCAST_IDENTIFIER = 4815162342L;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private AdData adData;
+
+    @Before
+    public void setUp() throws Exception {
+        final VastVideoConfig vastVideoConfig =
+                VastFixtures.readVastVideoConfig("vast+extensions+companion.xml");
+
+        adData = new AdData.Builder()
+                .adUnit("b195f8dd8ded45fe847ad89ed1d016da")
+                .adPayload(Creatives.read("vast+extensions+companion.xml"))
+                .vastVideoConfig(vastVideoConfig.toJsonString())
+                .broadcastIdentifier(BROADCAST_IDENTIFIER)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        AdDataRegistry.clearForTesting();
+    }
+
+    @Test
+    public void handoffThroughRegistry() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final long handle = AdDataRegistry.retain(adData);
+            AdDataRegistry.get(handle);
+            AdDataRegistry.release(handle);
+        }
+    }
+
+    @Test
+    public void handoffThroughParcel() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final Parcel out = Parcel.obtain();
+            out.writeParcelable(adData, 0);
+            final byte[] bytes = out.marshall();
+            out.recycle();
+
+            final Parcel in = Parcel.obtain();
+            in.unmarshall(bytes, 0, bytes.length);
+            in.setDataPosition(0);
+            in.readParcelable(AdData.class.getClassLoader());
+            in.recycle();
+        }
+    }
+}
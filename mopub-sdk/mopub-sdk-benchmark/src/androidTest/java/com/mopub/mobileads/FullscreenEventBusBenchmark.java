@@ -0,0 +1,58 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Posts an event to one of {@link #LIVE_AD_COUNT} loaded fullscreen ads and waits until it is
+ * delivered on the main thread, so the hop to the main thread is included.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FullscreenEventBusBenchmark {
+    private static final int LIVE_AD_COUNT = 50;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final Semaphore delivered = new Semaphore(0);
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < LIVE_AD_COUNT; i++) {
+            FullscreenEventBus.register(i, new FullscreenEventBus.Listener() {
+                @Override
+                public void onFullscreenEvent(@NonNull final FullscreenEventBus.Event event) {
+                    delivered.release();
+                }
+            });
+        }
+    }
+
+    @After
+    public void tearDown() {
+        FullscreenEventBus.clearForTesting();
+    }
+
+    @Test
+    public void postAndDeliver() throws Exception {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            FullscreenEventBus.post(LIVE_AD_COUNT / 2, FullscreenEventBus.Event.CLICK);
+            delivered.acquire();
+        }
+    }
+}
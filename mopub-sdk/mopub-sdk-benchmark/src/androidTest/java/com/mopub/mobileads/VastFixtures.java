@@ -0,0 +1,50 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.benchmark.Creatives;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Builds VAST video configs from the fixtures for benchmarks that start after aggregation.
+ */
+class VastFixtures {
+    private static final double SCREEN_ASPECT_RATIO = 16.0 / 9.0;
+    private static final int SCREEN_WIDTH_DP = 360;
+
+    private VastFixtures() {
+    }
+
+    @NonNull
+    static VastXmlManagerAggregator createAggregator() {
+        return new VastXmlManagerAggregator(
+                new VastXmlManagerAggregator.VastXmlManagerAggregatorListener() {
+                    @Override
+                    public void onAggregationComplete(
+                            @Nullable final VastVideoConfig vastVideoConfig) {
+                    }
+                },
+                SCREEN_ASPECT_RATIO,
+                SCREEN_WIDTH_DP,
+                InstrumentationRegistry.getInstrumentation().getTargetContext());
+    }
+
+    @NonNull
+    static VastVideoConfig readVastVideoConfig(@NonNull final String fileName)
+            throws IOException {
+        final VastVideoConfig vastVideoConfig = createAggregator().evaluateVastXmlManager(
+                Creatives.read(fileName), new ArrayList<VastTracker>());
+        if (vastVideoConfig == null) {
+            throw new IOException("No video in " + fileName);
+        }
+        return vastVideoConfig;
+    }
+}
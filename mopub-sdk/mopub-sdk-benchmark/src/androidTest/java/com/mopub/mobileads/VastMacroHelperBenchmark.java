@@ -0,0 +1,45 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Substitutes macros in a set of tracking URLs as large as a progress event fires.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VastMacroHelperBenchmark {
+    private static final int TRACKER_COUNT = 10;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void getUris() {
+        final List<String> uris = new ArrayList<>(TRACKER_COUNT);
+        for (int i = 0; i < TRACKER_COUNT; i++) {
+            uris.add("https://tracker" + i + ".example.com/vast/event?error=[ERRORCODE]" +
+                    "&offset=[CONTENTPLAYHEAD]&cb=[CACHEBUSTING]&asset=[ASSETURI]&id=" + i);
+        }
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            new VastMacroHelper(uris)
+                    .withErrorCode(VastErrorCode.XML_PARSING_ERROR)
+                    .withContentPlayHead(12345)
+                    .withAssetUri("https://video.example.com/creative/720p.mp4")
+                    .getUris();
+        }
+    }
+}
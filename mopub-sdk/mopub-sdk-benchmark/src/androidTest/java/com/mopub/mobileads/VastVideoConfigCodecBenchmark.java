@@ -0,0 +1,50 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Serializes and deserializes the config of the richest VAST fixture, as is done when a video
+ * ad is handed to the fullscreen activity.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VastVideoConfigCodecBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private VastVideoConfig vastVideoConfig;
+    private String vastVideoConfigString;
+
+    @Before
+    public void setUp() throws Exception {
+        vastVideoConfig = VastFixtures.readVastVideoConfig("vast+extensions+companion.xml");
+        vastVideoConfigString = vastVideoConfig.toJsonString();
+    }
+
+    @Test
+    public void toJsonString() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            vastVideoConfig.toJsonString();
+        }
+    }
+
+    @Test
+    public void fromVastVideoConfigString() throws Exception {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            VastVideoConfig.Companion.fromVastVideoConfigString(vastVideoConfigString);
+        }
+    }
+}
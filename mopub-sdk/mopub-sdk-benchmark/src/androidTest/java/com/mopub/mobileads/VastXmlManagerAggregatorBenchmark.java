@@ -0,0 +1,57 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.mopub.benchmark.Creatives;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Evaluates each VAST fixture the way the aggregator does once the XML is downloaded. None of
+ * the fixtures has wrappers, so no network requests are made.
+ */
+@RunWith(Parameterized.class)
+public class VastXmlManagerAggregatorBenchmark {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> fixtures() {
+        return Creatives.VAST_FIXTURES;
+    }
+
+    @Parameterized.Parameter
+    public String fixture;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private String vastXml;
+    private VastXmlManagerAggregator subject;
+
+    @Before
+    public void setUp() throws Exception {
+        vastXml = Creatives.read(fixture);
+        subject = VastFixtures.createAggregator();
+    }
+
+    @Test
+    public void evaluate() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            assertNotNull(subject.evaluateVastXmlManager(vastXml, new ArrayList<VastTracker>()));
+        }
+    }
+}
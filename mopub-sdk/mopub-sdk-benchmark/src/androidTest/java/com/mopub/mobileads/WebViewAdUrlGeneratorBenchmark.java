@@ -0,0 +1,54 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.content.Context;
+import android.graphics.Point;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.common.ClientMetadata;
+import com.mopub.common.Constants;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Builds an ad request URL the way {@link AdViewController#generateAdUrl()} does. The SDK is not
+ * initialized, so no bidding tokens are added.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WebViewAdUrlGeneratorBenchmark {
+    private static final String AD_UNIT_ID = "b195f8dd8ded45fe847ad89ed1d016da";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        // Reads device state once, as the SDK does on initialization.
+        ClientMetadata.getInstance(context);
+    }
+
+    @Test
+    public void generateUrlString() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            new WebViewAdUrlGenerator(context)
+                    .withAdUnitId(AD_UNIT_ID)
+                    .withKeywords("m_age:24,m_gender:m,category:sports")
+                    .withRequestedAdSize(new Point(320, 50))
+                    .generateUrlString(Constants.HOST);
+        }
+    }
+}
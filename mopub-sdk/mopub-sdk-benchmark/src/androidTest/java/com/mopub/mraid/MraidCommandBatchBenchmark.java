@@ -0,0 +1,40 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mraid;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Parses a batch of commands as mraid.js sends it while a creative sets itself up. The WebView
+ * side of the round trip is not included.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MraidCommandBatchBenchmark {
+    private static final String COMMAND_BATCH = "[" +
+            "{\"command\":\"usecustomclose\",\"params\":{\"shouldUseCustomClose\":\"false\"}}," +
+            "{\"command\":\"setOrientationProperties\",\"params\":" +
+            "{\"allowOrientationChange\":\"true\",\"forceOrientation\":\"none\"}}," +
+            "{\"command\":\"resize\",\"params\":{\"width\":\"320\",\"height\":\"250\"," +
+            "\"offsetX\":\"0\",\"offsetY\":\"0\",\"allowOffscreen\":\"true\"}}," +
+            "{\"command\":\"open\",\"params\":{\"url\":\"https://www.example.com/landing\"}}," +
+            "{\"command\":\"close\"}]";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void parseNativeCalls() throws Exception {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MraidBridge.parseNativeCalls(COMMAND_BATCH);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.common.VisibilityTracker;
+import com.mopub.common.VisibilityTrackers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.WeakHashMap;
+
+/**
+ * Main thread time of a frame in a feed whose native ads share one {@link ImpressionTracker}: the
+ * pre-draw callback, the visibility check of every tracked ad and the update of the ads waiting
+ * for an impression. The check normally runs at most every 100ms, so this measures the frames
+ * that run it. Every ad stays on screen without reaching its impression.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImpressionTrackerBenchmark {
+    private static final int AD_VIEW_WIDTH = 1080;
+    private static final int AD_VIEW_HEIGHT = 300;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private ImpressionTracker impressionTracker;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+
+    @After
+    public void tearDown() {
+        if (impressionTracker != null) {
+            impressionTracker.destroy();
+        }
+    }
+
+    @UiThreadTest
+    @Test
+    public void frame_with1Ad() {
+        measureFrames(1);
+    }
+
+    @UiThreadTest
+    @Test
+    public void frame_with10Ads() {
+        measureFrames(10);
+    }
+
+    @UiThreadTest
+    @Test
+    public void frame_with50Ads() {
+        measureFrames(50);
+    }
+
+    private void measureFrames(final int adCount) {
+        final VisibilityTracker visibilityTracker = VisibilityTrackers.createImmediate(context);
+        impressionTracker = new ImpressionTracker(
+                new WeakHashMap<View, ImpressionInterface>(),
+                new WeakHashMap<View, TimestampWrapper<ImpressionInterface>>(),
+                new VisibilityTracker.VisibilityChecker(),
+                visibilityTracker,
+                new Handler(Looper.getMainLooper()));
+
+        // The feed is not attached to a window, so every laid out ad counts as on screen.
+        final LinearLayout feed = new LinearLayout(context);
+        feed.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < adCount; i++) {
+            final View adView = new View(context);
+            feed.addView(adView, new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, AD_VIEW_HEIGHT));
+            impressionTracker.addView(adView, new PendingImpression());
+        }
+        feed.measure(
+                View.MeasureSpec.makeMeasureSpec(AD_VIEW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(adCount * AD_VIEW_HEIGHT,
+                        View.MeasureSpec.EXACTLY));
+        feed.layout(0, 0, AD_VIEW_WIDTH, adCount * AD_VIEW_HEIGHT);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            feed.getViewTreeObserver().dispatchOnPreDraw();
+        }
+    }
+
+    private static class PendingImpression implements ImpressionInterface {
+        @Override
+        public int getImpressionMinPercentageViewed() {
+            return 50;
+        }
+
+        @Override
+        public Integer getImpressionMinVisiblePx() {
+            return null;
+        }
+
+        @Override
+        public int getImpressionMinTimeViewed() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void recordImpression(@NonNull final View view) {
+        }
+
+        @Override
+        public boolean isImpressionRecorded() {
+            return false;
+        }
+
+        @Override
+        public void setImpressionRecorded() {
+        }
+    }
+}
@@ -0,0 +1,206 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.common.VisibilityTracker;
+import com.mopub.nativeads.MoPubNativeAdPositioning.MoPubClientPositioning;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Binding and data change notifications of a {@link MoPubRecyclerAdapter} over a feed of
+ * {@link #ITEM_COUNT} items, with ads placed in the visible range at the client positions. Diffs
+ * insert and remove {@link #DIFF_SIZE} items at once in front of the placed ads, the way a large
+ * DiffUtil dispatch does. Tests run on the main thread, since the ad placer posts to it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MoPubRecyclerAdapterBenchmark {
+    private static final int ITEM_COUNT = 10000;
+    private static final int VISIBLE_RANGE = 100;
+    private static final int DIFF_POSITION = 10;
+    private static final int DIFF_SIZE = 1000;
+    private static final List<Object> PAYLOADS = Collections.<Object>singletonList("payload");
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private ContentAdapter contentAdapter;
+    private MoPubRecyclerAdapter subject;
+    private RecyclerView.ViewHolder viewHolder;
+
+    @Before
+    public void setUp() {
+        final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        final NativeAd nativeAd = new NativeAd(context, Collections.<String>emptyList(),
+                Collections.<String>emptyList(), "adUnitId", new EmptyNativeAd(),
+                new EmptyAdRenderer());
+        // The Activity is only held by the ad placer. No ads are loaded from the network.
+        final MoPubStreamAdPlacer streamAdPlacer = new MoPubStreamAdPlacer(new Activity(),
+                new CachedAdSource(nativeAd),
+                new ClientPositioningSource(new MoPubClientPositioning()));
+
+        contentAdapter = new ContentAdapter(ITEM_COUNT);
+        subject = new MoPubRecyclerAdapter(streamAdPlacer, contentAdapter,
+                new VisibilityTracker(context));
+        viewHolder = new RecyclerView.ViewHolder(new View(context)) {
+        };
+
+        streamAdPlacer.placeAdsInRange(0, VISIBLE_RANGE);
+        streamAdPlacer.handlePositioningLoad(new MoPubClientPositioning()
+                .addFixedPosition(1)
+                .enableRepeatingPositions(5));
+        streamAdPlacer.handleAdsAvailable();
+        assertTrue(subject.isAd(1));
+    }
+
+    @After
+    public void tearDown() {
+        subject.destroy();
+    }
+
+    @UiThreadTest
+    @Test
+    public void bindVisibleRange() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int position = 0; position < VISIBLE_RANGE; position++) {
+                if (!subject.isAd(position)) {
+                    subject.onBindViewHolder(viewHolder, position);
+                }
+            }
+        }
+    }
+
+    @UiThreadTest
+    @Test
+    public void bindVisibleRangeWithPayloads() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int position = 0; position < VISIBLE_RANGE; position++) {
+                if (!subject.isAd(position)) {
+                    subject.onBindViewHolder(viewHolder, position, PAYLOADS);
+                }
+            }
+        }
+    }
+
+    @UiThreadTest
+    @Test
+    public void notifyItemRangeInsertedAndRemoved() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            contentAdapter.itemCount += DIFF_SIZE;
+            contentAdapter.notifyItemRangeInserted(DIFF_POSITION, DIFF_SIZE);
+            contentAdapter.itemCount -= DIFF_SIZE;
+            contentAdapter.notifyItemRangeRemoved(DIFF_POSITION, DIFF_SIZE);
+        }
+    }
+
+    @UiThreadTest
+    @Test
+    public void notifyItemRangeChanged() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            contentAdapter.notifyItemRangeChanged(0, VISIBLE_RANGE, PAYLOADS.get(0));
+        }
+    }
+
+    private static class ContentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        int itemCount;
+
+        ContentAdapter(final int itemCount) {
+            this.itemCount = itemCount;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull final ViewGroup parent,
+                final int viewType) {
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull final RecyclerView.ViewHolder holder,
+                final int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return itemCount;
+        }
+    }
+
+    /**
+     * Always has an ad ready, so every ad position in the visible range gets filled.
+     */
+    private static class CachedAdSource extends NativeAdSource {
+        @NonNull private final NativeAd nativeAd;
+
+        CachedAdSource(@NonNull final NativeAd nativeAd) {
+            this.nativeAd = nativeAd;
+        }
+
+        @Nullable
+        @Override
+        NativeAd dequeueAd() {
+            return nativeAd;
+        }
+    }
+
+    private static class EmptyNativeAd extends BaseNativeAd {
+        @Override
+        public void prepare(@NonNull final View view) {
+        }
+
+        @Override
+        public void clear(@NonNull final View view) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static class EmptyAdRenderer implements MoPubAdRenderer<BaseNativeAd> {
+        @NonNull
+        @Override
+        public View createAdView(@NonNull final Context context, @Nullable final ViewGroup parent) {
+            return new View(context);
+        }
+
+        @Override
+        public void renderAdView(@NonNull final View view, @NonNull final BaseNativeAd ad) {
+        }
+
+        @Override
+        public boolean supports(@NonNull final BaseNativeAd nativeAd) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.mopub.nativeads.MoPubNativeAdPositioning.MoPubClientPositioning;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Position bookkeeping for a feed of {@link #ITEM_COUNT} items with an ad every
+ * {@link #AD_INTERVAL} items. Ads are placed without ad objects, since only their positions
+ * are looked at.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PlacementDataBenchmark {
+    private static final int ITEM_COUNT = 10000;
+    private static final int AD_INTERVAL = 5;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private PlacementData placementData;
+
+    @Before
+    public void setUp() {
+        placementData = createPlacementData();
+        placeAds(placementData);
+    }
+
+    @Test
+    public void placeAds() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            placeAds(createPlacementData());
+        }
+    }
+
+    @Test
+    public void mapPositions() {
+        final int adjustedCount = placementData.getAdjustedCount(ITEM_COUNT);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int position = 0; position < adjustedCount; position++) {
+                if (!placementData.isPlacedAd(position)) {
+                    placementData.getOriginalPosition(position);
+                }
+            }
+            for (int position = 0; position < ITEM_COUNT; position++) {
+                placementData.getAdjustedPosition(position);
+            }
+        }
+    }
+
+    @Test
+    public void insertAndRemoveItems() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            placementData.insertItems(ITEM_COUNT / 2, 10);
+            placementData.removeItems(ITEM_COUNT / 2, 10);
+        }
+    }
+
+    @Test
+    public void moveItem() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            placementData.moveItem(10, ITEM_COUNT - 10);
+            placementData.moveItem(ITEM_COUNT - 10, 10);
+        }
+    }
+
+    @Test
+    public void clearAds() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            placementData.clearAds();
+            state.pauseTiming();
+            placeAds(placementData);
+            state.resumeTiming();
+        }
+    }
+
+    @NonNull
+    private static PlacementData createPlacementData() {
+        return PlacementData.fromAdPositioning(new MoPubClientPositioning()
+                .addFixedPosition(1)
+                .enableRepeatingPositions(AD_INTERVAL));
+    }
+
+    private static void placeAds(@NonNull final PlacementData placementData) {
+        for (int position = 0; position < placementData.getAdjustedCount(ITEM_COUNT); position++) {
+            if (placementData.shouldPlaceAd(position)) {
+                placementData.placeAd(position, null);
+            }
+        }
+    }
+}
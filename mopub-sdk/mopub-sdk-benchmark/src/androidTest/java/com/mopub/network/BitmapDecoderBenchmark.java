@@ -0,0 +1,93 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.widget.ImageView.ScaleType;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Decoding native ad images at the size of the view they are shown in: a 1200x627 main image
+ * into a full width view and a 600x600 icon into a 150px view.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BitmapDecoderBenchmark {
+    private static final int MAIN_IMAGE_VIEW_WIDTH = 1080;
+    private static final int ICON_VIEW_SIZE = 150;
+    private static final long BITMAP_POOL_BYTES = 4 * 1024 * 1024;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private byte[] mainImage;
+    private byte[] iconImage;
+
+    @Before
+    public void setUp() {
+        mainImage = createJpeg(1200, 627);
+        iconImage = createJpeg(600, 600);
+    }
+
+    @Test
+    public void decodeMainImage() {
+        decode(mainImage, MAIN_IMAGE_VIEW_WIDTH, 0, new BitmapPool(BITMAP_POOL_BYTES));
+    }
+
+    @Test
+    public void decodeMainImageWithoutPool() {
+        decode(mainImage, MAIN_IMAGE_VIEW_WIDTH, 0, null);
+    }
+
+    @Test
+    public void decodeIcon() {
+        decode(iconImage, ICON_VIEW_SIZE, ICON_VIEW_SIZE, new BitmapPool(BITMAP_POOL_BYTES));
+    }
+
+    private void decode(@NonNull final byte[] data, final int maxWidth, final int maxHeight,
+            @Nullable final BitmapPool bitmapPool) {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final Bitmap bitmap = BitmapDecoder.decode(data, maxWidth, maxHeight,
+                    ScaleType.CENTER_INSIDE, Bitmap.Config.RGB_565, bitmapPool, null);
+            state.pauseTiming();
+            assertNotNull(bitmap);
+            // Decoded images go to the image cache, not back to the pool.
+            bitmap.recycle();
+            state.resumeTiming();
+        }
+    }
+
+    @NonNull
+    private static byte[] createJpeg(final int width, final int height) {
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        final Paint paint = new Paint();
+        paint.setShader(new LinearGradient(0, 0, width, height, 0xff1d9bf0, 0xfff4a261,
+                Shader.TileMode.MIRROR));
+        new Canvas(bitmap).drawRect(0, 0, width, height, paint);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, 85, outputStream);
+        bitmap.recycle();
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,153 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.mopub.common.AdFormat;
+import com.mopub.common.util.ResponseHeader;
+import com.mopub.volley.NetworkResponse;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parsing a waterfall of {@link #WATERFALL_SIZE} banner or static native ads. Native ad bodies are
+ * parsed into a {@link NativeAdPayload} while the response is parsed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MultiAdResponseBenchmark {
+    private static final String AD_UNIT_ID = "b195f8dd8ded45fe847ad89ed1d016da";
+    private static final int WATERFALL_SIZE = 3;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private NetworkResponse networkResponse;
+    private NetworkResponse nativeNetworkResponse;
+    private JSONObject nativeAdBody;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        nativeAdBody = createNativeAdBody(0);
+
+        final JSONArray adResponses = new JSONArray();
+        final JSONArray nativeAdResponses = new JSONArray();
+        for (int i = 0; i < WATERFALL_SIZE; i++) {
+            adResponses.put(createAdResponse(i, "html", "text/html; charset=UTF-8",
+                    "<html><body><a href=\"https://www.mopub.com\">Ad " + i + "</a></body></html>"));
+            nativeAdResponses.put(createAdResponse(i, "json", "application/json",
+                    createNativeAdBody(i).toString()));
+        }
+        networkResponse = createNetworkResponse("banner", adResponses);
+        nativeNetworkResponse = createNetworkResponse("native", nativeAdResponses);
+    }
+
+    @Test
+    public void parseWaterfall() throws Exception {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final MultiAdResponse multiAdResponse = new MultiAdResponse(context, networkResponse,
+                    AdFormat.BANNER, AD_UNIT_ID);
+            assertTrue(multiAdResponse.hasNext());
+        }
+    }
+
+    @Test
+    public void parseNativeWaterfall() throws Exception {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            final MultiAdResponse multiAdResponse = new MultiAdResponse(context,
+                    nativeNetworkResponse, AdFormat.NATIVE, AD_UNIT_ID);
+            assertNotNull(multiAdResponse.next().getNativeAdPayload());
+        }
+    }
+
+    @Test
+    public void parseNativeAdPayload() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            NativeAdPayload.fromJson(nativeAdBody);
+        }
+    }
+
+    private static NetworkResponse createNetworkResponse(final String adUnitFormat,
+            final JSONArray adResponses) throws Exception {
+        final JSONObject body = new JSONObject();
+        body.put(ResponseHeader.FAIL_URL.getKey(), "https://ads.mopub.com/m/ad?id=" + AD_UNIT_ID);
+        body.put(ResponseHeader.ADUNIT_FORMAT.getKey(), adUnitFormat);
+        body.put(ResponseHeader.REQUEST_ID.getKey(), "7b3a1ac43f4a4f61a9c06a7ab7d5e9a3");
+        body.put(ResponseHeader.AD_RESPONSES.getKey(), adResponses);
+        return new NetworkResponse(body.toString().getBytes("UTF-8"));
+    }
+
+    private static JSONObject createNativeAdBody(final int index) throws Exception {
+        final JSONObject body = new JSONObject();
+        body.put(NativeAdPayload.TITLE, "Native ad " + index);
+        body.put(NativeAdPayload.TEXT, "A static native ad with every field set.");
+        body.put(NativeAdPayload.MAIN_IMAGE, "https://cdn.example.com/main_" + index + ".jpg");
+        body.put(NativeAdPayload.ICON_IMAGE, "https://cdn.example.com/icon_" + index + ".png");
+        body.put(NativeAdPayload.CLICK_DESTINATION, "https://www.mopub.com/?cid=" + index);
+        body.put(NativeAdPayload.CALL_TO_ACTION, "Install");
+        body.put(NativeAdPayload.STAR_RATING, 4.5);
+        body.put(NativeAdPayload.SPONSORED, "Sponsored");
+        body.put(NativeAdPayload.PRIVACY_INFORMATION_ICON_IMAGE_URL,
+                "https://cdn.example.com/privacy.png");
+        body.put(NativeAdPayload.PRIVACY_INFORMATION_ICON_CLICKTHROUGH_URL,
+                "https://www.mopub.com/optout");
+        body.put(NativeAdPayload.IMPRESSION_TRACKER, new JSONArray()
+                .put("https://ads.mopub.com/m/imp?native=1&cid=" + index)
+                .put("https://tracker.example.com/imp?cid=" + index));
+        body.put(NativeAdPayload.CLICK_TRACKER, "https://ads.mopub.com/m/aclk?native=1&cid=" + index);
+        body.put("advertiser", "Advertiser " + index);
+        body.put("extraimage", "https://cdn.example.com/extra_" + index + ".jpg");
+        body.put("backgroundImage", "https://cdn.example.com/background_" + index + ".jpg");
+        return body;
+    }
+
+    private static JSONObject createAdResponse(final int index, final String adType,
+            final String contentType, final String content) throws Exception {
+        final JSONObject metadata = new JSONObject();
+        metadata.put(ResponseHeader.CONTENT_TYPE.getKey(), contentType);
+        metadata.put(ResponseHeader.AD_TYPE.getKey(), adType);
+        metadata.put(ResponseHeader.AD_GROUP_ID.getKey(), "ad_group_" + index);
+        metadata.put(ResponseHeader.CREATIVE_ID.getKey(), "d06f9bde98134f76931cdf04951b60d" + index);
+        metadata.put(ResponseHeader.CLICK_TRACKING_URL.getKey(), new JSONArray()
+                .put("https://ads.mopub.com/m/aclk?appid=&cid=" + index));
+        metadata.put(ResponseHeader.IMPRESSION_URLS.getKey(), new JSONArray()
+                .put("https://ads.mopub.com/m/imp?appid=&cid=" + index)
+                .put("https://tracker.example.com/imp?cid=" + index));
+        metadata.put(ResponseHeader.BEFORE_LOAD_URL.getKey(), new JSONArray()
+                .put("https://ads.mopub.com/m/attempt?cid=" + index));
+        metadata.put(ResponseHeader.AFTER_LOAD_URL.getKey(), new JSONArray()
+                .put("https://ads.mopub.com/m/load?cid=" + index));
+        metadata.put(ResponseHeader.AFTER_LOAD_SUCCESS_URL.getKey(), new JSONArray()
+                .put("https://ads.mopub.com/m/load?success=1&cid=" + index));
+        metadata.put(ResponseHeader.AFTER_LOAD_FAIL_URL.getKey(), new JSONArray()
+                .put("https://ads.mopub.com/m/load?success=0&cid=" + index));
+        metadata.put(ResponseHeader.REFRESH_TIME.getKey(), 30);
+        metadata.put(ResponseHeader.HEIGHT.getKey(), 50);
+        metadata.put(ResponseHeader.WIDTH.getKey(), 320);
+
+        final JSONObject adResponse = new JSONObject();
+        adResponse.put(ResponseHeader.CONTENT.getKey(), content);
+        adResponse.put(ResponseHeader.METADATA.getKey(), metadata);
+        return adResponse;
+    }
+}
@@ -0,0 +1,133 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.annotation.SuppressLint;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+
+/**
+ * Hands {@link AdData} to {@link MoPubFullscreenActivity} in memory. The Intent only carries the
+ * broadcast identifier as a handle, so a large creative or VAST config is not parceled on the way
+ * to the activity.
+ *
+ * Every Intent that is created holds one reference until the activity it started finishes, so
+ * the activity can be recreated after a configuration change. The activity only saves the handle
+ * in its instance state, so after process death there is nothing left to show and it finishes.
+ */
+class AdDataRegistry {
+
+    /**
+     * Entries whose activity never finished, for example because it was never started, are
+     * dropped oldest first past this many.
+     */
+    @VisibleForTesting
+    static final int MAX_SIZE = 10;
+
+    private static class Entry {
+        @NonNull final AdData mAdData;
+        final long mRetainedUptimeMillis;
+        int mReferenceCount;
+
+        Entry(@NonNull final AdData adData, final long retainedUptimeMillis) {
+            mAdData = adData;
+            mRetainedUptimeMillis = retainedUptimeMillis;
+        }
+    }
+
+    @SuppressLint("UseSparseArrays")
+    @NonNull
+    private static final Map<Long, Entry> sEntries = new HashMap<>();
+
+    private AdDataRegistry() {
+    }
+
+    /**
+     * Adds a reference to the ad data.
+     *
+     * @return the handle to look the ad data up with
+     */
+    static synchronized long retain(@NonNull final AdData adData) {
+        Preconditions.checkNotNull(adData);
+
+        final long handle = adData.getBroadcastIdentifier();
+        Entry entry = sEntries.get(handle);
+        if (entry == null || entry.mAdData != adData) {
+            final int referenceCount = entry != null ? entry.mReferenceCount : 0;
+            entry = new Entry(adData, SystemClock.uptimeMillis());
+            entry.mReferenceCount = referenceCount;
+            sEntries.put(handle, entry);
+            trim();
+        }
+        entry.mReferenceCount++;
+        return handle;
+    }
+
+    @Nullable
+    static synchronized AdData get(final long handle) {
+        final Entry entry = sEntries.get(handle);
+        return entry != null ? entry.mAdData : null;
+    }
+
+    /**
+     * @return time since the ad data was first retained, or -1 if it is not registered
+     */
+    static synchronized long getAgeMillis(final long handle) {
+        final Entry entry = sEntries.get(handle);
+        return entry != null ? SystemClock.uptimeMillis() - entry.mRetainedUptimeMillis : -1;
+    }
+
+    /**
+     * Removes a reference to the ad data, and the ad data itself once no references are left.
+     */
+    static synchronized void release(final long handle) {
+        final Entry entry = sEntries.get(handle);
+        if (entry == null) {
+            return;
+        }
+        entry.mReferenceCount--;
+        if (entry.mReferenceCount <= 0) {
+            sEntries.remove(handle);
+        }
+    }
+
+    private static void trim() {
+        while (sEntries.size() > MAX_SIZE) {
+            Map.Entry<Long, Entry> oldest = null;
+            for (final Map.Entry<Long, Entry> entry : sEntries.entrySet()) {
+                if (oldest == null || entry.getValue().mRetainedUptimeMillis <
+                        oldest.getValue().mRetainedUptimeMillis) {
+                    oldest = entry;
+                }
+            }
+            MoPubLog.log(CUSTOM, "Dropping ad data that was never shown for broadcast " +
+                    "identifier " + oldest.getKey());
+            sEntries.remove(oldest.getKey());
+        }
+    }
+
+    @VisibleForTesting
+    static synchronized int getReferenceCount(final long handle) {
+        final Entry entry = sEntries.get(handle);
+        return entry != null ? entry.mReferenceCount : 0;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    static synchronized void clearForTesting() {
+        sEntries.clear();
+    }
+}
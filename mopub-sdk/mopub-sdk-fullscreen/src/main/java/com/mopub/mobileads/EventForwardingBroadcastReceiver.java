@@ -47,19 +47,37 @@ public class EventForwardingBroadcastReceiver extends BaseBroadcastReceiver {
             return;
         }
 
-        final String action = intent.getAction();
-        if (IntentActions.ACTION_FULLSCREEN_FAIL.equals(action)) {
-            mInteractionListener.onAdFailed(NETWORK_INVALID_STATE);
-        } else if (IntentActions.ACTION_FULLSCREEN_SHOW.equals(action)) {
-            mInteractionListener.onAdShown();
-            mInteractionListener.onAdImpression();
-        } else if (IntentActions.ACTION_FULLSCREEN_DISMISS.equals(action)) {
-            mInteractionListener.onAdDismissed();
-            unregister(this);
-        } else if (IntentActions.ACTION_FULLSCREEN_CLICK.equals(action)) {
-            mInteractionListener.onAdClicked();
-        } else if (IntentActions.ACTION_REWARDED_AD_COMPLETE.equals(action)) {
-            mInteractionListener.onAdComplete(null);
+        final FullscreenEventBus.Event event =
+                FullscreenEventBus.Event.fromAction(intent.getAction());
+        if (event != null) {
+            onFullscreenEvent(event);
+        }
+    }
+
+    @Override
+    void onFullscreenEvent(@NonNull final FullscreenEventBus.Event event) {
+        if (mInteractionListener == null) {
+            return;
+        }
+
+        switch (event) {
+            case FAIL:
+                mInteractionListener.onAdFailed(NETWORK_INVALID_STATE);
+                break;
+            case SHOW:
+                mInteractionListener.onAdShown();
+                mInteractionListener.onAdImpression();
+                break;
+            case DISMISS:
+                mInteractionListener.onAdDismissed();
+                unregister(this);
+                break;
+            case CLICK:
+                mInteractionListener.onAdClicked();
+                break;
+            case REWARDED_AD_COMPLETE:
+                mInteractionListener.onAdComplete(null);
+                break;
         }
     }
 }
@@ -10,6 +10,7 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.AdFormat;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.mobileads.factories.BaseAdFactory;
@@ -69,6 +70,12 @@ public class FullscreenAdAdapter extends AdAdapter {
         }
     }
 
+    @NonNull
+    @Override
+    AdFormat getAdFormat() {
+        return mAdData != null && mAdData.isRewarded() ? AdFormat.REWARDED_AD : AdFormat.INTERSTITIAL;
+    }
+
     void doInvalidate() {
         if (mBaseAd != null) {
 
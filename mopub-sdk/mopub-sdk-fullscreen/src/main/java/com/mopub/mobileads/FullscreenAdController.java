@@ -28,7 +28,9 @@ import androidx.annotation.VisibleForTesting;
 
 import com.mopub.common.CloseableLayout;
 import com.mopub.common.CreativeOrientation;
+import com.mopub.common.DataKeys;
 import com.mopub.common.FullAdType;
+import com.mopub.common.MainThreadSampler;
 import com.mopub.common.Preconditions;
 import com.mopub.common.UrlAction;
 import com.mopub.common.UrlHandler;
@@ -329,7 +331,13 @@ public class FullscreenAdController implements BaseVideoViewController.BaseVideo
 
     @VisibleForTesting
     BaseVideoViewController createVideoViewController(Activity activity, Bundle savedInstanceState, Intent intent, Long broadcastIdentifier) throws IllegalStateException {
-        return new VastVideoViewController(activity, intent.getExtras(), savedInstanceState, broadcastIdentifier, this);
+        // The Intent only carries a handle to the ad data, so hand the controller the ad data
+        // itself. The Bundle stays in this process and is never parceled.
+        final Bundle extras = intent.getExtras() != null
+                ? new Bundle(intent.getExtras())
+                : new Bundle();
+        extras.putParcelable(DataKeys.AD_DATA_KEY, mAdData);
+        return new VastVideoViewController(activity, extras, savedInstanceState, broadcastIdentifier, this);
     }
 
     // Start BaseVideoViewControllerListener implementation
@@ -737,6 +745,12 @@ public class FullscreenAdController implements BaseVideoViewController.BaseVideo
             }
         }
 
+        @NonNull
+        @Override
+        protected MainThreadSampler.Task getSampledTask() {
+            return MainThreadSampler.Task.CLOSE_BUTTON_COUNTDOWN;
+        }
+
         @Deprecated
         @VisibleForTesting
         int getCurrentElapsedTimeMillis() {
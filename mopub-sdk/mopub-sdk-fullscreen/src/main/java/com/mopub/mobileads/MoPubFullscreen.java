@@ -174,6 +174,7 @@ public class MoPubFullscreen extends BaseAd implements VastManager.VastManagerLi
 
         if (FullAdType.VAST.equals(mAdData.getFullAdType())) {
             mVastManager = VastManagerFactory.create(mContext);
+            mVastManager.setRequestId(mAdData.getRequestId());
             mVastManager.prepareVastVideoConfiguration(mAdData.getAdPayload(), this,
                     mAdData.getDspCreativeId(), mContext);
         } else if (FullAdType.JSON.equals(mAdData.getFullAdType())) {
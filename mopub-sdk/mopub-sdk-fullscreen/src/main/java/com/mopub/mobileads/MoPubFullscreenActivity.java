@@ -23,6 +23,7 @@ import com.mopub.common.util.Utils;
 import com.mopub.exceptions.IntentNotResolvableException;
 
 import static android.content.Intent.FLAG_ACTIVITY_NEW_TASK;
+import static com.mopub.common.DataKeys.AD_DATA_HANDLE_KEY;
 import static com.mopub.common.DataKeys.AD_DATA_KEY;
 import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_SHOW;
 import static com.mopub.common.logging.MoPubLog.AdLogEvent.SHOW_FAILED;
@@ -34,21 +35,27 @@ import static com.mopub.mobileads.MoPubErrorCode.FULLSCREEN_SHOW_ERROR;
 public class MoPubFullscreenActivity extends Activity {
 
     @Nullable private FullscreenAdController mFullscreenAdController;
+    @Nullable private AdData mAdData;
 
     public static void start(@NonNull Context context, @NonNull AdData adData) {
         final Intent intent = createIntent(context, adData);
         try {
             Intents.startActivity(context, intent);
         } catch (IntentNotResolvableException exception) {
+            AdDataRegistry.release(adData.getBroadcastIdentifier());
             Log.d("MoPubFullscreenActivity", "MoPubFullscreenActivity.class not found. " +
                     "Did you declare MoPubFullscreenActivity in your manifest?");
         }
     }
 
+    /**
+     * The Intent only carries a handle to the ad data in {@link AdDataRegistry}. The handle is
+     * released when the started activity finishes.
+     */
     @VisibleForTesting
     protected static Intent createIntent(@NonNull final Context context, @NonNull final AdData adData) {
         Intent intent = new Intent(context, MoPubFullscreenActivity.class);
-        intent.putExtra(AD_DATA_KEY, adData);
+        intent.putExtra(AD_DATA_HANDLE_KEY, AdDataRegistry.retain(adData));
         intent.setFlags(FLAG_ACTIVITY_NEW_TASK);
         return intent;
     }
@@ -57,7 +64,15 @@ public class MoPubFullscreenActivity extends Activity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        final AdData adData = getAdDataFromIntent(getIntent());
+        AdData adData = null;
+        if (savedInstanceState != null) {
+            adData = getAdDataFromSavedState(savedInstanceState);
+        } else {
+            logHandoffLatency(getIntent());
+        }
+        if (adData == null) {
+            adData = getAdDataFromIntent(getIntent());
+        }
         if (adData == null) {
             // This is a bug and should never happen.
             MoPubLog.log(CUSTOM, "Ad data to show ad is null. Failed to show fullscreen ad.");
@@ -65,6 +80,7 @@ public class MoPubFullscreenActivity extends Activity {
             return;
         }
 
+        mAdData = adData;
         final long broadcastIdentifier = adData.getBroadcastIdentifier();
 
         try {
@@ -117,11 +133,32 @@ public class MoPubFullscreenActivity extends Activity {
         }
     }
 
+    @Override
+    protected void onSaveInstanceState(@NonNull final Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (mAdData == null) {
+            return;
+        }
+        final long handle = mAdData.getBroadcastIdentifier();
+        if (AdDataRegistry.get(handle) == mAdData) {
+            outState.putLong(AD_DATA_HANDLE_KEY, handle);
+        } else {
+            // The ad data did not come from the registry, for example from an Intent with the old
+            // parcelable extra, so the handle alone could not restore it.
+            outState.putParcelable(AD_DATA_KEY, mAdData);
+        }
+    }
+
     @Override
     protected void onDestroy() {
         if (mFullscreenAdController != null) {
             mFullscreenAdController.destroy();
         }
+        // A configuration change recreates the activity from the same Intent, so the handle is
+        // kept until the activity is finishing.
+        if (isFinishing()) {
+            releaseAdDataHandle(getIntent());
+        }
         super.onDestroy();
     }
 
@@ -134,6 +171,12 @@ public class MoPubFullscreenActivity extends Activity {
 
     @Nullable
     protected static AdData getAdDataFromIntent(Intent intent) {
+        if (intent.hasExtra(AD_DATA_HANDLE_KEY)) {
+            final AdData adData = AdDataRegistry.get(intent.getLongExtra(AD_DATA_HANDLE_KEY, 0));
+            if (adData != null) {
+                return adData;
+            }
+        }
         try {
             return (AdData) intent.getParcelableExtra(DataKeys.AD_DATA_KEY);
         } catch (ClassCastException e) {
@@ -141,6 +184,36 @@ public class MoPubFullscreenActivity extends Activity {
         }
     }
 
+    /**
+     * Only the handle is saved while the ad data is registered. After process death the registry
+     * is empty and the ad can no longer be shown, so the activity finishes.
+     */
+    @Nullable
+    private static AdData getAdDataFromSavedState(@NonNull final Bundle savedInstanceState) {
+        if (savedInstanceState.containsKey(AD_DATA_HANDLE_KEY)) {
+            return AdDataRegistry.get(savedInstanceState.getLong(AD_DATA_HANDLE_KEY));
+        }
+        return savedInstanceState.getParcelable(AD_DATA_KEY);
+    }
+
+    private static void logHandoffLatency(@NonNull final Intent intent) {
+        if (!intent.hasExtra(AD_DATA_HANDLE_KEY)) {
+            return;
+        }
+        final long ageMillis = AdDataRegistry.getAgeMillis(
+                intent.getLongExtra(AD_DATA_HANDLE_KEY, 0));
+        if (ageMillis >= 0) {
+            MoPubLog.log(CUSTOM, "Fullscreen ad data handed to activity after " + ageMillis +
+                    " ms.");
+        }
+    }
+
+    private static void releaseAdDataHandle(@NonNull final Intent intent) {
+        if (intent.hasExtra(AD_DATA_HANDLE_KEY)) {
+            AdDataRegistry.release(intent.getLongExtra(AD_DATA_HANDLE_KEY, 0));
+        }
+    }
+
     @Deprecated
     @VisibleForTesting
     FullscreenAdController getFullscreenAdController() {
@@ -19,11 +19,13 @@ import android.view.WindowInsets;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.AdUrlGenerator;
 import com.mopub.common.ClientMetadata;
 import com.mopub.common.Constants;
 import com.mopub.common.DataKeys;
 import com.mopub.common.MediationSettings;
+import com.mopub.common.MemoryAccountant;
 import com.mopub.common.MoPub;
 import com.mopub.common.MoPubReward;
 import com.mopub.common.Preconditions;
@@ -107,6 +109,12 @@ public class MoPubRewardedAdManager {
     @NonNull
     private final Map<String, Runnable> mTimeoutMap;
 
+    // Start and end of building the pending request of each ad unit, for AdLoadTracer
+    @NonNull
+    private final Map<String, long[]> mRequestBuildSpans;
+    // When the ad that is showing was asked to show, for AdLoadTracer, or -1
+    private long mShowStartMillis = -1;
+
     @NonNull
     private final RewardedAdsLoaders rewardedAdsLoaders;
 
@@ -154,12 +162,14 @@ public class MoPubRewardedAdManager {
         mMainActivity = new WeakReference<>(mainActivity);
         mContext = mainActivity.getApplicationContext();
         mRewardedAdData = new RewardedAdData();
+        MemoryAccountant.register("RewardedAds", mRewardedAdData);
         mCallbackHandler = new Handler(Looper.getMainLooper());
         mGlobalMediationSettings = new HashSet<>();
         MoPubCollections.addAllNonNull(mGlobalMediationSettings, mediationSettings);
         mInstanceMediationSettings = new HashMap<>();
         mBaseAdTimeoutHandler = new Handler();
         mTimeoutMap = new HashMap<>();
+        mRequestBuildSpans = new HashMap<>();
 
         rewardedAdsLoaders = new RewardedAdsLoaders(this);
 
@@ -319,7 +329,11 @@ public class MoPubRewardedAdManager {
 
         setSafeAreaValues(urlGenerator);
 
-        loadAd(adUnitId, urlGenerator.generateUrlString(Constants.HOST), null);
+        final long requestBuildStartMillis = AdLoadTracer.now();
+        final String adUrlString = urlGenerator.generateUrlString(Constants.HOST);
+        sInstance.mRequestBuildSpans.put(adUnitId,
+                new long[]{requestBuildStartMillis, AdLoadTracer.now()});
+        loadAd(adUnitId, adUrlString, null);
     }
 
     private static void loadAd(@NonNull String adUnitId, @NonNull String adUrlString, @Nullable MoPubErrorCode errorCode) {
@@ -387,6 +401,7 @@ public class MoPubRewardedAdManager {
                     sInstance.mRewardedAdData.getMoPubReward(adUnitId));
             sInstance.mRewardedAdData.updateAdUnitToCustomDataMapping(adUnitId, customData);
             sInstance.mRewardedAdData.setCurrentlyShowingAdUnitId(adUnitId);
+            sInstance.mShowStartMillis = AdLoadTracer.now();
             adAdapter.show(null); // need a MoPubAd (and a rework) if we get to rewarded banners
         } else {
             if (sInstance.rewardedAdsLoaders.isLoading(adUnitId)) {
@@ -466,6 +481,7 @@ public class MoPubRewardedAdManager {
     ///// Ad Request / Response methods /////
     void onAdSuccess(AdResponse adResponse) {
         final String adUnitId = adResponse.getAdUnitId();
+        traceRequestBuild(adUnitId, adResponse.getRequestId());
 
         Integer timeoutMillis = adResponse.getAdTimeoutMillis(DEFAULT_LOAD_TIMEOUT);
         final String baseAdClassName = adResponse.getBaseAdClassName();
@@ -561,6 +577,7 @@ public class MoPubRewardedAdManager {
                 .allowCustomClose(false)
                 .viewabilityVendors(adResponse.getViewabilityVendors())
                 .fullAdType(adResponse.getFullAdType())
+                .requestId(adResponse.getRequestId())
                 .extras(serverExtras);
 
         final Integer rewardedDuration = adResponse.getRewardedDuration();
@@ -629,6 +646,7 @@ public class MoPubRewardedAdManager {
     }
 
     void onAdError(@NonNull VolleyError volleyError, @NonNull String adUnitId) {
+        traceRequestBuild(adUnitId, null);
         MoPubErrorCode errorCode = MoPubErrorCode.INTERNAL_ERROR;
         if (volleyError instanceof MoPubNetworkError) {
             MoPubNetworkError err = (MoPubNetworkError) volleyError;
@@ -652,6 +670,19 @@ public class MoPubRewardedAdManager {
         failover(adUnitId, errorCode);
     }
 
+    /**
+     * The request ID is only known once the response arrives, so the time spent building the
+     * request is recorded then.
+     */
+    private void traceRequestBuild(@Nullable final String adUnitId,
+            @Nullable final String requestId) {
+        final long[] span = mRequestBuildSpans.remove(adUnitId);
+        if (span != null) {
+            AdLoadTracer.record(AdLoadTracer.Stage.REQUEST_BUILD, adUnitId, requestId, span[0],
+                    span[1], true);
+        }
+    }
+
     private void parseMultiCurrencyJson(@NonNull String adUnitId,
                                         @NonNull String rewardedCurrencies) throws JSONException {
         /* Parse multi-currency JSON string, an example below:
@@ -745,6 +776,14 @@ public class MoPubRewardedAdManager {
     public static void onRewardedAdStarted(@NonNull final AdAdapter adAdapter, final String thirdPartyId) {
         final String currentlyShowingAdUnitId =
                 sInstance.mRewardedAdData.getCurrentlyShowingAdUnitId();
+        if (sInstance.mShowStartMillis >= 0) {
+            final String requestId = adAdapter.getRequestId();
+            AdLoadTracer.record(AdLoadTracer.Stage.IMPRESSION,
+                    TextUtils.isEmpty(currentlyShowingAdUnitId) ? null : currentlyShowingAdUnitId,
+                    requestId, sInstance.mShowStartMillis, true);
+            sInstance.mShowStartMillis = -1;
+            AdLoadTracer.logSpans(requestId);
+        }
         if (TextUtils.isEmpty(currentlyShowingAdUnitId)) {
             postToInstance(new ForEachAdUnitIdRunnable(adAdapter) {
                 @Override
@@ -789,6 +828,7 @@ public class MoPubRewardedAdManager {
             });
         }
         sInstance.mRewardedAdData.setCurrentlyShowingAdUnitId(null);
+        sInstance.mShowStartMillis = -1;
     }
 
     private static void onRewardedAdShowErrorAction(@NonNull final String adUnitId, @NonNull final MoPubErrorCode errorCode) {
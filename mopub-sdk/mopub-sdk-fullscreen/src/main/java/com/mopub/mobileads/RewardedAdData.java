@@ -10,6 +10,7 @@ import android.util.Pair;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.MemoryAccountant;
 import com.mopub.common.MoPubReward;
 import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
@@ -28,8 +29,15 @@ import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
 
 /**
  * Used to manage the mapping between MoPub ad unit ids and third-party ad network ids for rewarded ads.
+ *
+ * When asked to shed memory, drops adapters that were already invalidated. When memory is
+ * critically low, also invalidates loaded adapters, except the one that is showing.
  */
-class RewardedAdData {
+class RewardedAdData implements MemoryAccountant.Component {
+    // Rough heap cost of a loaded adapter and its base ad, which cannot be measured directly.
+    @VisibleForTesting
+    static final long ESTIMATED_AD_ADAPTER_BYTES = 64 * 1024;
+
     @NonNull
     private final Map<String, AdAdapter> mAdUnitToAdAdapterMap;
     @NonNull
@@ -189,6 +197,44 @@ class RewardedAdData {
 
         mAdUnitToAdAdapterMap.put(adUnitId, adAdapter);
         associateAdAdapterWithAdUnitId(adAdapter, adUnitId);
+        MemoryAccountant.onRetainedBytesIncreased();
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return mAdUnitToAdAdapterMap.size() * ESTIMATED_AD_ADAPTER_BYTES;
+    }
+
+    @Override
+    public long shed(final long bytesToFree, final boolean critical) {
+        final long retainedBytes = getRetainedBytes();
+        final Iterator<Map.Entry<String, AdAdapter>> iterator =
+                mAdUnitToAdAdapterMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, AdAdapter> entry = iterator.next();
+            final String adUnitId = entry.getKey();
+            final AdAdapter adAdapter = entry.getValue();
+            if (adUnitId.equals(mCurrentlyShowingAdUnitId)) {
+                continue;
+            }
+            if (!adAdapter.isInvalidated()) {
+                if (!critical || retainedBytes - getRetainedBytes() >= bytesToFree) {
+                    continue;
+                }
+                adAdapter.invalidate();
+            }
+
+            iterator.remove();
+            final Set<String> adUnitIds = mAdAdapterToAdUnitIdMap.get(adAdapter);
+            if (adUnitIds != null) {
+                adUnitIds.remove(adUnitId);
+                if (adUnitIds.isEmpty()) {
+                    mAdAdapterToAdUnitIdMap.remove(adAdapter);
+                    mAdAdapterToRewardMap.remove(adAdapter);
+                }
+            }
+        }
+        return retainedBytes - getRetainedBytes();
     }
 
     void updateAdUnitRewardMapping(
@@ -81,6 +81,9 @@ final class CustomEventNativeAdapter {
         if (adResponse.hasJson()) {
             localExtras.put(DataKeys.JSON_BODY_KEY, adResponse.getJsonBody());
         }
+        if (adResponse.getNativeAdPayload() != null) {
+            localExtras.put(DataKeys.NATIVE_AD_PAYLOAD_KEY, adResponse.getNativeAdPayload());
+        }
 
         localExtras.put(DataKeys.CLICK_TRACKING_URL_KEY, adResponse.getClickTrackingUrls());
 
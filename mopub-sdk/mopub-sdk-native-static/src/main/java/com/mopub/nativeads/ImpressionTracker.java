@@ -4,6 +4,7 @@
 
 package com.mopub.nativeads;
 
+import android.app.Activity;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
@@ -11,10 +12,14 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.view.View;
 
+import com.mopub.common.MainThreadSampler;
+import com.mopub.common.Preconditions;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.common.VisibilityTracker;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
@@ -25,11 +30,24 @@ import static com.mopub.common.VisibilityTracker.VisibilityTrackerListener;
 /**
  * Impression tracker used to call {@link ImpressionInterface#recordImpression(View)} when a
  * percentage of a native ad has been on screen for a duration of time.
+ *
+ * Native ads in the same Activity should share one tracker from {@link #acquire(Context)}, so a
+ * feed with many ads still has a single pre-draw listener and a single visibility pass per frame.
  */
 public class ImpressionTracker {
 
     private static final int PERIOD = 250;
 
+    // Trackers shared by the native ads of each Activity
+    @NonNull private static final Map<Context, ImpressionTracker> sSharedTrackers =
+            new WeakHashMap<Context, ImpressionTracker>();
+
+    // Activity this tracker is shared in, or null if it is not shared
+    @Nullable private WeakReference<Context> mSharedContext;
+
+    // Number of acquire calls that have not been released yet
+    private int mSharedReferenceCount;
+
     // Object tracking visibility of added views
     @NonNull private final VisibilityTracker mVisibilityTracker;
 
@@ -105,6 +123,56 @@ public class ImpressionTracker {
         mPollingRunnable = new PollingRunnable();
     }
 
+    /**
+     * Returns the tracker shared by the native ads of the given Activity, creating it if needed.
+     * Each call must be matched by a call to {@link #release()}. Trackers for other contexts are
+     * not shared.
+     */
+    @NonNull
+    public static ImpressionTracker acquire(@NonNull final Context context) {
+        Preconditions.checkNotNull(context);
+
+        if (!(context instanceof Activity)) {
+            return new ImpressionTracker(context);
+        }
+
+        synchronized (sSharedTrackers) {
+            ImpressionTracker impressionTracker = sSharedTrackers.get(context);
+            if (impressionTracker == null) {
+                impressionTracker = new ImpressionTracker(context);
+                impressionTracker.mSharedContext = new WeakReference<Context>(context);
+                sSharedTrackers.put(context, impressionTracker);
+            }
+            impressionTracker.mSharedReferenceCount++;
+            return impressionTracker;
+        }
+    }
+
+    /**
+     * Releases a tracker from {@link #acquire(Context)}. The tracker is destroyed once every user
+     * has released it. Trackers that are not shared are destroyed right away.
+     */
+    public void release() {
+        if (mSharedContext == null) {
+            destroy();
+            return;
+        }
+
+        synchronized (sSharedTrackers) {
+            mSharedReferenceCount--;
+            if (mSharedReferenceCount > 0) {
+                return;
+            }
+
+            final Context context = mSharedContext.get();
+            if (context != null && sSharedTrackers.get(context) == this) {
+                sSharedTrackers.remove(context);
+            }
+            mSharedContext = null;
+        }
+        destroy();
+    }
+
     /**
      * Tracks the given view for impressions.
      */
@@ -132,6 +200,25 @@ public class ImpressionTracker {
         mVisibilityTracker.removeView(view);
     }
 
+    /**
+     * Stops tracking every view of the given ad. Other ads sharing this tracker are not affected.
+     */
+    public void removeViews(@NonNull final ImpressionInterface impressionInterface) {
+        final Iterator<Map.Entry<View, ImpressionInterface>> iterator =
+                mTrackedViews.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<View, ImpressionInterface> entry = iterator.next();
+            if (entry.getValue() == impressionInterface) {
+                final View view = entry.getKey();
+                iterator.remove();
+                if (view != null) {
+                    removePollingView(view);
+                    mVisibilityTracker.removeView(view);
+                }
+            }
+        }
+    }
+
     /**
      * Immediately clear all views. Useful for when we re-request ads for an ad placer
      */
@@ -174,6 +261,7 @@ public class ImpressionTracker {
 
         @Override
         public void run() {
+            final long startNanos = MainThreadSampler.begin();
             for (final Map.Entry<View, TimestampWrapper<ImpressionInterface>> entry : mPollingViews.entrySet()) {
                 final View view = entry.getKey();
                 final TimestampWrapper<ImpressionInterface> timestampWrapper = entry.getValue();
@@ -200,6 +288,14 @@ public class ImpressionTracker {
             if (!mPollingViews.isEmpty()) {
                 scheduleNextPoll();
             }
+            MainThreadSampler.end(MainThreadSampler.Task.IMPRESSION_POLL, startNanos);
+        }
+    }
+
+    @VisibleForTesting
+    static int getSharedTrackerCountForTesting() {
+        synchronized (sSharedTrackers) {
+            return sSharedTrackers.size();
         }
     }
 
@@ -11,6 +11,7 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.ClickDestinationPrefetcher;
 import com.mopub.common.DataKeys;
 import com.mopub.common.ExternalViewabilitySessionManager;
 import com.mopub.common.ViewabilityVendor;
@@ -18,24 +19,24 @@ import com.mopub.common.VisibleForTesting;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.nativeads.NativeImageHelper.ImageListener;
 
-import org.json.JSONArray;
+import com.mopub.network.NativeAdPayload;
+
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import static com.mopub.common.DataKeys.JSON_BODY_KEY;
+import static com.mopub.common.DataKeys.NATIVE_AD_PAYLOAD_KEY;
 import static com.mopub.common.logging.MoPubLog.AdapterLogEvent.CLICKED;
 import static com.mopub.common.logging.MoPubLog.AdapterLogEvent.CUSTOM;
 import static com.mopub.common.logging.MoPubLog.AdapterLogEvent.LOAD_ATTEMPTED;
 import static com.mopub.common.logging.MoPubLog.AdapterLogEvent.LOAD_FAILED;
 import static com.mopub.common.logging.MoPubLog.AdapterLogEvent.LOAD_SUCCESS;
-import static com.mopub.common.util.Numbers.parseDouble;
 import static com.mopub.nativeads.NativeImageHelper.preCacheImages;
 
 public class MoPubCustomEventNative extends CustomEventNative {
@@ -53,9 +54,26 @@ public class MoPubCustomEventNative extends CustomEventNative {
             return;
         }
 
-        Object json = localExtras.get(JSON_BODY_KEY);
-        // null or non-JSONObjects should not be passed in localExtras as JSON_BODY_KEY
-        if (!(json instanceof JSONObject)) {
+        // The payload is parsed in the background along with the ad response. The JSON body is
+        // only parsed here when the payload is missing.
+        final Object payload = localExtras.get(NATIVE_AD_PAYLOAD_KEY);
+        final Object json = localExtras.get(JSON_BODY_KEY);
+        if (payload instanceof NativeAdPayload) {
+            moPubStaticNativeAd =
+                    new MoPubStaticNativeAd(context,
+                            (NativeAdPayload) payload,
+                            ImpressionTracker.acquire(context),
+                            new NativeClickHandler(context),
+                            customEventNativeListener);
+        } else if (json instanceof JSONObject) {
+            moPubStaticNativeAd =
+                    new MoPubStaticNativeAd(context,
+                            (JSONObject) json,
+                            ImpressionTracker.acquire(context),
+                            new NativeClickHandler(context),
+                            customEventNativeListener);
+        } else {
+            // null or non-JSONObjects should not be passed in localExtras as JSON_BODY_KEY
             MoPubLog.log(LOAD_FAILED, ADAPTER_NAME,
                     NativeErrorCode.INVALID_RESPONSE.getIntCode(),
                     NativeErrorCode.INVALID_RESPONSE);
@@ -63,13 +81,6 @@ public class MoPubCustomEventNative extends CustomEventNative {
             return;
         }
 
-        moPubStaticNativeAd =
-                new MoPubStaticNativeAd(context,
-                        (JSONObject) json,
-                        new ImpressionTracker(context),
-                        new NativeClickHandler(context),
-                        customEventNativeListener);
-
         if (serverExtras.containsKey(DataKeys.IMPRESSION_MIN_VISIBLE_PERCENT)) {
             try {
                 moPubStaticNativeAd.setImpressionMinPercentageViewed(Integer.parseInt(
@@ -116,6 +127,8 @@ public class MoPubCustomEventNative extends CustomEventNative {
             MoPubLog.log(LOAD_FAILED, ADAPTER_NAME,
                     NativeErrorCode.UNSPECIFIED.getIntCode(),
                     NativeErrorCode.UNSPECIFIED);
+            // The ad never reaches the app, so nothing else would release its tracker.
+            moPubStaticNativeAd.invalidate();
             customEventNativeListener.onNativeAdFailed(NativeErrorCode.UNSPECIFIED);
         }
     }
@@ -129,58 +142,6 @@ public class MoPubCustomEventNative extends CustomEventNative {
     }
 
     static class MoPubStaticNativeAd extends StaticNativeAd {
-        enum Parameter {
-            IMPRESSION_TRACKER("imptracker", true),
-            CLICK_TRACKER("clktracker", true),
-
-            TITLE("title", false),
-            TEXT("text", false),
-            MAIN_IMAGE("mainimage", false),
-            ICON_IMAGE("iconimage", false),
-
-            CLICK_DESTINATION("clk", false),
-            FALLBACK("fallback", false),
-            CALL_TO_ACTION("ctatext", false),
-            STAR_RATING("starrating", false),
-
-            PRIVACY_INFORMATION_ICON_IMAGE_URL("privacyicon", false),
-            PRIVACY_INFORMATION_ICON_CLICKTHROUGH_URL("privacyclkurl", false),
-
-            SPONSORED("sponsored", false);
-
-            @NonNull
-            final String name;
-            final boolean required;
-
-            Parameter(@NonNull final String name, final boolean required) {
-                this.name = name;
-                this.required = required;
-            }
-
-            @Nullable
-            static Parameter from(@NonNull final String name) {
-                for (final Parameter parameter : values()) {
-                    if (parameter.name.equals(name)) {
-                        return parameter;
-                    }
-                }
-
-                return null;
-            }
-
-            @NonNull
-            @VisibleForTesting
-            static final Set<String> requiredKeys = new HashSet<String>();
-
-            static {
-                for (final Parameter parameter : values()) {
-                    if (parameter.required) {
-                        requiredKeys.add(parameter.name);
-                    }
-                }
-            }
-        }
-
         @VisibleForTesting
         static final String PRIVACY_INFORMATION_CLICKTHROUGH_URL = "https://www.mopub.com/optout";
 
@@ -188,8 +149,10 @@ public class MoPubCustomEventNative extends CustomEventNative {
         private final Context mContext;
         @NonNull
         private final CustomEventNativeListener mCustomEventNativeListener;
-        @NonNull
+        @Nullable
         private final JSONObject mJsonObject;
+        @Nullable
+        private NativeAdPayload mPayload;
         @NonNull
         private final ImpressionTracker mImpressionTracker;
         @NonNull
@@ -198,14 +161,37 @@ public class MoPubCustomEventNative extends CustomEventNative {
         private ExternalViewabilitySessionManager viewabilitySessionManager;
         @NonNull
         private final Set<ViewabilityVendor> viewabilityVendorsSet;
-
+        @Nullable
+        private NativeImagePreCacher.Task mImagePreCacheTask;
+        private boolean mLoaded;
+        private boolean mImpressionTrackerReleased;
 
         MoPubStaticNativeAd(@NonNull final Context context,
                             @NonNull final JSONObject jsonBody,
                             @NonNull final ImpressionTracker impressionTracker,
                             @NonNull final NativeClickHandler nativeClickHandler,
                             @NonNull final CustomEventNativeListener customEventNativeListener) {
+            this(context, jsonBody, null, impressionTracker, nativeClickHandler,
+                    customEventNativeListener);
+        }
+
+        MoPubStaticNativeAd(@NonNull final Context context,
+                            @NonNull final NativeAdPayload payload,
+                            @NonNull final ImpressionTracker impressionTracker,
+                            @NonNull final NativeClickHandler nativeClickHandler,
+                            @NonNull final CustomEventNativeListener customEventNativeListener) {
+            this(context, null, payload, impressionTracker, nativeClickHandler,
+                    customEventNativeListener);
+        }
+
+        private MoPubStaticNativeAd(@NonNull final Context context,
+                                    @Nullable final JSONObject jsonBody,
+                                    @Nullable final NativeAdPayload payload,
+                                    @NonNull final ImpressionTracker impressionTracker,
+                                    @NonNull final NativeClickHandler nativeClickHandler,
+                                    @NonNull final CustomEventNativeListener customEventNativeListener) {
             mJsonObject = jsonBody;
+            mPayload = payload;
             mContext = context.getApplicationContext();
             mImpressionTracker = impressionTracker;
             mNativeClickHandler = nativeClickHandler;
@@ -214,91 +200,91 @@ public class MoPubCustomEventNative extends CustomEventNative {
         }
 
         void loadAd() throws IllegalArgumentException {
-            if (!containsRequiredKeys(mJsonObject)) {
-                throw new IllegalArgumentException("JSONObject did not contain required keys.");
-            }
-
-            final Iterator<String> keys = mJsonObject.keys();
-            while (keys.hasNext()) {
-                final String key = keys.next();
-                final Parameter parameter = Parameter.from(key);
-
-                if (parameter != null) {
-                    try {
-                        addInstanceVariable(parameter, mJsonObject.opt(key));
-                    } catch (ClassCastException e) {
-                        throw new IllegalArgumentException("JSONObject key (" + key + ") contained unexpected value.");
-                    }
-                } else {
-                    addExtra(key, mJsonObject.opt(key));
+            if (mPayload == null) {
+                if (mJsonObject == null) {
+                    throw new IllegalArgumentException("No native ad body to load.");
                 }
+                mPayload = NativeAdPayload.fromJson(mJsonObject);
+            }
+            final NativeAdPayload payload = mPayload;
+
+            setTitle(payload.getTitle());
+            setText(payload.getText());
+            setMainImageUrl(payload.getMainImageUrl());
+            setIconImageUrl(payload.getIconImageUrl());
+            setClickDestinationUrl(payload.getClickDestinationUrl());
+            setCallToAction(payload.getCallToAction());
+            setStarRating(payload.getStarRating());
+            setPrivacyInformationIconImageUrl(payload.getPrivacyInformationIconImageUrl());
+            setPrivacyInformationIconClickThroughUrl(
+                    payload.getPrivacyInformationIconClickThroughUrl());
+            setSponsored(payload.getSponsored());
+            for (final String impressionTracker : payload.getImpressionTrackers()) {
+                addImpressionTracker(impressionTracker);
+            }
+            for (final String clickTracker : payload.getClickTrackers()) {
+                addClickTracker(clickTracker);
+            }
+            for (final Map.Entry<String, Object> extra : payload.getExtras().entrySet()) {
+                addExtra(extra.getKey(), extra.getValue());
             }
 
             if (TextUtils.isEmpty(getPrivacyInformationIconClickThroughUrl())) {
                 setPrivacyInformationIconClickThroughUrl(PRIVACY_INFORMATION_CLICKTHROUGH_URL);
             }
-            mCustomEventNativeListener.onNativeAdLoaded(this); // prefetch images is done in AdUnitManager
+
+            // The ad is loaded once its main image and icon are cached. The other images keep
+            // downloading afterwards.
+            mImagePreCacheTask = preCacheImages(mContext, getRequiredImageUrls(),
+                    getOptionalImageUrls(), new ImageListener() {
+                        @Override
+                        public void onImagesCached() {
+                            if (isInvalidated()) {
+                                return;
+                            }
+                            mLoaded = true;
+                            mCustomEventNativeListener.onNativeAdLoaded(MoPubStaticNativeAd.this);
+                        }
+
+                        @Override
+                        public void onImagesFailedToCache(final NativeErrorCode errorCode) {
+                            if (isInvalidated()) {
+                                return;
+                            }
+                            releaseImpressionTracker();
+                            mCustomEventNativeListener.onNativeAdFailed(errorCode);
+                        }
+                    });
         }
 
-        private boolean containsRequiredKeys(@NonNull final JSONObject jsonObject) {
-            final Set<String> keys = new HashSet<String>();
-            final Iterator<String> jsonKeys = jsonObject.keys();
-            while (jsonKeys.hasNext()) {
-                keys.add(jsonKeys.next());
+        @Override
+        public void invalidate() {
+            super.invalidate();
+            // The adapter also invalidates the ad right after a successful load. Only stop the
+            // downloads and drop the tracker if the ad was given up on before it loaded.
+            if (!mLoaded) {
+                cancelImagePreCache();
+                releaseImpressionTracker();
             }
+        }
 
-            return keys.containsAll(Parameter.requiredKeys);
+        /**
+         * The tracker is shared with the other native ads in this Activity, so it is released
+         * exactly once: when the ad is destroyed, or when it fails before reaching the app.
+         */
+        private void releaseImpressionTracker() {
+            if (mImpressionTrackerReleased) {
+                return;
+            }
+            mImpressionTrackerReleased = true;
+            mImpressionTracker.removeViews(this);
+            mImpressionTracker.release();
         }
 
-        private void addInstanceVariable(@NonNull final Parameter key,
-                                         @Nullable final Object value) throws ClassCastException {
-            try {
-                switch (key) {
-                    case MAIN_IMAGE:
-                        setMainImageUrl((String) value);
-                        break;
-                    case ICON_IMAGE:
-                        setIconImageUrl((String) value);
-                        break;
-                    case IMPRESSION_TRACKER:
-                        addImpressionTrackers(value);
-                        break;
-                    case CLICK_DESTINATION:
-                        setClickDestinationUrl((String) value);
-                        break;
-                    case CLICK_TRACKER:
-                        parseClickTrackers(value);
-                        break;
-                    case CALL_TO_ACTION:
-                        setCallToAction((String) value);
-                        break;
-                    case TITLE:
-                        setTitle((String) value);
-                        break;
-                    case TEXT:
-                        setText((String) value);
-                        break;
-                    case STAR_RATING:
-                        setStarRating(parseDouble(value));
-                        break;
-                    case PRIVACY_INFORMATION_ICON_IMAGE_URL:
-                        setPrivacyInformationIconImageUrl((String) value);
-                        break;
-                    case PRIVACY_INFORMATION_ICON_CLICKTHROUGH_URL:
-                        setPrivacyInformationIconClickThroughUrl((String) value);
-                        break;
-                    case SPONSORED:
-                        setSponsored((String) value);
-                    default:
-                        MoPubLog.log(CUSTOM, ADAPTER_NAME, "Unable to add JSON key to internal mapping: " + key.name);
-                        break;
-                }
-            } catch (ClassCastException e) {
-                if (!key.required) {
-                    MoPubLog.log(CUSTOM, ADAPTER_NAME, "Ignoring class cast exception for optional key: " + key.name);
-                } else {
-                    throw e;
-                }
+        private void cancelImagePreCache() {
+            if (mImagePreCacheTask != null) {
+                mImagePreCacheTask.cancel();
+                mImagePreCacheTask = null;
             }
         }
 
@@ -306,44 +292,39 @@ public class MoPubCustomEventNative extends CustomEventNative {
             viewabilityVendorsSet.addAll(viewabilityVendors);
         }
 
-        private void parseClickTrackers(@NonNull final Object clickTrackers) {
-            if (clickTrackers instanceof JSONArray) {
-                addClickTrackers(clickTrackers);
-            } else {
-                addClickTracker((String) clickTrackers);
-            }
+        @NonNull
+        List<String> getExtrasImageUrls() {
+            return mPayload != null
+                    ? mPayload.getExtrasImageUrls()
+                    : Collections.<String>emptyList();
         }
 
-        private boolean isImageKey(@Nullable final String name) {
-            return name != null && name.toLowerCase(Locale.US).endsWith("image");
+        @NonNull
+        List<String> getAllImageUrls() {
+            final List<String> imageUrls = new ArrayList<String>(getRequiredImageUrls());
+            imageUrls.addAll(getOptionalImageUrls());
+            return imageUrls;
         }
 
+        /**
+         * @return images the ad can not be rendered without: the main image and the icon
+         */
         @NonNull
-        List<String> getExtrasImageUrls() {
-            final List<String> extrasBitmapUrls = new ArrayList<String>(getExtras().size());
-            for (final Map.Entry<String, Object> entry : getExtras().entrySet()) {
-                if (isImageKey(entry.getKey()) && entry.getValue() instanceof String) {
-                    extrasBitmapUrls.add((String) entry.getValue());
-                }
-            }
-
-            return extrasBitmapUrls;
+        List<String> getRequiredImageUrls() {
+            return mPayload != null
+                    ? mPayload.getRequiredImageUrls()
+                    : Collections.<String>emptyList();
         }
 
+        /**
+         * @return images that can be downloaded after the ad is ready: the privacy information icon,
+         * which falls back to a bundled icon, and any extras images
+         */
         @NonNull
-        List<String> getAllImageUrls() {
-            final List<String> imageUrls = new ArrayList<String>();
-            if (!TextUtils.isEmpty(getMainImageUrl())) {
-                imageUrls.add(getMainImageUrl());
-            }
-            if (!TextUtils.isEmpty(getIconImageUrl())) {
-                imageUrls.add(getIconImageUrl());
-            }
-            if (!TextUtils.isEmpty(getPrivacyInformationIconImageUrl())) {
-                imageUrls.add(getPrivacyInformationIconImageUrl());
-            }
-            imageUrls.addAll(getExtrasImageUrls());
-            return imageUrls;
+        List<String> getOptionalImageUrls() {
+            return mPayload != null
+                    ? mPayload.getOptionalImageUrls()
+                    : Collections.<String>emptyList();
         }
 
         // Lifecycle Handlers
@@ -368,7 +349,8 @@ public class MoPubCustomEventNative extends CustomEventNative {
 
         @Override
         public void destroy() {
-            mImpressionTracker.destroy();
+            releaseImpressionTracker();
+            cancelImagePreCache();
             if (viewabilitySessionManager != null) {
                 viewabilitySessionManager.registerTrackedView(new View(mContext));
                 viewabilitySessionManager.endSession();
@@ -381,6 +363,7 @@ public class MoPubCustomEventNative extends CustomEventNative {
         @Override
         public void recordImpression(@NonNull final View view) {
             notifyAdImpressed();
+            ClickDestinationPrefetcher.prefetch(mContext, getClickDestinationUrl());
             if (viewabilitySessionManager != null) {
                 viewabilitySessionManager.trackImpression();
             }
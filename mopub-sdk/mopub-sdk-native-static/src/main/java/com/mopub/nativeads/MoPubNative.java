@@ -11,6 +11,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.AdFormat;
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.Constants;
 import com.mopub.common.MopubConfig;
 import com.mopub.common.Preconditions;
@@ -79,6 +80,9 @@ public class MoPubNative {
     @NonNull AdRendererRegistry mAdRendererRegistry;
     @Nullable
     private NativeAd mNativeAd;
+    // Timestamps for the AdLoadTracer span of building the request, which ends later, or -1
+    private long mRequestBuildStartMillis = -1;
+    private long mRequestBuildEndMillis = -1;
 
     public MoPubNative(@NonNull final Context context,
             @NonNull final String adUnitId,
@@ -194,7 +198,10 @@ public class MoPubNative {
             generator.withSequenceNumber(sequenceNumber);
         }
 
+        final long requestBuildStartMillis = AdLoadTracer.now();
         final String endpointUrl = generator.generateUrlString(Constants.HOST);
+        mRequestBuildStartMillis = requestBuildStartMillis;
+        mRequestBuildEndMillis = AdLoadTracer.now();
 
         if (endpointUrl != null) {
             MoPubLog.log(CUSTOM, "MoPubNative Loading ad from: " + endpointUrl);
@@ -221,15 +228,19 @@ public class MoPubNative {
     }
 
     private void onAdLoad(@NonNull final AdResponse response) {
+        traceRequestBuild(response.getRequestId());
         final Context context = getContextOrDestroy();
         if (context == null) {
             return;
         }
+        final long adapterLoadStartMillis = AdLoadTracer.now();
         final CustomEventNativeListener customEventNativeListener =
                 new CustomEventNativeListener() {
                     @Override
                     public void onNativeAdLoaded(@NonNull final BaseNativeAd nativeAd) {
                         MoPubLog.log(LOAD_SUCCESS);
+                        AdLoadTracer.record(AdLoadTracer.Stage.ADAPTER_LOAD, mAdUnitId,
+                                response.getRequestId(), adapterLoadStartMillis, true);
                         mNativeAdapter = null;
 
                         final Context context = getContextOrDestroy();
@@ -258,6 +269,8 @@ public class MoPubNative {
                     @Override
                     public void onNativeAdFailed(final NativeErrorCode errorCode) {
                         MoPubLog.log(LOAD_FAILED, errorCode.getIntCode(), errorCode.toString());
+                        AdLoadTracer.record(AdLoadTracer.Stage.ADAPTER_LOAD, mAdUnitId,
+                                response.getRequestId(), adapterLoadStartMillis, false);
                         mNativeAdapter = null;
                         requestNativeAd("", errorCode);
                     }
@@ -278,6 +291,7 @@ public class MoPubNative {
     @VisibleForTesting
     void onAdError(@NonNull final VolleyError volleyError) {
         MoPubLog.log(CUSTOM_WITH_THROWABLE, "Native ad request failed.", volleyError);
+        traceRequestBuild(null);
         if (volleyError instanceof MoPubNetworkError) {
             MoPubNetworkError error = (MoPubNetworkError) volleyError;
             switch (error.getReason()) {
@@ -318,6 +332,19 @@ public class MoPubNative {
         }
     }
 
+    /**
+     * The request ID is only known once the response arrives, so the time spent building the
+     * request is recorded then.
+     */
+    private void traceRequestBuild(@Nullable final String requestId) {
+        if (mRequestBuildStartMillis < 0) {
+            return;
+        }
+        AdLoadTracer.record(AdLoadTracer.Stage.REQUEST_BUILD, mAdUnitId, requestId,
+                mRequestBuildStartMillis, mRequestBuildEndMillis, true);
+        mRequestBuildStartMillis = -1;
+    }
+
     @VisibleForTesting
     @Nullable
     Context getContextOrDestroy() {
@@ -105,59 +105,81 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
 
             @Override
             public void onItemRangeChanged(final int positionStart, final int itemCount) {
-                int adjustedEndPosition = mStreamAdPlacer.getAdjustedPosition(positionStart + itemCount - 1);
-                int adjustedStartPosition = mStreamAdPlacer.getAdjustedPosition(positionStart);
-                int adjustedCount = adjustedEndPosition - adjustedStartPosition + 1;
-                notifyItemRangeChanged(adjustedStartPosition, adjustedCount);
+                onItemRangeChanged(positionStart, itemCount, null);
+            }
+
+            @Override
+            public void onItemRangeChanged(final int positionStart, final int itemCount,
+                    @Nullable final Object payload) {
+                // Ads between the changed items did not change and are not rebound.
+                notifyOriginalRange(positionStart, itemCount, false, payload);
             }
 
             @Override
             public void onItemRangeInserted(final int positionStart, final int itemCount) {
-                final int adjustedStartPosition = mStreamAdPlacer.getAdjustedPosition(positionStart);
                 final int newOriginalCount = mOriginalAdapter.getItemCount();
-                mStreamAdPlacer.setItemCount(newOriginalCount);
                 final boolean addingToEnd = positionStart + itemCount >= newOriginalCount;
                 if (KEEP_ADS_FIXED == mStrategy
                         || (INSERT_AT_END == mStrategy
                         && addingToEnd)) {
+                    mStreamAdPlacer.setItemCount(newOriginalCount);
                     notifyDataSetChanged();
                 } else {
-                    for (int i = 0; i < itemCount; i++) {
-                        // We insert itemCount items at the original position, moving ads downstream.
-                        mStreamAdPlacer.insertItem(positionStart);
-                    }
-                    notifyItemRangeInserted(adjustedStartPosition, itemCount);
+                    // We insert itemCount items at the original position, moving ads downstream.
+                    // The new items go in front of the ads that were in front of the item at
+                    // positionStart, so the adjusted position is read after inserting.
+                    mStreamAdPlacer.insertItems(positionStart, itemCount);
+                    mStreamAdPlacer.setItemCount(newOriginalCount);
+                    notifyItemRangeInserted(mStreamAdPlacer.getAdjustedPosition(positionStart),
+                            itemCount);
                 }
             }
 
             @Override
             public void onItemRangeRemoved(final int positionStart, final int itemsRemoved) {
-                int adjustedStartPosition = mStreamAdPlacer.getAdjustedPosition(positionStart);
                 final int newOriginalCount = mOriginalAdapter.getItemCount();
-                mStreamAdPlacer.setItemCount(newOriginalCount);
                 final boolean removingFromEnd = positionStart + itemsRemoved >= newOriginalCount;
                 if (KEEP_ADS_FIXED == mStrategy
                         || (INSERT_AT_END == mStrategy
                         && removingFromEnd)) {
+                    mStreamAdPlacer.setItemCount(newOriginalCount);
                     notifyDataSetChanged();
+                } else if (positionStart >= newOriginalCount) {
+                    // The last items were removed. The ads in front of them end up after the new
+                    // last item, where they are not shown, so everything from there is removed.
+                    final int oldAdjustedCount =
+                            mStreamAdPlacer.getAdjustedCount(newOriginalCount + itemsRemoved);
+                    mStreamAdPlacer.removeItems(positionStart, itemsRemoved);
+                    mStreamAdPlacer.setItemCount(newOriginalCount);
+                    final int newAdjustedCount = mStreamAdPlacer.getAdjustedCount(newOriginalCount);
+                    notifyItemRangeRemoved(newAdjustedCount, oldAdjustedCount - newAdjustedCount);
                 } else {
-                    final int oldAdjustedCount = mStreamAdPlacer.getAdjustedCount(newOriginalCount + itemsRemoved);
-                    for (int i = 0; i < itemsRemoved; i++) {
-                        // We remove itemsRemoved items at the original position.
-                        mStreamAdPlacer.removeItem(positionStart);
-                    }
-
-                    final int itemsRemovedIncludingAds = oldAdjustedCount - mStreamAdPlacer.getAdjustedCount(newOriginalCount);
-                    // Need to move the start position back by the # of ads removed.
-                    adjustedStartPosition -= itemsRemovedIncludingAds - itemsRemoved;
-                    notifyItemRangeRemoved(adjustedStartPosition, itemsRemovedIncludingAds);
+                    // Positions are notified as they were before the removal. RecyclerView only
+                    // reads them back on its next layout pass, after the placer is updated.
+                    notifyOriginalRange(positionStart, itemsRemoved, true, null);
+                    mStreamAdPlacer.removeItems(positionStart, itemsRemoved);
+                    mStreamAdPlacer.setItemCount(newOriginalCount);
                 }
             }
 
             @Override
             public void onItemRangeMoved(final int fromPosition, final int toPosition,
                     final int itemCount) {
-                notifyDataSetChanged();
+                // RecyclerView only moves single items. Moving the last item can show or hide the
+                // ads after it, which can not be expressed as a move.
+                final int lastPosition = mOriginalAdapter.getItemCount() - 1;
+                if (KEEP_ADS_FIXED == mStrategy
+                        || itemCount != 1
+                        || fromPosition == lastPosition
+                        || toPosition == lastPosition) {
+                    notifyDataSetChanged();
+                } else {
+                    final int adjustedFromPosition =
+                            mStreamAdPlacer.getAdjustedPosition(fromPosition);
+                    mStreamAdPlacer.moveItem(fromPosition, toPosition);
+                    notifyItemMoved(adjustedFromPosition,
+                            mStreamAdPlacer.getAdjustedPosition(toPosition));
+                }
             }
         };
 
@@ -432,6 +454,26 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
         mOriginalAdapter.onBindViewHolder(holder, mStreamAdPlacer.getOriginalPosition(position));
     }
 
+    /**
+     * Forwards change payloads to the original adapter so partial updates, such as the ones
+     * dispatched by DiffUtil, do not rebind content views from scratch.
+     */
+    @Override
+    public void onBindViewHolder(final RecyclerView.ViewHolder holder, final int position,
+            @NonNull final List<Object> payloads) {
+        if (payloads.isEmpty() || mStreamAdPlacer.getAdData(position) != null) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        mViewPositionMap.put(holder.itemView, position);
+        mVisibilityTracker.addView(holder.itemView, 0, null);
+
+        //noinspection unchecked
+        mOriginalAdapter.onBindViewHolder(holder, mStreamAdPlacer.getOriginalPosition(position),
+                payloads);
+    }
+
     @Override
     public int getItemViewType(final int position) {
         int type = mStreamAdPlacer.getAdViewType(position);
@@ -544,6 +586,41 @@ public final class MoPubRecyclerAdapter extends RecyclerView.Adapter<RecyclerVie
         notifyItemRemoved(position);
     }
 
+    /**
+     * Notifies that the original items [positionStart, positionStart + itemCount) were removed or
+     * changed. Ads between the items are not affected, so each run of items with no ad between
+     * them is notified as one range. Runs are notified from the last one back so a removal does
+     * not move the positions of the runs still to notify.
+     */
+    private void notifyOriginalRange(final int positionStart, final int itemCount,
+            final boolean removed, @Nullable final Object payload) {
+        int end = positionStart + itemCount - 1;
+        while (end >= positionStart) {
+            final int adjustedEnd = mStreamAdPlacer.getAdjustedPosition(end);
+
+            // Binary search for the first item of the run ending at end. Ads only ever add to the
+            // distance between the adjusted positions of two items.
+            int start = positionStart;
+            int high = end;
+            while (start < high) {
+                final int mid = (start + high) >>> 1;
+                if (adjustedEnd - mStreamAdPlacer.getAdjustedPosition(mid) == end - mid) {
+                    high = mid;
+                } else {
+                    start = mid + 1;
+                }
+            }
+
+            final int adjustedStart = adjustedEnd - (end - start);
+            if (removed) {
+                notifyItemRangeRemoved(adjustedStart, end - start + 1);
+            } else {
+                notifyItemRangeChanged(adjustedStart, end - start + 1, payload);
+            }
+            end = start - 1;
+        }
+    }
+
     private void handleVisibilityChanged(final List<View> visibleViews,
             final List<View> invisibleViews) {
         // Loop through all visible positions in order to build a max and min range, and then
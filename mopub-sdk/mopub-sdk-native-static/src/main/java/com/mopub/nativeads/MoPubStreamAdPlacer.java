@@ -327,11 +327,23 @@ public class MoPubStreamAdPlacer {
      * @param endPosition The end of the range in which to place ads, exclusive.
      */
     public void placeAdsInRange(final int startPosition, final int endPosition) {
+        final int previousRangeEnd = mVisibleRangeEnd;
         mVisibleRangeStart = startPosition;
         mVisibleRangeEnd = Math.min(endPosition, startPosition + MAX_VISIBLE_RANGE);
+
+        // Let the ad source size its cache from how fast empty ad positions come into view.
+        mAdSource.onAdSlotsScrolled(countAdSlots(previousRangeEnd, mVisibleRangeEnd));
         notifyNeedsPlacement();
     }
 
+    /**
+     * Returns how well the ad cache has kept ahead of scrolling since ads were last loaded.
+     */
+    @NonNull
+    public NativeAdCacheMetrics getAdCacheMetrics() {
+        return mAdSource.getMetrics();
+    }
+
     /**
      * Whether the given position is an ad.
      *
@@ -614,6 +626,35 @@ public class MoPubStreamAdPlacer {
         mPlacementData.removeItem(originalPosition);
     }
 
+    /**
+     * Inserts count content rows at the given position, adjusting ad positions accordingly.
+     *
+     * This is the same as calling {@link #insertItem(int)} count times at the same position, but
+     * takes about as long as a single insert. Use it to apply range updates such as the ones
+     * dispatched by DiffUtil.
+     *
+     * @param originalPosition The position at which to add the items.
+     * @param count The number of items to add.
+     */
+    public void insertItems(final int originalPosition, final int count) {
+        mPlacementData.insertItems(originalPosition, count);
+    }
+
+    /**
+     * Removes count content rows starting at the given position, adjusting ad positions
+     * accordingly. Ads in front of the removed rows are kept and end up in front of the first row
+     * after them.
+     *
+     * This is the same as calling {@link #removeItem(int)} count times at the same position, but
+     * takes about as long as a single remove plus one step for each ad between the removed rows.
+     *
+     * @param originalPosition The position of the first item to remove.
+     * @param count The number of items to remove.
+     */
+    public void removeItems(final int originalPosition, final int count) {
+        mPlacementData.removeItems(originalPosition, count);
+    }
+
     /**
      * Moves the content row at the given position adjusting ad positions accordingly.
      *
@@ -662,6 +703,19 @@ public class MoPubStreamAdPlacer {
         tryPlaceAdsInRange(mVisibleRangeEnd, mVisibleRangeEnd + RANGE_BUFFER);
     }
 
+    /**
+     * Counts the positions in [start, end) that should get an ad but do not have one yet.
+     */
+    private int countAdSlots(final int start, final int end) {
+        int count = 0;
+        int position = mPlacementData.nextInsertionPosition(start - 1);
+        while (position != PlacementData.NOT_FOUND && position < end) {
+            count++;
+            position = mPlacementData.nextInsertionPosition(position);
+        }
+        return count;
+    }
+
     /**
      * Attempts to place ads in the range [start, end], returning false if there is no ad available
      * to be placed.
@@ -11,6 +11,7 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.VisibleForTesting;
 import com.mopub.common.util.MoPubCollections;
 import com.mopub.nativeads.MoPubCustomEventNative.MoPubStaticNativeAd;
@@ -63,6 +64,9 @@ public class NativeAd {
     @NonNull private final Set<String> mClickTrackers;
     @NonNull private final String mAdUnitId;
     @Nullable private ImpressionData mImpressionData;
+    @Nullable private String mRequestId;
+    // When the ad was first prepared for display, for AdLoadTracer, or -1
+    private long mPrepareStartMillis = -1;
     @Nullable private MoPubNativeEventListener mMoPubNativeEventListener;
 
     @NonNull private MoPubAdRenderer mMoPubAdRenderer;
@@ -117,6 +121,7 @@ public class NativeAd {
              @NonNull final MoPubAdRenderer moPubAdRenderer){
         this(context, adResponse.getImpressionTrackingUrls(), adResponse.getClickTrackingUrls(), adUnitId, baseNativeAd, moPubAdRenderer);
         mImpressionData = adResponse.getImpressionData();
+        mRequestId = adResponse.getRequestId();
     }
 
     @Override
@@ -191,6 +196,9 @@ public class NativeAd {
             return;
         }
 
+        if (mPrepareStartMillis < 0) {
+            mPrepareStartMillis = AdLoadTracer.now();
+        }
         mBaseNativeAd.prepare(view);
     }
 
@@ -230,6 +238,12 @@ public class NativeAd {
 
         mRecordedImpression = true;
 
+        if (mRequestId != null && mPrepareStartMillis >= 0) {
+            AdLoadTracer.record(AdLoadTracer.Stage.IMPRESSION, mAdUnitId, mRequestId,
+                    mPrepareStartMillis, true);
+            AdLoadTracer.logSpans(mRequestId);
+        }
+
         TrackingRequest.makeTrackingHttpRequest(mImpressionTrackers, mContext);
         if (mMoPubNativeEventListener != null) {
             mMoPubNativeEventListener.onImpression(view);
@@ -0,0 +1,110 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Snapshot of how well the native ad cache of a stream stays ahead of scrolling. A dequeue miss
+ * means an ad position came on screen with no ad ready to fill it.
+ */
+public class NativeAdCacheMetrics {
+    private final int mDequeueCount;
+    private final int mDequeueMissCount;
+    private final int mExpiredCount;
+    private final int mRequestCount;
+    private final int mParallelRequestCount;
+    private final int mCachedCount;
+    private final int mTargetCacheSize;
+
+    NativeAdCacheMetrics(final int dequeueCount,
+            final int dequeueMissCount,
+            final int expiredCount,
+            final int requestCount,
+            final int parallelRequestCount,
+            final int cachedCount,
+            final int targetCacheSize) {
+        mDequeueCount = dequeueCount;
+        mDequeueMissCount = dequeueMissCount;
+        mExpiredCount = expiredCount;
+        mRequestCount = requestCount;
+        mParallelRequestCount = parallelRequestCount;
+        mCachedCount = cachedCount;
+        mTargetCacheSize = targetCacheSize;
+    }
+
+    /**
+     * @return number of times the stream asked for an ad to place
+     */
+    public int getDequeueCount() {
+        return mDequeueCount;
+    }
+
+    /**
+     * @return number of times the stream asked for an ad and the cache was empty
+     */
+    public int getDequeueMissCount() {
+        return mDequeueMissCount;
+    }
+
+    /**
+     * @return fraction of dequeues that were served from the cache, or 1 if nothing was dequeued
+     */
+    public double getFillAheadRate() {
+        if (mDequeueCount == 0) {
+            return 1;
+        }
+        return (double) (mDequeueCount - mDequeueMissCount) / mDequeueCount;
+    }
+
+    /**
+     * @return number of cached ads dropped because they expired before being shown
+     */
+    public int getExpiredCount() {
+        return mExpiredCount;
+    }
+
+    /**
+     * @return number of ad requests started, including parallel ones
+     */
+    public int getRequestCount() {
+        return mRequestCount;
+    }
+
+    /**
+     * @return number of ad requests started while another request was already in flight
+     */
+    public int getParallelRequestCount() {
+        return mParallelRequestCount;
+    }
+
+    /**
+     * @return number of ads currently in the cache
+     */
+    public int getCachedCount() {
+        return mCachedCount;
+    }
+
+    /**
+     * @return number of ads the cache is currently trying to hold
+     */
+    public int getTargetCacheSize() {
+        return mTargetCacheSize;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "NativeAdCacheMetrics{" +
+                "dequeueCount=" + mDequeueCount +
+                ", dequeueMissCount=" + mDequeueMissCount +
+                ", expiredCount=" + mExpiredCount +
+                ", requestCount=" + mRequestCount +
+                ", parallelRequestCount=" + mParallelRequestCount +
+                ", cachedCount=" + mCachedCount +
+                ", targetCacheSize=" + mTargetCacheSize +
+                '}';
+    }
+}
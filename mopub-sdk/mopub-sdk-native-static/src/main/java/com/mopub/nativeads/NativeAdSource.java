@@ -10,6 +10,7 @@ import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.mopub.common.MemoryAccountant;
 import com.mopub.common.VisibleForTesting;
 
 import java.util.ArrayList;
@@ -26,19 +27,42 @@ import static com.mopub.nativeads.MoPubNative.MoPubNativeNetworkListener;
  * a queue, so that the first ad loaded from the server will be the first ad available for dequeue.
  * To take an ad out of the cache, call {@link #dequeueAd}.
  *
- * The cache size may be automatically adjusted by the MoPub server based on an app's usage and
- * ad fill rate. Cached ads have a maximum TTL of 4 hours before which they expire.
+ * The cache holds between {@link #MIN_CACHE_SIZE} and {@link #MAX_CACHE_SIZE} ads. Its target
+ * size follows how quickly the stream scrolls through ad positions, as reported through
+ * {@link #onAdSlotsScrolled(int)}. While the cache is below its target and requests are
+ * succeeding, up to {@link #MAX_PARALLEL_REQUESTS} requests run at once, started at least
+ * {@link #MIN_PARALLEL_REQUEST_INTERVAL_MILLIS} apart. Cached ads have a maximum TTL of 4 hours.
+ * They are dropped as soon as they expire rather than when they are dequeued, so the cache can
+ * refill in the background.
  *
  * The ad source also takes care of retrying failed ad requests, with a reasonable back-off to
- * avoid spamming the server.
+ * avoid spamming the server. Parallel requests are only made while nothing is backing off.
+ *
+ * Cached ads are accounted for by the {@link MemoryAccountant}. When asked to shed memory, only
+ * expired ads are destroyed, unless memory is critically low. Then the oldest ads are destroyed
+ * as well and the target size drops back to {@link #MIN_CACHE_SIZE}. The cache is not refilled
+ * after a load that made the SDK shed ads to stay within its budget.
  *
  * This class is not thread safe and should only be called from the UI thread.
  */
-class NativeAdSource {
+class NativeAdSource implements MemoryAccountant.Component {
     /**
-     * Number of ads to cache
+     * Number of ads to cache when the stream is not scrolling
      */
     private static final int CACHE_LIMIT = 1;
+    @VisibleForTesting static final int MIN_CACHE_SIZE = CACHE_LIMIT;
+    @VisibleForTesting static final int MAX_CACHE_SIZE = 5;
+
+    // The cache tries to hold the ads the stream will need over this much scrolling.
+    @VisibleForTesting static final int FILL_AHEAD_MILLIS = 3000;
+    // Weight of the latest scroll sample in the ad slots per second estimate.
+    private static final double SCROLL_RATE_SMOOTHING = 0.5;
+
+    @VisibleForTesting static final int MAX_PARALLEL_REQUESTS = 3;
+    @VisibleForTesting static final int MIN_PARALLEL_REQUEST_INTERVAL_MILLIS = 500;
+
+    // Rough heap cost of a cached ad. Its images are accounted for by the image cache.
+    @VisibleForTesting static final long ESTIMATED_AD_BYTES = 16 * 1024;
 
     private static final int EXPIRATION_TIME_MILLISECONDS = AD_EXPIRATION_DELAY;
     private static final int MAXIMUM_RETRY_TIME_MILLISECONDS = 5 * 60 * 1000; // 5 minutes.
@@ -47,8 +71,26 @@ class NativeAdSource {
     @NonNull private final List<TimestampWrapper<NativeAd>> mNativeAdCache;
     @NonNull private final Handler mReplenishCacheHandler;
     @NonNull private final Runnable mReplenishCacheRunnable;
+    @NonNull private final Runnable mExpirationRunnable;
+    @NonNull private final Runnable mParallelRequestRunnable;
     @NonNull private final MoPubNativeNetworkListener mMoPubNativeNetworkListener;
 
+    // Extra request slots, each with its own MoPubNative, used to fill the cache in parallel.
+    @NonNull private final List<ParallelRequestSlot> mParallelRequestSlots;
+    @Nullable private MoPubNativeFactory mMoPubNativeFactory;
+    private boolean mParallelRequestScheduled;
+    private long mLastRequestUptimeMillis;
+
+    @VisibleForTesting int mTargetCacheSize = MIN_CACHE_SIZE;
+    private double mAdSlotsPerSecond;
+    private long mLastScrollUptimeMillis = -1;
+
+    private int mDequeueCount;
+    private int mDequeueMissCount;
+    private int mExpiredCount;
+    private int mRequestCount;
+    private int mParallelRequestCount;
+
     @VisibleForTesting boolean mRequestInFlight;
     @VisibleForTesting boolean mRetryInFlight;
     @VisibleForTesting int mSequenceNumber;
@@ -72,6 +114,14 @@ class NativeAdSource {
         void onAdsAvailable();
     }
 
+    /**
+     * Creates the MoPubNative used by each parallel request slot.
+     */
+    interface MoPubNativeFactory {
+        @NonNull
+        MoPubNative create(@NonNull MoPubNativeNetworkListener listener);
+    }
+
     NativeAdSource() {
         this(new ArrayList<TimestampWrapper<NativeAd>>(CACHE_LIMIT),
                 new Handler(),
@@ -92,7 +142,23 @@ class NativeAdSource {
             }
         };
 
+        mExpirationRunnable = new Runnable() {
+            @Override
+            public void run() {
+                removeExpiredAds();
+            }
+        };
+        mParallelRequestRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mParallelRequestScheduled = false;
+                replenishCache();
+            }
+        };
+        mParallelRequestSlots = new ArrayList<ParallelRequestSlot>(MAX_PARALLEL_REQUESTS - 1);
+
         mAdRendererRegistry = adRendererRegistry;
+        MemoryAccountant.register("NativeAdSource", this);
 
         // Construct native URL and start filling the cache
         mMoPubNativeNetworkListener = new MoPubNativeNetworkListener() {
@@ -108,12 +174,9 @@ class NativeAdSource {
                 mSequenceNumber++;
                 resetRetryTime();
 
-                mNativeAdCache.add(new TimestampWrapper<NativeAd>(nativeAd));
-                if (mNativeAdCache.size() == 1 && mAdSourceListener != null) {
-                    mAdSourceListener.onAdsAvailable();
+                if (addToCache(nativeAd)) {
+                    replenishCache();
                 }
-
-                replenishCache();
             }
 
             @Override
@@ -156,6 +219,9 @@ class NativeAdSource {
         if (mMoPubNative != null) {
             mMoPubNative.registerAdRenderer(moPubNativeAdRenderer);
         }
+        for (final ParallelRequestSlot slot : mParallelRequestSlots) {
+            slot.mSlotMoPubNative.registerAdRenderer(moPubNativeAdRenderer);
+        }
     }
 
     @Nullable
@@ -175,6 +241,13 @@ class NativeAdSource {
             @NonNull final String adUnitId,
             final RequestParameters requestParameters) {
         loadAds(requestParameters, new MoPubNative(activity, adUnitId, mMoPubNativeNetworkListener));
+        mMoPubNativeFactory = new MoPubNativeFactory() {
+            @NonNull
+            @Override
+            public MoPubNative create(@NonNull final MoPubNativeNetworkListener listener) {
+                return new MoPubNative(activity, adUnitId, listener);
+            }
+        };
     }
 
     @VisibleForTesting
@@ -202,6 +275,12 @@ class NativeAdSource {
             mMoPubNative = null;
         }
 
+        for (final ParallelRequestSlot slot : mParallelRequestSlots) {
+            slot.mSlotMoPubNative.destroy();
+        }
+        mParallelRequestSlots.clear();
+        mMoPubNativeFactory = null;
+
         mRequestParameters = null;
 
         for (final TimestampWrapper<NativeAd> timestampWrapper : mNativeAdCache) {
@@ -210,9 +289,58 @@ class NativeAdSource {
         mNativeAdCache.clear();
 
         mReplenishCacheHandler.removeMessages(0);
+        mReplenishCacheHandler.removeCallbacks(mExpirationRunnable);
+        mReplenishCacheHandler.removeCallbacks(mParallelRequestRunnable);
+        mParallelRequestScheduled = false;
         mRequestInFlight = false;
         mSequenceNumber = 0;
         resetRetryTime();
+
+        mTargetCacheSize = MIN_CACHE_SIZE;
+        mAdSlotsPerSecond = 0;
+        mLastScrollUptimeMillis = -1;
+    }
+
+    /**
+     * Updates the target cache size from how quickly the stream is moving through ad positions.
+     * Called as the visible range changes, with the number of ad positions that came into range
+     * since the last call.
+     */
+    void onAdSlotsScrolled(final int adSlotCount) {
+        final long now = SystemClock.uptimeMillis();
+        final long elapsedMillis = now - mLastScrollUptimeMillis;
+        final boolean firstSample = mLastScrollUptimeMillis < 0;
+        mLastScrollUptimeMillis = now;
+        if (firstSample || elapsedMillis <= 0) {
+            return;
+        }
+
+        final double adSlotsPerSecond = adSlotCount * 1000.0 / elapsedMillis;
+        mAdSlotsPerSecond = SCROLL_RATE_SMOOTHING * adSlotsPerSecond +
+                (1 - SCROLL_RATE_SMOOTHING) * mAdSlotsPerSecond;
+
+        final int targetCacheSize = (int) Math.ceil(mAdSlotsPerSecond * FILL_AHEAD_MILLIS / 1000);
+        setTargetCacheSize(targetCacheSize);
+    }
+
+    @VisibleForTesting
+    void setTargetCacheSize(final int targetCacheSize) {
+        final int clampedSize = Math.max(MIN_CACHE_SIZE, Math.min(MAX_CACHE_SIZE, targetCacheSize));
+        if (clampedSize == mTargetCacheSize) {
+            return;
+        }
+
+        final boolean grew = clampedSize > mTargetCacheSize;
+        mTargetCacheSize = clampedSize;
+        if (grew) {
+            replenishCache();
+        }
+    }
+
+    @NonNull
+    NativeAdCacheMetrics getMetrics() {
+        return new NativeAdCacheMetrics(mDequeueCount, mDequeueMissCount, mExpiredCount,
+                mRequestCount, mParallelRequestCount, mNativeAdCache.size(), mTargetCacheSize);
     }
 
     /**
@@ -234,17 +362,105 @@ class NativeAdSource {
             mReplenishCacheHandler.post(mReplenishCacheRunnable);
         }
 
-        // Dequeue the first ad that hasn't expired.
+        mDequeueCount++;
+
+        // Expired ads are normally removed by the expiration runnable already. This only catches
+        // an ad that expired since the runnable last ran.
         while (!mNativeAdCache.isEmpty()) {
             TimestampWrapper<NativeAd> responseWrapper = mNativeAdCache.remove(0);
 
             if (now - responseWrapper.mCreatedTimestamp < EXPIRATION_TIME_MILLISECONDS) {
                 return responseWrapper.mInstance;
             }
+            mExpiredCount++;
+            responseWrapper.mInstance.destroy();
         }
+        mDequeueMissCount++;
         return null;
     }
 
+    /**
+     * @return false if the SDK went over its memory budget and this cache had to shed ads, in
+     * which case it should not be refilled right away
+     */
+    private boolean addToCache(@NonNull final NativeAd nativeAd) {
+        mNativeAdCache.add(new TimestampWrapper<NativeAd>(nativeAd));
+        if (mNativeAdCache.size() == 1) {
+            scheduleExpiration();
+            if (mAdSourceListener != null) {
+                mAdSourceListener.onAdsAvailable();
+            }
+        }
+
+        final int cacheSize = mNativeAdCache.size();
+        MemoryAccountant.onRetainedBytesIncreased();
+        return mNativeAdCache.size() == cacheSize;
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return mNativeAdCache.size() * ESTIMATED_AD_BYTES;
+    }
+
+    @Override
+    public long shed(final long bytesToFree, final boolean critical) {
+        final long now = SystemClock.uptimeMillis();
+        long freedBytes = 0;
+        while (!mNativeAdCache.isEmpty() && freedBytes < bytesToFree) {
+            final boolean expired =
+                    now - mNativeAdCache.get(0).mCreatedTimestamp >= EXPIRATION_TIME_MILLISECONDS;
+            // Ads are cached oldest first, so no ad after an unexpired one has expired either.
+            if (!expired && !critical) {
+                break;
+            }
+            mNativeAdCache.remove(0).mInstance.destroy();
+            if (expired) {
+                mExpiredCount++;
+            }
+            freedBytes += ESTIMATED_AD_BYTES;
+        }
+
+        if (critical) {
+            mTargetCacheSize = MIN_CACHE_SIZE;
+            mAdSlotsPerSecond = 0;
+        }
+        scheduleExpiration();
+        return freedBytes;
+    }
+
+    /**
+     * Ads are cached in the order they load and all have the same TTL, so the oldest ad is always
+     * the next to expire and a single pending runnable covers the whole cache.
+     */
+    private void scheduleExpiration() {
+        mReplenishCacheHandler.removeCallbacks(mExpirationRunnable);
+        if (mNativeAdCache.isEmpty()) {
+            return;
+        }
+
+        final long expirationTime =
+                mNativeAdCache.get(0).mCreatedTimestamp + EXPIRATION_TIME_MILLISECONDS;
+        mReplenishCacheHandler.postDelayed(mExpirationRunnable,
+                Math.max(0, expirationTime - SystemClock.uptimeMillis()));
+    }
+
+    @VisibleForTesting
+    void removeExpiredAds() {
+        final long now = SystemClock.uptimeMillis();
+        boolean removedAny = false;
+        while (!mNativeAdCache.isEmpty() &&
+                now - mNativeAdCache.get(0).mCreatedTimestamp >= EXPIRATION_TIME_MILLISECONDS) {
+            mNativeAdCache.remove(0).mInstance.destroy();
+            mExpiredCount++;
+            removedAny = true;
+        }
+
+        scheduleExpiration();
+        if (removedAny) {
+            replenishCache();
+        }
+    }
+
     @VisibleForTesting
     void updateRetryTime() {
         if (mCurrentRetries < RETRY_TIME_ARRAY_MILLISECONDS.length - 1) {
@@ -272,10 +488,94 @@ class NativeAdSource {
      */
     @VisibleForTesting
     void replenishCache() {
-        if (!mRequestInFlight && mMoPubNative != null && mNativeAdCache.size() < CACHE_LIMIT) {
+        if (!mRequestInFlight && mMoPubNative != null && mNativeAdCache.size() < mTargetCacheSize) {
             mRequestInFlight = true;
+            mRequestCount++;
+            mLastRequestUptimeMillis = SystemClock.uptimeMillis();
             mMoPubNative.makeRequest(mRequestParameters, mSequenceNumber);
         }
+
+        startParallelRequest();
+    }
+
+    /**
+     * Starts one more request alongside the main one if the cache is still short of its target.
+     * Only done while the main request is in flight and nothing is backing off after a failure.
+     */
+    private void startParallelRequest() {
+        if (mMoPubNative == null || mMoPubNativeFactory == null || !mRequestInFlight ||
+                mRetryInFlight || mCurrentRetries > 0 || mParallelRequestScheduled) {
+            return;
+        }
+
+        int inFlightCount = 1;
+        ParallelRequestSlot idleSlot = null;
+        for (final ParallelRequestSlot slot : mParallelRequestSlots) {
+            if (slot.mInFlight) {
+                inFlightCount++;
+            } else if (idleSlot == null) {
+                idleSlot = slot;
+            }
+        }
+
+        if (mNativeAdCache.size() + inFlightCount >= mTargetCacheSize ||
+                inFlightCount >= MAX_PARALLEL_REQUESTS) {
+            return;
+        }
+
+        final long waitMillis = mLastRequestUptimeMillis + MIN_PARALLEL_REQUEST_INTERVAL_MILLIS -
+                SystemClock.uptimeMillis();
+        if (waitMillis > 0) {
+            mParallelRequestScheduled = true;
+            mReplenishCacheHandler.postDelayed(mParallelRequestRunnable, waitMillis);
+            return;
+        }
+
+        if (idleSlot == null) {
+            idleSlot = new ParallelRequestSlot(mMoPubNativeFactory);
+            mParallelRequestSlots.add(idleSlot);
+        }
+
+        idleSlot.mInFlight = true;
+        mRequestCount++;
+        mParallelRequestCount++;
+        mLastRequestUptimeMillis = SystemClock.uptimeMillis();
+        idleSlot.mSlotMoPubNative.makeRequest(mRequestParameters, mSequenceNumber);
+    }
+
+    /**
+     * A request slot used in addition to the main MoPubNative. Failures are not retried here. The
+     * main request owns the retry back-off.
+     */
+    private class ParallelRequestSlot implements MoPubNativeNetworkListener {
+        @NonNull final MoPubNative mSlotMoPubNative;
+        boolean mInFlight;
+
+        ParallelRequestSlot(@NonNull final MoPubNativeFactory moPubNativeFactory) {
+            mSlotMoPubNative = moPubNativeFactory.create(this);
+            for (final MoPubAdRenderer renderer : mAdRendererRegistry.getRendererIterable()) {
+                mSlotMoPubNative.registerAdRenderer(renderer);
+            }
+        }
+
+        @Override
+        public void onNativeLoad(@NonNull final NativeAd nativeAd) {
+            if (!mParallelRequestSlots.contains(this)) {
+                nativeAd.destroy();
+                return;
+            }
+
+            mInFlight = false;
+            mSequenceNumber++;
+            if (addToCache(nativeAd)) {
+                replenishCache();
+            }
+        }
+
+        @Override
+        public void onNativeFail(final NativeErrorCode errorCode) {
+            mInFlight = false;
+        }
     }
 
     @Deprecated
@@ -284,6 +584,12 @@ class NativeAdSource {
         mMoPubNative = moPubNative;
     }
 
+    @Deprecated
+    @VisibleForTesting
+    void setMoPubNativeFactory(@Nullable final MoPubNativeFactory moPubNativeFactory) {
+        mMoPubNativeFactory = moPubNativeFactory;
+    }
+
     @NonNull
     @Deprecated
     @VisibleForTesting
@@ -5,7 +5,7 @@
 package com.mopub.nativeads;
 
 import android.content.Context;
-import android.text.TextUtils;
+import android.view.ViewGroup;
 import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
@@ -14,16 +14,15 @@ import androidx.annotation.Nullable;
 import com.mopub.common.Preconditions;
 import com.mopub.common.logging.MoPubLog;
 import com.mopub.nativeads.CustomEventNative.CustomEventNativeListener;
+import com.mopub.network.MaxWidthImageLoader;
 import com.mopub.network.Networking;
 import com.mopub.volley.VolleyError;
 import com.mopub.volley.toolbox.ImageLoader;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
-import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR_WITH_THROWABLE;
 
 /**
  * Collection of helper methods to assist with image downloading and displaying
@@ -49,49 +48,30 @@ public class NativeImageHelper {
     /**
      * Pre caches the given set of image urls. We recommend using this method to warm the image
      * cache before calling {@link CustomEventNativeListener#onNativeAdLoaded}. Doing so will
-     * force images to cache before displaying the ad.
+     * force images to be downloaded before displaying the ad. Images are kept encoded on disk and
+     * only decoded by {@link #loadImageView}, at the size of the view they are loaded into.
      */
     public static void preCacheImages(@NonNull final Context context,
             @NonNull final List<String> imageUrls,
             @NonNull final ImageListener imageListener) {
-        final ImageLoader imageLoader = Networking.getImageLoader(context);
-        // These Atomics are only accessed on the main thread.
-        // We use Atomics here so we can change their values while keeping a reference for the inner class.
-        final AtomicInteger imageCounter = new AtomicInteger(imageUrls.size());
-        final AtomicBoolean anyFailures = new AtomicBoolean(false);
-        ImageLoader.ImageListener volleyImageListener = new ImageLoader.ImageListener() {
-            @Override
-            public void onResponse(final ImageLoader.ImageContainer imageContainer, final boolean isImmediate) {
-                // Image Loader returns a "default" response immediately. We want to ignore this
-                // unless the image is already cached.
-                if (imageContainer.getBitmap() != null) {
-                    final int count = imageCounter.decrementAndGet();
-                    if (count == 0 && !anyFailures.get()) {
-                        imageListener.onImagesCached();
-                    }
-                }
-            }
-
-            @Override
-            public void onErrorResponse(final VolleyError volleyError) {
-                MoPubLog.log(ERROR_WITH_THROWABLE, "Failed to download a native ads image:",
-                        volleyError);
-                boolean anyPreviousErrors = anyFailures.getAndSet(true);
-                imageCounter.decrementAndGet();
-                if (!anyPreviousErrors) {
-                    imageListener.onImagesFailedToCache(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
-                }
-            }
-        };
+        NativeImagePreCacher.preCache(context, imageUrls, Collections.<String>emptyList(),
+                imageListener);
+    }
 
-        for (String url : imageUrls) {
-            if (TextUtils.isEmpty(url)) {
-                anyFailures.set(true);
-                imageListener.onImagesFailedToCache(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
-                return;
-            }
-            imageLoader.get(url, volleyImageListener);
-        }
+    /**
+     * Pre caches the images of a native ad. The listener is called as soon as the required images
+     * are cached. Optional images keep downloading afterwards, and failing to download one of them
+     * does not fail the ad.
+     *
+     * @return the pre-cache task, which exposes the timing of each image
+     */
+    @NonNull
+    public static NativeImagePreCacher.Task preCacheImages(@NonNull final Context context,
+            @NonNull final List<String> requiredImageUrls,
+            @NonNull final List<String> optionalImageUrls,
+            @NonNull final ImageListener imageListener) {
+        return NativeImagePreCacher.preCache(context, requiredImageUrls, optionalImageUrls,
+                imageListener);
     }
 
     /**
@@ -115,13 +95,13 @@ public class NativeImageHelper {
             return;
         }
 
-        final ImageLoader mImageLoader = Networking.getImageLoader(imageView.getContext());
-        mImageLoader.get(url, new ImageLoader.ImageListener() {
+        final MaxWidthImageLoader imageLoader = Networking.getImageLoader(imageView.getContext());
+        imageLoader.getForView(url, new ImageLoader.ImageListener() {
             @Override
             public void onResponse(final ImageLoader.ImageContainer imageContainer,
                     final boolean isImmediate) {
                 if (!isImmediate) {
-                    MoPubLog.log(CUSTOM, "Image was not loaded immediately into your ad view. You should call preCacheImages as part of your custom event loading process.");
+                    MoPubLog.log(CUSTOM, "Image was not loaded immediately into your ad view. Images cached with preCacheImages are decoded at the size of the view on first use.");
                 }
                 imageView.setImageBitmap(imageContainer.getBitmap());
             }
@@ -131,6 +111,28 @@ public class NativeImageHelper {
                 MoPubLog.log(CUSTOM, "Failed to load image.", volleyError);
                 imageView.setImageDrawable(null);
             }
-        });
+        }, getKnownWidth(imageView), getKnownHeight(imageView));
+    }
+
+    /**
+     * @return the view's width if it has been laid out or has a fixed width, otherwise 0
+     */
+    private static int getKnownWidth(@NonNull final ImageView imageView) {
+        if (imageView.getWidth() > 0) {
+            return imageView.getWidth();
+        }
+        final ViewGroup.LayoutParams layoutParams = imageView.getLayoutParams();
+        return layoutParams != null && layoutParams.width > 0 ? layoutParams.width : 0;
+    }
+
+    /**
+     * @return the view's height if it has been laid out or has a fixed height, otherwise 0
+     */
+    private static int getKnownHeight(@NonNull final ImageView imageView) {
+        if (imageView.getHeight() > 0) {
+            return imageView.getHeight();
+        }
+        final ViewGroup.LayoutParams layoutParams = imageView.getLayoutParams();
+        return layoutParams != null && layoutParams.height > 0 ? layoutParams.height : 0;
     }
 }
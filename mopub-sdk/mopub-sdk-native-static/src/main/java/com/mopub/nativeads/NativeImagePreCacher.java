@@ -0,0 +1,369 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.Preconditions;
+import com.mopub.common.VisibleForTesting;
+import com.mopub.common.logging.MoPubLog;
+import com.mopub.nativeads.NativeImageHelper.ImageListener;
+import com.mopub.network.MaxWidthImageLoader;
+import com.mopub.network.Networking;
+import com.mopub.volley.Request;
+import com.mopub.volley.Response;
+import com.mopub.volley.VolleyError;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
+import static com.mopub.common.logging.MoPubLog.SdkLogEvent.ERROR_WITH_THROWABLE;
+
+/**
+ * Pre-caches the images of native ads. Each ad has required images, which must be in the disk
+ * cache before the ad is ready, and optional images, which are downloaded afterwards on a best
+ * effort basis. The first required image that fails fails the ad and cancels its other downloads.
+ *
+ * Images are only downloaded here, not decoded. They are decoded from disk when they are loaded
+ * into their view, at the size of that view, see {@link MaxWidthImageLoader#getForView}.
+ *
+ * Downloads from all ads share a global cap of {@link #MAX_CONCURRENT_DOWNLOADS}, and required
+ * images are always started before optional ones. Downloading happens on the Volley threads.
+ * Scheduling and listener callbacks happen on the main thread.
+ */
+public class NativeImagePreCacher {
+    static final int MAX_CONCURRENT_DOWNLOADS = 4;
+
+    @NonNull
+    private static final ArrayDeque<ImageAsset> sRequiredQueue = new ArrayDeque<>();
+    @NonNull
+    private static final ArrayDeque<ImageAsset> sOptionalQueue = new ArrayDeque<>();
+    @NonNull
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    private static int sInFlightCount;
+
+    /**
+     * A single image of a native ad, along with how long it waited for a download slot and how long
+     * the download took.
+     */
+    public static class ImageAsset {
+        public enum State {
+            QUEUED, LOADING, CACHED, FAILED, CANCELLED
+        }
+
+        @NonNull
+        private final String mUrl;
+        private final boolean mRequired;
+        @NonNull
+        private final Task mTask;
+        @NonNull
+        private State mState = State.QUEUED;
+        @Nullable
+        private Request<?> mRequest;
+        private long mQueuedUptimeMillis;
+        private long mStartUptimeMillis;
+        private long mEndUptimeMillis;
+
+        ImageAsset(@NonNull final String url, final boolean required, @NonNull final Task task) {
+            mUrl = url;
+            mRequired = required;
+            mTask = task;
+        }
+
+        @NonNull
+        public String getUrl() {
+            return mUrl;
+        }
+
+        public boolean isRequired() {
+            return mRequired;
+        }
+
+        @NonNull
+        public State getState() {
+            return mState;
+        }
+
+        /**
+         * @return time spent waiting for a download slot, or -1 if the download has not started
+         */
+        public long getWaitMillis() {
+            return mStartUptimeMillis > 0 ? mStartUptimeMillis - mQueuedUptimeMillis : -1;
+        }
+
+        /**
+         * @return time from the start of the download until the image was cached or failed, or -1
+         * if the download has not finished
+         */
+        public long getLoadMillis() {
+            return mEndUptimeMillis > 0 ? mEndUptimeMillis - mStartUptimeMillis : -1;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "ImageAsset{" +
+                    "url='" + mUrl + '\'' +
+                    ", required=" + mRequired +
+                    ", state=" + mState +
+                    ", waitMillis=" + getWaitMillis() +
+                    ", loadMillis=" + getLoadMillis() +
+                    '}';
+        }
+    }
+
+    /**
+     * The images of one native ad.
+     */
+    public static class Task {
+        @NonNull
+        private final Context mContext;
+        @NonNull
+        private final List<ImageAsset> mAssets = new ArrayList<>();
+        @NonNull
+        private final ImageListener mImageListener;
+        private int mRequiredRemaining;
+        private boolean mReady;
+        private boolean mFinished;
+
+        Task(@NonNull final Context context, @NonNull final ImageListener imageListener) {
+            mContext = context;
+            mImageListener = imageListener;
+        }
+
+        /**
+         * @return true once every required image is in the disk cache
+         */
+        public boolean isReady() {
+            return mReady;
+        }
+
+        /**
+         * Cancels every image that has not been cached yet, including optional ones. No listener
+         * callbacks are made after this.
+         */
+        public void cancel() {
+            runOnMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    mFinished = true;
+                    cancelAssets();
+                    scheduleDownloads();
+                }
+            });
+        }
+
+        @NonNull
+        public List<ImageAsset> getAssets() {
+            return Collections.unmodifiableList(mAssets);
+        }
+
+        private void onAssetCached(@NonNull final ImageAsset asset) {
+            if (!asset.mRequired || mFinished) {
+                return;
+            }
+
+            mRequiredRemaining--;
+            if (mRequiredRemaining == 0) {
+                mReady = true;
+                mImageListener.onImagesCached();
+            }
+        }
+
+        private void onAssetFailed(@NonNull final ImageAsset asset) {
+            if (!asset.mRequired) {
+                MoPubLog.log(CUSTOM, "Failed to pre-cache optional native ad image " +
+                        asset.mUrl);
+                return;
+            }
+            if (mFinished || mReady) {
+                return;
+            }
+
+            mFinished = true;
+            cancelAssets();
+            mImageListener.onImagesFailedToCache(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
+        }
+
+        private void cancelAssets() {
+            for (final ImageAsset asset : mAssets) {
+                cancelAsset(asset);
+            }
+        }
+    }
+
+    /**
+     * Starts pre-caching the images of one native ad. The listener is called on the main thread
+     * once every required image is cached, or once any required image fails.
+     *
+     * @param requiredUrls images the ad can not be shown without
+     * @param optionalUrls images that are downloaded after the required ones when there is room
+     * @return the pre-cache task, which can be cancelled if the ad is no longer needed
+     */
+    @NonNull
+    public static Task preCache(@NonNull final Context context,
+            @NonNull final List<String> requiredUrls,
+            @NonNull final List<String> optionalUrls,
+            @NonNull final ImageListener imageListener) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(requiredUrls);
+        Preconditions.checkNotNull(optionalUrls);
+        Preconditions.checkNotNull(imageListener);
+
+        final Task task = new Task(context.getApplicationContext(), imageListener);
+        for (final String url : requiredUrls) {
+            if (TextUtils.isEmpty(url)) {
+                task.mFinished = true;
+                runOnMainThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        imageListener.onImagesFailedToCache(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
+                    }
+                });
+                return task;
+            }
+            task.mAssets.add(new ImageAsset(url, true, task));
+        }
+        for (final String url : optionalUrls) {
+            if (!TextUtils.isEmpty(url)) {
+                task.mAssets.add(new ImageAsset(url, false, task));
+            }
+        }
+        task.mRequiredRemaining = requiredUrls.size();
+
+        runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                enqueue(task);
+            }
+        });
+        return task;
+    }
+
+    private static void enqueue(@NonNull final Task task) {
+        if (task.mFinished) {
+            return;
+        }
+        if (task.mRequiredRemaining == 0) {
+            task.mReady = true;
+            task.mImageListener.onImagesCached();
+        }
+
+        final long now = SystemClock.uptimeMillis();
+        for (final ImageAsset asset : task.mAssets) {
+            asset.mQueuedUptimeMillis = now;
+            if (asset.mRequired) {
+                sRequiredQueue.addLast(asset);
+            } else {
+                sOptionalQueue.addLast(asset);
+            }
+        }
+        scheduleDownloads();
+    }
+
+    private static void scheduleDownloads() {
+        while (sInFlightCount < MAX_CONCURRENT_DOWNLOADS) {
+            final ImageAsset asset = sRequiredQueue.isEmpty()
+                    ? sOptionalQueue.pollFirst()
+                    : sRequiredQueue.pollFirst();
+            if (asset == null) {
+                return;
+            }
+            if (asset.mState == ImageAsset.State.QUEUED) {
+                startDownload(asset);
+            }
+        }
+    }
+
+    private static void startDownload(@NonNull final ImageAsset asset) {
+        asset.mState = ImageAsset.State.LOADING;
+        asset.mStartUptimeMillis = SystemClock.uptimeMillis();
+        sInFlightCount++;
+
+        final MaxWidthImageLoader imageLoader = Networking.getImageLoader(asset.mTask.mContext);
+        final Request<?> request = imageLoader.preCache(asset.mUrl,
+                new Response.Listener<Void>() {
+                    @Override
+                    public void onResponse(final Void response) {
+                        onDownloadFinished(asset, true);
+                    }
+                },
+                new Response.ErrorListener() {
+                    @Override
+                    public void onErrorResponse(final VolleyError volleyError) {
+                        MoPubLog.log(ERROR_WITH_THROWABLE,
+                                "Failed to download a native ads image:", volleyError);
+                        onDownloadFinished(asset, false);
+                    }
+                });
+        if (asset.mState == ImageAsset.State.LOADING) {
+            asset.mRequest = request;
+        }
+    }
+
+    private static void onDownloadFinished(@NonNull final ImageAsset asset,
+            final boolean success) {
+        if (asset.mState != ImageAsset.State.LOADING) {
+            return;
+        }
+
+        asset.mEndUptimeMillis = SystemClock.uptimeMillis();
+        asset.mState = success ? ImageAsset.State.CACHED : ImageAsset.State.FAILED;
+        asset.mRequest = null;
+        sInFlightCount--;
+
+        if (success) {
+            asset.mTask.onAssetCached(asset);
+        } else {
+            asset.mTask.onAssetFailed(asset);
+        }
+        scheduleDownloads();
+    }
+
+    private static void cancelAsset(@NonNull final ImageAsset asset) {
+        if (asset.mState == ImageAsset.State.LOADING) {
+            if (asset.mRequest != null) {
+                asset.mRequest.cancel();
+                asset.mRequest = null;
+            }
+            sInFlightCount--;
+            asset.mState = ImageAsset.State.CANCELLED;
+        } else if (asset.mState == ImageAsset.State.QUEUED) {
+            // Left in its queue and skipped when it comes up.
+            asset.mState = ImageAsset.State.CANCELLED;
+        }
+    }
+
+    private static void runOnMainThread(@NonNull final Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+            return;
+        }
+        sMainHandler.post(runnable);
+    }
+
+    @VisibleForTesting
+    static int getInFlightCountForTesting() {
+        return sInFlightCount;
+    }
+
+    @Deprecated
+    @VisibleForTesting
+    public static void clearForTesting() {
+        sRequiredQueue.clear();
+        sOptionalQueue.clear();
+        sInFlightCount = 0;
+    }
+}
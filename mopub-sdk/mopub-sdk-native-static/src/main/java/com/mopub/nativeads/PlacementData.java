@@ -119,10 +119,16 @@ import static com.mopub.common.logging.MoPubLog.SdkLogEvent.CUSTOM;
  * originalPositions: {3}
  * adjustedPositions: {3}
  *
+ * The desired and placed lists are kept in {@link PositionTree}s, so there is no limit on the
+ * number of ads in a stream. Repeating insertion positions are generated as the stream reaches
+ * them instead of all at once.
+ *
  * Some runtime guarantees in terms of number of insertion ads:
  * - Finds the next or previous insertion position in O(logN)
  * - Maps from adjusted to original positions and vice versa in O(logN)
- * - Places an ad (moves positions from desired to placed) in O(N)
+ * - Places an ad (moves positions from desired to placed) in O(logN)
+ * - Inserts, removes or moves a content item in O(logN)
+ * - Clears K ads in O(K logN)
  */
 class PlacementData {
     /**
@@ -130,36 +136,38 @@ class PlacementData {
      */
     public final static int NOT_FOUND = -1;
 
-    // Cap the number of ads to avoid unrestrained memory usage. 200 allows the 5 positioning
-    // arrays to fit in less than 4K.
-    private final static int MAX_ADS = 200;
+    // Entries hold the desired original position and the desired insertion position.
+    @NonNull private final PositionTree mDesired = new PositionTree();
+    // Entries hold the original position, the adjusted position and the placed ad.
+    @NonNull private final PositionTree mPlaced = new PositionTree();
 
-    // Initialize all of these to their max capacity. This prevents garbage collection when
-    // reallocating the list, which causes noticeable stuttering when scrolling on some devices.
-    @NonNull private final int[] mDesiredOriginalPositions = new int[MAX_ADS];
-    @NonNull private final int[] mDesiredInsertionPositions = new int[MAX_ADS];
-    private int mDesiredCount = 0;
-    @NonNull private final int[] mOriginalAdPositions = new int[MAX_ADS];
-    @NonNull private final int[] mAdjustedAdPositions = new int[MAX_ADS];
-    @NonNull private final NativeAd[] mNativeAds = new NativeAd[MAX_ADS];
-    private int mPlacedCount = 0;
+    // Distance between repeating insertion positions, or 0 if positions do not repeat.
+    private final int mRepeatingStep;
+    // Positions of the first repeating entry that has not been added to mDesired yet. Every shift
+    // applied to the end of mDesired is applied to these too.
+    private int mNextRepeatingOriginal;
+    private int mNextRepeatingInsertion;
 
     /**
      * @param desiredInsertionPositions Insertion positions, expressed as original positions
+     * @param firstRepeatingPosition    First repeating insertion position, if repeatingStep > 0
+     * @param repeatingStep             Distance between repeating insertion positions, or 0
      */
-    private PlacementData(@NonNull final int[] desiredInsertionPositions) {
-        mDesiredCount = Math.min(desiredInsertionPositions.length, MAX_ADS);
-        System.arraycopy(desiredInsertionPositions, 0, mDesiredInsertionPositions, 0, mDesiredCount);
-        System.arraycopy(desiredInsertionPositions, 0, mDesiredOriginalPositions, 0, mDesiredCount);
+    private PlacementData(@NonNull final int[] desiredInsertionPositions,
+            final int firstRepeatingPosition, final int repeatingStep) {
+        for (final int position : desiredInsertionPositions) {
+            mDesired.add(position, position, null);
+        }
+        mRepeatingStep = repeatingStep;
+        mNextRepeatingOriginal = firstRepeatingPosition;
+        mNextRepeatingInsertion = firstRepeatingPosition;
     }
 
     @NonNull
     static PlacementData fromAdPositioning(@NonNull final MoPubClientPositioning adPositioning) {
         final List<Integer> fixed = adPositioning.getFixedPositions();
         final int interval = adPositioning.getRepeatingInterval();
-
-        final int size = (interval == MoPubClientPositioning.NO_REPEAT ? fixed.size() : MAX_ADS);
-        final int[] desiredInsertionPositions = new int[size];
+        final int[] desiredInsertionPositions = new int[fixed.size()];
 
         // Fixed positions are in terms of final positions. Calculate current insertion positions
         // by decrementing numAds at each index.
@@ -170,25 +178,25 @@ class PlacementData {
             desiredInsertionPositions[numAds++] = lastPos;
         }
 
-        // Expand the repeating positions, if there are any
-        while (numAds < size) {
-            lastPos = lastPos + interval - 1;
-            desiredInsertionPositions[numAds++] = lastPos;
+        // Repeating positions, if there are any, continue from the last fixed position.
+        if (interval == MoPubClientPositioning.NO_REPEAT) {
+            return new PlacementData(desiredInsertionPositions, 0, 0);
         }
-        return new PlacementData(desiredInsertionPositions);
+        return new PlacementData(desiredInsertionPositions, lastPos + interval - 1, interval - 1);
     }
 
     @NonNull
     static PlacementData empty() {
-        return new PlacementData(new int[] {});
+        return new PlacementData(new int[] {}, 0, 0);
     }
 
     /**
      * Whether the given position should be an ad.
      */
     boolean shouldPlaceAd(final int position) {
-        final int index = binarySearch(mDesiredInsertionPositions, 0, mDesiredCount, position);
-        return index >= 0;
+        expandRepeatingPositions(position);
+        final int index = mDesired.searchAdjusted(position, true);
+        return index < mDesired.size() && mDesired.get(index).adjusted == position;
     }
 
     /**
@@ -196,25 +204,25 @@ class PlacementData {
      * more ads.
      */
     int nextInsertionPosition(final int position) {
-        final int index = binarySearchGreaterThan(
-                mDesiredInsertionPositions, mDesiredCount, position);
-        if (index == mDesiredCount) {
+        expandRepeatingPositions(position);
+        final int index = mDesired.searchAdjusted(position, false);
+        if (index == mDesired.size() && !addNextRepeatingPosition()) {
             return NOT_FOUND;
         }
-        return mDesiredInsertionPositions[index];
+        return mDesired.get(index).adjusted;
     }
 
     /**
-     * The next position after this position that should be an ad. Returns NOT_FOUND if there
-     * are no more ads.
+     * The previous position before this position that should be an ad. Returns NOT_FOUND if there
+     * are no ads before it.
      */
     int previousInsertionPosition(final int position) {
-        final int index = binarySearchFirstEquals(
-                mDesiredInsertionPositions,  mDesiredCount, position);
+        expandRepeatingPositions(position);
+        final int index = mDesired.searchAdjusted(position, true);
         if (index == 0) {
             return NOT_FOUND;
         }
-        return mDesiredInsertionPositions[index - 1];
+        return mDesired.get(index - 1).adjusted;
     }
 
     /**
@@ -222,54 +230,31 @@ class PlacementData {
      */
     void placeAd(final int adjustedPosition, final NativeAd nativeAd) {
         // See if this is a insertion ad
-        final int desiredIndex = binarySearchFirstEquals(
-                mDesiredInsertionPositions, mDesiredCount, adjustedPosition);
-        if (desiredIndex == mDesiredCount
-                || mDesiredInsertionPositions[desiredIndex] != adjustedPosition) {
+        expandRepeatingPositions(adjustedPosition);
+        final int desiredIndex = mDesired.searchAdjusted(adjustedPosition, true);
+        if (desiredIndex == mDesired.size()
+                || mDesired.get(desiredIndex).adjusted != adjustedPosition) {
             MoPubLog.log(CUSTOM, "Attempted to insert an ad at an invalid position");
             return;
         }
 
-        // Add to placed array
-        final int originalPosition = mDesiredOriginalPositions[desiredIndex];
-        int placeIndex = binarySearchGreaterThan(
-                mOriginalAdPositions, mPlacedCount, originalPosition);
-        if (placeIndex < mPlacedCount) {
-            final int num = mPlacedCount - placeIndex;
-            System.arraycopy(mOriginalAdPositions, placeIndex,
-                    mOriginalAdPositions, placeIndex + 1, num);
-            System.arraycopy(mAdjustedAdPositions, placeIndex,
-                    mAdjustedAdPositions, placeIndex + 1, num);
-            System.arraycopy(mNativeAds, placeIndex, mNativeAds, placeIndex + 1, num);
-        }
-        mOriginalAdPositions[placeIndex] = originalPosition;
-        mAdjustedAdPositions[placeIndex] = adjustedPosition;
-        mNativeAds[placeIndex] = nativeAd;
-        mPlacedCount++;
-
-        // Remove desired index
-        final int num = mDesiredCount - desiredIndex - 1;
-        System.arraycopy(mDesiredInsertionPositions, desiredIndex + 1,
-                mDesiredInsertionPositions, desiredIndex, num);
-        System.arraycopy(mDesiredOriginalPositions, desiredIndex + 1,
-                mDesiredOriginalPositions, desiredIndex, num);
-        mDesiredCount--;
+        // Move the entry from the desired list to the placed list, in front of any ad already at
+        // this position so both lists stay in order.
+        final PositionTree.Entry entry = mDesired.remove(desiredIndex);
+        entry.nativeAd = nativeAd;
+        final int placeIndex = mPlaced.searchAdjusted(adjustedPosition, true);
+        mPlaced.insert(placeIndex, entry);
 
         // Increment adjusted positions
-        for (int i = desiredIndex; i < mDesiredCount; ++i) {
-            mDesiredInsertionPositions[i]++;
-        }
-        for (int i = placeIndex + 1; i < mPlacedCount; ++i) {
-            mAdjustedAdPositions[i]++;
-        }
+        shiftDesired(desiredIndex, 0, 1);
+        mPlaced.addToSuffix(placeIndex + 1, 0, 1);
     }
 
     /**
      * @see {@link com.mopub.nativeads.MoPubStreamAdPlacer#isAd(int)}
      */
     boolean isPlacedAd(final int position) {
-        final int index = binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
-        return index >= 0;
+        return mPlaced.indexOfAdjusted(position) >= 0;
     }
 
     /**
@@ -278,11 +263,11 @@ class PlacementData {
      */
     @Nullable
     NativeAd getPlacedAd(final int position) {
-        final int index = binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
+        final int index = mPlaced.indexOfAdjusted(position);
         if (index < 0) {
             return null;
         }
-        return mNativeAds[index];
+        return mPlaced.get(index).nativeAd;
     }
 
     /**
@@ -291,33 +276,29 @@ class PlacementData {
      */
     @NonNull
     int[] getPlacedAdPositions() {
-        int[] positions = new int[mPlacedCount];
-        System.arraycopy(mAdjustedAdPositions, 0, positions, 0, mPlacedCount);
-        return positions;
+        return mPlaced.getAdjustedPositions();
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#getOriginalPosition(int)
      */
     int getOriginalPosition(final int position) {
-        final int index = binarySearch(mAdjustedAdPositions, 0, mPlacedCount, position);
-
-        // No match, ~index is the number of ads before this pos.
-        if (index < 0) {
-            return position - ~index;
+        // index is the number of ads before this pos.
+        final int index = mPlaced.searchAdjusted(position, true);
+        if (index < mPlaced.size() && mPlaced.get(index).adjusted == position) {
+            // This is an ad - there is no original position
+            return NOT_FOUND;
         }
-
-        // This is an ad - there is no original position
-        return NOT_FOUND;
+        return position - index;
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#getAdjustedPosition(int)
      */
     int getAdjustedPosition(final int originalPosition) {
-        // This is an ad. Since binary search doesn't properly handle dups, find the first non-ad.
-        int index = binarySearchGreaterThan(mOriginalAdPositions, mPlacedCount, originalPosition);
-        return originalPosition + index;
+        // Ads share the original position of the item after them, so count every ad up to and
+        // including that position.
+        return originalPosition + mPlaced.searchOriginal(originalPosition, false);
     }
 
     /**
@@ -349,62 +330,42 @@ class PlacementData {
      * positions.
      */
     int clearAdsInRange(final int adjustedStartRange, final int adjustedEndRange) {
-        // Temporary arrays to store the cleared positions. Using temporary arrays makes it
-        // easy to debug what positions are being cleared.
-        int[] clearOriginalPositions = new int[mPlacedCount];
-        int[] clearAdjustedPositions = new int[mPlacedCount];
-        int clearCount = 0;
-
-        // Add to the clear position arrays any positions that fall inside
-        // [adjustedRangeStart, adjustedRangeEnd).
-        for (int i = 0; i < mPlacedCount; ++i) {
-            int originalPosition = mOriginalAdPositions[i];
-            int adjustedPosition = mAdjustedAdPositions[i];
-            if (adjustedStartRange <= adjustedPosition && adjustedPosition < adjustedEndRange) {
-                // When copying adjusted positions, subtract the current clear count because there
-                // is no longer an ad incrementing the desired insertion position.
-                clearOriginalPositions[clearCount] = originalPosition;
-                clearAdjustedPositions[clearCount] = adjustedPosition - clearCount;
-
-                // Destroying and nulling out the ad objects to avoids a memory leak.
-                mNativeAds[i].destroy();
-                mNativeAds[i] = null;
-                clearCount++;
-            } else if (clearCount > 0) {
-                // The position is not in the range; shift it by the number of cleared ads.
-                int newIndex = i - clearCount;
-                mOriginalAdPositions[newIndex] = originalPosition;
-                mAdjustedAdPositions[newIndex] = adjustedPosition - clearCount;
-                mNativeAds[newIndex] = mNativeAds[i];
-            }
-        }
+        // Placed ads in [adjustedRangeStart, adjustedRangeEnd) are contiguous in the placed list.
+        final int startIndex = mPlaced.searchAdjusted(adjustedStartRange, true);
+        final int endIndex = mPlaced.searchAdjusted(adjustedEndRange, true);
 
         // If we have cleared nothing, this method was a no-op.
-        if (clearCount == 0) {
+        if (endIndex <= startIndex) {
             return 0;
         }
 
-        // Modify the desired positions arrays in order to make space to put back the
-        // cleared ad positions. For example if the desired array was {1, 10,
-        // 15} and we need to insert {3, 7} we'll shift the desired array to be {1, ?, ? , 10, 15}.
-        int firstCleared = clearAdjustedPositions[0];
-        int desiredIndex = binarySearchFirstEquals(
-                mDesiredInsertionPositions, mDesiredCount, firstCleared);
-        for (int i = mDesiredCount - 1; i >= desiredIndex; --i) {
-            mDesiredOriginalPositions[i + clearCount] = mDesiredOriginalPositions[i];
-            mDesiredInsertionPositions[i + clearCount] = mDesiredInsertionPositions[i] - clearCount;
+        // Clear from the last ad back so the positions of the ads still to clear do not move.
+        for (int i = endIndex - 1; i >= startIndex; --i) {
+            clearAd(i);
         }
+        return endIndex - startIndex;
+    }
 
-        // Copy the cleared ad positions into the desired arrays.
-        for (int i = 0; i < clearCount; ++i) {
-            mDesiredOriginalPositions[desiredIndex + i] = clearOriginalPositions[i];
-            mDesiredInsertionPositions[desiredIndex + i] = clearAdjustedPositions[i];
+    /**
+     * Moves the placed ad at the given index back into the desired positions. Every position
+     * after the ad moves back by one, including desired positions, so desired positions between
+     * cleared ads stay in order.
+     */
+    private void clearAd(final int placedIndex) {
+        final PositionTree.Entry entry = mPlaced.remove(placedIndex);
+        mPlaced.addToSuffix(placedIndex, 0, -1);
+
+        // Destroying and nulling out the ad objects to avoids a memory leak.
+        if (entry.nativeAd != null) {
+            entry.nativeAd.destroy();
+            entry.nativeAd = null;
         }
 
-        // Update the array counts, and we're done.
-        mDesiredCount = mDesiredCount + clearCount;
-        mPlacedCount = mPlacedCount - clearCount;
-        return clearCount;
+        // Desired positions equal to the ad's own position stay where they are, behind the cleared
+        // position, so the desired list stays in order.
+        expandRepeatingPositions(entry.adjusted);
+        shiftDesired(mDesired.searchAdjusted(entry.adjusted, false), 0, -1);
+        mDesired.insert(mDesired.searchAdjusted(entry.adjusted, true), entry);
     }
 
     /**
@@ -412,59 +373,70 @@ class PlacementData {
      * will be back to the desired insertion positions.
      */
     void clearAds() {
-        if (mPlacedCount == 0) {
+        if (mPlaced.size() == 0) {
             return;
         }
 
-        clearAdsInRange(0, mAdjustedAdPositions[mPlacedCount - 1] + 1);
+        clearAdsInRange(0, mPlaced.get(mPlaced.size() - 1).adjusted + 1);
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#insertItem(int)
      */
     void insertItem(final int originalPosition) {
+        expandRepeatingPositions(originalPosition);
 
-        // Increment desired arrays.
-        int indexToIncrement = binarySearchFirstEquals(
-                mDesiredOriginalPositions, mDesiredCount, originalPosition);
-        for (int i = indexToIncrement; i < mDesiredCount; ++i) {
-            mDesiredOriginalPositions[i]++;
-            mDesiredInsertionPositions[i]++;
-        }
+        // Increment desired positions.
+        shiftDesired(mDesired.searchOriginal(originalPosition, true), 1, 1);
 
-        // Increment placed arrays.
-        indexToIncrement = binarySearchFirstEquals(
-                mOriginalAdPositions, mPlacedCount, originalPosition);
-        for (int i = indexToIncrement; i < mPlacedCount; ++i) {
-            mOriginalAdPositions[i]++;
-            mAdjustedAdPositions[i]++;
-        }
+        // Increment placed positions.
+        mPlaced.addToSuffix(mPlaced.searchOriginal(originalPosition, true), 1, 1);
     }
 
     /**
      * @see com.mopub.nativeads.MoPubStreamAdPlacer#removeItem(int)
      */
     void removeItem(final int originalPosition) {
+        expandRepeatingPositions(originalPosition);
+
         // When removing items, we only decrement ad position values *greater* than the original
         // position we're removing. The original position associated with an ad is the original
         // position of the first content item after the ad, so we shouldn't change the original
         // position of an ad that matches the original position removed.
-        int indexToDecrement = binarySearchGreaterThan(
-                mDesiredOriginalPositions, mDesiredCount, originalPosition);
+        shiftDesired(mDesired.searchOriginal(originalPosition, false), -1, -1);
+        mPlaced.addToSuffix(mPlaced.searchOriginal(originalPosition, false), -1, -1);
+    }
 
-        // Decrement desired arrays.
-        for (int i = indexToDecrement; i < mDesiredCount; ++i) {
-            mDesiredOriginalPositions[i]--;
-            mDesiredInsertionPositions[i]--;
+    /**
+     * Same as calling {@link #insertItem(int)} count times, in O(logN).
+     *
+     * @see com.mopub.nativeads.MoPubStreamAdPlacer#insertItems(int, int)
+     */
+    void insertItems(final int originalPosition, final int count) {
+        if (count <= 0) {
+            return;
         }
 
-        indexToDecrement = binarySearchGreaterThan(
-                mOriginalAdPositions, mPlacedCount, originalPosition);
+        expandRepeatingPositions(originalPosition);
+        shiftDesired(mDesired.searchOriginal(originalPosition, true), count, count);
+        mPlaced.addToSuffix(mPlaced.searchOriginal(originalPosition, true), count, count);
+    }
 
-        for (int i = indexToDecrement; i < mPlacedCount; ++i) {
-            mOriginalAdPositions[i]--;
-            mAdjustedAdPositions[i]--;
+    /**
+     * Same as calling {@link #removeItem(int)} count times. Runs in O(logN) plus O(logN) for each
+     * ad whose item is removed.
+     *
+     * @see com.mopub.nativeads.MoPubStreamAdPlacer#removeItems(int, int)
+     */
+    void removeItems(final int originalPosition, final int count) {
+        if (count <= 0) {
+            return;
         }
+
+        expandRepeatingPositions(originalPosition + count);
+        shiftDesired(collapseRemovedItems(mDesired, originalPosition, count), -count, -count);
+        mPlaced.addToSuffix(collapseRemovedItems(mPlaced, originalPosition, count),
+                -count, -count);
     }
 
     /**
@@ -475,59 +447,61 @@ class PlacementData {
         insertItem(newPosition);
     }
 
-    private static int binarySearchFirstEquals(int[] array, int count, int value) {
-        int index = binarySearch(array, 0, count, value);
-
-        // If not found, binarySearch returns the 2's complement of the index of the nearest
-        // value higher than the target value, which is also the insertion index.
-        if (index < 0) {
-            return ~index;
-        }
-
-        int duplicateValue = array[index];
-        while (index >= 0 && array[index] == duplicateValue) {
-            index--;
+    /**
+     * Moves entries in front of the removed items [originalPosition + 1, originalPosition + count]
+     * to originalPosition, where they stay in front of the first item after the removed ones.
+     *
+     * @return index of the first entry after the removed items
+     */
+    private static int collapseRemovedItems(@NonNull final PositionTree tree,
+            final int originalPosition, final int count) {
+        int index = tree.searchOriginal(originalPosition, false);
+        while (index < tree.size()) {
+            final int delta = tree.get(index).original - originalPosition;
+            if (delta > count) {
+                break;
+            }
+            tree.addToEntry(index, -delta, -delta);
+            index++;
         }
-
-        return index + 1;
+        return index;
     }
 
-    private static int binarySearchGreaterThan(int[] array, int count, int value) {
-        int index = binarySearch(array, 0, count, value);
-
-        // If not found, binarySearch returns the 2's complement of the index of the nearest
-        // value higher than the target value, which is also the insertion index.
-        if (index < 0) {
-            return ~index;
-        }
-
-        int duplicateValue = array[index];
-        while (index < count && array[index] == duplicateValue) {
-            index++;
+    /**
+     * Adds repeating entries to the desired list until every entry that is not in it yet has
+     * positions greater than the given position. Searches for positions up to this one then
+     * behave as if the repeating entries were all there, and a shift of the end of the desired
+     * list applies to all of the remaining repeating entries alike.
+     */
+    private void expandRepeatingPositions(final int position) {
+        // Insertion positions are never less than original positions, so the original position
+        // is the one to check.
+        boolean added = true;
+        while (added && mNextRepeatingOriginal <= position) {
+            added = addNextRepeatingPosition();
         }
-
-        return index;
     }
 
     /**
-     * Copied from Arrays.java, which isn't available until Gingerbread.
+     * Adds the next repeating entry to the end of the desired list. Returns false if positions do
+     * not repeat or the next entry would overflow.
      */
-    private static int binarySearch(int[] array, int startIndex, int endIndex, int value) {
-        int lo = startIndex;
-        int hi = endIndex - 1;
-
-        while (lo <= hi) {
-            int mid = (lo + hi) >>> 1;
-            int midVal = array[mid];
-
-            if (midVal < value) {
-                lo = mid + 1;
-            } else if (midVal > value) {
-                hi = mid - 1;
-            } else {
-                return mid;  // value found
-            }
+    private boolean addNextRepeatingPosition() {
+        if (mRepeatingStep <= 0
+                || mNextRepeatingInsertion > Integer.MAX_VALUE - mRepeatingStep) {
+            return false;
         }
-        return ~lo;  // value not present
+
+        mDesired.add(mNextRepeatingOriginal, mNextRepeatingInsertion, null);
+        mNextRepeatingOriginal += mRepeatingStep;
+        mNextRepeatingInsertion += mRepeatingStep;
+        return true;
+    }
+
+    private void shiftDesired(final int index, final int originalDelta,
+            final int insertionDelta) {
+        mDesired.addToSuffix(index, originalDelta, insertionDelta);
+        mNextRepeatingOriginal += originalDelta;
+        mNextRepeatingInsertion += insertionDelta;
     }
 }
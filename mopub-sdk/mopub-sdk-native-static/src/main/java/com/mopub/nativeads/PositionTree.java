@@ -0,0 +1,271 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Random;
+
+/**
+ * An ordered list of (original position, adjusted position, ad) entries, backed by an implicit
+ * treap. Both positions must be non-decreasing from one entry to the next, which lets the list be
+ * searched by either position.
+ *
+ * Some runtime guarantees in terms of number of entries:
+ * - Gets, inserts and removes entries by index in O(logN)
+ * - Finds the first entry at or after a position in O(logN)
+ * - Shifts the positions of every entry from an index to the end in O(logN)
+ *
+ * Removed entries can be inserted again, into this or another tree, without allocating.
+ */
+class PositionTree {
+
+    static class Entry {
+        int original;
+        int adjusted;
+        @Nullable NativeAd nativeAd;
+
+        private int mPriority;
+        private int mSize;
+        private int mPendingOriginal;
+        private int mPendingAdjusted;
+        @Nullable private Entry mLeft;
+        @Nullable private Entry mRight;
+
+        Entry(final int original, final int adjusted, @Nullable final NativeAd nativeAd) {
+            this.original = original;
+            this.adjusted = adjusted;
+            this.nativeAd = nativeAd;
+        }
+    }
+
+    @NonNull private final Random mRandom = new Random();
+    @Nullable private Entry mRoot;
+
+    // Results of the last split. Kept as fields so splitting does not allocate.
+    @Nullable private Entry mSplitLeft;
+    @Nullable private Entry mSplitRight;
+
+    int size() {
+        return size(mRoot);
+    }
+
+    @NonNull
+    Entry get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+        }
+
+        Entry entry = mRoot;
+        int remaining = index;
+        while (true) {
+            pushDown(entry);
+            final int leftSize = size(entry.mLeft);
+            if (remaining < leftSize) {
+                entry = entry.mLeft;
+            } else if (remaining == leftSize) {
+                return entry;
+            } else {
+                remaining -= leftSize + 1;
+                entry = entry.mRight;
+            }
+        }
+    }
+
+    /**
+     * Inserts the entry so that it ends up at the given index.
+     */
+    void insert(final int index, @NonNull final Entry entry) {
+        entry.mPriority = mRandom.nextInt();
+        entry.mSize = 1;
+        entry.mPendingOriginal = 0;
+        entry.mPendingAdjusted = 0;
+        entry.mLeft = null;
+        entry.mRight = null;
+
+        split(mRoot, index);
+        final Entry right = mSplitRight;
+        mRoot = merge(merge(mSplitLeft, entry), right);
+    }
+
+    void add(final int original, final int adjusted, @Nullable final NativeAd nativeAd) {
+        insert(size(), new Entry(original, adjusted, nativeAd));
+    }
+
+    /**
+     * Removes and returns the entry at the given index.
+     */
+    @NonNull
+    Entry remove(final int index) {
+        final Entry entry = get(index);
+        split(mRoot, index);
+        final Entry left = mSplitLeft;
+        split(mSplitRight, 1);
+        mRoot = merge(left, mSplitRight);
+        return entry;
+    }
+
+    /**
+     * Adds the given deltas to the positions of every entry from the index to the end.
+     */
+    void addToSuffix(final int index, final int originalDelta, final int adjustedDelta) {
+        if (originalDelta == 0 && adjustedDelta == 0) {
+            return;
+        }
+        split(mRoot, index);
+        final Entry left = mSplitLeft;
+        final Entry right = mSplitRight;
+        shift(right, originalDelta, adjustedDelta);
+        mRoot = merge(left, right);
+    }
+
+    /**
+     * Adds the given deltas to the positions of the entry at the index. The entry must stay in
+     * order with its neighbours.
+     */
+    void addToEntry(final int index, final int originalDelta, final int adjustedDelta) {
+        // get() pushes pending shifts down to the entry, so only the entry itself changes.
+        final Entry entry = get(index);
+        entry.original += originalDelta;
+        entry.adjusted += adjustedDelta;
+    }
+
+    /**
+     * @return index of the first entry whose original position is at least (or, if not
+     * inclusive, greater than) the given position, or size() if there is none
+     */
+    int searchOriginal(final int position, final boolean inclusive) {
+        return search(position, false, inclusive);
+    }
+
+    /**
+     * @return index of the first entry whose adjusted position is at least (or, if not
+     * inclusive, greater than) the given position, or size() if there is none
+     */
+    int searchAdjusted(final int position, final boolean inclusive) {
+        return search(position, true, inclusive);
+    }
+
+    /**
+     * @return index of the entry with the given adjusted position, or -1 if there is none
+     */
+    int indexOfAdjusted(final int position) {
+        final int index = searchAdjusted(position, true);
+        if (index < size() && get(index).adjusted == position) {
+            return index;
+        }
+        return -1;
+    }
+
+    @NonNull
+    int[] getAdjustedPositions() {
+        final int[] positions = new int[size()];
+        collectAdjusted(mRoot, positions, 0);
+        return positions;
+    }
+
+    private int search(final int position, final boolean adjusted, final boolean inclusive) {
+        int result = size();
+        int offset = 0;
+        Entry entry = mRoot;
+        while (entry != null) {
+            pushDown(entry);
+            final int value = adjusted ? entry.adjusted : entry.original;
+            if (inclusive ? value >= position : value > position) {
+                result = offset + size(entry.mLeft);
+                entry = entry.mLeft;
+            } else {
+                offset += size(entry.mLeft) + 1;
+                entry = entry.mRight;
+            }
+        }
+        return result;
+    }
+
+    private static int collectAdjusted(@Nullable final Entry entry, @NonNull final int[] positions,
+            final int offset) {
+        if (entry == null) {
+            return offset;
+        }
+        pushDown(entry);
+        int index = collectAdjusted(entry.mLeft, positions, offset);
+        positions[index++] = entry.adjusted;
+        return collectAdjusted(entry.mRight, positions, index);
+    }
+
+    /**
+     * Splits the tree so that mSplitLeft holds its first count entries and mSplitRight the rest.
+     */
+    private void split(@Nullable final Entry entry, final int count) {
+        if (entry == null) {
+            mSplitLeft = null;
+            mSplitRight = null;
+            return;
+        }
+
+        pushDown(entry);
+        if (size(entry.mLeft) >= count) {
+            split(entry.mLeft, count);
+            entry.mLeft = mSplitRight;
+            update(entry);
+            mSplitRight = entry;
+        } else {
+            split(entry.mRight, count - size(entry.mLeft) - 1);
+            entry.mRight = mSplitLeft;
+            update(entry);
+            mSplitLeft = entry;
+        }
+    }
+
+    @Nullable
+    private static Entry merge(@Nullable final Entry left, @Nullable final Entry right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.mPriority > right.mPriority) {
+            pushDown(left);
+            left.mRight = merge(left.mRight, right);
+            update(left);
+            return left;
+        }
+        pushDown(right);
+        right.mLeft = merge(left, right.mLeft);
+        update(right);
+        return right;
+    }
+
+    private static int size(@Nullable final Entry entry) {
+        return entry == null ? 0 : entry.mSize;
+    }
+
+    private static void update(@NonNull final Entry entry) {
+        entry.mSize = 1 + size(entry.mLeft) + size(entry.mRight);
+    }
+
+    private static void shift(@Nullable final Entry entry, final int originalDelta,
+            final int adjustedDelta) {
+        if (entry == null) {
+            return;
+        }
+        entry.original += originalDelta;
+        entry.adjusted += adjustedDelta;
+        entry.mPendingOriginal += originalDelta;
+        entry.mPendingAdjusted += adjustedDelta;
+    }
+
+    private static void pushDown(@NonNull final Entry entry) {
+        if (entry.mPendingOriginal != 0 || entry.mPendingAdjusted != 0) {
+            shift(entry.mLeft, entry.mPendingOriginal, entry.mPendingAdjusted);
+            shift(entry.mRight, entry.mPendingOriginal, entry.mPendingAdjusted);
+            entry.mPendingOriginal = 0;
+            entry.mPendingAdjusted = 0;
+        }
+    }
+}
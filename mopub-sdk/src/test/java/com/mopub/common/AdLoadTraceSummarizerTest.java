@@ -0,0 +1,96 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class AdLoadTraceSummarizerTest {
+    private static final String AD_UNIT_ID = "adUnitId";
+
+    private AdLoadTraceSummarizer subject;
+
+    @Before
+    public void setUp() {
+        subject = new AdLoadTraceSummarizer();
+    }
+
+    @Test
+    public void onSpan_shouldGroupByAdUnitAndStage() {
+        subject.onSpan(AdLoadTracer.Stage.NETWORK, AD_UNIT_ID, "a", 0, 40, true);
+        subject.onSpan(AdLoadTracer.Stage.NETWORK, AD_UNIT_ID, "b", 0, 60, false);
+        subject.onSpan(AdLoadTracer.Stage.PARSE, AD_UNIT_ID, "a", 0, 3, true);
+        subject.onSpan(AdLoadTracer.Stage.NETWORK, null, null, 0, 3, true);
+
+        final Map<String, Map<AdLoadTracer.Stage, AdLoadTraceSummarizer.Histogram>> histograms =
+                subject.getHistograms();
+
+        final AdLoadTraceSummarizer.Histogram network =
+                histograms.get(AD_UNIT_ID).get(AdLoadTracer.Stage.NETWORK);
+        assertThat(network.getCount()).isEqualTo(2);
+        assertThat(network.getFailureCount()).isEqualTo(1);
+        assertThat(network.getTotalMillis()).isEqualTo(100);
+        assertThat(histograms.get(AD_UNIT_ID).get(AdLoadTracer.Stage.PARSE).getCount())
+                .isEqualTo(1);
+        assertThat(histograms.get(AdLoadTraceSummarizer.UNKNOWN_AD_UNIT)
+                .get(AdLoadTracer.Stage.NETWORK).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void histogram_shouldPutDurationsInBucketsByUpperBound() {
+        subject.onSpan(AdLoadTracer.Stage.RENDER, AD_UNIT_ID, null, 0, 0, true);
+        subject.onSpan(AdLoadTracer.Stage.RENDER, AD_UNIT_ID, null, 0, 1, true);
+        subject.onSpan(AdLoadTracer.Stage.RENDER, AD_UNIT_ID, null, 0, 2, true);
+        subject.onSpan(AdLoadTracer.Stage.RENDER, AD_UNIT_ID, null, 0, 100000, true);
+
+        final AdLoadTraceSummarizer.Histogram histogram =
+                subject.getHistograms().get(AD_UNIT_ID).get(AdLoadTracer.Stage.RENDER);
+        final long[] counts = histogram.getCounts();
+        assertThat(counts.length)
+                .isEqualTo(AdLoadTraceSummarizer.Histogram.getBucketUpperBoundsMillis().length + 1);
+        assertThat(counts[0]).isEqualTo(2);
+        assertThat(counts[1]).isEqualTo(1);
+        assertThat(counts[counts.length - 1]).isEqualTo(1);
+    }
+
+    @Test
+    public void getQuantileMillis_shouldReturnBucketUpperBound() {
+        for (int i = 0; i < 19; i++) {
+            subject.onSpan(AdLoadTracer.Stage.ADAPTER_LOAD, AD_UNIT_ID, null, 0, 150, true);
+        }
+        subject.onSpan(AdLoadTracer.Stage.ADAPTER_LOAD, AD_UNIT_ID, null, 0, 4000, true);
+
+        final AdLoadTraceSummarizer.Histogram histogram =
+                subject.getHistograms().get(AD_UNIT_ID).get(AdLoadTracer.Stage.ADAPTER_LOAD);
+        assertThat(histogram.getQuantileMillis(0.5)).isEqualTo(200);
+        assertThat(histogram.getQuantileMillis(0.95)).isEqualTo(200);
+        assertThat(histogram.getQuantileMillis(1)).isEqualTo(5000);
+    }
+
+    @Test
+    public void getQuantileMillis_withEmptyHistogram_shouldReturnMinusOne() {
+        assertThat(new AdLoadTraceSummarizer.Histogram().getQuantileMillis(0.5)).isEqualTo(-1);
+    }
+
+    @Test
+    public void snapshotAndReset_shouldReturnHistogramsAndStartOver() {
+        subject.onSpan(AdLoadTracer.Stage.IMPRESSION, AD_UNIT_ID, null, 0, 500, true);
+
+        final Map<String, Map<AdLoadTracer.Stage, AdLoadTraceSummarizer.Histogram>> snapshot =
+                subject.snapshotAndReset();
+
+        assertThat(snapshot.get(AD_UNIT_ID).get(AdLoadTracer.Stage.IMPRESSION).getCount())
+                .isEqualTo(1);
+        assertThat(subject.getHistograms()).isEmpty();
+    }
+}
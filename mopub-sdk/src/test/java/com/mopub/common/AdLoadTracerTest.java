@@ -0,0 +1,107 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SdkTestRunner.class)
+public class AdLoadTracerTest {
+    private static final String AD_UNIT_ID = "adUnitId";
+    private static final String REQUEST_ID = "requestId";
+
+    @After
+    public void tearDown() {
+        AdLoadTracer.clearForTesting();
+    }
+
+    @Test
+    public void record_shouldKeepSpanWithDuration() {
+        AdLoadTracer.record(AdLoadTracer.Stage.PARSE, AD_UNIT_ID, REQUEST_ID, 100, 130, true);
+
+        final List<AdLoadTracer.Span> spans = AdLoadTracer.getRecentSpans();
+        assertThat(spans).hasSize(1);
+        final AdLoadTracer.Span span = spans.get(0);
+        assertThat(span.getStage()).isEqualTo(AdLoadTracer.Stage.PARSE);
+        assertThat(span.getAdUnitId()).isEqualTo(AD_UNIT_ID);
+        assertThat(span.getRequestId()).isEqualTo(REQUEST_ID);
+        assertThat(span.getStartUptimeMillis()).isEqualTo(100);
+        assertThat(span.getDurationMillis()).isEqualTo(30);
+        assertThat(span.isSuccess()).isTrue();
+    }
+
+    @Test
+    public void record_withoutAdUnitId_shouldUseAdUnitOfEarlierSpanOfSameRequest() {
+        AdLoadTracer.record(AdLoadTracer.Stage.NETWORK, AD_UNIT_ID, REQUEST_ID, 0, 10, true);
+        AdLoadTracer.record(AdLoadTracer.Stage.CREATIVE_DOWNLOAD, null, REQUEST_ID, 10, 20, false);
+        AdLoadTracer.record(AdLoadTracer.Stage.CREATIVE_DOWNLOAD, null, "other", 10, 20, true);
+
+        final List<AdLoadTracer.Span> spans = AdLoadTracer.getRecentSpans();
+        assertThat(spans.get(1).getAdUnitId()).isEqualTo(AD_UNIT_ID);
+        assertThat(spans.get(2).getAdUnitId()).isNull();
+    }
+
+    @Test
+    public void getSpans_shouldOnlyReturnSpansOfRequestInOrder() {
+        AdLoadTracer.record(AdLoadTracer.Stage.NETWORK, AD_UNIT_ID, REQUEST_ID, 0, 10, true);
+        AdLoadTracer.record(AdLoadTracer.Stage.NETWORK, AD_UNIT_ID, "other", 0, 10, true);
+        AdLoadTracer.record(AdLoadTracer.Stage.PARSE, AD_UNIT_ID, REQUEST_ID, 10, 12, true);
+
+        final List<AdLoadTracer.Span> spans = AdLoadTracer.getSpans(REQUEST_ID);
+        assertThat(spans).hasSize(2);
+        assertThat(spans.get(0).getStage()).isEqualTo(AdLoadTracer.Stage.NETWORK);
+        assertThat(spans.get(1).getStage()).isEqualTo(AdLoadTracer.Stage.PARSE);
+    }
+
+    @Test
+    public void record_whenFull_shouldKeepMostRecentSpans() {
+        for (int i = 0; i < AdLoadTracer.CAPACITY + 10; i++) {
+            AdLoadTracer.record(AdLoadTracer.Stage.RENDER, AD_UNIT_ID, REQUEST_ID, i, i + 1, true);
+        }
+
+        final List<AdLoadTracer.Span> spans = AdLoadTracer.getRecentSpans();
+        assertThat(spans).hasSize(AdLoadTracer.CAPACITY);
+        assertThat(spans.get(0).getStartUptimeMillis()).isEqualTo(10);
+        assertThat(spans.get(AdLoadTracer.CAPACITY - 1).getStartUptimeMillis())
+                .isEqualTo(AdLoadTracer.CAPACITY + 9);
+    }
+
+    @Test
+    public void record_shouldNotifyListener() {
+        final AdLoadTracer.Listener listener = mock(AdLoadTracer.Listener.class);
+        AdLoadTracer.setListener(listener);
+
+        AdLoadTracer.record(AdLoadTracer.Stage.ADAPTER_LOAD, AD_UNIT_ID, REQUEST_ID, 50, 80, false);
+
+        verify(listener).onSpan(AdLoadTracer.Stage.ADAPTER_LOAD, AD_UNIT_ID, REQUEST_ID, 50, 30,
+                false);
+    }
+
+    @Test
+    public void record_withThrowingListener_shouldStillKeepSpan() {
+        final AdLoadTracer.Listener listener = mock(AdLoadTracer.Listener.class);
+        doThrow(new RuntimeException()).when(listener).onSpan(eq(AdLoadTracer.Stage.RENDER),
+                anyString(), anyString(), anyLong(), anyLong(), anyBoolean());
+        AdLoadTracer.setListener(listener);
+
+        AdLoadTracer.record(AdLoadTracer.Stage.RENDER, AD_UNIT_ID, REQUEST_ID, 0, 5, true);
+
+        assertThat(AdLoadTracer.getRecentSpans()).hasSize(1);
+    }
+}
@@ -13,18 +13,30 @@ import androidx.annotation.Nullable;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.mobileads.MoPubErrorCode;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.Robolectric;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.mopub.common.BaseAdapterConfiguration.CUSTOM_EVENT_PREF_NAME;
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -34,6 +46,8 @@ public class AdapterConfigurationManagerTest {
     private Context context;
     private AdapterConfigurationManager subject;
     private SdkInitializationListener mockInitializationListener;
+    private List<Runnable> pendingTokenRefreshes;
+    private boolean runTokenRefreshesInline;
 
     @Before
     public void setup() {
@@ -41,6 +55,82 @@ public class AdapterConfigurationManagerTest {
         mockInitializationListener = mock(SdkInitializationListenerMockClass.class);
         subject = new AdapterConfigurationManager(mockInitializationListener);
 
+        // Initialization no longer waits for bidding tokens, so fetch them on the calling thread.
+        pendingTokenRefreshes = new ArrayList<>();
+        runTokenRefreshesInline = true;
+        final ScheduledExecutorService refreshExecutor = mock(ScheduledExecutorService.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                final Runnable refresh = (Runnable) invocation.getArguments()[0];
+                if (runTokenRefreshesInline) {
+                    refresh.run();
+                } else {
+                    pendingTokenRefreshes.add(refresh);
+                }
+                return null;
+            }
+        }).when(refreshExecutor).execute(any(Runnable.class));
+        BiddingTokenCache.setRefreshExecutor(refreshExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        BiddingTokenCache.setRefreshExecutor(null);
+        AdapterConfigurationManager.setAdapterInitializationTimeoutMillis(
+                AdapterConfigurationManager.DEFAULT_ADAPTER_INITIALIZATION_TIMEOUT_MILLIS);
+        ACMSlowAdapterConfiguration.sReleaseLatch.countDown();
+    }
+
+    @Test
+    public void initialize_shouldDeliverAdapterInitializationReport() {
+        final ReportingSdkInitializationListener listener = new ReportingSdkInitializationListener();
+        subject = new AdapterConfigurationManager(listener);
+        final Set<String> set = new HashSet<>();
+        set.add(ACMTestAdapterConfiguration.class.getName());
+        set.add("com.mopub.MissingAdapterConfiguration");
+
+        subject.initialize(context, set, new HashMap<String, Map<String, String>>(),
+                new HashMap<String, Map<String, String>>());
+
+        assertThat(listener.finished).isTrue();
+        assertThat(listener.report).isNotNull();
+        final Map<String, AdapterInitializationReport.Entry> entries = listener.report.getEntries();
+        assertThat(entries).hasSize(2);
+        final AdapterInitializationReport.Entry entry = entries.get(
+                ACMTestAdapterConfiguration.class.getName());
+        assertThat(entry.getStatus()).isEqualTo(AdapterInitializationReport.Status.INITIALIZED);
+        assertThat(entry.getErrorCode()).isEqualTo(MoPubErrorCode.ADAPTER_INITIALIZATION_SUCCESS);
+        assertThat(entries.get("com.mopub.MissingAdapterConfiguration").getStatus())
+                .isEqualTo(AdapterInitializationReport.Status.FAILED);
+    }
+
+    @Test
+    public void initialize_withSlowAdapter_shouldFinishWithoutIt_shouldAddItOnceReady() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        AdapterConfigurationManager.setInitializationExecutor(executorService);
+        AdapterConfigurationManager.setAdapterInitializationTimeoutMillis(100);
+        ACMSlowAdapterConfiguration.sReleaseLatch = new CountDownLatch(1);
+        final ReportingSdkInitializationListener listener = new ReportingSdkInitializationListener();
+        subject = new AdapterConfigurationManager(listener);
+        final Set<String> set = new HashSet<>();
+        set.add(ACMTestAdapterConfiguration.class.getName());
+        set.add(ACMSlowAdapterConfiguration.class.getName());
+
+        subject.initialize(context, set, new HashMap<String, Map<String, String>>(),
+                new HashMap<String, Map<String, String>>());
+
+        assertThat(listener.finished).isTrue();
+        assertThat(listener.report.getEntries().get(ACMSlowAdapterConfiguration.class.getName())
+                .getStatus()).isEqualTo(AdapterInitializationReport.Status.TIMED_OUT);
+        assertThat(subject.getAdapterConfiguration(ACMTestAdapterConfiguration.class)).isNotNull();
+        assertThat(subject.getAdapterConfiguration(ACMSlowAdapterConfiguration.class)).isNull();
+
+        ACMSlowAdapterConfiguration.sReleaseLatch.countDown();
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(subject.getAdapterConfiguration(ACMSlowAdapterConfiguration.class)).isNotNull();
     }
 
     @Test
@@ -59,6 +149,47 @@ public class AdapterConfigurationManagerTest {
                 ACMTestAdapterConfiguration.class)).isNotNull();
     }
 
+    @Test
+    public void initialize_shouldNotWaitForBiddingTokens() {
+        runTokenRefreshesInline = false;
+        final Set<String> set = new HashSet<>();
+        set.add(ACMTestAdapterConfiguration.class.getName());
+
+        subject.initialize(context, set, new HashMap<String, Map<String, String>>(),
+                new HashMap<String, Map<String, String>>());
+
+        verify(mockInitializationListener).onInitializationFinished();
+        assertThat(subject.getTokensAsJsonString(context)).isNull();
+        assertThat(pendingTokenRefreshes).hasSize(1);
+
+        pendingTokenRefreshes.get(0).run();
+
+        assertThat(subject.getTokensAsJsonString(context)).isEqualTo(
+                "{\"AdapterConfigurationTest\":{\"token\":\"AdapterConfigurationTestToken\"}}");
+    }
+
+    @Test
+    public void initialize_getBiddingTokenMetrics_shouldHaveEntryPerAdapterConfiguration() {
+        final Set<String> set = new HashSet<>();
+        set.add(ACMTestAdapterConfiguration.class.getName());
+        set.add(ACMNoTokenAdapterConfiguration.class.getName());
+
+        assertThat(subject.getBiddingTokenMetrics()).isNull();
+        subject.initialize(context, set, new HashMap<String, Map<String, String>>(),
+                new HashMap<String, Map<String, String>>());
+
+        final Map<String, BiddingTokenMetrics.Entry> entries =
+                subject.getBiddingTokenMetrics().getEntries();
+        assertThat(entries).hasSize(2);
+        final BiddingTokenMetrics.Entry entry = entries.get(
+                ACMTestAdapterConfiguration.class.getName());
+        assertThat(entry.hasToken()).isTrue();
+        assertThat(entry.getRefreshCount()).isEqualTo(1);
+        assertThat(entry.getTokenAgeMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(entries.get(ACMNoTokenAdapterConfiguration.class.getName()).hasToken())
+                .isFalse();
+    }
+
     @Test
     public void initialize_getTokensAsJsonString_withNoAdapterConfigurations_shouldReturnNull() {
         final Set<String> set = new HashSet<>();
@@ -190,6 +321,36 @@ public class AdapterConfigurationManagerTest {
         }
     }
 
+    private static class ACMSlowAdapterConfiguration extends ACMNoTokenAdapterConfiguration {
+        static volatile CountDownLatch sReleaseLatch = new CountDownLatch(0);
+
+        @Override
+        public void initializeNetwork(@NonNull final Context context,
+                @Nullable final Map<String, String> configuration,
+                @NonNull final OnNetworkInitializationFinishedListener listener) {
+            try {
+                sReleaseLatch.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class ReportingSdkInitializationListener implements SdkInitializationListener {
+        volatile boolean finished;
+        volatile AdapterInitializationReport report;
+
+        @Override
+        public void onInitializationFinished() {
+            finished = true;
+        }
+
+        @Override
+        public void onAdapterInitializationReport(@NonNull final AdapterInitializationReport report) {
+            this.report = report;
+        }
+    }
+
     // Creating extra class to prevent Robolectric cache conflict with
     // MoPub.initializeSdk_withCallbackSet_shouldCallCallback
     private abstract class SdkInitializationListenerMockClass implements SdkInitializationListener {
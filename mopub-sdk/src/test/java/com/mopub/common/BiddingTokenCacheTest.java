@@ -0,0 +1,321 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.mobileads.MoPubErrorCode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class BiddingTokenCacheTest {
+    private static final long WAIT_TIMEOUT_MILLIS = 2000;
+
+    private Context context;
+    private Map<String, AdapterConfiguration> adapterConfigurations;
+    private BiddingTokenCache subject;
+
+    @Before
+    public void setUp() {
+        context = Robolectric.buildActivity(Activity.class).create().get();
+        adapterConfigurations = new LinkedHashMap<>();
+        subject = new BiddingTokenCache(context, adapterConfigurations);
+    }
+
+    @After
+    public void tearDown() {
+        for (final AdapterConfiguration adapterConfiguration : adapterConfigurations.values()) {
+            ((TokenAdapterConfiguration) adapterConfiguration).releaseLatch.countDown();
+        }
+    }
+
+    @Test
+    public void refreshAndAwait_shouldSerializeTokensLikeJsonObject() {
+        addAdapter("first", "token\"1");
+        addAdapter("second", "token/2");
+        addAdapter("none", null);
+
+        subject.refreshAndAwait();
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"first\":{\"token\":\"token\\\"1\"},\"second\":{\"token\":\"token\\/2\"}}");
+    }
+
+    @Test
+    public void getTokensAsJsonString_shouldNotCallAdapterOncePopulated() {
+        final TokenAdapterConfiguration adapter = addAdapter("network", "token");
+        subject.refreshAndAwait();
+
+        subject.getTokensAsJsonString();
+        subject.getTokensAsJsonString();
+
+        assertThat(adapter.fetchCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void getTokensAsJsonString_withNoTokens_shouldReturnNull() {
+        addAdapter("none", null);
+
+        subject.refreshAndAwait();
+
+        assertThat(subject.getTokensAsJsonString()).isNull();
+    }
+
+    @Test
+    public void getTokensAsJsonString_withSlowAdapter_shouldNotWaitForIt() throws Exception {
+        addAdapter("fast", "fastToken");
+        final TokenAdapterConfiguration slow = addAdapter("slow", "slowToken");
+        slow.releaseLatch = new CountDownLatch(1);
+        slow.deadlineMillis = 50;
+
+        subject.refreshAndAwait();
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"fast\":{\"token\":\"fastToken\"}}");
+        assertThat(subject.getMetrics().getEntries().get("slow").isRefreshing()).isTrue();
+
+        Thread.sleep(slow.deadlineMillis);
+        slow.releaseLatch.countDown();
+        waitForRefreshCount("slow", 1);
+
+        final BiddingTokenMetrics.Entry entry = subject.getMetrics().getEntries().get("slow");
+        assertThat(entry.getTimeoutCount()).isEqualTo(1);
+        assertThat(entry.getLastRefreshLatencyMillis()).isGreaterThan(50);
+        assertThat(entry.hasToken()).isTrue();
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"fast\":{\"token\":\"fastToken\"},\"slow\":{\"token\":\"slowToken\"}}");
+    }
+
+    @Test
+    public void getTokensAsJsonString_afterTtl_shouldServeOldTokenWhileRefreshingInBackground()
+            throws Exception {
+        final TokenAdapterConfiguration adapter = addAdapter("network", "token");
+        adapter.ttlMillis = BiddingTokenCache.MIN_TOKEN_TTL_MILLIS;
+        subject.refreshAndAwait();
+
+        adapter.token = "newToken";
+        Robolectric.getForegroundThreadScheduler().advanceBy(adapter.ttlMillis,
+                TimeUnit.MILLISECONDS);
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"token\"}}");
+        waitForRefreshCount("network", 2);
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"newToken\"}}");
+        assertThat(subject.getMetrics().getEntries().get("network").getTokenAgeMillis())
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void getTokensAsJsonString_pastTtlAndDeadline_shouldNotServeOldToken_shouldRefresh()
+            throws Exception {
+        final TokenAdapterConfiguration adapter = addAdapter("network", "token");
+        adapter.ttlMillis = BiddingTokenCache.MIN_TOKEN_TTL_MILLIS;
+        adapter.deadlineMillis = 100;
+        subject.refreshAndAwait();
+        adapter.releaseLatch = new CountDownLatch(1);
+        adapter.token = "newToken";
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                adapter.ttlMillis + adapter.deadlineMillis + 1, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.getTokensAsJsonString()).isNull();
+        final BiddingTokenMetrics.Entry entry = subject.getMetrics().getEntries().get("network");
+        assertThat(entry.hasToken()).isFalse();
+        assertThat(entry.isRefreshing()).isTrue();
+
+        adapter.releaseLatch.countDown();
+        waitForRefreshCount("network", 2);
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"newToken\"}}");
+    }
+
+    @Test
+    public void getTokensAsJsonString_whenTokenExpiresDuringRefresh_shouldStopServingIt() {
+        final TokenAdapterConfiguration adapter = addAdapter("network", "token");
+        adapter.ttlMillis = BiddingTokenCache.MIN_TOKEN_TTL_MILLIS;
+        adapter.deadlineMillis = 100;
+        subject.refreshAndAwait();
+        adapter.releaseLatch = new CountDownLatch(1);
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(adapter.ttlMillis,
+                TimeUnit.MILLISECONDS);
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"token\"}}");
+        assertThat(subject.getMetrics().getEntries().get("network").isRefreshing()).isTrue();
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(adapter.deadlineMillis + 1,
+                TimeUnit.MILLISECONDS);
+
+        assertThat(subject.getTokensAsJsonString()).isNull();
+    }
+
+    @Test
+    public void getTokensAsJsonString_afterFailedRefresh_shouldKeepOldToken() throws Exception {
+        final TokenAdapterConfiguration adapter = addAdapter("network", "token");
+        adapter.ttlMillis = BiddingTokenCache.MIN_TOKEN_TTL_MILLIS;
+        subject.refreshAndAwait();
+        adapter.shouldThrow = true;
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(adapter.ttlMillis,
+                TimeUnit.MILLISECONDS);
+        subject.refreshAndAwait();
+
+        assertThat(subject.getMetrics().getEntries().get("network").getFailureCount())
+                .isEqualTo(1);
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"token\"}}");
+    }
+
+    @Test
+    public void refresh_shouldNotWaitForTokens() throws Exception {
+        final TokenAdapterConfiguration adapter = addAdapter("network", "token");
+        adapter.releaseLatch = new CountDownLatch(1);
+
+        subject.refresh();
+
+        assertThat(subject.getTokensAsJsonString()).isNull();
+        assertThat(subject.getMetrics().getEntries().get("network").isRefreshing()).isTrue();
+
+        adapter.releaseLatch.countDown();
+        waitForRefreshCount("network", 1);
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"token\"}}");
+    }
+
+    @Test
+    public void getTokensAsJsonString_withAdapterThatThrows_shouldCountFailure_shouldKeepOthers()
+            throws Exception {
+        addAdapter("network", "token");
+        final TokenAdapterConfiguration throwing = addAdapter("throwing", "unused");
+        throwing.shouldThrow = true;
+
+        subject.refreshAndAwait();
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"network\":{\"token\":\"token\"}}");
+        assertThat(subject.getMetrics().getEntries().get("throwing").getFailureCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void getTokensAsJsonString_withAdapterAddedLater_shouldStartRefreshingIt()
+            throws Exception {
+        addAdapter("first", "token1");
+        subject.refreshAndAwait();
+
+        addAdapter("second", "token2");
+        subject.getTokensAsJsonString();
+        waitForRefreshCount("second", 1);
+
+        assertThat(subject.getTokensAsJsonString()).isEqualTo(
+                "{\"first\":{\"token\":\"token1\"},\"second\":{\"token\":\"token2\"}}");
+    }
+
+    @NonNull
+    private TokenAdapterConfiguration addAdapter(@NonNull final String networkName,
+            @Nullable final String token) {
+        final TokenAdapterConfiguration adapter = new TokenAdapterConfiguration(networkName,
+                token);
+        adapterConfigurations.put(networkName, adapter);
+        return adapter;
+    }
+
+    private void waitForRefreshCount(@NonNull final String key, final int refreshCount)
+            throws InterruptedException {
+        final long endNanos = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(WAIT_TIMEOUT_MILLIS);
+        while (subject.getMetrics().getEntries().get(key).getRefreshCount() < refreshCount) {
+            assertThat(System.nanoTime()).isLessThan(endNanos);
+            Thread.sleep(5);
+        }
+    }
+
+    private static class TokenAdapterConfiguration extends BaseAdapterConfiguration {
+        @NonNull private final String networkName;
+        @NonNull final AtomicInteger fetchCount = new AtomicInteger();
+        @Nullable volatile String token;
+        volatile CountDownLatch releaseLatch = new CountDownLatch(0);
+        volatile long ttlMillis = DEFAULT_BIDDING_TOKEN_TTL_MILLIS;
+        volatile long deadlineMillis = DEFAULT_BIDDING_TOKEN_DEADLINE_MILLIS;
+        volatile boolean shouldThrow;
+
+        TokenAdapterConfiguration(@NonNull final String networkName,
+                @Nullable final String token) {
+            this.networkName = networkName;
+            this.token = token;
+        }
+
+        @NonNull
+        @Override
+        public String getAdapterVersion() {
+            return "adapterVersion";
+        }
+
+        @Nullable
+        @Override
+        public String getBiddingToken(@NonNull final Context context) {
+            fetchCount.incrementAndGet();
+            try {
+                releaseLatch.await(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (shouldThrow) {
+                throw new IllegalStateException("Token failure");
+            }
+            return token;
+        }
+
+        @Override
+        public long getBiddingTokenTtlMillis() {
+            return ttlMillis;
+        }
+
+        @Override
+        public long getBiddingTokenDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        @NonNull
+        @Override
+        public String getMoPubNetworkName() {
+            return networkName;
+        }
+
+        @NonNull
+        @Override
+        public String getNetworkSdkVersion() {
+            return "networkVersion";
+        }
+
+        @Override
+        public void initializeNetwork(@NonNull final Context context,
+                @Nullable final Map<String, String> configuration,
+                @NonNull final OnNetworkInitializationFinishedListener listener) {
+            listener.onNetworkInitializationFinished(TokenAdapterConfiguration.class,
+                    MoPubErrorCode.ADAPTER_INITIALIZATION_SUCCESS);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class ClickDestinationPrefetcherTest {
+    private static final String CLICK_URL = "https://a.example.com/click";
+    // IP literals are not looked up, so tests that finish lookups make no network requests
+    private static final String IP_CLICK_URL = "https://10.0.0.1/click";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = Robolectric.buildActivity(Activity.class).create().get();
+        MoPub.setClickDestinationPrefetchEnabled(true);
+        // Keep lookups in flight so no DNS lookups are made
+        Robolectric.getBackgroundThreadScheduler().pause();
+    }
+
+    @After
+    public void tearDown() {
+        MoPub.setClickDestinationPrefetchEnabled(false);
+        MoPub.resetBrowserAgent();
+        ClickDestinationPrefetcher.clearForTesting();
+        UrlResolutionTask.clearForTesting();
+        Robolectric.getBackgroundThreadScheduler().reset();
+    }
+
+    @Test
+    public void prefetch_shouldLookUpHost_shouldNotResolveRedirects() {
+        assertThat(ClickDestinationPrefetcher.prefetch(context, CLICK_URL)).isTrue();
+
+        assertThat(ClickDestinationPrefetcher.getLookupsInWindow()).isEqualTo(1);
+        assertThat(ClickDestinationPrefetcher.getLookupsInFlight()).isEqualTo(1);
+        assertThat(UrlResolutionTask.getCachedChain(CLICK_URL)).isNull();
+    }
+
+    @Test
+    public void prefetch_whenLookupFinishes_shouldReleaseInFlightSlot() {
+        ClickDestinationPrefetcher.prefetch(context, IP_CLICK_URL);
+
+        Robolectric.getBackgroundThreadScheduler().advanceToLastPostedRunnable();
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+
+        assertThat(ClickDestinationPrefetcher.getLookupsInFlight()).isEqualTo(0);
+        assertThat(UrlResolutionTask.getCachedChain(IP_CLICK_URL)).isNull();
+    }
+
+    @Test
+    public void prefetch_whenDisabled_shouldNotStart() {
+        MoPub.setClickDestinationPrefetchEnabled(false);
+
+        assertThat(ClickDestinationPrefetcher.prefetch(context, CLICK_URL)).isFalse();
+        assertThat(ClickDestinationPrefetcher.getLookupsInWindow()).isEqualTo(0);
+    }
+
+    @Test
+    public void prefetch_withNativeBrowserAgent_shouldNotStart() {
+        MoPub.setBrowserAgent(MoPub.BrowserAgent.NATIVE);
+
+        assertThat(ClickDestinationPrefetcher.prefetch(context, CLICK_URL)).isFalse();
+    }
+
+    @Test
+    public void prefetch_withDeepLink_shouldNotStart() {
+        assertThat(ClickDestinationPrefetcher.prefetch(context, "myapp://open")).isFalse();
+        assertThat(ClickDestinationPrefetcher.prefetch(context, "")).isFalse();
+    }
+
+    @Test
+    public void prefetch_withHostAlreadyLookedUp_shouldNotStartAgain() {
+        assertThat(ClickDestinationPrefetcher.prefetch(context, CLICK_URL)).isTrue();
+
+        assertThat(ClickDestinationPrefetcher.prefetch(context, CLICK_URL + "?id=2")).isFalse();
+        assertThat(ClickDestinationPrefetcher.getLookupsInWindow()).isEqualTo(1);
+    }
+
+    @Test
+    public void prefetch_withMaxConcurrentLookups_shouldNotStart() {
+        for (int i = 0; i < ClickDestinationPrefetcher.MAX_CONCURRENT_LOOKUPS; i++) {
+            assertThat(ClickDestinationPrefetcher.prefetch(context,
+                    "https://a" + i + ".example.com/click")).isTrue();
+        }
+
+        assertThat(ClickDestinationPrefetcher.prefetch(context, CLICK_URL)).isFalse();
+    }
+
+    @Test
+    public void prefetch_shouldNeverExceedBudget() {
+        Robolectric.getBackgroundThreadScheduler().unPause();
+
+        int started = 0;
+        for (int i = 0; i < 100; i++) {
+            if (ClickDestinationPrefetcher.prefetch(context,
+                    "https://10.0.0." + i + "/click")) {
+                started++;
+            }
+        }
+
+        assertThat(started).isEqualTo(ClickDestinationPrefetcher.MAX_LOOKUPS_PER_WINDOW);
+        assertThat(ClickDestinationPrefetcher.getLookupsInWindow())
+                .isEqualTo(ClickDestinationPrefetcher.MAX_LOOKUPS_PER_WINDOW);
+    }
+
+    @Test
+    public void prefetch_afterBudgetWindow_shouldLookUpHostAgain() {
+        ClickDestinationPrefetcher.prefetch(context, IP_CLICK_URL);
+        Robolectric.getBackgroundThreadScheduler().advanceToLastPostedRunnable();
+        Robolectric.getForegroundThreadScheduler().advanceToLastPostedRunnable();
+        assertThat(ClickDestinationPrefetcher.prefetch(context, IP_CLICK_URL)).isFalse();
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                ClickDestinationPrefetcher.BUDGET_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertThat(ClickDestinationPrefetcher.prefetch(context, IP_CLICK_URL)).isTrue();
+    }
+}
@@ -0,0 +1,229 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.view.View;
+
+import com.mopub.common.test.support.MainThreadWorkloadReplayer;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.mobileads.RepeatingHandlerRunnable;
+import com.mopub.nativeads.ImpressionInterface;
+import com.mopub.nativeads.ImpressionTracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class MainThreadSamplerTest {
+    private static final long ONE_MILLI_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private MainThreadSampler.BudgetListener budgetListener;
+
+    @Before
+    public void setUp() {
+        MainThreadSampler.clearForTesting();
+        budgetListener = mock(MainThreadSampler.BudgetListener.class);
+    }
+
+    @After
+    public void tearDown() {
+        MainThreadSampler.clearForTesting();
+    }
+
+    @Test
+    public void end_shouldAttributeTimeToTask() {
+        sample(MainThreadSampler.Task.VISIBILITY_CHECK, 3 * ONE_MILLI_NANOS);
+        sample(MainThreadSampler.Task.VISIBILITY_CHECK, ONE_MILLI_NANOS);
+
+        final MainThreadSampler.TaskStats stats =
+                MainThreadSampler.getStats(MainThreadSampler.Task.VISIBILITY_CHECK);
+        assertThat(stats.getCount()).isEqualTo(2);
+        assertThat(stats.getTotalNanos()).isGreaterThanOrEqualTo(4 * ONE_MILLI_NANOS);
+        assertThat(stats.getMaxNanos()).isGreaterThanOrEqualTo(3 * ONE_MILLI_NANOS);
+        assertThat(MainThreadSampler.getStats(MainThreadSampler.Task.IMPRESSION_POLL).getCount())
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void onFrame_withSdkTimeOverBudget_shouldCallListener() {
+        MainThreadSampler.setBudgetListener(budgetListener, 2);
+
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, 2 * ONE_MILLI_NANOS);
+        sample(MainThreadSampler.Task.WEBVIEW_CACHE_TRIM, ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        final ArgumentCaptor<MainThreadSampler.FrameSample> captor =
+                ArgumentCaptor.forClass(MainThreadSampler.FrameSample.class);
+        verify(budgetListener).onFrameBudgetExceeded(captor.capture());
+        final MainThreadSampler.FrameSample frameSample = captor.getValue();
+        assertThat(frameSample.getSdkNanos()).isGreaterThanOrEqualTo(3 * ONE_MILLI_NANOS);
+        assertThat(frameSample.getNanos(MainThreadSampler.Task.IMPRESSION_POLL))
+                .isGreaterThanOrEqualTo(2 * ONE_MILLI_NANOS);
+        assertThat(frameSample.getCount(MainThreadSampler.Task.WEBVIEW_CACHE_TRIM)).isEqualTo(1);
+        assertThat(frameSample.getCount(MainThreadSampler.Task.VIDEO_PROGRESS)).isEqualTo(0);
+    }
+
+    @Test
+    public void onFrame_withSdkTimeWithinBudget_shouldNotCallListener() {
+        MainThreadSampler.setBudgetListener(budgetListener, 5);
+
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        verify(budgetListener, never()).onFrameBudgetExceeded(any(MainThreadSampler.FrameSample.class));
+    }
+
+    @Test
+    public void onFrame_shouldStartEachFrameOver() {
+        MainThreadSampler.setBudgetListener(budgetListener, 2);
+
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, 2 * ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, 2 * ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, 3 * ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        verify(budgetListener, times(1))
+                .onFrameBudgetExceeded(any(MainThreadSampler.FrameSample.class));
+    }
+
+    @Test
+    public void onFrame_withListenerThrowing_shouldKeepSampling() {
+        doThrow(new RuntimeException()).when(budgetListener)
+                .onFrameBudgetExceeded(any(MainThreadSampler.FrameSample.class));
+        MainThreadSampler.setBudgetListener(budgetListener, 0);
+
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, ONE_MILLI_NANOS);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        verify(budgetListener, times(2))
+                .onFrameBudgetExceeded(any(MainThreadSampler.FrameSample.class));
+    }
+
+    @Test
+    public void stopRecording_shouldListTasksPerFrame() {
+        MainThreadSampler.startRecording();
+
+        sample(MainThreadSampler.Task.VISIBILITY_PRE_DRAW, 0);
+        sample(MainThreadSampler.Task.VISIBILITY_CHECK, 0);
+        sample(MainThreadSampler.Task.VISIBILITY_CHECK, 0);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        sample(MainThreadSampler.Task.IMPRESSION_POLL, 0);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertThat(MainThreadSampler.stopRecording()).isEqualTo(
+                "VISIBILITY_PRE_DRAW:1 VISIBILITY_CHECK:2\n" +
+                "IMPRESSION_POLL:1\n");
+        assertThat(MainThreadSampler.stopRecording()).isEmpty();
+    }
+
+    @Test
+    public void repeatingHandlerRunnable_shouldBeAttributedToItsTask() {
+        final RepeatingHandlerRunnable runnable = new RepeatingHandlerRunnable(mock(Handler.class)) {
+            @Override
+            public void doWork() {
+            }
+
+            @Override
+            protected MainThreadSampler.Task getSampledTask() {
+                return MainThreadSampler.Task.VIDEO_PROGRESS;
+            }
+        };
+        runnable.startRepeating(100);
+
+        runnable.run();
+        runnable.run();
+
+        assertThat(MainThreadSampler.getStats(MainThreadSampler.Task.VIDEO_PROGRESS).getCount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void replay_withScrollFeedInput_shouldStayWithinBudget() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().visible().get();
+        final MainThreadWorkloadReplayer replayer = new MainThreadWorkloadReplayer(activity, 6);
+        final ImpressionTracker impressionTracker = new ImpressionTracker(activity);
+        for (final View view : replayer.getViews()) {
+            final ImpressionInterface impressionInterface = mock(ImpressionInterface.class);
+            when(impressionInterface.getImpressionMinPercentageViewed()).thenReturn(50);
+            when(impressionInterface.getImpressionMinTimeViewed()).thenReturn(1000);
+            impressionTracker.addView(view, impressionInterface);
+        }
+
+        final String workload = replayer.replay(MainThreadWorkloadReplayer.readResource(
+                getClass(), "main_thread_workload/scroll_feed.input"));
+
+        assertThat(workload).contains(MainThreadSampler.Task.VISIBILITY_PRE_DRAW.name());
+        assertThat(workload).contains(MainThreadSampler.Task.VISIBILITY_CHECK.name());
+        assertThat(workload).contains(MainThreadSampler.Task.IMPRESSION_POLL.name());
+        assertThat(MainThreadWorkloadReplayer.checkBudget(workload,
+                MainThreadWorkloadReplayer.readResource(getClass(),
+                        "main_thread_workload/scroll_feed.budget"))).isEmpty();
+        impressionTracker.destroy();
+    }
+
+    @Test
+    public void replay_shouldApplyViewChangesOfEachFrame() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().visible().get();
+        final MainThreadWorkloadReplayer replayer = new MainThreadWorkloadReplayer(activity, 2);
+        final ImpressionTracker impressionTracker = new ImpressionTracker(activity);
+        final ImpressionInterface shownAd = mock(ImpressionInterface.class);
+        final ImpressionInterface hiddenAd = mock(ImpressionInterface.class);
+        when(shownAd.getImpressionMinTimeViewed()).thenReturn(1000);
+        when(hiddenAd.getImpressionMinTimeViewed()).thenReturn(1000);
+        impressionTracker.addView(replayer.getViews().get(0), shownAd);
+        impressionTracker.addView(replayer.getViews().get(1), hiddenAd);
+        final StringBuilder input = new StringBuilder("16 GONE:1\n");
+        for (int frame = 0; frame < 80; frame++) {
+            input.append("16\n");
+        }
+
+        replayer.replay(input.toString());
+
+        verify(shownAd).recordImpression(replayer.getViews().get(0));
+        verify(hiddenAd, never()).recordImpression(any(View.class));
+        impressionTracker.destroy();
+    }
+
+    @Test
+    public void checkBudget_withTaskOverBudget_shouldReportViolations() {
+        final String workload = "VISIBILITY_PRE_DRAW:1 VISIBILITY_CHECK:2\n"
+                + "VISIBILITY_PRE_DRAW:1\n"
+                + "IMPRESSION_POLL:1\n";
+        final String budget = "# task maxPerFrame maxTotal\n"
+                + "VISIBILITY_PRE_DRAW 1 1\n"
+                + "VISIBILITY_CHECK 1 5\n";
+
+        assertThat(MainThreadWorkloadReplayer.checkBudget(workload, budget)).containsOnly(
+                "VISIBILITY_CHECK ran 2 times in frame 0, budget is 1",
+                "IMPRESSION_POLL is not in the budget",
+                "VISIBILITY_PRE_DRAW ran 2 times in total, budget is 1");
+    }
+
+    private static void sample(final MainThreadSampler.Task task, final long nanos) {
+        MainThreadSampler.end(task, MainThreadSampler.begin() - nanos);
+    }
+}
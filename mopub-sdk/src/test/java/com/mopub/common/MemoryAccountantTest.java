@@ -0,0 +1,172 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class MemoryAccountantTest {
+    private FakeComponent largeComponent;
+    private FakeComponent smallComponent;
+
+    @Before
+    public void setUp() {
+        MemoryAccountant.clearForTesting();
+        largeComponent = new FakeComponent(1000);
+        smallComponent = new FakeComponent(100);
+        MemoryAccountant.register("large", largeComponent);
+        MemoryAccountant.register("small", smallComponent);
+    }
+
+    @After
+    public void tearDown() {
+        MemoryAccountant.clearForTesting();
+    }
+
+    @Test
+    public void getRetainedBytes_shouldReportBytesByName() {
+        // Components are held weakly, so keep this one referenced.
+        final FakeComponent otherSmallComponent = new FakeComponent(50);
+        MemoryAccountant.register("small", otherSmallComponent);
+
+        final Map<String, Long> retainedBytes = MemoryAccountant.getRetainedBytes();
+
+        assertThat(retainedBytes).hasSize(2);
+        assertThat(retainedBytes.get("large")).isEqualTo(1000L);
+        assertThat(retainedBytes.get("small")).isEqualTo(150L);
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(1150);
+    }
+
+    @Test
+    public void unregister_shouldStopAccountingForComponent() {
+        MemoryAccountant.unregister(largeComponent);
+
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(100);
+    }
+
+    @Test
+    public void onRetainedBytesIncreased_withoutBudget_shouldNotShed() {
+        MemoryAccountant.onRetainedBytesIncreased();
+
+        assertThat(largeComponent.shedCount).isEqualTo(0);
+        assertThat(smallComponent.shedCount).isEqualTo(0);
+    }
+
+    @Test
+    public void setBudgetBytes_withTotalOverBudget_shouldShedLargestComponentFirst() {
+        MemoryAccountant.setBudgetBytes(800);
+
+        assertThat(largeComponent.retainedBytes).isEqualTo(700);
+        assertThat(largeComponent.lastCritical).isFalse();
+        assertThat(smallComponent.shedCount).isEqualTo(0);
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(800);
+    }
+
+    @Test
+    public void setBudgetBytes_whenLargestCannotFreeEnough_shouldAskNextComponent() {
+        largeComponent.sheddableBytes = 200;
+
+        MemoryAccountant.setBudgetBytes(800);
+
+        assertThat(largeComponent.retainedBytes).isEqualTo(800);
+        assertThat(smallComponent.retainedBytes).isEqualTo(0);
+    }
+
+    @Test
+    public void setBudgetBytes_withComponentThrowing_shouldAskNextComponent() {
+        largeComponent.shouldThrow = true;
+
+        MemoryAccountant.setBudgetBytes(1050);
+
+        assertThat(largeComponent.shedCount).isEqualTo(1);
+        assertThat(smallComponent.retainedBytes).isEqualTo(50);
+    }
+
+    @Test
+    public void onTrimMemory_withUiHidden_shouldShedHalf() {
+        MemoryAccountant.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(550);
+        assertThat(largeComponent.lastCritical).isFalse();
+    }
+
+    @Test
+    public void onTrimMemory_withRunningLow_shouldShedThreeQuarters() {
+        MemoryAccountant.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(275);
+    }
+
+    @Test
+    public void onTrimMemory_withComplete_shouldShedEverythingAsCritical() {
+        MemoryAccountant.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(0);
+        assertThat(largeComponent.lastCritical).isTrue();
+        assertThat(smallComponent.lastCritical).isTrue();
+    }
+
+    @Test
+    public void onTrimMemory_withBudgetBelowTarget_shouldShedToBudget() {
+        MemoryAccountant.setBudgetBytes(2000);
+        largeComponent.retainedBytes = 3000;
+
+        MemoryAccountant.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(1550);
+    }
+
+    @Test
+    public void listenForTrimMemory_shouldShedOnApplicationTrimMemory() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        MemoryAccountant.listenForTrimMemory(activity);
+
+        activity.getApplication().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+
+        assertThat(MemoryAccountant.getTotalRetainedBytes()).isEqualTo(0);
+    }
+
+    private static class FakeComponent implements MemoryAccountant.Component {
+        long retainedBytes;
+        long sheddableBytes = Long.MAX_VALUE;
+        boolean shouldThrow;
+        int shedCount;
+        boolean lastCritical;
+
+        FakeComponent(final long retainedBytes) {
+            this.retainedBytes = retainedBytes;
+        }
+
+        @Override
+        public long getRetainedBytes() {
+            return retainedBytes;
+        }
+
+        @Override
+        public long shed(final long bytesToFree, final boolean critical) {
+            shedCount++;
+            lastCritical = critical;
+            if (shouldThrow) {
+                throw new IllegalStateException();
+            }
+            final long freedBytes = Math.min(Math.min(bytesToFree, sheddableBytes), retainedBytes);
+            retainedBytes -= freedBytes;
+            return freedBytes;
+        }
+    }
+}
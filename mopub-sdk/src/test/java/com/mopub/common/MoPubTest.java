@@ -11,10 +11,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.mopub.common.MoPub.BrowserAgent;
+import com.mopub.common.privacy.PersonalInfoManager;
 import com.mopub.common.privacy.SyncRequest;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.common.util.AsyncTasks;
 import com.mopub.common.util.Reflection;
+import com.mopub.mobileads.AdLoadLatencyTracker;
 import com.mopub.mobileads.MoPubRewardedAdListener;
 import com.mopub.mobileads.MoPubRewardedAdManager;
 import com.mopub.mobileads.MoPubRewardedAds;
@@ -41,9 +43,11 @@ import org.robolectric.shadows.ShadowLooper;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -99,10 +103,23 @@ public class MoPubTest {
 
         MoPub.resetBrowserAgent();
         AsyncTasks.setExecutor(new RoboExecutorService());
+
+        // Initialization does not wait for bidding tokens, so fetch them on the calling thread.
+        final ScheduledExecutorService refreshExecutor =
+                org.mockito.Mockito.mock(ScheduledExecutorService.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocationOnMock) {
+                ((Runnable) invocationOnMock.getArguments()[0]).run();
+                return null;
+            }
+        }).when(refreshExecutor).execute(any(Runnable.class));
+        BiddingTokenCache.setRefreshExecutor(refreshExecutor);
     }
 
     @After
     public void tearDown() throws Exception {
+        BiddingTokenCache.setRefreshExecutor(null);
         MoPub.resetMoPub();
         MoPub.resetBrowserAgent();
         ClientMetadata.clearForTesting();
@@ -272,6 +289,22 @@ public class MoPubTest {
         verify(mockInitializationListener).onInitializationFinished();
     }
 
+    @Test
+    public void initializeSdk_withAdaptiveTimeoutsEnabled_shouldEnableAdaptiveTimeouts() throws Exception {
+        MoPub.initializeSdk(mActivity, new SdkConfiguration.Builder(
+                INIT_ADUNIT).withAdaptiveTimeoutsEnabled(true).build(), null);
+
+        assertThat(AdLoadLatencyTracker.isAdaptiveTimeoutsEnabled()).isTrue();
+    }
+
+    @Test
+    public void initializeSdk_withNoAdaptiveTimeoutsValue_shouldLeaveAdaptiveTimeoutsDisabled() throws Exception {
+        MoPub.initializeSdk(mActivity, new SdkConfiguration.Builder(
+                INIT_ADUNIT).build(), null);
+
+        assertThat(AdLoadLatencyTracker.isAdaptiveTimeoutsEnabled()).isFalse();
+    }
+
     @Test
     public void initializeSdk_withNoLegitimateInterestAllowedValue_shouldCallPersonalInfoManagerSetAllowLegitimateInterest_withLegitimateInterestAllowedFalse() throws Exception {
         MoPub.initializeSdk(mActivity, new SdkConfiguration.Builder(
@@ -305,6 +338,61 @@ public class MoPubTest {
         assertThat(actual).isTrue();
     }
 
+    @Test
+    public void initializeSdk_shouldRecordStageTimings() throws Exception {
+        MoPub.initializeSdk(mActivity, new SdkConfiguration.Builder(
+                INIT_ADUNIT).build(), mockInitializationListener);
+        ShadowLooper.runUiThreadTasks();
+
+        verify(mockInitializationListener).onInitializationFinished();
+        final SdkInitializationTimings timings = MoPub.getSdkInitializationTimings();
+        assertThat(timings).isNotNull();
+        assertThat(timings.getStageDurationsMillis()).containsKey(
+                SdkInitializationTimings.STAGE_VIEWABILITY);
+        assertThat(timings.getStageDurationsMillis()).containsKey(
+                SdkInitializationTimings.STAGE_REQUEST_QUEUE);
+        assertThat(timings.getStageDurationsMillis()).containsKey(
+                SdkInitializationTimings.STAGE_CLIENT_METADATA);
+        assertThat(timings.getStageDurationsMillis()).containsKey(
+                SdkInitializationTimings.STAGE_SETTINGS);
+        assertThat(timings.getStageDurationsMillis()).containsKey(
+                SdkInitializationTimings.STAGE_PERSONAL_INFO_MANAGER);
+        assertThat(timings.getStageDurationsMillis()).containsKey(
+                SdkInitializationTimings.STAGE_ADAPTER_CONFIGURATIONS);
+        assertThat(timings.getTotalMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(MoPub.getPersonalInformationManager()).isNotNull();
+    }
+
+    @Test
+    public void getPersonalInformationManager_whileInitializing_shouldCreateItRightAway() throws Exception {
+        Robolectric.getBackgroundThreadScheduler().pause();
+
+        MoPub.initializeSdk(mActivity, new SdkConfiguration.Builder(
+                INIT_ADUNIT).build(), mockInitializationListener);
+        final PersonalInfoManager personalInfoManager = MoPub.getPersonalInformationManager();
+
+        assertThat(personalInfoManager).isNotNull();
+
+        Robolectric.getBackgroundThreadScheduler().unPause();
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(MoPub.getPersonalInformationManager()).isSameAs(personalInfoManager);
+        verify(mockInitializationListener).onInitializationFinished();
+    }
+
+    @Test
+    public void initializeSdk_withPersonalInfoManagerAlreadySet_shouldKeepIt() throws Exception {
+        final PersonalInfoManager mockPersonalInfoManager =
+                org.mockito.Mockito.mock(PersonalInfoManager.class);
+
+        MoPub.initializeSdk(mActivity, new SdkConfiguration.Builder(
+                INIT_ADUNIT).build(), mockInitializationListener);
+        MoPub.setPersonalInfoManager(mockPersonalInfoManager);
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(MoPub.getPersonalInformationManager()).isSameAs(mockPersonalInfoManager);
+    }
+
     @Test
     public void disableViewability_callsViewabilityManager() {
         MoPub.disableViewability();
@@ -0,0 +1,270 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.robolectric.Robolectric;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SdkTestRunner.class)
+public class SdkKeyValueStoreTest {
+    private static final String GROUP = "testGroup";
+
+    private Context context;
+    private File file;
+    private SdkKeyValueStore subject;
+    @Mock
+    private ScheduledExecutorService mockExecutor;
+
+    @Before
+    public void setUp() {
+        context = Robolectric.buildActivity(Activity.class).create().get().getApplicationContext();
+        file = new File(context.getFilesDir(), "test_settings.bin");
+        subject = createLoadedStore();
+    }
+
+    @Test
+    public void flush_thenLoad_shouldRestoreEveryValueType() {
+        subject.getPreferences(GROUP).edit()
+                .putString("string", "value")
+                .putInt("int", 1)
+                .putLong("long", 2L)
+                .putFloat("float", 3.5f)
+                .putBoolean("boolean", true)
+                .putStringSet("set", new HashSet<>(Arrays.asList("a", "b")))
+                .apply();
+        subject.getPreferences("otherGroup").edit().putString("string", "other").apply();
+
+        assertThat(subject.flush()).isTrue();
+        final SdkKeyValueStore reloaded = createLoadedStore();
+
+        final SharedPreferences preferences = reloaded.getPreferences(GROUP);
+        assertThat(preferences.getString("string", null)).isEqualTo("value");
+        assertThat(preferences.getInt("int", 0)).isEqualTo(1);
+        assertThat(preferences.getLong("long", 0)).isEqualTo(2L);
+        assertThat(preferences.getFloat("float", 0)).isEqualTo(3.5f);
+        assertThat(preferences.getBoolean("boolean", false)).isTrue();
+        assertThat(preferences.getStringSet("set", null)).containsOnly("a", "b");
+        assertThat(reloaded.getPreferences("otherGroup").getString("string", null))
+                .isEqualTo("other");
+    }
+
+    @Test
+    public void apply_shouldUpdateMemoryRightAway() {
+        subject.getPreferences(GROUP).edit().putString("key", "value").apply();
+
+        assertThat(subject.getPreferences(GROUP).getString("key", null)).isEqualTo("value");
+    }
+
+    @Test
+    public void commit_shouldWriteFile() {
+        assertThat(subject.getPreferences(GROUP).edit().putString("key", "value").commit())
+                .isTrue();
+
+        assertThat(file.exists()).isTrue();
+        assertThat(createLoadedStore().getPreferences(GROUP).getString("key", null))
+                .isEqualTo("value");
+    }
+
+    @Test
+    public void removeAndClear_shouldRemoveValues() {
+        final SharedPreferences preferences = subject.getPreferences(GROUP);
+        preferences.edit().putString("key1", "value1").putString("key2", "value2").apply();
+
+        preferences.edit().remove("key1").apply();
+        assertThat(preferences.contains("key1")).isFalse();
+        assertThat(preferences.getAll()).hasSize(1);
+
+        preferences.edit().putString("key2", null).apply();
+        assertThat(preferences.getAll()).isEmpty();
+
+        preferences.edit().putString("key3", "value3").apply();
+        preferences.edit().clear().putString("key4", "value4").apply();
+        assertThat(preferences.getAll()).hasSize(1);
+        assertThat(preferences.getString("key4", null)).isEqualTo("value4");
+    }
+
+    @Test
+    public void getPreferences_withLegacySharedPreferences_shouldImportThemOnce() {
+        context.getSharedPreferences(GROUP, Context.MODE_PRIVATE).edit()
+                .putString("legacy", "value")
+                .putInt("count", 3)
+                .commit();
+
+        assertThat(subject.getPreferences(GROUP).getString("legacy", null)).isEqualTo("value");
+        assertThat(subject.getPreferences(GROUP).getInt("count", 0)).isEqualTo(3);
+
+        subject.getPreferences(GROUP).edit().remove("legacy").commit();
+        final SdkKeyValueStore reloaded = createLoadedStore();
+
+        assertThat(reloaded.getPreferences(GROUP).contains("legacy")).isFalse();
+        assertThat(reloaded.getPreferences(GROUP).getInt("count", 0)).isEqualTo(3);
+    }
+
+    @Test
+    public void getPreferences_withLegacySharedPreferences_whenOnlyRead_shouldNotWriteFile() {
+        context.getSharedPreferences(GROUP, Context.MODE_PRIVATE).edit()
+                .putString("legacy", "value")
+                .commit();
+
+        assertThat(subject.getPreferences(GROUP).getString("legacy", null)).isEqualTo("value");
+
+        verify(mockExecutor, never()).schedule(any(Runnable.class), anyLong(),
+                any(TimeUnit.class));
+        assertThat(subject.flush()).isTrue();
+        assertThat(file.exists()).isFalse();
+        assertThat(getLegacyFile().exists()).isTrue();
+    }
+
+    @Test
+    public void flush_withImportedGroup_shouldDeleteLegacySharedPreferences() {
+        context.getSharedPreferences(GROUP, Context.MODE_PRIVATE).edit()
+                .putString("legacy", "value")
+                .commit();
+        assertThat(getLegacyFile().exists()).isTrue();
+
+        subject.getPreferences(GROUP).edit().putString("key", "value").commit();
+
+        assertThat(getLegacyFile().exists()).isFalse();
+        final SdkKeyValueStore reloaded = createLoadedStore();
+        assertThat(reloaded.getPreferences(GROUP).getString("legacy", null)).isEqualTo("value");
+        assertThat(reloaded.getPreferences(GROUP).getString("key", null)).isEqualTo("value");
+    }
+
+    @Test
+    public void apply_severalTimes_shouldScheduleOneDelayedWrite() {
+        final SharedPreferences preferences = subject.getPreferences(GROUP);
+
+        preferences.edit().putString("key1", "value1").apply();
+        preferences.edit().putString("key2", "value2").apply();
+        subject.getPreferences("otherGroup").edit().putString("key3", "value3").apply();
+
+        final ArgumentCaptor<Runnable> writeCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor).schedule(writeCaptor.capture(),
+                eq(SdkKeyValueStore.WRITE_DELAY_MILLIS), eq(TimeUnit.MILLISECONDS));
+        assertThat(file.exists()).isFalse();
+
+        writeCaptor.getValue().run();
+
+        final SdkKeyValueStore reloaded = createLoadedStore();
+        assertThat(reloaded.getPreferences(GROUP).getString("key1", null)).isEqualTo("value1");
+        assertThat(reloaded.getPreferences(GROUP).getString("key2", null)).isEqualTo("value2");
+        assertThat(reloaded.getPreferences("otherGroup").getString("key3", null))
+                .isEqualTo("value3");
+    }
+
+    @Test
+    public void apply_afterDelayedWrite_shouldScheduleAnotherWrite() {
+        subject.getPreferences(GROUP).edit().putString("key", "value1").apply();
+        final ArgumentCaptor<Runnable> writeCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor).schedule(writeCaptor.capture(),
+                eq(SdkKeyValueStore.WRITE_DELAY_MILLIS), eq(TimeUnit.MILLISECONDS));
+        writeCaptor.getValue().run();
+        reset(mockExecutor);
+
+        subject.getPreferences(GROUP).edit().putString("key", "value2").apply();
+
+        verify(mockExecutor).schedule(any(Runnable.class),
+                eq(SdkKeyValueStore.WRITE_DELAY_MILLIS), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void apply_withUnchangedValue_shouldNotScheduleWrite() {
+        subject.getPreferences(GROUP).edit().putString("key", "value").commit();
+        reset(mockExecutor);
+
+        subject.getPreferences(GROUP).edit().putString("key", "value").apply();
+
+        verify(mockExecutor, never()).schedule(any(Runnable.class), anyLong(),
+                any(TimeUnit.class));
+    }
+
+    @Test
+    public void onAppBackgrounded_withPendingWrite_shouldWriteRightAway() {
+        subject.getPreferences(GROUP).edit().putString("key", "value").apply();
+
+        subject.onAppBackgrounded();
+
+        final ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor).execute(flushCaptor.capture());
+        flushCaptor.getValue().run();
+        assertThat(createLoadedStore().getPreferences(GROUP).getString("key", null))
+                .isEqualTo("value");
+    }
+
+    @Test
+    public void onAppBackgrounded_withNothingPending_shouldNotWrite() {
+        subject.onAppBackgrounded();
+
+        verify(mockExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void load_withCorruptFile_shouldStartEmpty() throws Exception {
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[] {1, 2, 3});
+        outputStream.close();
+
+        final SdkKeyValueStore store = createLoadedStore();
+
+        assertThat(store.getPreferences(GROUP).getAll()).isEmpty();
+        assertThat(store.getLoadMillis()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void flush_withStringLongerThan64KB_shouldRestoreIt() {
+        final char[] chars = new char[70 * 1024];
+        Arrays.fill(chars, 'x');
+        final String longValue = new String(chars);
+        subject.getPreferences(GROUP).edit().putString("long", longValue).commit();
+
+        assertThat(createLoadedStore().getPreferences(GROUP).getString("long", null))
+                .isEqualTo(longValue);
+    }
+
+    @Test
+    public void sharedPreferencesHelper_shouldServeGroupsFromTheStore() {
+        SharedPreferencesHelper.getSharedPreferences(context, GROUP).edit()
+                .putString("key", "value").apply();
+
+        assertThat(SdkKeyValueStore.getInstance(context).getPreferences(GROUP)
+                .getString("key", null)).isEqualTo("value");
+    }
+
+    private SdkKeyValueStore createLoadedStore() {
+        final SdkKeyValueStore store = new SdkKeyValueStore(context, file, mockExecutor);
+        store.load();
+        return store;
+    }
+
+    private File getLegacyFile() {
+        return new File(new File(context.getApplicationInfo().dataDir, "shared_prefs"),
+                GROUP + ".xml");
+    }
+}
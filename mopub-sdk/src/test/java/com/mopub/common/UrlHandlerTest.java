@@ -9,12 +9,14 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ResolveInfo;
 import android.net.Uri;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.network.MoPubRequestQueue;
 import com.mopub.network.Networking;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,6 +25,7 @@ import org.robolectric.Robolectric;
 import org.robolectric.shadows.ShadowApplication;
 
 import java.net.URISyntaxException;
+import java.util.Collections;
 
 import static com.mopub.common.UrlAction.FOLLOW_DEEP_LINK;
 import static com.mopub.common.UrlAction.FOLLOW_DEEP_LINK_WITH_FALLBACK;
@@ -61,6 +64,11 @@ public class UrlHandlerTest {
         makeDeeplinkResolvable("market://details?id=null");
     }
 
+    @After
+    public void tearDown() {
+        UrlResolutionTask.clearForTesting();
+    }
+
     @Test
     public void urlHandler_withoutMoPubBrowser_shouldCallOnClickSuccessButNotStartActivity() {
         final String url = "https://www.mopub.com/";
@@ -256,6 +264,26 @@ public class UrlHandlerTest {
         assertThat(startedActivity.getStringExtra(MoPubBrowser.DESTINATION_URL_KEY)).isEqualTo(url);
     }
 
+    @Test
+    public void handleUrl_withCachedRedirects_shouldOpenClickUrlSoRedirectsSeeTheClick() {
+        final String url = "https://www.mopub.com/click";
+        UrlResolutionTask.cacheChain(url, new UrlResolutionTask.RedirectChain(
+                "https://www.mopub.com/landing",
+                Collections.<UrlResolutionTask.RedirectChain.Hop>emptyList(),
+                SystemClock.uptimeMillis()));
+
+        new UrlHandler.Builder()
+                .withSupportedUrlActions(OPEN_IN_APP_BROWSER)
+                .withResultActions(mockResultActions)
+                .build().handleUrl(context, url);
+
+        verify(mockResultActions).urlHandlingSucceeded(url, OPEN_IN_APP_BROWSER);
+        verifyNoMoreCallbacks();
+        final Intent startedActivity = ShadowApplication.getInstance().peekNextStartedActivity();
+        assertThat(startedActivity.getStringExtra(MoPubBrowser.DESTINATION_URL_KEY))
+                .isEqualTo(url);
+    }
+
     @Test
     public void urlHandler_withMatchingInAppBrowserHttpsUrl_shouldCallOnClickSuccess_shouldStartActivity() {
         final String url = "https://www.mopub.com/";
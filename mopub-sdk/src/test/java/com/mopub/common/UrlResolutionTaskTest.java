@@ -4,6 +4,8 @@
 
 package com.mopub.common;
 
+import android.os.SystemClock;
+
 import androidx.annotation.Nullable;
 
 import com.mopub.common.test.support.SdkTestRunner;
@@ -14,11 +16,22 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 
+import org.robolectric.Robolectric;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(SdkTestRunner.class)
@@ -37,6 +50,7 @@ public class UrlResolutionTaskTest {
     @After
     public void tearDown() {
         MoPub.resetBrowserAgent();
+        UrlResolutionTask.clearForTesting();
     }
 
     @Test
@@ -199,10 +213,101 @@ public class UrlResolutionTaskTest {
         assertThat(subject.doInBackground()).isEqualTo(null);
     }
 
+    @Test
+    public void getResolvedUrl_withCachedChain_shouldSucceedImmediately() {
+        cacheChain(BASE_URL, "https://www.abc.com");
+
+        UrlResolutionTask.getResolvedUrl(BASE_URL, mockListener);
+
+        verify(mockListener).onSuccess("https://www.abc.com");
+        verify(mockListener, never()).onFailure(anyString(), any(Throwable.class));
+    }
+
+    @Test
+    public void getCachedChain_afterTtl_shouldReturnNull() {
+        cacheChain(BASE_URL, "https://www.abc.com");
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                UrlResolutionTask.CACHE_TTL_MILLIS + 1, TimeUnit.MILLISECONDS);
+
+        assertThat(UrlResolutionTask.getCachedChain(BASE_URL)).isNull();
+    }
+
+    @Test
+    public void getCachedChain_withNativeBrowserAgent_shouldReturnNull() {
+        cacheChain(BASE_URL, "https://www.abc.com");
+        MoPub.setBrowserAgent(MoPub.BrowserAgent.NATIVE);
+
+        assertThat(UrlResolutionTask.getCachedChain(BASE_URL)).isNull();
+    }
+
+    @Test
+    public void getCachedChain_shouldEvictLeastRecentlyUsed() {
+        cacheChain(BASE_URL, "https://www.abc.com");
+        for (int i = 0; i < UrlResolutionTask.CACHE_SIZE; i++) {
+            cacheChain("https://a.example.com/" + i, "https://www.abc.com/" + i);
+        }
+
+        assertThat(UrlResolutionTask.getCachedChain(BASE_URL)).isNull();
+        assertThat(UrlResolutionTask.getCachedChain("https://a.example.com/0").mResolvedUrl)
+                .isEqualTo("https://www.abc.com/0");
+    }
+
+    @Test
+    public void releaseConnection_withSmallBody_shouldNotDisconnect() throws Exception {
+        final InputStream inputStream = spy(new ByteArrayInputStream(new byte[100]));
+        when(mockHttpUrlConnection.getResponseCode()).thenReturn(302);
+        when(mockHttpUrlConnection.getInputStream()).thenReturn(inputStream);
+
+        UrlResolutionTask.releaseConnection(mockHttpUrlConnection);
+
+        verify(inputStream).close();
+        verify(mockHttpUrlConnection, never()).disconnect();
+    }
+
+    @Test
+    public void releaseConnection_withLargeBody_shouldDisconnect() throws Exception {
+        final InputStream inputStream = spy(new ByteArrayInputStream(new byte[64 * 1024]));
+        when(mockHttpUrlConnection.getResponseCode()).thenReturn(200);
+        when(mockHttpUrlConnection.getInputStream()).thenReturn(inputStream);
+
+        UrlResolutionTask.releaseConnection(mockHttpUrlConnection);
+
+        verify(inputStream).close();
+        verify(mockHttpUrlConnection).disconnect();
+    }
+
+    @Test
+    public void releaseConnection_withErrorResponse_shouldDrainErrorStream() throws Exception {
+        final InputStream errorStream = spy(new ByteArrayInputStream(new byte[10]));
+        when(mockHttpUrlConnection.getResponseCode()).thenReturn(404);
+        when(mockHttpUrlConnection.getErrorStream()).thenReturn(errorStream);
+
+        UrlResolutionTask.releaseConnection(mockHttpUrlConnection);
+
+        verify(mockHttpUrlConnection, never()).getInputStream();
+        verify(errorStream).close();
+        verify(mockHttpUrlConnection, never()).disconnect();
+    }
+
+    @Test
+    public void releaseConnection_withIOException_shouldDisconnect() throws Exception {
+        when(mockHttpUrlConnection.getResponseCode()).thenThrow(new IOException());
+
+        UrlResolutionTask.releaseConnection(mockHttpUrlConnection);
+
+        verify(mockHttpUrlConnection).disconnect();
+    }
+
     private void setupMockHttpUrlConnection(final int responseCode,
             @Nullable final String absolutePathUrl) throws IOException {
         when(mockHttpUrlConnection.getResponseCode()).thenReturn(responseCode);
         when(mockHttpUrlConnection.getHeaderField("location")).thenReturn(absolutePathUrl);
     }
 
+    private static void cacheChain(final String urlString, final String resolvedUrl) {
+        UrlResolutionTask.cacheChain(urlString, new UrlResolutionTask.RedirectChain(resolvedUrl,
+                Collections.<UrlResolutionTask.RedirectChain.Hop>emptyList(),
+                SystemClock.uptimeMillis()));
+    }
 }
@@ -0,0 +1,229 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.test.support;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.mopub.common.MainThreadSampler;
+import com.mopub.common.util.Strings;
+import com.mopub.common.util.Views;
+
+import org.robolectric.Robolectric;
+import org.robolectric.util.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays recorded frame inputs against the real SDK trackers and records the main thread workload
+ * they cause, so changes to how often SDK tasks run can be checked offline against a stored
+ * budget.
+ * <p>
+ * Inputs have one frame per line: the frame duration in milliseconds followed by the view changes
+ * made before the frame was drawn, as space separated STATE:viewIndex pairs where STATE is
+ * VISIBLE, INVISIBLE or GONE. Lines starting with # are comments.
+ * <p>
+ * Budgets have one task per line: the task name, the most times it may run in one frame and the
+ * most times it may run over the whole replay.
+ */
+public class MainThreadWorkloadReplayer {
+    private static final String COMMENT_PREFIX = "#";
+    private static final int VIEW_WIDTH = 320;
+    private static final int VIEW_HEIGHT = 250;
+
+    @NonNull private final Activity mActivity;
+    @NonNull private final LinearLayout mContainer;
+    @NonNull private final List<View> mViews;
+
+    /**
+     * Shows viewCount views of a fixed size in the given Activity. Add the views to the trackers
+     * under test before calling {@link #replay(String)}.
+     */
+    public MainThreadWorkloadReplayer(@NonNull final Activity activity, final int viewCount) {
+        mActivity = activity;
+        mContainer = new LinearLayout(activity);
+        mContainer.setOrientation(LinearLayout.VERTICAL);
+        final List<View> views = new ArrayList<>(viewCount);
+        for (int i = 0; i < viewCount; i++) {
+            final View view = new ReplayedView(activity);
+            view.layout(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+            mContainer.addView(view, new LinearLayout.LayoutParams(VIEW_WIDTH, VIEW_HEIGHT));
+            views.add(view);
+        }
+        mViews = Collections.unmodifiableList(views);
+        activity.setContentView(mContainer);
+    }
+
+    @NonNull
+    public List<View> getViews() {
+        return mViews;
+    }
+
+    /**
+     * Applies the view changes of each frame, draws the frame and lets the main thread run for the
+     * frame duration.
+     *
+     * @return the workload recorded while replaying, in the format of
+     * {@link MainThreadSampler#stopRecording()}
+     */
+    @NonNull
+    public String replay(@NonNull final String input) {
+        final Scheduler scheduler = Robolectric.getForegroundThreadScheduler();
+        final View rootView = Views.getTopmostView(mActivity, mContainer);
+        if (rootView == null) {
+            throw new IllegalStateException("No root view to draw");
+        }
+
+        scheduler.pause();
+        MainThreadSampler.startRecording();
+        try {
+            for (final String line : input.split("\n")) {
+                final String frame = line.trim();
+                if (frame.isEmpty() || frame.startsWith(COMMENT_PREFIX)) {
+                    continue;
+                }
+                final String[] fields = frame.split("\\s+");
+                for (int i = 1; i < fields.length; i++) {
+                    applyChange(fields[i]);
+                }
+                rootView.getViewTreeObserver().dispatchOnPreDraw();
+                scheduler.advanceBy(Long.parseLong(fields[0]), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            scheduler.unPause();
+        }
+        return MainThreadSampler.stopRecording();
+    }
+
+    private void applyChange(@NonNull final String change) {
+        final int separator = change.indexOf(':');
+        final String state = change.substring(0, separator);
+        final View view = mViews.get(Integer.parseInt(change.substring(separator + 1)));
+        switch (state) {
+            case "VISIBLE":
+                view.setVisibility(View.VISIBLE);
+                break;
+            case "INVISIBLE":
+                view.setVisibility(View.INVISIBLE);
+                break;
+            case "GONE":
+                view.setVisibility(View.GONE);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown view change " + change);
+        }
+    }
+
+    /**
+     * Checks a recorded workload against a budget.
+     *
+     * @return one message for each task that ran more often than its budget allows, or an empty
+     * list if the workload is within budget
+     */
+    @NonNull
+    public static List<String> checkBudget(@NonNull final String workload,
+            @NonNull final String budget) {
+        final Map<MainThreadSampler.Task, Integer> maxCountByTask =
+                new EnumMap<>(MainThreadSampler.Task.class);
+        final Map<MainThreadSampler.Task, Integer> maxTotalByTask =
+                new EnumMap<>(MainThreadSampler.Task.class);
+        for (final String line : budget.split("\n")) {
+            final String entry = line.trim();
+            if (entry.isEmpty() || entry.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            final String[] fields = entry.split("\\s+");
+            final MainThreadSampler.Task task = MainThreadSampler.Task.valueOf(fields[0]);
+            maxCountByTask.put(task, Integer.parseInt(fields[1]));
+            maxTotalByTask.put(task, Integer.parseInt(fields[2]));
+        }
+
+        final List<String> violations = new ArrayList<>();
+        final Map<MainThreadSampler.Task, Integer> totalByTask =
+                new EnumMap<>(MainThreadSampler.Task.class);
+        final String[] frames = workload.split("\n");
+        for (int frame = 0; frame < frames.length; frame++) {
+            if (frames[frame].isEmpty()) {
+                continue;
+            }
+            for (final String entry : frames[frame].split(" ")) {
+                final int separator = entry.lastIndexOf(':');
+                final MainThreadSampler.Task task =
+                        MainThreadSampler.Task.valueOf(entry.substring(0, separator));
+                final int count = Integer.parseInt(entry.substring(separator + 1));
+                final Integer maxCount = maxCountByTask.get(task);
+                if (maxCount == null) {
+                    violations.add(task + " is not in the budget");
+                    maxCountByTask.put(task, Integer.MAX_VALUE);
+                    maxTotalByTask.put(task, Integer.MAX_VALUE);
+                } else if (count > maxCount) {
+                    violations.add(task + " ran " + count + " times in frame " + frame
+                            + ", budget is " + maxCount);
+                }
+                final Integer total = totalByTask.get(task);
+                totalByTask.put(task, total == null ? count : total + count);
+            }
+        }
+
+        for (final Map.Entry<MainThreadSampler.Task, Integer> entry : totalByTask.entrySet()) {
+            final int maxTotal = maxTotalByTask.get(entry.getKey());
+            if (entry.getValue() > maxTotal) {
+                violations.add(entry.getKey() + " ran " + entry.getValue()
+                        + " times in total, budget is " + maxTotal);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Reads a replay input or budget stored next to the test resources of the given class.
+     */
+    @NonNull
+    public static String readResource(@NonNull final Class<?> testClass,
+            @NonNull final String name) {
+        final InputStream inputStream = testClass.getResourceAsStream(name);
+        if (inputStream == null) {
+            throw new IllegalArgumentException("No resource " + name);
+        }
+        try {
+            return Strings.fromStream(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + name, e);
+        }
+    }
+
+    /**
+     * Robolectric does not lay out views, so the whole view counts as on screen while it is shown.
+     */
+    private static class ReplayedView extends View {
+        ReplayedView(@NonNull final Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean getGlobalVisibleRect(@NonNull final Rect rect,
+                @Nullable final Point globalOffset) {
+            if (getVisibility() != VISIBLE || getParent() == null) {
+                return false;
+            }
+            rect.set(0, 0, getWidth(), getHeight());
+            return true;
+        }
+    }
+}
@@ -6,10 +6,12 @@ package com.mopub.common.test.support;
 
 import androidx.annotation.NonNull;
 
+import com.mopub.common.AdapterConfigurationManager;
 import com.mopub.common.CacheService;
 import com.mopub.common.ClientMetadata;
 import com.mopub.common.MoPub;
 import com.mopub.common.Preconditions;
+import com.mopub.common.SdkKeyValueStore;
 import com.mopub.common.factories.MethodBuilderFactory;
 import com.mopub.common.util.AsyncTasks;
 import com.mopub.common.util.DateAndTime;
@@ -18,6 +20,7 @@ import com.mopub.common.util.test.support.ShadowMoPubHttpUrlConnection;
 import com.mopub.common.util.test.support.ShadowReflection;
 import com.mopub.common.util.test.support.TestDateAndTime;
 import com.mopub.common.util.test.support.TestMethodBuilderFactory;
+import com.mopub.mobileads.AdLoadLatencyTracker;
 import com.mopub.mobileads.factories.AdViewControllerFactory;
 import com.mopub.mobileads.factories.BaseAdFactory;
 import com.mopub.mobileads.factories.FullscreenAdAdapterFactory;
@@ -34,6 +37,7 @@ import com.mopub.mobileads.test.support.TestMoPubViewFactory;
 import com.mopub.mobileads.test.support.TestMraidControllerFactory;
 import com.mopub.mobileads.test.support.TestVastManagerFactory;
 import com.mopub.mobileads.test.support.TestVideoViewFactory;
+import com.mopub.nativeads.NativeImagePreCacher;
 import com.mopub.nativeads.factories.CustomEventNativeFactory;
 import com.mopub.nativeads.test.support.TestCustomEventNativeFactory;
 
@@ -62,6 +66,9 @@ public class SdkTestRunner extends RobolectricTestRunner {
         @Override
         public void prepareTest(Object test) {
             ClientMetadata.clearForTesting();
+            AdLoadLatencyTracker.clearForTesting();
+            NativeImagePreCacher.clearForTesting();
+            SdkKeyValueStore.clearForTesting();
 
             // Precondition exceptions should not be thrown during tests so that we can test
             // for unexpected behavior even after failing a precondition.
@@ -89,6 +96,8 @@ public class SdkTestRunner extends RobolectricTestRunner {
             MockitoAnnotations.initMocks(test);
 
             AsyncTasks.setExecutor(new RoboExecutorService());
+            // Run adapter initialization inline so tests do not depend on thread timing.
+            AdapterConfigurationManager.setInitializationExecutor(Runnable::run);
             CacheService.clearAndNullCaches();
         }
     }
@@ -0,0 +1,138 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.util;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class BoxBlurTest {
+    private static final int WIDTH = 97;
+    private static final int HEIGHT = 131;
+
+    @After
+    public void tearDown() {
+        BoxBlur.setExecutor(null);
+    }
+
+    @Test
+    public void blur_withUniformImage_shouldNotChangeIt() {
+        final int[] pixels = new int[WIDTH * HEIGHT];
+        Arrays.fill(pixels, 0xFF336699);
+
+        new BoxBlur(1).blur(pixels, WIDTH, HEIGHT, 5, 3);
+
+        for (final int pixel : pixels) {
+            assertThat(pixel).isEqualTo(0xFF336699);
+        }
+    }
+
+    @Test
+    public void blur_withOnePass_shouldAverageNeighborhoodWithEdgesRepeated() {
+        final int[] pixels = randomPixels(WIDTH, HEIGHT);
+        final int[] expected = referenceBoxBlur(pixels, WIDTH, HEIGHT, 3);
+
+        new BoxBlur(1).blur(pixels, WIDTH, HEIGHT, 3, 1);
+
+        for (int i = 0; i < pixels.length; i++) {
+            assertThat(pixels[i] >>> 24).isEqualTo(0xFF);
+            for (int shift = 0; shift <= 16; shift += 8) {
+                final int actual = (pixels[i] >> shift) & 0xFF;
+                final int reference = (expected[i] >> shift) & 0xFF;
+                // The horizontal pass rounds down before the vertical pass.
+                assertThat(Math.abs(actual - reference)).isLessThanOrEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    public void blur_inParallelBands_shouldMatchSingleBand() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        BoxBlur.setExecutor(executorService);
+        final int[] pixels = randomPixels(WIDTH, HEIGHT);
+        final int[] singleBandPixels = pixels.clone();
+
+        new BoxBlur(4).blur(pixels, WIDTH, HEIGHT, 4, 3);
+        new BoxBlur(1).blur(singleBandPixels, WIDTH, HEIGHT, 4, 3);
+
+        assertThat(pixels).isEqualTo(singleBandPixels);
+        executorService.shutdown();
+    }
+
+    @Test
+    public void blur_shouldReuseBuffersAcrossSizes() {
+        final BoxBlur subject = new BoxBlur(1);
+        final int[] large = randomPixels(WIDTH, HEIGHT);
+        final int[] small = randomPixels(10, 12);
+        final int[] expectedSmall = small.clone();
+        new BoxBlur(1).blur(expectedSmall, 10, 12, 2, 2);
+
+        subject.blur(large, WIDTH, HEIGHT, 2, 2);
+        subject.blur(small, 10, 12, 2, 2);
+
+        assertThat(small).isEqualTo(expectedSmall);
+    }
+
+    @Test
+    public void blur_withRadiusLargerThanImage_shouldRepeatEdges() {
+        final int[] pixels = new int[] {0xFF000000, 0xFFFFFFFF};
+
+        new BoxBlur(1).blur(pixels, 2, 1, 2, 1);
+
+        // Window of 5 over [b, b, b, w, w] and [b, b, w, w, w].
+        assertThat(pixels[0]).isEqualTo(0xFF666666);
+        assertThat(pixels[1]).isEqualTo(0xFF999999);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_withRadiusOverMax_shouldThrowIllegalArgumentException() {
+        new BoxBlur(1).blur(new int[4], 2, 2, BoxBlur.MAX_RADIUS + 1, 1);
+    }
+
+    private static int[] randomPixels(final int width, final int height) {
+        final Random random = new Random(width * 31 + height);
+        final int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+
+    private static int[] referenceBoxBlur(final int[] pixels, final int width, final int height,
+            final int radius) {
+        final int boxSize = (radius * 2 + 1) * (radius * 2 + 1);
+        final int[] result = new int[pixels.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                for (int dy = -radius; dy <= radius; dy++) {
+                    for (int dx = -radius; dx <= radius; dx++) {
+                        final int sx = Math.min(width - 1, Math.max(0, x + dx));
+                        final int sy = Math.min(height - 1, Math.max(0, y + dy));
+                        final int pixel = pixels[sy * width + sx];
+                        red += (pixel >> 16) & 0xFF;
+                        green += (pixel >> 8) & 0xFF;
+                        blue += pixel & 0xFF;
+                    }
+                }
+                result[y * width + x] = 0xFF000000 | ((red / boxSize) << 16) |
+                        ((green / boxSize) << 8) | (blue / boxSize);
+            }
+        }
+        return result;
+    }
+}
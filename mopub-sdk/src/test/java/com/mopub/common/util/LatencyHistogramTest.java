@@ -0,0 +1,77 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.common.util;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class LatencyHistogramTest {
+    private LatencyHistogram subject;
+
+    @Before
+    public void setUp() {
+        subject = new LatencyHistogram();
+    }
+
+    @Test
+    public void getQuantileMillis_withEmptyHistogram_shouldReturnNegativeOne() {
+        assertThat(subject.getQuantileMillis(0.95)).isEqualTo(-1);
+    }
+
+    @Test
+    public void getQuantileMillis_shouldReturnUpperBoundOfBucketHoldingQuantile() {
+        for (int i = 0; i < 19; i++) {
+            subject.add(90);
+        }
+        subject.add(1000);
+
+        assertThat(subject.getQuantileMillis(0.95)).isEqualTo(100);
+        assertThat(subject.getQuantileMillis(1.0)).isGreaterThanOrEqualTo(1000);
+        assertThat(subject.getQuantileMillis(1.0)).isLessThan(1250);
+    }
+
+    @Test
+    public void getQuantileMillis_withLatencyAboveLargestBucket_shouldReturnMaxValue() {
+        subject.add(Long.MAX_VALUE / 2);
+
+        assertThat(subject.getQuantileMillis(0.5)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void add_withMoreThanMaxTotalCount_shouldDecayCounts() {
+        for (int i = 0; i <= LatencyHistogram.MAX_TOTAL_COUNT; i++) {
+            subject.add(500);
+        }
+
+        assertThat(subject.getTotalCount()).isEqualTo((LatencyHistogram.MAX_TOTAL_COUNT + 1) / 2);
+    }
+
+    @Test
+    public void fromString_withSerializedHistogram_shouldRestoreCounts() {
+        subject.add(150);
+        subject.add(3000);
+        subject.add(3000);
+
+        final LatencyHistogram restored = LatencyHistogram.fromString(subject.serialize());
+
+        assertThat(restored.getTotalCount()).isEqualTo(3);
+        assertThat(restored.serialize()).isEqualTo(subject.serialize());
+        assertThat(restored.getQuantileMillis(0.5)).isEqualTo(subject.getQuantileMillis(0.5));
+    }
+
+    @Test
+    public void fromString_withMalformedString_shouldReturnEmptyHistogram() {
+        assertThat(LatencyHistogram.fromString(null).getTotalCount()).isEqualTo(0);
+        assertThat(LatencyHistogram.fromString("1,2,3").getTotalCount()).isEqualTo(0);
+        assertThat(LatencyHistogram.fromString(subject.serialize().replace('0', 'x'))
+                .getTotalCount()).isEqualTo(0);
+    }
+}
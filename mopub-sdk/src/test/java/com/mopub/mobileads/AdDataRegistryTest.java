@@ -0,0 +1,97 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class AdDataRegistryTest {
+
+    @After
+    public void tearDown() {
+        AdDataRegistry.clearForTesting();
+    }
+
+    @Test
+    public void retain_shouldReturnBroadcastIdentifierAsHandle() {
+        final AdData adData = createAdData(123);
+
+        final long handle = AdDataRegistry.retain(adData);
+
+        assertThat(handle).isEqualTo(123);
+        assertThat(AdDataRegistry.get(handle)).isSameAs(adData);
+    }
+
+    @Test
+    public void release_shouldRemoveAdDataOnlyAfterLastReference() {
+        final AdData adData = createAdData(123);
+        AdDataRegistry.retain(adData);
+        AdDataRegistry.retain(adData);
+
+        AdDataRegistry.release(123);
+
+        assertThat(AdDataRegistry.getReferenceCount(123)).isEqualTo(1);
+        assertThat(AdDataRegistry.get(123)).isSameAs(adData);
+
+        AdDataRegistry.release(123);
+
+        assertThat(AdDataRegistry.getReferenceCount(123)).isEqualTo(0);
+        assertThat(AdDataRegistry.get(123)).isNull();
+    }
+
+    @Test
+    public void release_withUnknownHandle_shouldDoNothing() {
+        AdDataRegistry.release(456);
+
+        assertThat(AdDataRegistry.get(456)).isNull();
+    }
+
+    @Test
+    public void retain_withNewAdDataForSameBroadcastIdentifier_shouldReplaceAdData_shouldKeepReferences() {
+        final AdData first = createAdData(123);
+        final AdData second = createAdData(123);
+        AdDataRegistry.retain(first);
+
+        AdDataRegistry.retain(second);
+
+        assertThat(AdDataRegistry.get(123)).isSameAs(second);
+        assertThat(AdDataRegistry.getReferenceCount(123)).isEqualTo(2);
+    }
+
+    @Test
+    public void retain_pastMaxSize_shouldDropOldestAdData() {
+        for (int i = 0; i <= AdDataRegistry.MAX_SIZE; i++) {
+            AdDataRegistry.retain(createAdData(i));
+            Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(AdDataRegistry.get(0)).isNull();
+        for (int i = 1; i <= AdDataRegistry.MAX_SIZE; i++) {
+            assertThat(AdDataRegistry.get(i)).isNotNull();
+        }
+    }
+
+    @Test
+    public void getAgeMillis_shouldReturnTimeSinceFirstRetained() {
+        AdDataRegistry.retain(createAdData(123));
+        Robolectric.getForegroundThreadScheduler().advanceBy(40, TimeUnit.MILLISECONDS);
+
+        assertThat(AdDataRegistry.getAgeMillis(123)).isEqualTo(40);
+        assertThat(AdDataRegistry.getAgeMillis(456)).isEqualTo(-1);
+    }
+
+    private static AdData createAdData(final long broadcastIdentifier) {
+        return new AdData.Builder().broadcastIdentifier(broadcastIdentifier).build();
+    }
+}
@@ -0,0 +1,152 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.app.Activity;
+
+import com.mopub.common.AdFormat;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class AdLoadLatencyTrackerTest {
+    private static final String BASE_AD = "com.example.BaseAd";
+    private static final int SERVER_TIMEOUT_MILLIS = 10000;
+
+    private Activity activity;
+    private AdLoadLatencyTracker subject;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).create().get();
+        subject = AdLoadLatencyTracker.getInstance(activity);
+        AdLoadLatencyTracker.setAdaptiveTimeoutsEnabled(true);
+    }
+
+    @Test
+    public void getTimeoutMillis_withTooFewSamples_shouldReturnServerTimeout() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES - 1, 500);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withFastLoads_shouldReturnMinTimeout() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 500);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(AdLoadLatencyTracker.MIN_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withSlowerLoads_shouldReturnQuantileWithHeadroom() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 3000);
+
+        final int timeoutMillis = subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER,
+                SERVER_TIMEOUT_MILLIS);
+
+        assertThat(timeoutMillis).isGreaterThanOrEqualTo(4500);
+        assertThat(timeoutMillis).isLessThan(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withVerySlowLoads_shouldNotExceedServerTimeout() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 9000);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withOnlyFailures_shouldReturnServerTimeout() {
+        for (int i = 0; i < AdLoadLatencyTracker.MIN_SAMPLES; i++) {
+            subject.recordLoad(BASE_AD, AdFormat.BANNER, 200, false, false);
+        }
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withTooFewSuccesses_shouldReturnServerTimeout() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SUCCESSES - 1, 500);
+        for (int i = 0; i < AdLoadLatencyTracker.MIN_SAMPLES; i++) {
+            subject.recordLoad(BASE_AD, AdFormat.BANNER, 200, false, false);
+        }
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+
+        recordSuccesses(1, 500);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(AdLoadLatencyTracker.MIN_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withManyTimeouts_shouldGrowTimeout() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 500);
+        for (int i = 0; i < AdLoadLatencyTracker.MIN_SAMPLES; i++) {
+            subject.recordLoad(BASE_AD, AdFormat.BANNER,
+                    AdLoadLatencyTracker.MIN_TIMEOUT_MILLIS, false, true);
+        }
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isGreaterThan(AdLoadLatencyTracker.MIN_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_shouldKeepFormatsSeparate() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 500);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.INTERSTITIAL, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_withAdaptiveTimeoutsDisabled_shouldReturnServerTimeout() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 500);
+
+        AdLoadLatencyTracker.setAdaptiveTimeoutsEnabled(false);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_byDefault_shouldReturnServerTimeout() {
+        AdLoadLatencyTracker.clearForTesting();
+        subject = AdLoadLatencyTracker.getInstance(activity);
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 500);
+
+        assertThat(AdLoadLatencyTracker.isAdaptiveTimeoutsEnabled()).isFalse();
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(SERVER_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void getTimeoutMillis_afterRestart_shouldUsePersistedHistory() {
+        recordSuccesses(AdLoadLatencyTracker.MIN_SAMPLES, 500);
+
+        AdLoadLatencyTracker.clearForTesting();
+        subject = AdLoadLatencyTracker.getInstance(activity);
+
+        assertThat(subject.getTimeoutMillis(BASE_AD, AdFormat.BANNER, SERVER_TIMEOUT_MILLIS))
+                .isEqualTo(AdLoadLatencyTracker.MIN_TIMEOUT_MILLIS);
+    }
+
+    private void recordSuccesses(final int count, final long latencyMillis) {
+        for (int i = 0; i < count; i++) {
+            subject.recordLoad(BASE_AD, AdFormat.BANNER, latencyMillis, true, false);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.mopub.common.AdFormat;
+import com.mopub.common.Constants;
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.common.util.test.support.TestDateAndTime;
+import com.mopub.network.AdLoader;
+import com.mopub.network.AdResponse;
+import com.mopub.network.RequestRateTrackerTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Date;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class AdPrefetchPoolTest {
+    private static final String AD_UNIT_ID = "ad_unit_id";
+    private static final String AD_URL = "ad_url";
+
+    @Mock
+    private AdPrefetchPool.PrefetchSource mockSource;
+    @Mock
+    private AdAdapter mockAdAdapter1;
+    @Mock
+    private AdAdapter mockAdAdapter2;
+    @Mock
+    private AdLoader mockAdLoader;
+
+    private Activity activity;
+    private AdPrefetchPool subject;
+    private AdResponse adResponse;
+
+    @Before
+    public void setup() {
+        activity = Robolectric.buildActivity(Activity.class).create().get();
+        when(mockSource.getContext()).thenReturn(activity);
+        when(mockSource.getAdUnitId()).thenReturn(AD_UNIT_ID);
+        when(mockSource.getAdFormat()).thenReturn(AdFormat.BANNER);
+        when(mockSource.generateAdUrl()).thenReturn(AD_URL);
+
+        adResponse = new AdResponse.Builder()
+                .setAdUnitId(AD_UNIT_ID)
+                .setBaseAdClassName("baseAd")
+                .build();
+
+        subject = spy(new AdPrefetchPool(mockSource));
+        doReturn(mockAdLoader).when(subject).createAdLoader(anyString(), any(AdFormat.class),
+                anyString(), any(Context.class), any(AdLoader.Listener.class));
+    }
+
+    @After
+    public void tearDown() {
+        RequestRateTrackerTest.clearRequestRateTracker();
+    }
+
+    @Test
+    public void take_withReadyEntry_shouldReturnOldestEntry_shouldCountHit() {
+        final AdPrefetchPool.Entry entry1 = new AdPrefetchPool.Entry(adResponse, mockAdAdapter1);
+        final AdPrefetchPool.Entry entry2 = new AdPrefetchPool.Entry(adResponse, mockAdAdapter2);
+        subject.addReadyEntry(entry1);
+        subject.addReadyEntry(entry2);
+
+        assertThat(subject.take()).isSameAs(entry1);
+        assertThat(subject.getReadyCount()).isEqualTo(1);
+        assertThat(subject.getMetrics().getHits()).isEqualTo(1);
+        assertThat(subject.getMetrics().getMisses()).isEqualTo(0);
+        assertThat(subject.getMetrics().getHitRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void take_withEmptyPool_shouldReturnNull_shouldCountMiss() {
+        assertThat(subject.take()).isNull();
+        assertThat(subject.getMetrics().getHits()).isEqualTo(0);
+        assertThat(subject.getMetrics().getMisses()).isEqualTo(1);
+        assertThat(subject.getMetrics().getHitRate()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void take_withExpiredEntry_shouldInvalidateIt_shouldReturnNextEntry() {
+        final TestDateAndTime dateAndTime = TestDateAndTime.getInstance();
+        final Date start = dateAndTime.internalNow();
+        final AdPrefetchPool.Entry expiredEntry = new AdPrefetchPool.Entry(adResponse, mockAdAdapter1);
+        dateAndTime.setNow(new Date(start.getTime() + Constants.AD_EXPIRATION_DELAY));
+        final AdResponse freshResponse = adResponse.toBuilder().build();
+        final AdPrefetchPool.Entry freshEntry = new AdPrefetchPool.Entry(freshResponse, mockAdAdapter2);
+        subject.addReadyEntry(expiredEntry);
+        subject.addReadyEntry(freshEntry);
+
+        assertThat(subject.take()).isSameAs(freshEntry);
+        verify(mockAdAdapter1).invalidate();
+        verify(mockAdAdapter2, never()).invalidate();
+        assertThat(subject.getMetrics().getExpired()).isEqualTo(1);
+        assertThat(subject.getMetrics().getWastedPrefetches()).isEqualTo(1);
+
+        dateAndTime.setNow(start);
+    }
+
+    @Test
+    public void setDepth_withSmallerDepth_shouldDiscardNewestEntries() {
+        subject.addReadyEntry(new AdPrefetchPool.Entry(adResponse, mockAdAdapter1));
+        subject.addReadyEntry(new AdPrefetchPool.Entry(adResponse, mockAdAdapter2));
+
+        subject.setDepth(1);
+
+        assertThat(subject.getReadyCount()).isEqualTo(1);
+        verify(mockAdAdapter2).invalidate();
+        verify(mockAdAdapter1, never()).invalidate();
+        assertThat(subject.getMetrics().getDiscarded()).isEqualTo(1);
+    }
+
+    @Test
+    public void replenish_whenRateLimited_shouldNotGenerateAdUrl() {
+        RequestRateTrackerTest.prepareRequestRateTracker(AD_UNIT_ID, 10000, "reason");
+
+        subject.setDepth(2);
+
+        verify(mockSource, never()).generateAdUrl();
+    }
+
+    @Test
+    public void replenish_whenPoolIsFull_shouldNotGenerateAdUrl() {
+        subject.addReadyEntry(new AdPrefetchPool.Entry(adResponse, mockAdAdapter1));
+
+        subject.setDepth(1);
+
+        verify(mockSource, never()).generateAdUrl();
+    }
+
+    @Test
+    public void destroy_shouldInvalidateAllEntries_shouldStopReplenishing() {
+        subject.addReadyEntry(new AdPrefetchPool.Entry(adResponse, mockAdAdapter1));
+        subject.addReadyEntry(new AdPrefetchPool.Entry(adResponse, mockAdAdapter2));
+
+        subject.destroy();
+        subject.setDepth(3);
+
+        verify(mockAdAdapter1).invalidate();
+        verify(mockAdAdapter2).invalidate();
+        assertThat(subject.getReadyCount()).isEqualTo(0);
+        assertThat(subject.getMetrics().getDiscarded()).isEqualTo(2);
+        verify(mockSource, never()).generateAdUrl();
+    }
+
+    @Test
+    public void setDepth_shouldLoadAdapter_whenAdLoaded_shouldAddReadyEntry() throws Exception {
+        final InlineAdAdapter adAdapter = createAdAdapter();
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(adAdapter);
+
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+        adAdapter.onAdLoaded();
+        ShadowLooper.runUiThreadTasks();
+
+        verify(mockAdLoader).loadNextAd(null);
+        verify(mockAdLoader).creativeDownloadSuccess();
+        assertThat(subject.getReadyCount()).isEqualTo(1);
+        final AdPrefetchPool.Entry entry = subject.take();
+        assertThat(entry.adResponse).isSameAs(adResponse);
+        assertThat(entry.adAdapter).isSameAs(adAdapter);
+        assertThat(subject.getMetrics().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void setDepth_withDepthTwo_whenFirstAdLoaded_shouldPrefetchAgain() throws Exception {
+        final InlineAdAdapter adAdapter = createAdAdapter();
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(adAdapter);
+
+        subject.setDepth(2);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+        adAdapter.onAdLoaded();
+        ShadowLooper.runUiThreadTasks();
+
+        verifyAdLoaderCreated(2);
+        assertThat(subject.getReadyCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void setDepth_whenAdapterLoadFails_withMoreAds_shouldLoadNextInWaterfall()
+            throws Exception {
+        final InlineAdAdapter adAdapter = createAdAdapter();
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(adAdapter);
+        when(mockAdLoader.hasMoreAds()).thenReturn(true);
+
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+        adAdapter.onAdLoadFailed(MoPubErrorCode.NETWORK_NO_FILL);
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(adAdapter.isInvalidated()).isTrue();
+        verify(mockAdLoader).loadNextAd(MoPubErrorCode.NETWORK_NO_FILL);
+        assertThat(subject.getReadyCount()).isEqualTo(0);
+        assertThat(subject.getMetrics().getFailedPrefetches()).isEqualTo(0);
+    }
+
+    @Test
+    public void setDepth_whenAdapterLoadFails_withNoMoreAds_shouldCountFailure_shouldNotRetry()
+            throws Exception {
+        final InlineAdAdapter adAdapter = createAdAdapter();
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(adAdapter);
+        when(mockAdLoader.hasMoreAds()).thenReturn(false);
+
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+        adAdapter.onAdLoadFailed(MoPubErrorCode.NETWORK_NO_FILL);
+        ShadowLooper.runUiThreadTasks();
+
+        verify(mockAdLoader, never()).loadNextAd(MoPubErrorCode.NETWORK_NO_FILL);
+        assertThat(subject.getMetrics().getFailedPrefetches()).isEqualTo(1);
+        verifyAdLoaderCreated(1);
+    }
+
+    @Test
+    public void setDepth_withNoAdapterForResponse_shouldLoadNextInWaterfall() {
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(null);
+        when(mockAdLoader.hasMoreAds()).thenReturn(true);
+
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+
+        verify(mockAdLoader).loadNextAd(MoPubErrorCode.ADAPTER_NOT_FOUND);
+    }
+
+    @Test
+    public void setDepth_whenRequestFails_shouldCountFailure_shouldNotRetryUntilNextTake() {
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onErrorResponse(null);
+
+        assertThat(subject.getMetrics().getFailedPrefetches()).isEqualTo(1);
+        verifyAdLoaderCreated(1);
+
+        subject.take();
+
+        verifyAdLoaderCreated(2);
+    }
+
+    @Test
+    public void setDepth_whenPooledAdExpires_shouldRemoveIt_shouldPrefetchReplacement()
+            throws Exception {
+        final InlineAdAdapter adAdapter = createAdAdapter();
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(adAdapter);
+
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+        adAdapter.onAdLoaded();
+        ShadowLooper.runUiThreadTasks();
+        adAdapter.onAdLoadFailed(MoPubErrorCode.EXPIRED);
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(adAdapter.isInvalidated()).isTrue();
+        assertThat(subject.getReadyCount()).isEqualTo(0);
+        assertThat(subject.getMetrics().getExpired()).isEqualTo(1);
+        verifyAdLoaderCreated(2);
+    }
+
+    @Test
+    public void destroy_withPrefetchInFlight_shouldInvalidateAdapter_shouldIgnoreLateLoad()
+            throws Exception {
+        final InlineAdAdapter adAdapter = createAdAdapter();
+        when(mockSource.createAdAdapter(adResponse)).thenReturn(adAdapter);
+
+        subject.setDepth(1);
+        verifyAdLoaderCreated(1).onSuccess(adResponse);
+        subject.destroy();
+        adAdapter.onAdLoaded();
+        ShadowLooper.runUiThreadTasks();
+
+        assertThat(adAdapter.isInvalidated()).isTrue();
+        verify(mockAdLoader, never()).creativeDownloadSuccess();
+        assertThat(subject.getReadyCount()).isEqualTo(0);
+    }
+
+    private InlineAdAdapter createAdAdapter() throws AdAdapter.BaseAdNotFoundException {
+        return new InlineAdAdapter(activity, "baseAd", new AdData.Builder().build());
+    }
+
+    private AdLoader.Listener verifyAdLoaderCreated(final int times) {
+        final ArgumentCaptor<AdLoader.Listener> listenerCaptor =
+                ArgumentCaptor.forClass(AdLoader.Listener.class);
+        verify(subject, times(times)).createAdLoader(eq(AD_URL), eq(AdFormat.BANNER),
+                eq(AD_UNIT_ID), any(Context.class), listenerCaptor.capture());
+        return listenerCaptor.getValue();
+    }
+}
@@ -5,23 +5,28 @@
 package com.mopub.mobileads;
 
 import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 
+import androidx.annotation.NonNull;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.mopub.common.DataKeys;
 import com.mopub.common.test.support.SdkTestRunner;
 
 import org.fest.util.Sets;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.Robolectric;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,6 +45,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @RunWith(SdkTestRunner.class)
 public class EventForwardingBroadcastReceiverTest {
+    private static final String OTHER_ACTION = "com.mopub.action.other";
 
     private AdLifecycleListener.InteractionListener interactionListener;
     private EventForwardingBroadcastReceiver subject;
@@ -54,6 +60,11 @@ public class EventForwardingBroadcastReceiverTest {
         context = Robolectric.buildActivity(Activity.class).create().get();
     }
 
+    @After
+    public void tearDown() {
+        FullscreenEventBus.clearForTesting();
+    }
+
     @Ignore("Difficult with the number of test factories and mocking involved.")
     @Test
     public void twoDifferentInterstitials_shouldNotHearEachOthersBroadcasts() throws Exception {
@@ -189,13 +200,46 @@ public class EventForwardingBroadcastReceiverTest {
         // pass
     }
 
+    @Test
+    public void onFullscreenEvent_shouldNotifyListener() throws Exception {
+        subject.onFullscreenEvent(FullscreenEventBus.Event.SHOW);
+        subject.onFullscreenEvent(FullscreenEventBus.Event.CLICK);
+        subject.onFullscreenEvent(FullscreenEventBus.Event.REWARDED_AD_COMPLETE);
+        subject.onFullscreenEvent(FullscreenEventBus.Event.FAIL);
+        subject.onFullscreenEvent(FullscreenEventBus.Event.DISMISS);
+
+        verify(interactionListener).onAdShown();
+        verify(interactionListener).onAdImpression();
+        verify(interactionListener).onAdClicked();
+        verify(interactionListener).onAdComplete(null);
+        verify(interactionListener).onAdFailed(MoPubErrorCode.NETWORK_INVALID_STATE);
+        verify(interactionListener).onAdDismissed();
+    }
+
     @Test
     public void register_shouldEnableReceivingBroadcasts() throws Exception {
+        subject.register(subject, context);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_SHOW);
+
+        verify(interactionListener).onAdShown();
+    }
+
+    @Test
+    public void register_shouldNotReceiveOtherBroadcastIdentifiers() throws Exception {
+        subject.register(subject, context);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier + 1,
+                ACTION_FULLSCREEN_SHOW);
+
+        verify(interactionListener, never()).onAdShown();
+    }
+
+    @Test
+    public void register_shouldNotUseLocalBroadcastManager() throws Exception {
         subject.register(subject, context);
         Intent intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_SHOW, broadcastIdentifier);
         LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
 
-        verify(interactionListener).onAdShown();
+        verify(interactionListener, never()).onAdShown();
     }
 
     @Test
@@ -203,10 +247,21 @@ public class EventForwardingBroadcastReceiverTest {
         subject.register(subject, context);
 
         subject.unregister(subject);
-        Intent intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_SHOW, broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_SHOW);
 
         verify(interactionListener, never()).onAdShown();
+        assertThat(FullscreenEventBus.getListenerCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void onReceive_whenActionDismiss_shouldUnregister() throws Exception {
+        subject.register(subject, context);
+
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_DISMISS);
+
+        verify(interactionListener).onAdDismissed();
+        assertThat(FullscreenEventBus.getListenerCount()).isEqualTo(0);
     }
 
     @Test
@@ -217,17 +272,48 @@ public class EventForwardingBroadcastReceiverTest {
     }
 
     @Test
-    public void unregister_shouldNotLeakTheContext() throws Exception {
+    public void unregister_twice_shouldNotBlowUp() throws Exception {
         subject.register(subject, context);
         subject.unregister(subject);
 
-        LocalBroadcastManager.getInstance(context).registerReceiver(subject, subject.getIntentFilter());
         subject.unregister(subject);
 
-        // Unregister shouldn't know the context any more and so should not have worked
-        Intent intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_SHOW, broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
-        verify(interactionListener).onAdShown();
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_SHOW);
+        verify(interactionListener, never()).onAdShown();
+    }
+
+    @Test
+    public void register_withTwoReceiversForSameBroadcastIdentifier_shouldNotifyBoth() throws Exception {
+        final AdLifecycleListener.InteractionListener otherInteractionListener =
+                mock(AdLifecycleListener.InteractionListener.class);
+        final EventForwardingBroadcastReceiver otherSubject =
+                new EventForwardingBroadcastReceiver(otherInteractionListener, broadcastIdentifier);
+        subject.register(subject, context);
+        otherSubject.register(otherSubject, context);
+
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_CLICK);
+
+        verify(interactionListener).onAdClicked();
+        verify(otherInteractionListener).onAdClicked();
+    }
+
+    @Test
+    public void register_withOtherActions_shouldReceiveThemThroughLocalBroadcastManager() throws Exception {
+        final RecordingBroadcastReceiver receiver =
+                new RecordingBroadcastReceiver(broadcastIdentifier);
+        receiver.register(receiver, context);
+
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, OTHER_ACTION);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_SHOW);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_CLICK);
+
+        assertThat(receiver.actions).containsExactly(OTHER_ACTION, ACTION_FULLSCREEN_SHOW);
+
+        receiver.unregister(receiver);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, OTHER_ACTION);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier, ACTION_FULLSCREEN_SHOW);
+
+        assertThat(receiver.actions).hasSize(2);
     }
 
     public static Intent getIntentForActionAndIdentifier(final String action, final long broadcastIdentifier) {
@@ -235,4 +321,27 @@ public class EventForwardingBroadcastReceiverTest {
         intent.putExtra("broadcastIdentifier", broadcastIdentifier);
         return intent;
     }
+
+    private static class RecordingBroadcastReceiver extends BaseBroadcastReceiver {
+        final List<String> actions = new ArrayList<>();
+
+        RecordingBroadcastReceiver(final long broadcastIdentifier) {
+            super(broadcastIdentifier);
+        }
+
+        @NonNull
+        @Override
+        public IntentFilter getIntentFilter() {
+            final IntentFilter intentFilter = new IntentFilter(OTHER_ACTION);
+            intentFilter.addAction(ACTION_FULLSCREEN_SHOW);
+            return intentFilter;
+        }
+
+        @Override
+        public void onReceive(final Context context, final Intent intent) {
+            if (shouldConsumeBroadcast(intent)) {
+                actions.add(intent.getAction());
+            }
+        }
+    }
 }
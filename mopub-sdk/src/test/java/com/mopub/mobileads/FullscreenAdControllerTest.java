@@ -5,15 +5,13 @@
 package com.mopub.mobileads;
 
 import android.app.Activity;
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ImageView;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+import androidx.annotation.NonNull;
 
 import com.mopub.common.CloseableLayout;
 import com.mopub.common.DataKeys;
@@ -74,7 +72,6 @@ public class FullscreenAdControllerTest {
     private Set<VastCompanionAdConfig> vastCompanionAdConfigs;
     private List<VastTracker> companionClickTrackers;
     private List<VastTracker> companionCreativeViewTrackers;
-    private BroadcastReceiver broadcastReceiver;
 
     @Mock
     Intent mockIntent;
@@ -133,7 +130,7 @@ public class FullscreenAdControllerTest {
 
     @After
     public void tearDown() {
-        LocalBroadcastManager.getInstance(activity).unregisterReceiver(broadcastReceiver);
+        FullscreenEventBus.clearForTesting();
         Networking.clearForTesting();
     }
 
@@ -425,17 +422,14 @@ public class FullscreenAdControllerTest {
     @Test
     public void onAdClicked_withNoCompanionAd_withMraid_shouldBroadcastClick() throws InterruptedException {
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
 
         subject.onAdClicked(activity, adData);
 
@@ -445,17 +439,14 @@ public class FullscreenAdControllerTest {
     @Test
     public void onAdClicked_withNoCompanionAd_withImage_shouldBroadcastClick() throws InterruptedException {
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
         adData.setFullAdType(FullAdType.JSON);
         adData.setAdPayload(IMAGE_JSON);
         subject = new FullscreenAdController(activity, mockBundle, mockIntent, adData);
@@ -468,17 +459,14 @@ public class FullscreenAdControllerTest {
     @Test
     public void onAdClicked_withBlurredLastFrameCompanion_shouldBroadcastClick() throws InterruptedException {
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
         subject.onCompanionAdsReady(vastCompanionAdConfigs, VIDEO_DURATION_MS);
 
         subject.onAdClicked(activity, adData);
@@ -505,17 +493,14 @@ public class FullscreenAdControllerTest {
         vastCompanionAdConfigs.clear();
         vastCompanionAdConfigs.add(vastCompanionAdConfig);
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
         subject.onCompanionAdsReady(vastCompanionAdConfigs, VIDEO_DURATION_MS);
 
         subject.onAdClicked(activity, adData);
@@ -542,17 +527,14 @@ public class FullscreenAdControllerTest {
         vastCompanionAdConfigs.clear();
         vastCompanionAdConfigs.add(vastCompanionAdConfig);
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
         subject.onCompanionAdsReady(vastCompanionAdConfigs, VIDEO_DURATION_MS);
 
         subject.onAdClicked(activity, adData);
@@ -579,17 +561,14 @@ public class FullscreenAdControllerTest {
         vastCompanionAdConfigs.clear();
         vastCompanionAdConfigs.add(vastCompanionAdConfig);
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
         subject.onCompanionAdsReady(vastCompanionAdConfigs, VIDEO_DURATION_MS);
 
         subject.onAdClicked(activity, adData);
@@ -616,17 +595,14 @@ public class FullscreenAdControllerTest {
         vastCompanionAdConfigs.clear();
         vastCompanionAdConfigs.add(vastCompanionAdConfig);
         final Semaphore semaphore = new Semaphore(0);
-        broadcastReceiver = new BroadcastReceiver() {
+        FullscreenEventBus.register(broadcastIdentifier, new FullscreenEventBus.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
-                assertThat(intent.getAction()).isEqualTo("com.mopub.action.fullscreen.click");
-                assertThat(intent.getLongExtra(DataKeys.BROADCAST_IDENTIFIER_KEY, -1)).isEqualTo(broadcastIdentifier);
+            public void onFullscreenEvent(@NonNull FullscreenEventBus.Event event) {
+                assertThat(event).isEqualTo(FullscreenEventBus.Event.CLICK);
 
                 semaphore.release();
             }
-        };
-        LocalBroadcastManager.getInstance(activity).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null, broadcastIdentifier).getIntentFilter());
+        });
         subject.onCompanionAdsReady(vastCompanionAdConfigs, VIDEO_DURATION_MS);
 
         subject.onAdClicked(activity, adData);
@@ -0,0 +1,161 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.IntentActions;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.robolectric.Robolectric;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(SdkTestRunner.class)
+public class FullscreenEventBusTest {
+    private static final long BROADCAST_IDENTIFIER = 123456789012L;
+
+    private FullscreenEventBus.Listener listener;
+
+    @Before
+    public void setUp() {
+        listener = mock(FullscreenEventBus.Listener.class);
+    }
+
+    @After
+    public void tearDown() {
+        Robolectric.getForegroundThreadScheduler().reset();
+        FullscreenEventBus.clearForTesting();
+    }
+
+    @Test
+    public void post_shouldDeliverToRegisteredListener() {
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.CLICK);
+
+        verify(listener).onFullscreenEvent(FullscreenEventBus.Event.CLICK);
+    }
+
+    @Test
+    public void post_withOtherBroadcastIdentifier_shouldNotDeliver() {
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER + 1, FullscreenEventBus.Event.CLICK);
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER + (1L << 32),
+                FullscreenEventBus.Event.CLICK);
+
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void post_withNegativeBroadcastIdentifier_shouldDeliver() {
+        FullscreenEventBus.register(-BROADCAST_IDENTIFIER, listener);
+
+        FullscreenEventBus.post(-BROADCAST_IDENTIFIER, FullscreenEventBus.Event.SHOW);
+
+        verify(listener).onFullscreenEvent(FullscreenEventBus.Event.SHOW);
+    }
+
+    @Test
+    public void post_shouldDeliverInOrderOnMainThread() {
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+        Robolectric.getForegroundThreadScheduler().pause();
+
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.SHOW);
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.CLICK);
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.DISMISS);
+        verifyZeroInteractions(listener);
+
+        Robolectric.getForegroundThreadScheduler().unPause();
+
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onFullscreenEvent(FullscreenEventBus.Event.SHOW);
+        inOrder.verify(listener).onFullscreenEvent(FullscreenEventBus.Event.CLICK);
+        inOrder.verify(listener).onFullscreenEvent(FullscreenEventBus.Event.DISMISS);
+    }
+
+    @Test
+    public void post_whenUnregisteredBeforeDelivery_shouldNotDeliver() {
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+        Robolectric.getForegroundThreadScheduler().pause();
+
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.SHOW);
+        FullscreenEventBus.unregister(BROADCAST_IDENTIFIER, listener);
+        Robolectric.getForegroundThreadScheduler().unPause();
+
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void unregister_withOtherListener_shouldKeepRegisteredListener() {
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+
+        FullscreenEventBus.unregister(BROADCAST_IDENTIFIER,
+                mock(FullscreenEventBus.Listener.class));
+
+        assertThat(FullscreenEventBus.getListenerCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void register_withSameBroadcastIdentifier_shouldDeliverToEveryListener() {
+        final FullscreenEventBus.Listener otherListener = mock(FullscreenEventBus.Listener.class);
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, otherListener);
+
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.FAIL);
+
+        verify(listener).onFullscreenEvent(FullscreenEventBus.Event.FAIL);
+        verify(otherListener).onFullscreenEvent(FullscreenEventBus.Event.FAIL);
+    }
+
+    @Test
+    public void register_withSameListenerTwice_shouldDeliverOnce() {
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.CLICK);
+
+        verify(listener).onFullscreenEvent(FullscreenEventBus.Event.CLICK);
+        assertThat(FullscreenEventBus.getListenerCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void unregister_withOneOfTwoListeners_shouldKeepDeliveringToTheOther() {
+        final FullscreenEventBus.Listener otherListener = mock(FullscreenEventBus.Listener.class);
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, listener);
+        FullscreenEventBus.register(BROADCAST_IDENTIFIER, otherListener);
+
+        FullscreenEventBus.unregister(BROADCAST_IDENTIFIER, listener);
+        FullscreenEventBus.post(BROADCAST_IDENTIFIER, FullscreenEventBus.Event.DISMISS);
+
+        verifyZeroInteractions(listener);
+        verify(otherListener).onFullscreenEvent(FullscreenEventBus.Event.DISMISS);
+        assertThat(FullscreenEventBus.getListenerCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void fromAction_shouldMapIntentActions() {
+        assertThat(FullscreenEventBus.Event.fromAction(IntentActions.ACTION_FULLSCREEN_FAIL))
+                .isEqualTo(FullscreenEventBus.Event.FAIL);
+        assertThat(FullscreenEventBus.Event.fromAction(IntentActions.ACTION_FULLSCREEN_SHOW))
+                .isEqualTo(FullscreenEventBus.Event.SHOW);
+        assertThat(FullscreenEventBus.Event.fromAction(IntentActions.ACTION_FULLSCREEN_DISMISS))
+                .isEqualTo(FullscreenEventBus.Event.DISMISS);
+        assertThat(FullscreenEventBus.Event.fromAction(IntentActions.ACTION_FULLSCREEN_CLICK))
+                .isEqualTo(FullscreenEventBus.Event.CLICK);
+        assertThat(FullscreenEventBus.Event.fromAction(IntentActions.ACTION_REWARDED_AD_COMPLETE))
+                .isEqualTo(FullscreenEventBus.Event.REWARDED_AD_COMPLETE);
+        assertThat(FullscreenEventBus.Event.fromAction("unknown")).isNull();
+        assertThat(FullscreenEventBus.Event.fromAction(null)).isNull();
+    }
+}
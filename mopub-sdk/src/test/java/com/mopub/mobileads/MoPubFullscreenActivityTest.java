@@ -7,15 +7,19 @@ package com.mopub.mobileads;
 import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Bundle;
 
+import com.mopub.common.DataKeys;
 import com.mopub.common.test.support.SdkTestRunner;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.robolectric.Robolectric;
 
+import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
 
 @RunWith(SdkTestRunner.class)
@@ -23,6 +27,7 @@ public class MoPubFullscreenActivityTest {
     private long broadcastIdentifier;
     private MoPubFullscreenActivity subject;
     private AdData adData;
+    private Intent intent;
 
     private static final String HTML_DATA = "TEST HTML DATA";
     private static final int REWARDED_DURATION_IN_SECONDS = 25;
@@ -34,19 +39,32 @@ public class MoPubFullscreenActivityTest {
     public void setup() {
         broadcastIdentifier = 3333;
 
-        AdData adData = new AdData.Builder()
+        adData = new AdData.Builder()
                 .broadcastIdentifier(broadcastIdentifier)
                 .adPayload(HTML_DATA)
                 .rewardedDurationSeconds(REWARDED_DURATION_IN_SECONDS)
                 .build();
 
         Context context = Robolectric.buildActivity(Activity.class).create().get();
-        Intent intent = MoPubFullscreenActivity.createIntent(context, adData);
+        intent = MoPubFullscreenActivity.createIntent(context, adData);
         subject = Robolectric.buildActivity(MoPubFullscreenActivity.class, intent)
                 .create().get();
         subject.setFullscreenAdController(mockFullscreenAdController);
     }
 
+    @After
+    public void tearDown() {
+        AdDataRegistry.clearForTesting();
+    }
+
+    @Test
+    public void createIntent_shouldOnlyCarryHandleToAdData() {
+        assertThat(intent.hasExtra(DataKeys.AD_DATA_KEY)).isFalse();
+        assertThat(intent.getLongExtra(DataKeys.AD_DATA_HANDLE_KEY, 0))
+                .isEqualTo(broadcastIdentifier);
+        assertThat(MoPubFullscreenActivity.getAdDataFromIntent(intent)).isSameAs(adData);
+    }
+
     @Test
     public void OnPause_shouldCallPauseOnController() {
         subject.onResume();
@@ -66,4 +84,72 @@ public class MoPubFullscreenActivityTest {
         verify(mockFullscreenAdController).resume();
         verify(mockFullscreenAdController).destroy();
     }
+
+    @Test
+    public void onDestroy_whenFinishing_shouldReleaseAdData() {
+        subject.finish();
+
+        subject.onDestroy();
+
+        assertThat(AdDataRegistry.get(broadcastIdentifier)).isNull();
+    }
+
+    @Test
+    public void onDestroy_whenNotFinishing_shouldKeepAdDataForRecreation() {
+        subject.onDestroy();
+
+        assertThat(AdDataRegistry.get(broadcastIdentifier)).isSameAs(adData);
+    }
+
+    @Test
+    public void onSaveInstanceState_withRegisteredAdData_shouldOnlySaveHandle() {
+        final Bundle outState = new Bundle();
+
+        subject.onSaveInstanceState(outState);
+
+        assertThat(outState.getLong(DataKeys.AD_DATA_HANDLE_KEY)).isEqualTo(broadcastIdentifier);
+        assertThat(outState.containsKey(DataKeys.AD_DATA_KEY)).isFalse();
+    }
+
+    @Test
+    public void onCreate_afterConfigurationChange_shouldRestoreAdDataFromRegistry() {
+        final Bundle outState = new Bundle();
+        subject.onSaveInstanceState(outState);
+        subject.onDestroy();
+
+        final MoPubFullscreenActivity recreated = Robolectric.buildActivity(
+                MoPubFullscreenActivity.class, intent).create(outState).get();
+
+        assertThat(recreated.isFinishing()).isFalse();
+        assertThat(recreated.getFullscreenAdController()).isNotNull();
+    }
+
+    @Test
+    public void onCreate_afterProcessDeath_shouldFinish() {
+        final Bundle outState = new Bundle();
+        subject.onSaveInstanceState(outState);
+        AdDataRegistry.clearForTesting();
+
+        final MoPubFullscreenActivity recreated = Robolectric.buildActivity(
+                MoPubFullscreenActivity.class, intent).create(outState).get();
+
+        assertThat(recreated.isFinishing()).isTrue();
+        assertThat(recreated.getFullscreenAdController()).isNull();
+    }
+
+    @Test
+    public void onSaveInstanceState_withParcelableExtra_shouldParcelAdData() {
+        final Intent legacyIntent = new Intent(subject, MoPubFullscreenActivity.class);
+        legacyIntent.putExtra(DataKeys.AD_DATA_KEY, adData);
+        AdDataRegistry.clearForTesting();
+        final MoPubFullscreenActivity legacySubject = Robolectric.buildActivity(
+                MoPubFullscreenActivity.class, legacyIntent).create().get();
+        final Bundle outState = new Bundle();
+
+        legacySubject.onSaveInstanceState(outState);
+
+        assertThat(outState.containsKey(DataKeys.AD_DATA_HANDLE_KEY)).isFalse();
+        assertThat((AdData) outState.getParcelable(DataKeys.AD_DATA_KEY))
+                .isEqualsToByComparingFields(adData);
+    }
 }
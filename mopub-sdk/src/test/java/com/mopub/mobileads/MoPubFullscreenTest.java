@@ -9,11 +9,8 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Handler;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import com.mopub.common.AdType;
 import com.mopub.common.CacheServiceTest;
-import com.mopub.common.DataKeys;
 import com.mopub.common.FullAdType;
 import com.mopub.common.ViewabilityVendor;
 import com.mopub.common.test.support.SdkTestRunner;
@@ -47,7 +44,6 @@ import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_CLICK;
 import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_DISMISS;
 import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_SHOW;
 import static com.mopub.common.IntentActions.ACTION_REWARDED_AD_COMPLETE;
-import static com.mopub.mobileads.EventForwardingBroadcastReceiverTest.getIntentForActionAndIdentifier;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
@@ -114,6 +110,7 @@ public class MoPubFullscreenTest {
     @After
     public void tearDown() {
         Networking.clearForTesting();
+        FullscreenEventBus.clearForTesting();
     }
 
     @Test
@@ -122,31 +119,30 @@ public class MoPubFullscreenTest {
         subject.markReady();
         subject.show();
 
-        Intent intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_SHOW, broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_SHOW);
 
         verify(interactionListener).onAdShown();
         verify(interactionListener).onAdImpression();
         verifyNoMoreInteractions(interactionListener);
         Mockito.reset(interactionListener);
 
-        intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_CLICK, broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_CLICK);
 
         verify(interactionListener).onAdClicked();
         verifyNoMoreInteractions(interactionListener);
         Mockito.reset(interactionListener);
 
-        intent = getIntentForActionAndIdentifier(ACTION_REWARDED_AD_COMPLETE,
-                broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_REWARDED_AD_COMPLETE);
 
         verify(interactionListener).onAdComplete(null);
         verifyNoMoreInteractions(interactionListener);
         Mockito.reset(interactionListener);
 
-        intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_DISMISS, broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_DISMISS);
 
         verify(interactionListener).onAdDismissed();
     }
@@ -157,24 +153,23 @@ public class MoPubFullscreenTest {
         subject.internalLoad(context, loadListener, adData);
         subject.onInvalidate();
 
-        Intent intent;
-        intent = new Intent(ACTION_FULLSCREEN_SHOW);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_SHOW);
 
         verify(interactionListener, never()).onAdShown();
 
-        intent = new Intent(ACTION_REWARDED_AD_COMPLETE);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_REWARDED_AD_COMPLETE);
 
         verify(interactionListener, never()).onAdComplete(null);
 
-        intent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_CLICK, broadcastIdentifier);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_CLICK);
 
         verify(interactionListener, never()).onAdClicked();
 
-        intent = new Intent(ACTION_FULLSCREEN_DISMISS);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(intent);
+        BaseBroadcastReceiver.broadcastAction(context, broadcastIdentifier,
+                ACTION_FULLSCREEN_DISMISS);
 
         verify(interactionListener, never()).onAdDismissed();
     }
@@ -282,7 +277,7 @@ public class MoPubFullscreenTest {
         final Intent intent = ShadowApplication.getInstance().getNextStartedActivity();
         assertThat(intent.getComponent().getClassName()).isEqualTo(MoPubFullscreenActivity.class.getCanonicalName());
         assertThat(Utils.bitMaskContainsFlag(intent.getFlags(), Intent.FLAG_ACTIVITY_NEW_TASK)).isTrue();
-        AdData adDataFromActivity = intent.getParcelableExtra(DataKeys.AD_DATA_KEY);
+        AdData adDataFromActivity = MoPubFullscreenActivity.getAdDataFromIntent(intent);
         assertThat(adData).isEqualsToByComparingFields(adDataFromActivity);
         assertThat(adDataFromActivity.isRewarded()).isFalse();
     }
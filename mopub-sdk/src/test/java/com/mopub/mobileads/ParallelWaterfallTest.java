@@ -0,0 +1,148 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.network.AdLoader;
+import com.mopub.network.AdResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.robolectric.Robolectric;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SdkTestRunner.class)
+public class ParallelWaterfallTest {
+    private static final long BUDGET_MILLIS = 1000;
+
+    @Mock
+    private AdLoader mockAdLoader;
+    @Mock
+    private ParallelWaterfall.Listener mockListener;
+    @Mock
+    private AdAdapter mockAdAdapter0;
+    @Mock
+    private AdAdapter mockAdAdapter1;
+
+    private AdResponse adResponse0;
+    private AdResponse adResponse1;
+    private ParallelWaterfall subject;
+
+    @Before
+    public void setup() {
+        adResponse0 = new AdResponse.Builder().setBaseAdClassName("first").build();
+        adResponse1 = new AdResponse.Builder().setBaseAdClassName("second").build();
+
+        subject = new ParallelWaterfall(mockAdLoader, Arrays.asList(adResponse0, adResponse1),
+                BUDGET_MILLIS, mockListener);
+    }
+
+    @Test
+    public void start_withLowerPriorityLoadedFirst_shouldWaitForHigherPriority() {
+        startWithBothAdapters();
+
+        subject.getCandidates().get(1).onAdLoaded();
+
+        verify(mockListener, never()).onWinnerLoaded(any(AdResponse.class), any(AdAdapter.class));
+        assertThat(subject.isFinished()).isFalse();
+
+        subject.getCandidates().get(0).onAdLoaded();
+
+        verify(mockListener).onWinnerLoaded(adResponse0, mockAdAdapter0);
+        verify(mockAdLoader).creativeDownloadSuccess(adResponse0);
+        verify(mockAdLoader).creativeDownloadFailed(adResponse1, MoPubErrorCode.CANCELLED);
+        verify(mockAdAdapter1).invalidate();
+        verify(mockAdAdapter0, never()).invalidate();
+        assertThat(subject.isFinished()).isTrue();
+    }
+
+    @Test
+    public void start_withHigherPriorityFailed_shouldPickLowerPriority() {
+        startWithBothAdapters();
+
+        subject.getCandidates().get(1).onAdLoaded();
+        subject.getCandidates().get(0).onAdLoadFailed(MoPubErrorCode.NETWORK_NO_FILL);
+
+        verify(mockAdLoader).creativeDownloadFailed(adResponse0, MoPubErrorCode.NETWORK_NO_FILL);
+        verify(mockAdAdapter0).invalidate();
+        verify(mockAdLoader).creativeDownloadSuccess(adResponse1);
+        verify(mockListener).onWinnerLoaded(adResponse1, mockAdAdapter1);
+    }
+
+    @Test
+    public void start_withBudgetExpired_shouldPickLoadedLowerPriority() {
+        startWithBothAdapters();
+
+        subject.getCandidates().get(1).onAdLoaded();
+        Robolectric.getForegroundThreadScheduler().advanceBy(BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+
+        verify(mockListener).onWinnerLoaded(adResponse1, mockAdAdapter1);
+        verify(mockAdLoader).creativeDownloadFailed(adResponse0, MoPubErrorCode.CANCELLED);
+        verify(mockAdAdapter0).invalidate();
+    }
+
+    @Test
+    public void start_withBudgetExpired_withNothingLoaded_shouldKeepWaiting() {
+        startWithBothAdapters();
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertThat(subject.isFinished()).isFalse();
+
+        subject.getCandidates().get(1).onAdLoaded();
+
+        verify(mockListener).onWinnerLoaded(adResponse1, mockAdAdapter1);
+    }
+
+    @Test
+    public void start_withAllFailed_shouldCallOnAllFailedWithLastError() {
+        startWithBothAdapters();
+
+        subject.getCandidates().get(0).onAdLoadFailed(MoPubErrorCode.NETWORK_NO_FILL);
+        subject.getCandidates().get(1).onAdLoadFailed(MoPubErrorCode.NETWORK_TIMEOUT);
+
+        verify(mockListener).onAllFailed(MoPubErrorCode.NETWORK_TIMEOUT);
+        verify(mockAdLoader).creativeDownloadFailed(adResponse0, MoPubErrorCode.NETWORK_NO_FILL);
+        verify(mockAdLoader).creativeDownloadFailed(adResponse1, MoPubErrorCode.NETWORK_TIMEOUT);
+        verify(mockListener, never()).onWinnerLoaded(any(AdResponse.class), any(AdAdapter.class));
+    }
+
+    @Test
+    public void start_withMissingAdapter_shouldReportAdapterNotFound() {
+        subject.start((adResponse, priority) -> priority == 0 ? null : mockAdAdapter1);
+
+        verify(mockAdLoader).creativeDownloadFailed(adResponse0, MoPubErrorCode.ADAPTER_NOT_FOUND);
+
+        subject.getCandidates().get(1).onAdLoaded();
+
+        verify(mockListener).onWinnerLoaded(adResponse1, mockAdAdapter1);
+    }
+
+    @Test
+    public void cancel_shouldInvalidateAllAdapters_shouldIgnoreLaterResults() {
+        startWithBothAdapters();
+
+        subject.cancel();
+        subject.getCandidates().get(0).onAdLoaded();
+
+        verify(mockAdAdapter0).invalidate();
+        verify(mockAdAdapter1).invalidate();
+        verify(mockListener, never()).onWinnerLoaded(any(AdResponse.class), any(AdAdapter.class));
+        verify(mockAdLoader, never()).creativeDownloadSuccess(any(AdResponse.class));
+    }
+
+    private void startWithBothAdapters() {
+        subject.start((adResponse, priority) -> priority == 0 ? mockAdAdapter0 : mockAdAdapter1);
+    }
+}
@@ -15,6 +15,9 @@ import java.util.Set;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(SdkTestRunner.class)
 public class RewardedAdDataTest {
@@ -255,4 +258,38 @@ public class RewardedAdDataTest {
     public void resetSelectedReward_withNullAdUnitId_shouldThrowNPE() throws Exception {
         subject.resetSelectedReward(null);
     }
+
+    @Test
+    public void shed_withoutCritical_shouldOnlyRemoveInvalidatedAdapters() {
+        final AdAdapter liveAdapter = mock(AdAdapter.class);
+        final AdAdapter invalidatedAdapter = mock(AdAdapter.class);
+        when(invalidatedAdapter.isInvalidated()).thenReturn(true);
+        subject.updateAdUnitAdAdapterMapping("live_id", liveAdapter);
+        subject.updateAdUnitAdAdapterMapping("invalidated_id", invalidatedAdapter);
+
+        final long freedBytes = subject.shed(Long.MAX_VALUE, false);
+
+        assertThat(freedBytes).isEqualTo(RewardedAdData.ESTIMATED_AD_ADAPTER_BYTES);
+        assertThat(subject.getAdAdapter("live_id")).isEqualTo(liveAdapter);
+        assertThat(subject.getAdAdapter("invalidated_id")).isNull();
+        assertThat(subject.getAdUnitIdsForAdAdapter(invalidatedAdapter)).isEmpty();
+        verify(liveAdapter, never()).invalidate();
+    }
+
+    @Test
+    public void shed_withCritical_shouldInvalidateAdaptersExceptShowingOne() {
+        final AdAdapter showingAdapter = mock(AdAdapter.class);
+        final AdAdapter loadedAdapter = mock(AdAdapter.class);
+        subject.updateAdUnitAdAdapterMapping("showing_id", showingAdapter);
+        subject.updateAdUnitAdAdapterMapping("loaded_id", loadedAdapter);
+        subject.setCurrentlyShowingAdUnitId("showing_id");
+
+        final long freedBytes = subject.shed(Long.MAX_VALUE, true);
+
+        assertThat(freedBytes).isEqualTo(RewardedAdData.ESTIMATED_AD_ADAPTER_BYTES);
+        assertThat(subject.getRetainedBytes()).isEqualTo(RewardedAdData.ESTIMATED_AD_ADAPTER_BYTES);
+        assertThat(subject.getAdAdapter("showing_id")).isEqualTo(showingAdapter);
+        verify(loadedAdapter).invalidate();
+        verify(showingAdapter, never()).invalidate();
+    }
 }
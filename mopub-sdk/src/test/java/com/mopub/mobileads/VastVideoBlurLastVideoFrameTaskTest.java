@@ -6,6 +6,7 @@ package com.mopub.mobileads;
 
 import android.graphics.Bitmap;
 import android.media.MediaMetadataRetriever;
+import android.os.Build;
 import android.widget.ImageView;
 
 import com.mopub.common.test.support.SdkTestRunner;
@@ -14,6 +15,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.robolectric.annotation.Config;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
@@ -42,6 +44,8 @@ public class VastVideoBlurLastVideoFrameTaskTest {
         videoDuration = 10000;
 
         when(mockMediaMetadataRetriever.getFrameAtTime(anyLong(), anyInt())).thenReturn(mockBitmap);
+        when(mockMediaMetadataRetriever.getScaledFrameAtTime(anyLong(), anyInt(), anyInt(),
+                anyInt())).thenReturn(mockBitmap);
 
         subject = new VastVideoBlurLastVideoFrameTask(mockMediaMetadataRetriever,
                 mockBlurredLastVideoFrameImageView, videoDuration);
@@ -51,12 +55,30 @@ public class VastVideoBlurLastVideoFrameTaskTest {
     public void doInBackground_shouldSetVideoPath_shouldUseVideoDurationMinusOffset_shouldReturnTrue() throws Exception {
         assertThat(subject.doInBackground(videoPath)).isTrue();
         verify(mockMediaMetadataRetriever).setDataSource(videoPath);
-        verify(mockMediaMetadataRetriever).getFrameAtTime(9800000,
-                MediaMetadataRetriever.OPTION_CLOSEST);
+        verify(mockMediaMetadataRetriever).getScaledFrameAtTime(9800000,
+                MediaMetadataRetriever.OPTION_CLOSEST,
+                VastVideoBlurLastVideoFrameTask.MAX_FRAME_DIMENSION,
+                VastVideoBlurLastVideoFrameTask.MAX_FRAME_DIMENSION);
         verifyNoMoreInteractions(mockMediaMetadataRetriever);
         assertThat(subject.getBlurredLastVideoFrame()).isEqualTo(mockBitmap);
     }
 
+    @Config(sdk = Build.VERSION_CODES.O)
+    @Test
+    public void doInBackground_beforeApi27_shouldScaleDownFullSizeFrame() throws Exception {
+        final Bitmap frame = Bitmap.createBitmap(1920, 1080, Bitmap.Config.ARGB_8888);
+        when(mockMediaMetadataRetriever.getFrameAtTime(anyLong(), anyInt())).thenReturn(frame);
+
+        assertThat(subject.doInBackground(videoPath)).isTrue();
+
+        verify(mockMediaMetadataRetriever).getFrameAtTime(9800000,
+                MediaMetadataRetriever.OPTION_CLOSEST);
+        final Bitmap blurredFrame = subject.getBlurredLastVideoFrame();
+        assertThat(blurredFrame.getWidth()).isEqualTo(
+                VastVideoBlurLastVideoFrameTask.MAX_FRAME_DIMENSION);
+        assertThat(blurredFrame.getHeight()).isEqualTo(203);
+    }
+
     @Test
     public void doInBackground_whenSetDataSourceThrowsRuntimeException_shouldCatchExceptionAndReturnFalse() throws Exception {
         doThrow(new RuntimeException()).when(mockMediaMetadataRetriever).setDataSource(anyString());
@@ -67,7 +89,8 @@ public class VastVideoBlurLastVideoFrameTaskTest {
 
     @Test
     public void doInBackground_whenGetLastFrameReturnsNull_shouldReturnFalse() throws Exception {
-        when(mockMediaMetadataRetriever.getFrameAtTime(anyLong(), anyInt())).thenReturn(null);
+        when(mockMediaMetadataRetriever.getScaledFrameAtTime(anyLong(), anyInt(), anyInt(),
+                anyInt())).thenReturn(null);
 
         assertThat(subject.doInBackground(videoPath)).isFalse();
         assertThat(subject.getBlurredLastVideoFrame()).isNull();
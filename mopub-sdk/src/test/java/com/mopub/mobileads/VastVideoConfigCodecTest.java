@@ -0,0 +1,200 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.mobileads;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mopub.common.ViewabilityVendor;
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class VastVideoConfigCodecTest {
+    private Gson gson;
+    private VastVideoConfig config;
+
+    @Before
+    public void setUp() {
+        // The configuration VastVideoConfig was serialized with before the codec.
+        gson = new Gson();
+        config = createConfig(3);
+    }
+
+    @Test
+    public void decode_withEncodedConfig_shouldRoundTrip() throws Exception {
+        final VastVideoConfig decoded = VastVideoConfigCodec.decode(
+                VastVideoConfigCodec.encode(config));
+
+        assertThat(toGsonTree(decoded)).isEqualTo(toGsonTree(config));
+    }
+
+    @Test
+    public void decode_withGsonOutput_shouldMatchGsonRoundTrip() throws Exception {
+        final String gsonJson = gson.toJson(config);
+
+        final VastVideoConfig decoded = VastVideoConfigCodec.decode(gsonJson);
+
+        assertThat(toGsonTree(decoded)).isEqualTo(toGsonTree(
+                gson.fromJson(gsonJson, VastVideoConfig.class)));
+        assertThat(toGsonTree(decoded)).isEqualTo(toGsonTree(config));
+    }
+
+    @Test
+    public void encode_shouldWriteSameFieldsAsGson_plusVersion() {
+        final JsonObject encoded = JsonParser.parseString(VastVideoConfigCodec.encode(config))
+                .getAsJsonObject();
+
+        assertThat(encoded.remove(VastVideoConfigCodec.VERSION_KEY).getAsInt())
+                .isEqualTo(VastVideoConfigCodec.VERSION);
+        assertThat((JsonElement) encoded).isEqualTo(toGsonTree(config));
+    }
+
+    @Test
+    public void encode_shouldBeReadableByGson() {
+        final VastVideoConfig decoded = gson.fromJson(VastVideoConfigCodec.encode(config),
+                VastVideoConfig.class);
+
+        assertThat(toGsonTree(decoded)).isEqualTo(toGsonTree(config));
+    }
+
+    @Test
+    public void decode_withEmptyConfig_shouldRoundTrip() throws Exception {
+        final VastVideoConfig empty = new VastVideoConfig();
+
+        final VastVideoConfig decoded = VastVideoConfigCodec.decode(
+                VastVideoConfigCodec.encode(empty));
+
+        assertThat(toGsonTree(decoded)).isEqualTo(toGsonTree(empty));
+        assertThat(decoded.getVastIconConfig()).isNull();
+        assertThat(decoded.getVideoViewabilityTracker()).isNull();
+    }
+
+    @Test
+    public void decode_withHundredsOfTrackers_shouldRoundTrip() throws Exception {
+        final VastVideoConfig large = createConfig(300);
+
+        final VastVideoConfig decoded = VastVideoConfigCodec.decode(
+                VastVideoConfigCodec.encode(large));
+
+        assertThat(decoded.getImpressionTrackers()).hasSize(300);
+        assertThat(decoded.getFractionalTrackers()).hasSize(300);
+        assertThat(toGsonTree(decoded)).isEqualTo(toGsonTree(large));
+    }
+
+    @Test
+    public void decode_shouldKeepTrackedState_shouldKeepTrackerTypes() throws Exception {
+        final VastVideoConfig decoded = VastVideoConfigCodec.decode(
+                VastVideoConfigCodec.encode(config));
+
+        assertThat(decoded.getImpressionTrackers().get(0).isTracked()).isTrue();
+        assertThat(decoded.getImpressionTrackers().get(1).isTracked()).isFalse();
+        assertThat(decoded.getFractionalTrackers().get(0).getTrackingFraction())
+                .isEqualTo(0.1f);
+        assertThat(decoded.getAbsoluteTrackers().get(0).getTrackingMilliseconds())
+                .isEqualTo(0);
+        assertThat(decoded.getVideoViewabilityTracker().getPercentViewable()).isEqualTo(50);
+    }
+
+    @Test
+    public void decode_withUnknownFields_shouldIgnoreThem() throws Exception {
+        final VastVideoConfig decoded = VastVideoConfigCodec.decode("{\"unknown\":{\"a\":[1]}," +
+                "\"network_media_file_url\":\"video\",\"is_rewarded\":true}");
+
+        assertThat(decoded.getNetworkMediaFileUrl()).isEqualTo("video");
+        assertThat(decoded.isRewarded()).isTrue();
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_withNewerVersion_shouldThrowIOException() throws Exception {
+        VastVideoConfigCodec.decode("{\"" + VastVideoConfigCodec.VERSION_KEY + "\":" +
+                (VastVideoConfigCodec.VERSION + 1) + "}");
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_withMalformedJson_shouldThrowIOException() throws Exception {
+        VastVideoConfigCodec.decode("{\"impression_trackers\":{}}");
+    }
+
+    private JsonElement toGsonTree(final VastVideoConfig vastVideoConfig) {
+        return JsonParser.parseString(gson.toJson(vastVideoConfig));
+    }
+
+    private static VastVideoConfig createConfig(final int trackerCount) {
+        final VastVideoConfig config = new VastVideoConfig();
+        final List<VastTracker> trackers = new ArrayList<>();
+        final List<VastFractionalProgressTracker> fractionalTrackers = new ArrayList<>();
+        final List<VastAbsoluteProgressTracker> absoluteTrackers = new ArrayList<>();
+        for (int i = 0; i < trackerCount; i++) {
+            trackers.add(new VastTracker.Builder("https://tracker/" + i + "?q=\"<&>\"")
+                    .isRepeatable(i % 2 == 0)
+                    .build());
+            fractionalTrackers.add(new VastFractionalProgressTracker.Builder(
+                    "https://fractional/" + i, 0.1f + i / (float) trackerCount / 2).build());
+            absoluteTrackers.add(new VastAbsoluteProgressTracker.Builder(
+                    "https://absolute/" + i, i * 1000)
+                    .messageType(VastTracker.MessageType.QUARTILE_EVENT)
+                    .build());
+        }
+        trackers.get(0).setTracked();
+        config.addImpressionTrackers(trackers);
+        config.addPauseTrackers(trackers);
+        config.addResumeTrackers(trackers);
+        config.addCompleteTrackers(trackers);
+        config.addCloseTrackers(trackers);
+        config.addSkipTrackers(trackers);
+        config.addClickTrackers(trackers);
+        config.addErrorTrackers(trackers);
+        config.addFractionalTrackers(fractionalTrackers);
+        config.addAbsoluteTrackers(absoluteTrackers);
+
+        final Set<ViewabilityVendor> vendors = new HashSet<>();
+        vendors.add(new ViewabilityVendor.Builder("https://vendor/omid.js")
+                .withVendorKey("vendorKey")
+                .withVerificationParameters("{\"key\":\"value\"}")
+                .build());
+        config.addViewabilityVendors(vendors);
+
+        config.setClickThroughUrl("https://clickthrough");
+        config.setNetworkMediaFileUrl("https://video.mp4");
+        config.setDiskMediaFileUrl("/disk/video.mp4");
+        config.setSkipOffset("00:00:05");
+        config.addVastCompanionAdConfig(new VastCompanionAdConfig(300, 250,
+                new VastResource("https://image.png", VastResource.Type.STATIC_RESOURCE,
+                        VastResource.CreativeType.IMAGE, 300, 250),
+                "https://companion/clickthrough", new ArrayList<>(trackers),
+                new ArrayList<VastTracker>(), "companion cta"));
+        config.setVastIconConfig(new VastIconConfig(40, 40, 1000, null,
+                new VastResource("<html></html>", VastResource.Type.HTML_RESOURCE,
+                        VastResource.CreativeType.NONE, 40, 40),
+                Collections.singletonList(trackers.get(0)), "https://icon/clickthrough",
+                new ArrayList<VastTracker>()));
+        config.setRewarded(true);
+        config.setCountdownTimerDuration(30);
+        config.setEnableClickExperiment(true);
+        config.setCustomCtaText("cta");
+        config.setCustomSkipText("skip");
+        config.setCustomCloseIconUrl("https://close.png");
+        config.setVideoViewabilityTracker(new VideoViewabilityTracker.Builder(
+                "https://viewability", 2000, 50).build());
+        config.setDspCreativeId("dspCreativeId");
+        config.setPrivacyInformationIconImageUrl("https://privacy.png");
+        config.setPrivacyInformationIconClickthroughUrl("https://privacy");
+        return config;
+    }
+}
@@ -16,7 +16,6 @@ import android.os.Bundle;
 import android.view.View;
 import android.webkit.WebView;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.media2.common.SessionPlayer;
 import androidx.media2.player.MediaPlayer;
 import androidx.media2.widget.VideoView;
@@ -57,13 +56,9 @@ import java.util.Collections;
 import kotlin.UninitializedPropertyAccessException;
 
 import static com.mopub.common.DataKeys.AD_DATA_KEY;
-import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_DISMISS;
-import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_FAIL;
-import static com.mopub.common.IntentActions.ACTION_FULLSCREEN_SHOW;
 import static com.mopub.common.VolleyRequestMatcher.isUrl;
 import static com.mopub.common.VolleyRequestMatcher.isUrlStartingWith;
 import static com.mopub.mobileads.BaseVideoViewController.BaseVideoViewControllerListener;
-import static com.mopub.mobileads.EventForwardingBroadcastReceiverTest.getIntentForActionAndIdentifier;
 import static com.mopub.mobileads.VastVideoViewController.CURRENT_POSITION;
 import static com.mopub.mobileads.VastVideoViewController.DEFAULT_VIDEO_DURATION_FOR_CLOSE_BUTTON;
 import static com.mopub.mobileads.VastVideoViewController.MAX_VIDEO_DURATION_FOR_CLOSE_BUTTON;
@@ -121,7 +116,7 @@ public class VastVideoViewControllerTest {
     @Mock
     private BaseVideoViewControllerListener baseVideoViewControllerListener;
     @Mock
-    private EventForwardingBroadcastReceiver broadcastReceiver;
+    private FullscreenEventBus.Listener fullscreenEventListener;
     @Mock
     MoPubRequestQueue mockRequestQueue;
     @Mock
@@ -207,9 +202,7 @@ public class VastVideoViewControllerTest {
         Robolectric.getBackgroundThreadScheduler().pause();
         FakeHttp.clearPendingHttpResponses();
 
-        LocalBroadcastManager.getInstance(context).registerReceiver(broadcastReceiver,
-                new EventForwardingBroadcastReceiver(null,
-                        testBroadcastIdentifier).getIntentFilter());
+        FullscreenEventBus.register(testBroadcastIdentifier, fullscreenEventListener);
 
         expectedUserAgent = new WebView(context).getSettings().getUserAgentString();
     }
@@ -219,7 +212,7 @@ public class VastVideoViewControllerTest {
         Robolectric.getForegroundThreadScheduler().reset();
         Robolectric.getBackgroundThreadScheduler().reset();
 
-        LocalBroadcastManager.getInstance(context).unregisterReceiver(broadcastReceiver);
+        FullscreenEventBus.clearForTesting();
 
         validateMockitoUsage(); // makes sure that issues from one test don't carry over to the next
         ExternalViewabilitySessionManager.setCreator(null);
@@ -527,27 +520,21 @@ public class VastVideoViewControllerTest {
     @Test
     public void onCreate_shouldNotBroadcastInterstitialShow() throws Exception {
         // This broadcast is handled by FullscreenAdController and should not happen here.
-        Intent expectedIntent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_SHOW, testBroadcastIdentifier);
-
         initializeSubject();
 
         Robolectric.getForegroundThreadScheduler().unPause();
         subject.onCreate();
-        verify(broadcastReceiver, never()).onReceive(any(Context.class),
-                argThat(new IntentIsEqual(expectedIntent)));
+        verify(fullscreenEventListener, never()).onFullscreenEvent(FullscreenEventBus.Event.SHOW);
     }
 
     @Test
     public void onDestroy_shouldNotBroadcastInterstitialDismiss() throws Exception {
-        Intent expectedIntent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_DISMISS,
-                testBroadcastIdentifier);
-
         initializeSubject();
 
         subject.onDestroy();
         Robolectric.getForegroundThreadScheduler().unPause();
 
-        verifyZeroInteractions(broadcastReceiver);
+        verifyZeroInteractions(fullscreenEventListener);
         verify(mockExternalViewabilityManager).endSession();
     }
 
@@ -1407,16 +1394,13 @@ public class VastVideoViewControllerTest {
     public void onError_shouldFireVideoErrorAndSetVideoErrorTrue() throws Exception {
         initializeSubject();
 
-        Intent expectedIntent = getIntentForActionAndIdentifier(ACTION_FULLSCREEN_FAIL, testBroadcastIdentifier);
-
         final MediaPlayer mockMediaPlayer = TestMediaPlayerFactory.Companion.getMockMediaPlayer();
         mockMediaPlayer.prepare().isDone();
         subject.getPlayerCallback().onPlayerStateChanged(mockMediaPlayer, SessionPlayer.PLAYER_STATE_ERROR);
         Robolectric.getForegroundThreadScheduler().unPause();
 
         assertThat(subject.getVideoError()).isTrue();
-        verify(broadcastReceiver).onReceive(any(Context.class),
-                argThat(new IntentIsEqual(expectedIntent)));
+        verify(fullscreenEventListener).onFullscreenEvent(FullscreenEventBus.Event.FAIL);
         assertThat(subject.getVideoError()).isTrue();
     }
 
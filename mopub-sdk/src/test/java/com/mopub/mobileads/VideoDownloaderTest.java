@@ -134,6 +134,38 @@ public class VideoDownloaderTest {
         assertThat(VideoDownloader.getDownloaderTasks().pop().get()).isEqualTo(task1);
     }
 
+    @Test
+    public void shed_withNonCritical_shouldOnlyDropCollectedTasks() {
+        final VideoDownloaderTask task = mock(VideoDownloaderTask.class);
+        VideoDownloader.getDownloaderTasks().add(new WeakReference<VideoDownloaderTask>(null));
+        VideoDownloader.getDownloaderTasks().add(new WeakReference<VideoDownloaderTask>(task));
+
+        final long freedBytes = VideoDownloader.sMemoryComponent.shed(
+                2 * VideoDownloader.ESTIMATED_TASK_BYTES, false);
+
+        assertThat(freedBytes).isEqualTo(VideoDownloader.ESTIMATED_TASK_BYTES);
+        verify(task, never()).cancel(anyBoolean());
+        assertThat(VideoDownloader.getDownloaderTasks()).hasSize(1);
+        assertThat(VideoDownloader.getDownloaderTasks().pop().get()).isEqualTo(task);
+    }
+
+    @Test
+    public void shed_withCritical_shouldCancelMostRecentTasks() {
+        final VideoDownloaderTask task1 = mock(VideoDownloaderTask.class);
+        final VideoDownloaderTask task2 = mock(VideoDownloaderTask.class);
+        VideoDownloader.getDownloaderTasks().add(new WeakReference<VideoDownloaderTask>(task1));
+        VideoDownloader.getDownloaderTasks().add(new WeakReference<VideoDownloaderTask>(task2));
+
+        final long freedBytes = VideoDownloader.sMemoryComponent.shed(
+                VideoDownloader.ESTIMATED_TASK_BYTES, true);
+
+        assertThat(freedBytes).isEqualTo(VideoDownloader.ESTIMATED_TASK_BYTES);
+        verify(task1, never()).cancel(anyBoolean());
+        verify(task2).cancel(true);
+        assertThat(VideoDownloader.getDownloaderTasks()).hasSize(1);
+        assertThat(VideoDownloader.getDownloaderTasks().pop().get()).isEqualTo(task1);
+    }
+
     @Test
     public void doInBackground_shouldReturnTrue_shouldUpdateCache() throws Exception {
         String expectedResponse = "response";
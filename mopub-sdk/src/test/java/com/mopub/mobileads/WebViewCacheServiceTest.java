@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import java.util.Map;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -134,4 +135,46 @@ public class WebViewCacheServiceTest {
         assertThat(configs.get(broadcastIdentifier).getController()).isEqualTo(mraidController);
         assertThat(configsResult.get(broadcastIdentifier + 1)).isNull();
     }
+
+    @Test
+    public void memoryComponent_shouldEstimateBytesPerWebView() {
+        WebViewCacheService.storeWebViewConfig(broadcastIdentifier, baseWebView,
+                baseAd, mraidController);
+        WebViewCacheService.storeWebViewConfig(broadcastIdentifier + 1, baseWebView,
+                baseAd, mraidController);
+
+        assertThat(WebViewCacheService.sMemoryComponent.getRetainedBytes())
+                .isEqualTo(2 * WebViewCacheService.ESTIMATED_WEBVIEW_BYTES);
+    }
+
+    @Test
+    public void memoryComponent_shed_withoutCritical_shouldOnlyRemoveStaleWebViews() {
+        WebViewCacheService.storeWebViewConfig(broadcastIdentifier, baseWebView,
+                baseAd, mraidController);
+        WebViewCacheService.storeWebViewConfig(broadcastIdentifier + 1, baseWebView,
+                baseAd, mraidController);
+        WebViewCacheService.getWebViewConfigs().get(broadcastIdentifier + 1).getWeakBaseAd().clear();
+
+        final long freedBytes = WebViewCacheService.sMemoryComponent.shed(Long.MAX_VALUE, false);
+
+        assertThat(freedBytes).isEqualTo(WebViewCacheService.ESTIMATED_WEBVIEW_BYTES);
+        assertThat(WebViewCacheService.getWebViewConfigs().keySet())
+                .containsOnly(broadcastIdentifier);
+        verify(baseWebView, never()).destroy();
+    }
+
+    @Test
+    public void memoryComponent_shed_withCritical_shouldDestroyWebViewsUntilEnoughIsFreed() {
+        WebViewCacheService.storeWebViewConfig(broadcastIdentifier, baseWebView,
+                baseAd, mraidController);
+        WebViewCacheService.storeWebViewConfig(broadcastIdentifier + 1, baseWebView,
+                baseAd, mraidController);
+
+        final long freedBytes = WebViewCacheService.sMemoryComponent.shed(1, true);
+
+        assertThat(freedBytes).isEqualTo(WebViewCacheService.ESTIMATED_WEBVIEW_BYTES);
+        assertThat(WebViewCacheService.getWebViewConfigs()).hasSize(1);
+        verify(baseWebView).destroy();
+        verify(mraidController).destroy();
+    }
 }
@@ -16,18 +16,23 @@ import com.mopub.mobileads.MoPubErrorCode;
 import com.mopub.mraid.MraidBridge.MraidBridgeListener;
 import com.mopub.mraid.MraidBridge.MraidWebView;
 
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.robolectric.Robolectric;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -37,6 +42,7 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -454,6 +460,105 @@ public class MraidBridgeTest {
         subjectBanner.runCommand(MraidJavascriptCommand.PLAY_VIDEO, params);
     }
 
+    @Test
+    public void attachView_shouldAddCommandChannel() {
+        subjectBanner.attachView(mockBannerWebView);
+
+        verify(mockBannerWebView).addJavascriptInterface(any(MraidBridge.MraidCommandChannel.class),
+                eq(MraidBridge.COMMAND_CHANNEL_NAME));
+    }
+
+    @Test
+    public void parseNativeCalls_shouldKeepOrderAndParams() throws Exception {
+        final List<MraidBridge.NativeCall> calls = MraidBridge.parseNativeCalls("[" +
+                "{\"command\":\"resize\",\"params\":{\"width\":\"320\",\"height\":\"50\"}}," +
+                "{\"command\":\"close\"}," +
+                "{\"command\":\"bad-command\",\"params\":{}}]");
+
+        assertThat(calls).hasSize(3);
+        assertThat(calls.get(0).mCommand).isEqualTo(MraidJavascriptCommand.RESIZE);
+        assertThat(calls.get(0).mParams).hasSize(2);
+        assertThat(calls.get(0).mParams.get("width")).isEqualTo("320");
+        assertThat(calls.get(0).mParams.get("height")).isEqualTo("50");
+        assertThat(calls.get(1).mCommand).isEqualTo(MraidJavascriptCommand.CLOSE);
+        assertThat(calls.get(1).mParams).isEmpty();
+        assertThat(calls.get(2).mCommand).isEqualTo(MraidJavascriptCommand.UNSPECIFIED);
+    }
+
+    @Test(expected = JSONException.class)
+    public void parseNativeCalls_withInvalidJson_shouldThrowJSONException() throws Exception {
+        MraidBridge.parseNativeCalls("{\"command\":\"close\"}");
+    }
+
+    @Test(expected = JSONException.class)
+    public void parseNativeCalls_withNull_shouldThrowJSONException() throws Exception {
+        MraidBridge.parseNativeCalls(null);
+    }
+
+    @Test
+    public void runNativeCalls_shouldRunInOrder_shouldReportResultsOnce() throws Exception {
+        attachWebViews();
+        final Map<String, String> useCustomCloseParams = new HashMap<>();
+        useCustomCloseParams.put("shouldUseCustomClose", "true");
+        final List<MraidBridge.NativeCall> calls = new ArrayList<>();
+        calls.add(new MraidBridge.NativeCall(MraidJavascriptCommand.USE_CUSTOM_CLOSE,
+                useCustomCloseParams));
+        calls.add(new MraidBridge.NativeCall(MraidJavascriptCommand.UNSPECIFIED,
+                new HashMap<String, String>()));
+        calls.add(new MraidBridge.NativeCall(MraidJavascriptCommand.CLOSE,
+                new HashMap<String, String>()));
+
+        subjectBanner.runNativeCalls(calls);
+
+        final InOrder inOrder = inOrder(mockBridgeListener);
+        inOrder.verify(mockBridgeListener).onUseCustomClose(false);
+        inOrder.verify(mockBridgeListener).onClose();
+        final ArgumentCaptor<String> javascriptCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mockBannerWebView).loadUrl(javascriptCaptor.capture());
+        final String javascript = javascriptCaptor.getValue();
+        assertThat(javascript).startsWith(
+                "javascript:window.mraidbridge.nativeCallsComplete(");
+        final JSONArray results = new JSONArray(javascript.substring(
+                javascript.indexOf('(') + 1, javascript.lastIndexOf(')')));
+        assertThat(results.length()).isEqualTo(3);
+        assertThat(results.getJSONObject(0).getString("command")).isEqualTo("usecustomclose");
+        assertThat(results.getJSONObject(0).has("error")).isFalse();
+        assertThat(results.getJSONObject(1).getString("error"))
+                .isEqualTo("Unspecified MRAID Javascript command");
+        assertThat(results.getJSONObject(2).getString("command")).isEqualTo("close");
+        assertThat(results.getJSONObject(2).has("error")).isFalse();
+    }
+
+    @Test
+    public void commandChannel_postCommands_shouldRunCommandsOnMainThread() {
+        subjectBanner.attachView(mockBannerWebView);
+        final ArgumentCaptor<Object> channelCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(mockBannerWebView).addJavascriptInterface(channelCaptor.capture(),
+                eq(MraidBridge.COMMAND_CHANNEL_NAME));
+        final MraidBridge.MraidCommandChannel channel =
+                (MraidBridge.MraidCommandChannel) channelCaptor.getValue();
+
+        channel.postCommands("[{\"command\":\"close\"}]");
+
+        verify(mockBridgeListener).onClose();
+        verify(mockBannerWebView).loadUrl(
+                "javascript:window.mraidbridge.nativeCallsComplete([{\"command\":\"close\"}])");
+    }
+
+    @Test
+    public void commandChannel_postCommands_withInvalidJson_shouldFireErrorEvent() {
+        subjectBanner.attachView(mockBannerWebView);
+        final ArgumentCaptor<Object> channelCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(mockBannerWebView).addJavascriptInterface(channelCaptor.capture(),
+                eq(MraidBridge.COMMAND_CHANNEL_NAME));
+
+        ((MraidBridge.MraidCommandChannel) channelCaptor.getValue()).postCommands("not json");
+
+        verify(mockBridgeListener, never()).onClose();
+        verify(mockBannerWebView).loadUrl(startsWith(
+                "javascript:window.mraidbridge.notifyErrorEvent"));
+    }
+
     private void attachWebViews() {
         subjectBanner.attachView(mockBannerWebView);
         subjectInterstitial.attachView(mockInterstitialWebView);
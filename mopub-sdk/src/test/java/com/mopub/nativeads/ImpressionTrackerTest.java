@@ -4,6 +4,8 @@
 
 package com.mopub.nativeads;
 
+import android.app.Activity;
+import android.content.Context;
 import android.os.Handler;
 import android.view.View;
 
@@ -210,6 +212,77 @@ public class ImpressionTrackerTest {
         assertThat(subject.getVisibilityTrackerListener()).isNull();
     }
 
+    @Test
+    public void removeViews_shouldOnlyRemoveViewsOfGivenAd() {
+        trackedViews.put(view, impressionInterface);
+        trackedViews.put(view2, impressionInterface2);
+        pollingViews.put(view, timeStampWrapper);
+
+        subject.removeViews(impressionInterface);
+
+        assertThat(trackedViews).hasSize(1);
+        assertThat(trackedViews.get(view2)).isEqualTo(impressionInterface2);
+        assertThat(pollingViews).isEmpty();
+        verify(visibilityTracker).removeView(view);
+        verify(visibilityTracker, never()).removeView(view2);
+    }
+
+    @Test
+    public void acquire_withSameActivity_shouldReturnSameTracker() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+        final ImpressionTracker first = ImpressionTracker.acquire(activity);
+        final ImpressionTracker second = ImpressionTracker.acquire(activity);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void acquire_withDifferentActivities_shouldReturnDifferentTrackers() {
+        final Activity activity1 = Robolectric.buildActivity(Activity.class).create().get();
+        final Activity activity2 = Robolectric.buildActivity(Activity.class).create().get();
+
+        assertThat(ImpressionTracker.acquire(activity1))
+                .isNotSameAs(ImpressionTracker.acquire(activity2));
+    }
+
+    @Test
+    public void acquire_withNonActivityContext_shouldNotShareTracker() {
+        final Context context = Robolectric.buildActivity(Activity.class).create().get()
+                .getApplicationContext();
+        final int sharedCount = ImpressionTracker.getSharedTrackerCountForTesting();
+
+        assertThat(ImpressionTracker.acquire(context))
+                .isNotSameAs(ImpressionTracker.acquire(context));
+        assertThat(ImpressionTracker.getSharedTrackerCountForTesting()).isEqualTo(sharedCount);
+    }
+
+    @Test
+    public void release_shouldDestroySharedTrackerOnlyAfterLastRelease() {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final ImpressionTracker tracker = ImpressionTracker.acquire(activity);
+        ImpressionTracker.acquire(activity);
+
+        tracker.release();
+
+        assertThat(tracker.getVisibilityTrackerListener()).isNotNull();
+        assertThat(ImpressionTracker.acquire(activity)).isSameAs(tracker);
+
+        tracker.release();
+        tracker.release();
+
+        assertThat(tracker.getVisibilityTrackerListener()).isNull();
+        assertThat(ImpressionTracker.acquire(activity)).isNotSameAs(tracker);
+    }
+
+    @Test
+    public void release_withTrackerThatIsNotShared_shouldDestroy() {
+        subject.release();
+
+        verify(visibilityTracker).destroy();
+        assertThat(subject.getVisibilityTrackerListener()).isNull();
+    }
+
     @Test
     public void scheduleNextPoll_shouldPostDelayedThePollingRunnable() {
         when(handler.hasMessages(0)).thenReturn(false);
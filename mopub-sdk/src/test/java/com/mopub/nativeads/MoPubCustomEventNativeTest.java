@@ -9,21 +9,32 @@ import android.app.Activity;
 import com.mopub.common.DataKeys;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.nativeads.MoPubCustomEventNative.MoPubStaticNativeAd;
+import com.mopub.network.MaxWidthImageLoader;
+import com.mopub.network.NativeAdPayload;
+import com.mopub.network.Networking;
+import com.mopub.volley.Request;
+import com.mopub.volley.Response;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.Robolectric;
 
 import java.util.HashMap;
 
 import static com.mopub.nativeads.CustomEventNative.CustomEventNativeListener;
+import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(SdkTestRunner.class)
 public class MoPubCustomEventNativeTest {
@@ -35,6 +46,8 @@ public class MoPubCustomEventNativeTest {
     private JSONObject fakeJsonObject;
 
     @Mock private CustomEventNativeListener mockCustomEventNativeListener;
+    @Mock private MaxWidthImageLoader mockImageLoader;
+    @Mock private Request<Void> mockRequest;
 
     @Before
     public void setUp() throws Exception {
@@ -55,6 +68,20 @@ public class MoPubCustomEventNativeTest {
         fakeJsonObject.put("sponsored", "sponsored text");
 
         localExtras.put(DataKeys.JSON_BODY_KEY, fakeJsonObject);
+
+        Networking.setImageLoaderForTesting(mockImageLoader);
+        when(mockImageLoader.preCache(anyString(), any(Response.Listener.class),
+                any(Response.ErrorListener.class)))
+                .then(new Answer<Request<Void>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Request<Void> answer(final InvocationOnMock invocationOnMock) {
+                        final Response.Listener<Void> listener =
+                                (Response.Listener<Void>) invocationOnMock.getArguments()[1];
+                        listener.onResponse(null);
+                        return mockRequest;
+                    }
+                });
     }
 
     @Test
@@ -66,4 +93,46 @@ public class MoPubCustomEventNativeTest {
                 .onNativeAdLoaded(any(MoPubStaticNativeAd.class));
         verify(mockCustomEventNativeListener).onNativeAdFailed(NativeErrorCode.INVALID_RESPONSE);
     }
+
+    @Test
+    public void loadNativeAd_withPayload_shouldLoadWithoutJsonBody() throws Exception {
+        localExtras.remove(DataKeys.JSON_BODY_KEY);
+        localExtras.put(DataKeys.NATIVE_AD_PAYLOAD_KEY, NativeAdPayload.fromJson(fakeJsonObject));
+
+        subject.loadNativeAd(context, mockCustomEventNativeListener, localExtras, serverExtras);
+
+        final ArgumentCaptor<MoPubStaticNativeAd> adCaptor =
+                ArgumentCaptor.forClass(MoPubStaticNativeAd.class);
+        verify(mockCustomEventNativeListener).onNativeAdLoaded(adCaptor.capture());
+        verify(mockCustomEventNativeListener, never()).onNativeAdFailed(any(NativeErrorCode.class));
+        assertThat(adCaptor.getValue().getMainImageUrl()).isEqualTo("mainimageurl");
+        assertThat(adCaptor.getValue().getSponsored()).isEqualTo("sponsored text");
+    }
+
+    @Test
+    public void loadNativeAd_withInvalidJsonBody_shouldReleaseImpressionTracker() throws Exception {
+        fakeJsonObject.remove("imptracker");
+        final int sharedCount = ImpressionTracker.getSharedTrackerCountForTesting();
+
+        subject.loadNativeAd(context, mockCustomEventNativeListener, localExtras, serverExtras);
+
+        verify(mockCustomEventNativeListener).onNativeAdFailed(NativeErrorCode.UNSPECIFIED);
+        assertThat(ImpressionTracker.getSharedTrackerCountForTesting()).isEqualTo(sharedCount);
+    }
+
+    @Test
+    public void loadNativeAd_withValidJsonBody_shouldKeepImpressionTrackerUntilDestroy() {
+        final int sharedCount = ImpressionTracker.getSharedTrackerCountForTesting();
+
+        subject.loadNativeAd(context, mockCustomEventNativeListener, localExtras, serverExtras);
+
+        final ArgumentCaptor<MoPubStaticNativeAd> adCaptor =
+                ArgumentCaptor.forClass(MoPubStaticNativeAd.class);
+        verify(mockCustomEventNativeListener).onNativeAdLoaded(adCaptor.capture());
+        assertThat(ImpressionTracker.getSharedTrackerCountForTesting()).isEqualTo(sharedCount + 1);
+
+        adCaptor.getValue().destroy();
+
+        assertThat(ImpressionTracker.getSharedTrackerCountForTesting()).isEqualTo(sharedCount);
+    }
 }
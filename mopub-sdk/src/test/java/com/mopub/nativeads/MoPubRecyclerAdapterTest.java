@@ -18,11 +18,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static com.mopub.nativeads.MoPubRecyclerAdapter.ContentChangeStrategy.INSERT_AT_END;
@@ -31,6 +34,7 @@ import static com.mopub.nativeads.MoPubRecyclerAdapter.ContentChangeStrategy.MOV
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -467,7 +471,6 @@ public class MoPubRecyclerAdapterTest {
 
         verify(mockObserver).onChanged();
         verifyNoMoreInteractions(mockObserver);
-        verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount + 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
@@ -485,7 +488,7 @@ public class MoPubRecyclerAdapterTest {
         verifyNoMoreInteractions(mockObserver);
         verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount + 3);
-        verify(mockStreamAdPlacer, times(3)).insertItem(anyInt());
+        verify(mockStreamAdPlacer).insertItems(originalItemCount, 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
 
@@ -500,7 +503,6 @@ public class MoPubRecyclerAdapterTest {
 
         verify(mockObserver).onChanged();
         verifyNoMoreInteractions(mockObserver);
-        verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount + 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
@@ -518,7 +520,7 @@ public class MoPubRecyclerAdapterTest {
         verifyNoMoreInteractions(mockObserver);
         verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount - 7);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount + 3);
-        verify(mockStreamAdPlacer, times(3)).insertItem(anyInt());
+        verify(mockStreamAdPlacer).insertItems(originalItemCount - 7, 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
 
@@ -535,7 +537,7 @@ public class MoPubRecyclerAdapterTest {
         verifyNoMoreInteractions(mockObserver);
         verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount - 7);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount + 3);
-        verify(mockStreamAdPlacer, times(3)).insertItem(anyInt());
+        verify(mockStreamAdPlacer).insertItems(originalItemCount - 7, 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
 
@@ -550,7 +552,6 @@ public class MoPubRecyclerAdapterTest {
 
         verify(mockObserver).onChanged();
         verifyNoMoreInteractions(mockObserver);
-        verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount - 7);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount + 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
@@ -566,7 +567,6 @@ public class MoPubRecyclerAdapterTest {
 
         verify(mockObserver).onChanged();
         verifyNoMoreInteractions(mockObserver);
-        verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount - 4);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
@@ -584,26 +584,49 @@ public class MoPubRecyclerAdapterTest {
         verifyNoMoreInteractions(mockObserver);
 
         verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
-        verify(mockStreamAdPlacer, times(3)).removeItem(originalItemCount - 4);
+        verify(mockStreamAdPlacer).removeItems(originalItemCount - 4, 3);
     }
 
     @Test
     public void onItemRangeRemovedFromEnd_withMoveAdsStrategyAndItemsSurroundAnAd_shouldNotifyItemRangeRemoved() {
         subject.registerAdapterDataObserver(mockObserver);
         subject.setContentChangeStrategy(MOVE_ALL_ADS_WITH_CONTENT);
-        originalAdapter.setItemCount(AD_POSITION_7 + 1);
+        // The item after the ad at AD_POSITION_7.
+        when(mockStreamAdPlacer.getAdjustedPosition(AD_POSITION_7 - 1)).thenReturn(AD_POSITION_7 + 1);
 
         final int originalItemCount = AD_POSITION_7 + 1;
 
         originalAdapter.setItemCount(originalItemCount - 3);
         originalAdapter.notifyItemRangeRemoved(originalItemCount - 4, 3);
 
-        // We remove 3 items + 1 ad
-        verify(mockObserver).onItemRangeRemoved(originalItemCount - 4, 4);
+        // We remove 3 items. The ad between them stays, so the items are removed in two ranges,
+        // the last one first.
+        final InOrder inOrder = inOrder(mockObserver);
+        inOrder.verify(mockObserver).onItemRangeRemoved(AD_POSITION_7 + 1, 1);
+        inOrder.verify(mockObserver).onItemRangeRemoved(AD_POSITION_7 - 2, 2);
+        verifyNoMoreInteractions(mockObserver);
+
+        verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
+        verify(mockStreamAdPlacer).removeItems(originalItemCount - 4, 3);
+    }
+
+    @Test
+    public void onItemRangeRemovedLastItems_withMoveAdsStrategy_shouldNotifyItemRangeRemovedIncludingAds() {
+        subject.registerAdapterDataObserver(mockObserver);
+        subject.setContentChangeStrategy(MOVE_ALL_ADS_WITH_CONTENT);
+        originalAdapter.setItemCount(AD_POSITION_7 + 1);
+
+        final int originalItemCount = AD_POSITION_7 + 1;
+
+        originalAdapter.setItemCount(originalItemCount - 3);
+        originalAdapter.notifyItemRangeRemoved(originalItemCount - 3, 3);
+
+        // The ad between the removed items is now after the last item, so it is removed too.
+        verify(mockObserver).onItemRangeRemoved(AD_POSITION_7 - 1, 4);
         verifyNoMoreInteractions(mockObserver);
 
         verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
-        verify(mockStreamAdPlacer, times(3)).removeItem(originalItemCount - 4);
+        verify(mockStreamAdPlacer).removeItems(originalItemCount - 3, 3);
     }
 
     @Test
@@ -634,7 +657,7 @@ public class MoPubRecyclerAdapterTest {
         verifyNoMoreInteractions(mockObserver);
 
         verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
-        verify(mockStreamAdPlacer, times(3)).removeItem(originalItemCount - 8);
+        verify(mockStreamAdPlacer).removeItems(originalItemCount - 8, 3);
     }
 
     @Test
@@ -650,7 +673,7 @@ public class MoPubRecyclerAdapterTest {
         verifyNoMoreInteractions(mockObserver);
 
         verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
-        verify(mockStreamAdPlacer, times(3)).removeItem(originalItemCount - 8);
+        verify(mockStreamAdPlacer).removeItems(originalItemCount - 8, 3);
     }
 
     @Test
@@ -664,11 +687,86 @@ public class MoPubRecyclerAdapterTest {
 
         verify(mockObserver).onChanged();
         verifyNoMoreInteractions(mockObserver);
-        verify(mockStreamAdPlacer).getAdjustedPosition(originalItemCount - 8);
         verify(mockStreamAdPlacer).setItemCount(originalItemCount - 3);
         verifyNoMoreInteractions(mockStreamAdPlacer);
     }
 
+    @Test
+    public void onItemRangeChanged_withAdBetweenItems_shouldNotifyItemRangeChangedAroundAd() {
+        subject.registerAdapterDataObserver(mockObserver);
+
+        originalAdapter.notifyItemRangeChanged(0, 3, "payload");
+
+        verify(mockObserver).onItemRangeChanged(AD_POSITION_1 + 1, 2, "payload");
+        verify(mockObserver).onItemRangeChanged(0, 1, "payload");
+        verifyNoMoreInteractions(mockObserver);
+    }
+
+    @Test
+    public void onItemRangeMoved_withMoveAdsStrategy_shouldNotifyItemMoved() {
+        subject.registerAdapterDataObserver(mockObserver);
+        subject.setContentChangeStrategy(MOVE_ALL_ADS_WITH_CONTENT);
+
+        originalAdapter.notifyItemMoved(2, 10);
+
+        verify(mockObserver).onItemRangeMoved(3, 12, 1);
+        verifyNoMoreInteractions(mockObserver);
+        verify(mockStreamAdPlacer).moveItem(2, 10);
+    }
+
+    @Test
+    public void onItemRangeMoved_withInsertAtEndStrategy_shouldNotifyItemMoved() {
+        subject.registerAdapterDataObserver(mockObserver);
+        subject.setContentChangeStrategy(INSERT_AT_END);
+
+        originalAdapter.notifyItemMoved(10, 2);
+
+        verify(mockObserver).onItemRangeMoved(12, 3, 1);
+        verifyNoMoreInteractions(mockObserver);
+        verify(mockStreamAdPlacer).moveItem(10, 2);
+    }
+
+    @Test
+    public void onItemRangeMoved_withKeepAdsStrategy_shouldNotifyDataChanged() {
+        subject.registerAdapterDataObserver(mockObserver);
+        subject.setContentChangeStrategy(KEEP_ADS_FIXED);
+
+        originalAdapter.notifyItemMoved(2, 10);
+
+        verify(mockObserver).onChanged();
+        verifyNoMoreInteractions(mockObserver);
+        verify(mockStreamAdPlacer, never()).moveItem(anyInt(), anyInt());
+    }
+
+    @Test
+    public void onItemRangeMoved_withLastItem_shouldNotifyDataChanged() {
+        subject.registerAdapterDataObserver(mockObserver);
+        subject.setContentChangeStrategy(MOVE_ALL_ADS_WITH_CONTENT);
+
+        originalAdapter.notifyItemMoved(originalAdapter.getItemCount() - 1, 2);
+
+        verify(mockObserver).onChanged();
+        verifyNoMoreInteractions(mockObserver);
+        verify(mockStreamAdPlacer, never()).moveItem(anyInt(), anyInt());
+    }
+
+    @Test
+    public void onBindViewHolder_withPayloads_whenNotAdPosition_shouldForwardPayloadsToOriginalAdapter() {
+        final List<Object> payloads = Collections.<Object>singletonList("payload");
+
+        subject.onBindViewHolder(mockTestHolder, AD_POSITION_1 + 1, payloads);
+
+        verify(originalAdapter).onBindViewHolder(mockTestHolder, AD_POSITION_1, payloads);
+    }
+
+    @Test
+    public void onBindViewHolder_withPayloads_whenAdPosition_shouldBindAdData() {
+        subject.onBindViewHolder(spyViewHolder, AD_POSITION_1,
+                Collections.<Object>singletonList("payload"));
+
+        verify(mockStreamAdPlacer).bindAdView(mMockNativeAd, mockAdView);
+    }
+
     private class TestAdapter extends RecyclerView.Adapter<TestHolder> {
         private int mItems = 18;
 
@@ -5,7 +5,6 @@
 package com.mopub.nativeads;
 
 import android.app.Activity;
-import android.graphics.Bitmap;
 import android.view.View;
 
 import androidx.annotation.NonNull;
@@ -19,9 +18,11 @@ import com.mopub.nativeads.test.support.MoPubShadowBitmap;
 import com.mopub.nativeads.test.support.MoPubShadowDisplay;
 import com.mopub.network.MaxWidthImageLoader;
 import com.mopub.network.MoPubRequestQueue;
+import com.mopub.network.NativeAdPayload;
 import com.mopub.network.Networking;
+import com.mopub.volley.Request;
+import com.mopub.volley.Response;
 import com.mopub.volley.VolleyError;
-import com.mopub.volley.toolbox.ImageLoader;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -29,6 +30,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -37,13 +39,10 @@ import org.robolectric.annotation.Config;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import static com.mopub.nativeads.MoPubCustomEventNative.MoPubStaticNativeAd.Parameter;
-import static com.mopub.volley.toolbox.ImageLoader.ImageListener;
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.fest.assertions.api.Assertions.fail;
 import static org.mockito.Matchers.any;
@@ -71,7 +70,7 @@ public class MoPubStaticNativeAdTest {
     @Mock private NativeEventListener mockNativeEventListener;
     @Mock private MoPubRequestQueue mockRequestQueue;
     @Mock private MaxWidthImageLoader mockImageLoader;
-    @Mock private ImageLoader.ImageContainer mockImageContainer;
+    @Mock private Request<Void> mockRequest;
     @Mock private ExternalViewabilitySessionManager mockViewabilityManager;
 
     @Before
@@ -86,7 +85,6 @@ public class MoPubStaticNativeAdTest {
 
         Networking.setRequestQueueForTesting(mockRequestQueue);
         Networking.setImageLoaderForTesting(mockImageLoader);
-        when(mockImageContainer.getBitmap()).thenReturn(mock(Bitmap.class));
 
         ExternalViewabilitySessionManager.setCreator(() -> mockViewabilityManager);
     }
@@ -96,29 +94,6 @@ public class MoPubStaticNativeAdTest {
         ExternalViewabilitySessionManager.setCreator(null);
     }
 
-    @Test
-    public void Parameter_requiredKeys_shouldOnlyContainTheRequiredKeys() {
-        final HashSet<String> expectedKeys = new HashSet<String>();
-        expectedKeys.add("imptracker");
-        expectedKeys.add("clktracker");
-
-        assertThat(Parameter.requiredKeys).isEqualTo(expectedKeys);
-    }
-
-    @Test
-    public void Parameter_fromString_shouldReturnParameterOnMatch() {
-        final Parameter parameter = Parameter.from("title");
-
-        assertThat(parameter).isEqualTo(Parameter.TITLE);
-    }
-
-    @Test
-    public void Parameter_fromString_shouldReturnNullOnIllegalKey() {
-        final Parameter parameter = Parameter.from("random gibberish");
-
-        assertThat(parameter).isNull();
-    }
-
     @Test
     public void loadAd_whenMissingRequiredKeys_shouldThrowIllegalArgumentException() {
         fakeJsonObject.remove("imptracker");
@@ -147,6 +122,32 @@ public class MoPubStaticNativeAdTest {
         }
     }
 
+    @Test
+    public void loadAd_withPayload_shouldSetFields_shouldNotifyListenerOfOnNativeAdLoaded()
+            throws Exception {
+        fakeJsonObject.put("title", "expected title");
+        fakeJsonObject.put("mainimage", "expected mainimage");
+        fakeJsonObject.put("iconimage", "expected iconimage");
+        fakeJsonObject.put("extraimage", "expected extraimage");
+        final NativeAdPayload payload = NativeAdPayload.fromJson(fakeJsonObject);
+        stubImageLoadsToSucceed();
+
+        subject = new MoPubStaticNativeAd(context, payload, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+
+        assertThat(subject.getTitle()).isEqualTo("expected title");
+        assertThat(subject.getImpressionTrackers()).containsOnly("url1", "url2");
+        assertThat(subject.getClickTrackers()).containsOnly("expected clicktracker");
+        assertThat(subject.getExtra("extraimage")).isEqualTo("expected extraimage");
+        assertThat(subject.getPrivacyInformationIconClickThroughUrl())
+                .isEqualTo(MoPubStaticNativeAd.PRIVACY_INFORMATION_CLICKTHROUGH_URL);
+        assertThat(subject.getRequiredImageUrls())
+                .containsExactly("expected mainimage", "expected iconimage");
+        assertThat(subject.getOptionalImageUrls()).containsExactly("expected extraimage");
+        verify(mockCustomEventNativeListener).onNativeAdLoaded(subject);
+    }
+
     @Test
     public void loadAd_shouldSetRequiredExpectedFields() {
         subject.loadAd();
@@ -280,23 +281,18 @@ public class MoPubStaticNativeAdTest {
         fakeJsonObject.put("iconimage", "iconimageurl");
         fakeJsonObject.put("extraimage", "extraimageurl");
 
-        when(mockImageLoader.get(anyString(), any(ImageListener.class)))
-                .then(new Answer<Void>() {
-                    @Override
-                    public Void answer(final InvocationOnMock invocationOnMock) throws Throwable {
-                        ImageListener listener = ((ImageListener) invocationOnMock.getArguments()[1]);
-                        listener.onResponse(mockImageContainer, false);
-                        return null;
-                    }
-                });
+        stubImageLoadsToSucceed();
 
         subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
                 mMockNativeClickHandler, mockCustomEventNativeListener);
         subject.loadAd();
 
-        verify(mockImageLoader).get(eq("mainimageurl"), any(ImageListener.class));
-        verify(mockImageLoader).get(eq("iconimageurl"), any(ImageListener.class));
-        verify(mockImageLoader).get(eq("extraimageurl"), any(ImageListener.class));
+        verify(mockImageLoader).preCache(eq("mainimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+        verify(mockImageLoader).preCache(eq("iconimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+        verify(mockImageLoader).preCache(eq("extraimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
 
         verify(mockCustomEventNativeListener).onNativeAdLoaded(subject);
         verify(mockCustomEventNativeListener, never()).onNativeAdFailed(any(NativeErrorCode.class));
@@ -308,15 +304,7 @@ public class MoPubStaticNativeAdTest {
         fakeJsonObject.put("iconimage", "iconimageurl");
         fakeJsonObject.put("extraimage", "extraimageurl");
 
-        when(mockImageLoader.get(anyString(), any(ImageListener.class)))
-                .then(new Answer<Void>() {
-                    @Override
-                    public Void answer(final InvocationOnMock invocationOnMock) throws Throwable {
-                        ImageListener listener = ((ImageListener) invocationOnMock.getArguments()[1]);
-                        listener.onErrorResponse(new VolleyError());
-                        return null;
-                    }
-                });
+        stubImageLoadsToFail();
 
         subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
                 mMockNativeClickHandler, mockCustomEventNativeListener);
@@ -326,6 +314,78 @@ public class MoPubStaticNativeAdTest {
         verify(mockCustomEventNativeListener).onNativeAdFailed(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
     }
 
+    @Test
+    public void loadAd_withOnlyOptionalImagesFailing_shouldNotifyListenerOfOnNativeAdLoaded() throws Exception {
+        fakeJsonObject.put("mainimage", "mainimageurl");
+        fakeJsonObject.put("extraimage", "extraimageurl");
+
+        when(mockImageLoader.preCache(eq("mainimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).then(new ImageLoadAnswer(true));
+        when(mockImageLoader.preCache(eq("extraimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).then(new ImageLoadAnswer(false));
+
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+
+        verify(mockCustomEventNativeListener).onNativeAdLoaded(subject);
+        verify(mockCustomEventNativeListener, never()).onNativeAdFailed(any(NativeErrorCode.class));
+    }
+
+    @Test
+    public void loadAd_withRequiredImageStillLoading_shouldNotNotifyListener() throws Exception {
+        fakeJsonObject.put("mainimage", "mainimageurl");
+
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+
+        verify(mockImageLoader).preCache(eq("mainimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+        verify(mockCustomEventNativeListener, never()).onNativeAdLoaded(subject);
+        verify(mockCustomEventNativeListener, never()).onNativeAdFailed(any(NativeErrorCode.class));
+    }
+
+    @Test
+    public void invalidate_whileImagesAreLoading_shouldCancelThem_shouldNotNotifyListener() throws Exception {
+        fakeJsonObject.put("mainimage", "mainimageurl");
+        when(mockImageLoader.preCache(anyString(), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).thenReturn(mockRequest);
+
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+        final ArgumentCaptor<Response.Listener> listenerCaptor =
+                ArgumentCaptor.forClass(Response.Listener.class);
+        verify(mockImageLoader).preCache(eq("mainimageurl"), listenerCaptor.capture(),
+                any(Response.ErrorListener.class));
+
+        subject.invalidate();
+        listenerCaptor.getValue().onResponse(null);
+
+        verify(mockRequest).cancel();
+        verify(mockCustomEventNativeListener, never()).onNativeAdLoaded(subject);
+    }
+
+    @Test
+    public void invalidate_afterAdLoaded_shouldKeepLoadingOptionalImages() throws Exception {
+        fakeJsonObject.put("mainimage", "mainimageurl");
+        fakeJsonObject.put("extraimage", "extraimageurl");
+        when(mockImageLoader.preCache(eq("mainimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).then(new ImageLoadAnswer(true));
+        final Request<Void> optionalImageRequest = mock(Request.class);
+        when(mockImageLoader.preCache(eq("extraimageurl"), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).thenReturn(optionalImageRequest);
+
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+        subject.invalidate();
+
+        verify(mockCustomEventNativeListener).onNativeAdLoaded(subject);
+        verify(optionalImageRequest, never()).cancel();
+    }
+
     @Test
     public void loadAd_shouldParseSingleClickTracker() {
         subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
@@ -411,6 +471,21 @@ public class MoPubStaticNativeAdTest {
         assertThat(subject.getAllImageUrls()).containsOnly("expected extra1_image", "expected extra2_image");
     }
 
+    @Test
+    public void getRequiredAndOptionalImageUrls_shouldSplitMainAndIconFromOtherImages() throws Exception {
+        fakeJsonObject.put("mainimage", "mainImageUrl");
+        fakeJsonObject.put("iconimage", "iconImageUrl");
+        fakeJsonObject.put("privacyicon", "privacyIconUrl");
+        fakeJsonObject.put("extraimage", "extraImageUrl");
+
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+
+        assertThat(subject.getRequiredImageUrls()).containsExactly("mainImageUrl", "iconImageUrl");
+        assertThat(subject.getOptionalImageUrls()).containsOnly("privacyIconUrl", "extraImageUrl");
+    }
+
     @Test
     public void prepare_shouldAddViewToImpressionTracker_shouldSetOnClickListener() {
         subject.prepare(mockView);
@@ -446,10 +521,47 @@ public class MoPubStaticNativeAdTest {
     }
 
     @Test
-    public void destroy_shouldDestroyImpressionTracker() {
+    public void destroy_shouldRemoveViewsFromImpressionTracker_shouldReleaseImpressionTracker() {
         subject.destroy();
 
-        verify(mockImpressionTracker).destroy();
+        verify(mockImpressionTracker).removeViews(subject);
+        verify(mockImpressionTracker).release();
+    }
+
+    @Test
+    public void invalidate_beforeAdLoaded_shouldReleaseImpressionTrackerOnce() throws Exception {
+        fakeJsonObject.put("mainimage", "mainimageurl");
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+        subject.loadAd();
+
+        subject.invalidate();
+        subject.destroy();
+
+        verify(mockImpressionTracker).release();
+    }
+
+    @Test
+    public void invalidate_afterAdLoaded_shouldNotReleaseImpressionTracker() throws Exception {
+        subject.loadAd();
+
+        subject.invalidate();
+
+        verify(mockCustomEventNativeListener).onNativeAdLoaded(subject);
+        verify(mockImpressionTracker, never()).release();
+    }
+
+    @Test
+    public void loadAd_withFailedImageDownload_shouldReleaseImpressionTracker() throws Exception {
+        fakeJsonObject.put("mainimage", "mainimageurl");
+        stubImageLoadsToFail();
+        subject = new MoPubStaticNativeAd(context, fakeJsonObject, mockImpressionTracker,
+                mMockNativeClickHandler, mockCustomEventNativeListener);
+
+        subject.loadAd();
+
+        verify(mockCustomEventNativeListener).onNativeAdFailed(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
+        verify(mockImpressionTracker).release();
     }
 
     @Test
@@ -489,4 +601,34 @@ public class MoPubStaticNativeAdTest {
         verify(mockNativeEventListener).onAdClicked();
         verify(mMockNativeClickHandler).openClickDestinationUrl("clickDestinationUrl", mockView);
     }
+
+    private void stubImageLoadsToSucceed() {
+        when(mockImageLoader.preCache(anyString(), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).then(new ImageLoadAnswer(true));
+    }
+
+    private void stubImageLoadsToFail() {
+        when(mockImageLoader.preCache(anyString(), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).then(new ImageLoadAnswer(false));
+    }
+
+    private class ImageLoadAnswer implements Answer<Request<Void>> {
+        private final boolean mSucceed;
+
+        ImageLoadAnswer(final boolean succeed) {
+            mSucceed = succeed;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Request<Void> answer(final InvocationOnMock invocationOnMock) {
+            if (mSucceed) {
+                ((Response.Listener<Void>) invocationOnMock.getArguments()[1]).onResponse(null);
+            } else {
+                ((Response.ErrorListener) invocationOnMock.getArguments()[2])
+                        .onErrorResponse(new VolleyError());
+            }
+            return mockRequest;
+        }
+    }
 }
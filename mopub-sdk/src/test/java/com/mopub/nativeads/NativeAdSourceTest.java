@@ -7,15 +7,23 @@ package com.mopub.nativeads;
 import android.os.Handler;
 import android.os.SystemClock;
 
+import androidx.annotation.NonNull;
+
+import com.mopub.common.Constants;
+import com.mopub.common.MemoryAccountant;
 import com.mopub.common.test.support.SdkTestRunner;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.robolectric.Robolectric;
 import org.robolectric.shadows.ShadowSystemClock;
 
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static com.mopub.nativeads.NativeAdSource.AdSourceListener;
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -63,6 +71,11 @@ public class NativeAdSourceTest {
         when(mockAdRendererRegistry.getRendererIterable()).thenReturn(moPubAdRenderers);
     }
 
+    @After
+    public void tearDown() {
+        MemoryAccountant.setBudgetBytes(MemoryAccountant.NO_BUDGET);
+    }
+
     @Test
     public void constructor_shouldInitializeCorrectly() {
         assertThat(subject.mRequestInFlight).isFalse();
@@ -382,4 +395,226 @@ public class NativeAdSourceTest {
         assertThat(subject.getRetryTime()).isEqualTo(defaultRetryTime);
         verify(mockReplenishCacheHandler, never()).postDelayed(any(Runnable.class), anyLong());
     }
+
+    @Test
+    public void setTargetCacheSize_shouldClampToMinAndMax() {
+        subject.setTargetCacheSize(0);
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MIN_CACHE_SIZE);
+
+        subject.setTargetCacheSize(100);
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MAX_CACHE_SIZE);
+    }
+
+    @Test
+    public void onAdSlotsScrolled_withFastScroll_shouldGrowTargetCacheSize() {
+        subject.onAdSlotsScrolled(0);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1000, TimeUnit.MILLISECONDS);
+
+        // 1 ad slot per second, smoothed to 0.5, needs 2 ads over the fill ahead window.
+        subject.onAdSlotsScrolled(1);
+
+        assertThat(subject.mTargetCacheSize).isEqualTo(2);
+    }
+
+    @Test
+    public void onAdSlotsScrolled_withScrollingStopped_shouldShrinkTargetCacheSize() {
+        subject.setTargetCacheSize(NativeAdSource.MAX_CACHE_SIZE);
+        subject.onAdSlotsScrolled(0);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1000, TimeUnit.MILLISECONDS);
+
+        subject.onAdSlotsScrolled(0);
+
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MIN_CACHE_SIZE);
+    }
+
+    @Test
+    public void replenishCache_withLargerTarget_shouldStartParallelRequestAfterInterval() {
+        final MoPubNative slotMoPubNative = mock(MoPubNative.class);
+        subject.setMoPubNative(mockMoPubNative);
+        subject.setMoPubNativeFactory(new NativeAdSource.MoPubNativeFactory() {
+            @NonNull
+            @Override
+            public MoPubNative create(@NonNull final MoPubNative.MoPubNativeNetworkListener listener) {
+                return slotMoPubNative;
+            }
+        });
+        subject.mTargetCacheSize = 3;
+
+        subject.replenishCache();
+
+        verify(mockMoPubNative).makeRequest(any(RequestParameters.class), eq(0));
+        verify(slotMoPubNative, never()).makeRequest(any(RequestParameters.class), any(Integer.class));
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockReplenishCacheHandler).postDelayed(runnableCaptor.capture(),
+                eq((long) NativeAdSource.MIN_PARALLEL_REQUEST_INTERVAL_MILLIS));
+
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                NativeAdSource.MIN_PARALLEL_REQUEST_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        runnableCaptor.getValue().run();
+
+        verify(slotMoPubNative).registerAdRenderer(mockRenderer);
+        verify(slotMoPubNative).makeRequest(any(RequestParameters.class), eq(0));
+        assertThat(subject.getMetrics().getParallelRequestCount()).isEqualTo(1);
+        assertThat(subject.getMetrics().getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void replenishCache_whileBackingOff_shouldNotStartParallelRequest() {
+        final MoPubNative slotMoPubNative = mock(MoPubNative.class);
+        subject.setMoPubNative(mockMoPubNative);
+        subject.setMoPubNativeFactory(new NativeAdSource.MoPubNativeFactory() {
+            @NonNull
+            @Override
+            public MoPubNative create(@NonNull final MoPubNative.MoPubNativeNetworkListener listener) {
+                return slotMoPubNative;
+            }
+        });
+        subject.mTargetCacheSize = 3;
+        subject.mCurrentRetries = 1;
+
+        subject.replenishCache();
+
+        verify(mockMoPubNative).makeRequest(any(RequestParameters.class), eq(0));
+        verify(mockReplenishCacheHandler, never()).postDelayed(any(Runnable.class), anyLong());
+        assertThat(subject.getMetrics().getParallelRequestCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void moPubNativeNetworkListener_onNativeLoad_withEmptyCache_shouldScheduleExpiration() {
+        subject.setMoPubNative(mockMoPubNative);
+
+        subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
+
+        verify(mockReplenishCacheHandler).postDelayed(any(Runnable.class),
+                eq((long) Constants.AD_EXPIRATION_DELAY));
+    }
+
+    @Test
+    public void removeExpiredAds_shouldDestroyExpiredAds_shouldKeepFreshAds() {
+        subject.setMoPubNative(mockMoPubNative);
+        final NativeAd freshNativeAd = mock(NativeAd.class);
+        final TimestampWrapper<NativeAd> staleWrapper =
+                new TimestampWrapper<NativeAd>(mMockNativeAd);
+        staleWrapper.mCreatedTimestamp = SystemClock.uptimeMillis() - (4*60*60*1000+1);
+        nativeAdCache.add(staleWrapper);
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(freshNativeAd));
+        subject.mRequestInFlight = true;
+
+        subject.removeExpiredAds();
+
+        verify(mMockNativeAd).destroy();
+        verify(freshNativeAd, never()).destroy();
+        assertThat(nativeAdCache).hasSize(1);
+        assertThat(subject.getMetrics().getExpiredCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void dequeueAd_withEmptyCache_shouldCountMiss() {
+        subject.setMoPubNative(mockMoPubNative);
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(mMockNativeAd));
+
+        subject.dequeueAd();
+        subject.dequeueAd();
+
+        final NativeAdCacheMetrics metrics = subject.getMetrics();
+        assertThat(metrics.getDequeueCount()).isEqualTo(2);
+        assertThat(metrics.getDequeueMissCount()).isEqualTo(1);
+        assertThat(metrics.getFillAheadRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void clear_shouldDestroyParallelRequestSlots_shouldResetTargetCacheSize() {
+        final MoPubNative slotMoPubNative = mock(MoPubNative.class);
+        subject.setMoPubNative(mockMoPubNative);
+        subject.setMoPubNativeFactory(new NativeAdSource.MoPubNativeFactory() {
+            @NonNull
+            @Override
+            public MoPubNative create(@NonNull final MoPubNative.MoPubNativeNetworkListener listener) {
+                return slotMoPubNative;
+            }
+        });
+        subject.mTargetCacheSize = 3;
+        Robolectric.getForegroundThreadScheduler().advanceBy(
+                NativeAdSource.MIN_PARALLEL_REQUEST_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        subject.mRequestInFlight = true;
+        subject.replenishCache();
+        verify(slotMoPubNative).makeRequest(any(RequestParameters.class), eq(0));
+
+        subject.clear();
+
+        verify(slotMoPubNative).destroy();
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MIN_CACHE_SIZE);
+    }
+
+    @Test
+    public void shed_withNonCritical_shouldOnlyDestroyExpiredAds_shouldKeepTargetCacheSize() {
+        final NativeAd freshNativeAd = mock(NativeAd.class);
+        nativeAdCache.add(createExpiredWrapper(mMockNativeAd));
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(freshNativeAd));
+        subject.mTargetCacheSize = NativeAdSource.MAX_CACHE_SIZE;
+
+        final long freedBytes = subject.shed(2 * NativeAdSource.ESTIMATED_AD_BYTES, false);
+
+        assertThat(freedBytes).isEqualTo(NativeAdSource.ESTIMATED_AD_BYTES);
+        verify(mMockNativeAd).destroy();
+        verify(freshNativeAd, never()).destroy();
+        assertThat(nativeAdCache).hasSize(1);
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MAX_CACHE_SIZE);
+    }
+
+    @Test
+    public void shed_withCritical_shouldDestroyOldestAds_shouldResetTargetCacheSize() {
+        final NativeAd secondNativeAd = mock(NativeAd.class);
+        final NativeAd thirdNativeAd = mock(NativeAd.class);
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(mMockNativeAd));
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(secondNativeAd));
+        nativeAdCache.add(new TimestampWrapper<NativeAd>(thirdNativeAd));
+        subject.mTargetCacheSize = NativeAdSource.MAX_CACHE_SIZE;
+
+        final long freedBytes = subject.shed(2 * NativeAdSource.ESTIMATED_AD_BYTES, true);
+
+        assertThat(freedBytes).isEqualTo(2 * NativeAdSource.ESTIMATED_AD_BYTES);
+        verify(mMockNativeAd).destroy();
+        verify(secondNativeAd).destroy();
+        verify(thirdNativeAd, never()).destroy();
+        assertThat(nativeAdCache).hasSize(1);
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MIN_CACHE_SIZE);
+    }
+
+    @Test
+    public void moPubNativeNetworkListener_onNativeLoad_withCacheOverBudget_shouldNotReplenishCache() {
+        subject.setMoPubNative(mockMoPubNative);
+        subject.mTargetCacheSize = NativeAdSource.MAX_CACHE_SIZE;
+        MemoryAccountant.setBudgetBytes(NativeAdSource.ESTIMATED_AD_BYTES);
+        final NativeAd expiredNativeAd = mock(NativeAd.class);
+        nativeAdCache.add(createExpiredWrapper(expiredNativeAd));
+
+        subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
+
+        verify(expiredNativeAd).destroy();
+        verify(mMockNativeAd, never()).destroy();
+        assertThat(nativeAdCache).hasSize(1);
+        assertThat(subject.mTargetCacheSize).isEqualTo(NativeAdSource.MAX_CACHE_SIZE);
+        verify(mockMoPubNative, never()).makeRequest(any(RequestParameters.class), any(Integer.class));
+    }
+
+    @Test
+    public void moPubNativeNetworkListener_onNativeLoad_withCacheWithinBudget_shouldReplenishCache() {
+        subject.setMoPubNative(mockMoPubNative);
+        subject.mTargetCacheSize = NativeAdSource.MAX_CACHE_SIZE;
+        MemoryAccountant.setBudgetBytes(NativeAdSource.ESTIMATED_AD_BYTES);
+
+        subject.getMoPubNativeNetworkListener().onNativeLoad(mMockNativeAd);
+
+        verify(mMockNativeAd, never()).destroy();
+        assertThat(nativeAdCache).hasSize(1);
+        verify(mockMoPubNative).makeRequest(any(RequestParameters.class), eq(1));
+    }
+
+    @NonNull
+    private static TimestampWrapper<NativeAd> createExpiredWrapper(@NonNull final NativeAd nativeAd) {
+        final TimestampWrapper<NativeAd> wrapper = new TimestampWrapper<NativeAd>(nativeAd);
+        wrapper.mCreatedTimestamp = SystemClock.uptimeMillis() - Constants.AD_EXPIRATION_DELAY;
+        return wrapper;
+    }
 }
@@ -8,6 +8,7 @@ import android.app.Activity;
 import android.view.View;
 import android.view.ViewGroup;
 
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.nativeads.BaseNativeAd.NativeEventListener;
 import com.mopub.network.AdResponse;
@@ -26,6 +27,7 @@ import org.robolectric.Robolectric;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static com.mopub.common.VolleyRequestMatcher.isUrl;
@@ -212,6 +214,21 @@ public class NativeAdTest {
         verify(listener).onImpression("adunit_id", mockImpressionData);
     }
 
+    @Test
+    public void recordImpression_afterPrepare_shouldTraceImpression() {
+        final AdResponse adResponse = mockAdResponse();
+        when(adResponse.getRequestId()).thenReturn("nativeAdTestRequestId");
+        subject = new NativeAd(activity, adResponse, "adunit_id", mockBaseNativeAd, mockRenderer);
+
+        subject.prepare(mockView);
+        subject.recordImpression(mockView);
+
+        final List<AdLoadTracer.Span> spans = AdLoadTracer.getSpans("nativeAdTestRequestId");
+        assertThat(spans).hasSize(1);
+        assertThat(spans.get(0).getStage()).isEqualTo(AdLoadTracer.Stage.IMPRESSION);
+        assertThat(spans.get(0).getAdUnitId()).isEqualTo("adunit_id");
+    }
+
     @Test
     public void handleClick_shouldTrackClicksOnce() {
         subject.handleClick(mockView);
@@ -0,0 +1,206 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import android.app.Activity;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.nativeads.NativeImagePreCacher.ImageAsset;
+import com.mopub.network.MaxWidthImageLoader;
+import com.mopub.network.Networking;
+import com.mopub.volley.Request;
+import com.mopub.volley.Response;
+import com.mopub.volley.VolleyError;
+import com.mopub.volley.toolbox.ImageLoader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.robolectric.Robolectric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(SdkTestRunner.class)
+public class NativeImagePreCacherTest {
+    @Mock
+    private MaxWidthImageLoader mockImageLoader;
+    @Mock
+    private NativeImageHelper.ImageListener mockImageListener;
+    @Mock
+    private Request<Void> mockRequest;
+
+    private Activity activity;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).create().get();
+        Networking.setImageLoaderForTesting(mockImageLoader);
+        when(mockImageLoader.preCache(anyString(), any(Response.Listener.class),
+                any(Response.ErrorListener.class))).thenReturn(mockRequest);
+    }
+
+    @After
+    public void tearDown() {
+        Networking.setImageLoaderForTesting(null);
+    }
+
+    @Test
+    public void preCache_shouldCapConcurrentDownloads_shouldStartRequiredImagesFirst() {
+        NativeImagePreCacher.preCache(activity, Collections.singletonList("optional1"),
+                Collections.<String>emptyList(), mockImageListener);
+        NativeImagePreCacher.preCache(activity,
+                Arrays.asList("required1", "required2", "required3", "required4"),
+                Collections.singletonList("optional2"), mockImageListener);
+
+        verify(mockImageLoader, times(NativeImagePreCacher.MAX_CONCURRENT_DOWNLOADS))
+                .preCache(anyString(), any(Response.Listener.class),
+                        any(Response.ErrorListener.class));
+        verify(mockImageLoader, never()).preCache(eq("optional2"),
+                any(Response.Listener.class), any(Response.ErrorListener.class));
+        assertThat(NativeImagePreCacher.getInFlightCountForTesting())
+                .isEqualTo(NativeImagePreCacher.MAX_CONCURRENT_DOWNLOADS);
+    }
+
+    @Test
+    public void preCache_withRequiredImagesCached_shouldBeReady_shouldKeepLoadingOptionalImages() {
+        final NativeImagePreCacher.Task task = NativeImagePreCacher.preCache(activity,
+                Collections.singletonList("required"), Collections.singletonList("optional"),
+                mockImageListener);
+        final List<Response.Listener<Void>> listeners = captureListeners(2);
+
+        listeners.get(0).onResponse(null);
+
+        verify(mockImageListener).onImagesCached();
+        assertThat(task.isReady()).isTrue();
+        assertThat(task.getAssets().get(0).getState()).isEqualTo(ImageAsset.State.CACHED);
+        assertThat(task.getAssets().get(0).getLoadMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(task.getAssets().get(1).getState()).isEqualTo(ImageAsset.State.LOADING);
+
+        captureErrorListeners(2).get(1).onErrorResponse(new VolleyError());
+
+        verify(mockImageListener, never())
+                .onImagesFailedToCache(any(NativeErrorCode.class));
+        assertThat(task.getAssets().get(1).getState()).isEqualTo(ImageAsset.State.FAILED);
+    }
+
+    @Test
+    public void preCache_shouldOnlyDownloadImages_shouldNotDecodeThem() {
+        NativeImagePreCacher.preCache(activity, Collections.singletonList("required"),
+                Collections.singletonList("optional"), mockImageListener);
+
+        captureListeners(2).get(0).onResponse(null);
+
+        verify(mockImageListener).onImagesCached();
+        verify(mockImageLoader, never()).get(anyString(), any(ImageLoader.ImageListener.class));
+        verify(mockImageLoader, never()).getForView(anyString(),
+                any(ImageLoader.ImageListener.class), anyInt(), anyInt());
+    }
+
+    @Test
+    public void preCache_withRequiredImageFailed_shouldFailOnce_shouldCancelOtherImages() {
+        final NativeImagePreCacher.Task task = NativeImagePreCacher.preCache(activity,
+                Arrays.asList("required1", "required2"), Collections.singletonList("optional"),
+                mockImageListener);
+        final List<Response.ErrorListener> errorListeners = captureErrorListeners(3);
+
+        errorListeners.get(0).onErrorResponse(new VolleyError());
+        errorListeners.get(1).onErrorResponse(new VolleyError());
+
+        verify(mockImageListener).onImagesFailedToCache(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
+        verify(mockImageListener, never()).onImagesCached();
+        verify(mockRequest, times(2)).cancel();
+        assertThat(task.getAssets().get(1).getState()).isEqualTo(ImageAsset.State.CANCELLED);
+        assertThat(task.getAssets().get(2).getState()).isEqualTo(ImageAsset.State.CANCELLED);
+        assertThat(NativeImagePreCacher.getInFlightCountForTesting()).isEqualTo(0);
+    }
+
+    @Test
+    public void preCache_withRequiredImageFailed_shouldSkipQueuedImages_shouldStartOtherAds() {
+        NativeImagePreCacher.preCache(activity,
+                Arrays.asList("a1", "a2", "a3", "a4", "a5"), Collections.<String>emptyList(),
+                mockImageListener);
+        final NativeImageHelper.ImageListener otherListener =
+                mock(NativeImageHelper.ImageListener.class);
+        NativeImagePreCacher.preCache(activity, Collections.singletonList("b1"),
+                Collections.<String>emptyList(), otherListener);
+
+        captureErrorListeners(4).get(0).onErrorResponse(new VolleyError());
+
+        verify(mockImageLoader, never()).preCache(eq("a5"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+        verify(mockImageLoader).preCache(eq("b1"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+    }
+
+    @Test
+    public void preCache_withEmptyRequiredUrl_shouldFailWithoutDownloading() {
+        NativeImagePreCacher.preCache(activity, Arrays.asList("required", ""),
+                Collections.<String>emptyList(), mockImageListener);
+
+        verify(mockImageListener).onImagesFailedToCache(NativeErrorCode.IMAGE_DOWNLOAD_FAILURE);
+        verify(mockImageLoader, never()).preCache(anyString(), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+    }
+
+    @Test
+    public void preCache_withNoRequiredImages_shouldBeReadyImmediately() {
+        final NativeImagePreCacher.Task task = NativeImagePreCacher.preCache(activity,
+                Collections.<String>emptyList(), Collections.singletonList("optional"),
+                mockImageListener);
+
+        verify(mockImageListener).onImagesCached();
+        assertThat(task.isReady()).isTrue();
+        verify(mockImageLoader).preCache(eq("optional"), any(Response.Listener.class),
+                any(Response.ErrorListener.class));
+    }
+
+    @Test
+    public void cancel_shouldCancelDownloads_shouldNotCallListener() {
+        final NativeImagePreCacher.Task task = NativeImagePreCacher.preCache(activity,
+                Collections.singletonList("required"), Collections.<String>emptyList(),
+                mockImageListener);
+        final Response.Listener<Void> listener = captureListeners(1).get(0);
+
+        task.cancel();
+        listener.onResponse(null);
+
+        verify(mockRequest).cancel();
+        verify(mockImageListener, never()).onImagesCached();
+        assertThat(NativeImagePreCacher.getInFlightCountForTesting()).isEqualTo(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Response.Listener<Void>> captureListeners(final int count) {
+        final ArgumentCaptor<Response.Listener> captor =
+                ArgumentCaptor.forClass(Response.Listener.class);
+        verify(mockImageLoader, times(count)).preCache(anyString(), captor.capture(),
+                any(Response.ErrorListener.class));
+        return (List<Response.Listener<Void>>) (List<?>) captor.getAllValues();
+    }
+
+    private List<Response.ErrorListener> captureErrorListeners(final int count) {
+        final ArgumentCaptor<Response.ErrorListener> captor =
+                ArgumentCaptor.forClass(Response.ErrorListener.class);
+        verify(mockImageLoader, times(count)).preCache(anyString(),
+                any(Response.Listener.class), captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -797,6 +797,133 @@ public class PlacementDataTest {
         checkPlacedPositions(20, adsAt15repeating);
     }
 
+    @Test
+    public void clearAdsInRange_withInsertionPositionsBetweenAds_shouldResetPositions() {
+        adsRepeating.placeAd(2, mMockNativeAd);
+        adsRepeating.placeAd(9, mMockNativeAd2);
+        checkInsertionPositions(12, adsRepeating, 5, 7, 12);
+
+        assertThat(adsRepeating.clearAdsInRange(0, 10)).isEqualTo(2);
+
+        verify(mMockNativeAd).destroy();
+        verify(mMockNativeAd2).destroy();
+        checkInsertionPositions(12, adsRepeating, 2, 4, 6, 8, 10, 12);
+        checkPlacedPositions(20, adsRepeating);
+    }
+
+    @Test
+    public void placeAd_withRepeatingPositions_shouldNotBeCapped() {
+        for (int i = 0; i < 3000; i++) {
+            if (adsRepeating.shouldPlaceAd(i)) {
+                adsRepeating.placeAd(i, mMockNativeAd);
+            }
+        }
+
+        assertThat(adsRepeating.getPlacedAdPositions()).hasSize(1000);
+        assertThat(adsRepeating.isPlacedAd(2999)).isTrue();
+        assertThat(adsRepeating.getPlacedAd(2999)).isEqualTo(mMockNativeAd);
+        assertThat(adsRepeating.getOriginalPosition(2998)).isEqualTo(1999);
+        assertThat(adsRepeating.getAdjustedPosition(1999)).isEqualTo(2998);
+        assertThat(adsRepeating.nextInsertionPosition(2999)).isEqualTo(3002);
+    }
+
+    @Test
+    public void insertAndRemoveItems_withManyAds_shouldKeepPositionsConsistent() {
+        for (int i = 0; i < 30000; i++) {
+            if (adsAt15repeating.shouldPlaceAd(i)) {
+                adsAt15repeating.placeAd(i, mMockNativeAd);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            adsAt15repeating.insertItem(i * 7);
+            adsAt15repeating.removeItem(i * 11);
+        }
+        adsAt15repeating.clearAdsInRange(1000, 2000);
+
+        final int adjustedCount = adsAt15repeating.getAdjustedCount(15000);
+        int adCount = 0;
+        for (int position = 0; position < adjustedCount; position++) {
+            final int originalPosition = adsAt15repeating.getOriginalPosition(position);
+            if (originalPosition == NOT_FOUND) {
+                adCount++;
+                assertThat(adsAt15repeating.isPlacedAd(position)).isTrue();
+            } else {
+                assertThat(originalPosition).isEqualTo(position - adCount);
+                assertThat(adsAt15repeating.getAdjustedPosition(originalPosition))
+                        .isEqualTo(position);
+            }
+        }
+        assertThat(adCount).isEqualTo(adjustedCount - 15000);
+    }
+
+    @Test
+    public void insertItems_shouldMatchInsertItemCalls() {
+        final PlacementData expected = PlacementData.fromAdPositioning(
+                MoPubNativeAdPositioning.clientPositioning()
+                        .addFixedPosition(1)
+                        .addFixedPosition(5)
+                        .enableRepeatingPositions(3));
+        for (final PlacementData placementData : Arrays.asList(expected, adsAt15repeating)) {
+            placementData.placeAd(1, mMockNativeAd);
+            placementData.placeAd(5, mMockNativeAd);
+            placementData.placeAd(8, mMockNativeAd);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            expected.insertItem(5);
+        }
+        adsAt15repeating.insertItems(5, 4);
+
+        checkSamePositions(40, expected, adsAt15repeating);
+    }
+
+    @Test
+    public void removeItems_shouldMatchRemoveItemCalls() {
+        final PlacementData expected = PlacementData.fromAdPositioning(
+                MoPubNativeAdPositioning.clientPositioning()
+                        .addFixedPosition(1)
+                        .addFixedPosition(5)
+                        .enableRepeatingPositions(3));
+        for (final PlacementData placementData : Arrays.asList(expected, adsAt15repeating)) {
+            placementData.placeAd(1, mMockNativeAd);
+            placementData.placeAd(5, mMockNativeAd);
+            placementData.placeAd(8, mMockNativeAd);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            expected.removeItem(2);
+        }
+        adsAt15repeating.removeItems(2, 5);
+
+        checkSamePositions(40, expected, adsAt15repeating);
+        checkPlacedPositions(20, adsAt15repeating, 1, 3, 4);
+    }
+
+    @Test
+    public void clearAdsInRange_withInsertionPositionAtAdPosition_shouldKeepInsertionPositionsInOrder() {
+        adsRepeating.placeAd(6, mMockNativeAd);
+        adsRepeating.removeItems(3, 4);
+
+        // The placed ad and the desired position after it now share a position.
+        checkPlacedPositions(20, adsRepeating, 3);
+        assertThat(adsRepeating.shouldPlaceAd(3)).isTrue();
+
+        assertThat(adsRepeating.clearAdsInRange(1, 4)).isEqualTo(1);
+
+        checkPlacedPositions(20, adsRepeating);
+        checkInsertionPositions(8, adsRepeating, 2, 3, 4, 6, 8);
+        assertThat(adsRepeating.nextInsertionPosition(2)).isEqualTo(3);
+    }
+
+    void checkSamePositions(int maxValue, PlacementData expected, PlacementData actual) {
+        assertThat(actual.getPlacedAdPositions()).isEqualTo(expected.getPlacedAdPositions());
+        for (int i = 0; i <= maxValue; i++) {
+            assertThat(actual.shouldPlaceAd(i)).isEqualTo(expected.shouldPlaceAd(i));
+            assertThat(actual.getOriginalPosition(i)).isEqualTo(expected.getOriginalPosition(i));
+            assertThat(actual.getAdjustedPosition(i)).isEqualTo(expected.getAdjustedPosition(i));
+        }
+    }
+
     void checkInsertionPositions(int maxValue, PlacementData placementData, Integer... positions) {
         List<Integer> expected = Arrays.asList(positions);
         List<Integer> actual = new ArrayList<Integer>();
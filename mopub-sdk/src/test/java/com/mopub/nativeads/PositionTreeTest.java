@@ -0,0 +1,143 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.nativeads;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class PositionTreeTest {
+    private PositionTree subject;
+
+    @Mock private NativeAd mockNativeAd;
+
+    @Before
+    public void setUp() {
+        subject = new PositionTree();
+        for (int i = 0; i < 5; i++) {
+            subject.add(i * 2, i * 3, null);
+        }
+    }
+
+    @Test
+    public void get_shouldReturnEntriesInOrder() {
+        assertThat(subject.size()).isEqualTo(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(subject.get(i).original).isEqualTo(i * 2);
+            assertThat(subject.get(i).adjusted).isEqualTo(i * 3);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_withIndexOutOfBounds_shouldThrowIndexOutOfBoundsException() {
+        subject.get(5);
+    }
+
+    @Test
+    public void insert_shouldPlaceEntryAtIndex() {
+        subject.insert(2, new PositionTree.Entry(3, 4, mockNativeAd));
+
+        assertThat(subject.size()).isEqualTo(6);
+        assertThat(subject.get(2).nativeAd).isEqualTo(mockNativeAd);
+        assertThat(subject.getAdjustedPositions()).isEqualTo(new int[] {0, 3, 4, 6, 9, 12});
+    }
+
+    @Test
+    public void remove_shouldReturnEntry_shouldAllowReinsertingIt() {
+        final PositionTree.Entry entry = subject.remove(1);
+
+        assertThat(entry.original).isEqualTo(2);
+        assertThat(entry.adjusted).isEqualTo(3);
+        assertThat(subject.getAdjustedPositions()).isEqualTo(new int[] {0, 6, 9, 12});
+
+        subject.insert(4, entry);
+
+        assertThat(subject.getAdjustedPositions()).isEqualTo(new int[] {0, 6, 9, 12, 3});
+    }
+
+    @Test
+    public void addToSuffix_shouldOnlyShiftEntriesFromIndex() {
+        subject.addToSuffix(3, 1, -1);
+
+        assertThat(subject.get(2).original).isEqualTo(4);
+        assertThat(subject.get(2).adjusted).isEqualTo(6);
+        assertThat(subject.get(3).original).isEqualTo(7);
+        assertThat(subject.get(3).adjusted).isEqualTo(8);
+        assertThat(subject.get(4).original).isEqualTo(9);
+        assertThat(subject.get(4).adjusted).isEqualTo(11);
+    }
+
+    @Test
+    public void searchOriginal_shouldReturnFirstMatchingIndex() {
+        subject.insert(2, new PositionTree.Entry(2, 3, null));
+
+        assertThat(subject.searchOriginal(2, true)).isEqualTo(1);
+        assertThat(subject.searchOriginal(2, false)).isEqualTo(3);
+        assertThat(subject.searchOriginal(-1, true)).isEqualTo(0);
+        assertThat(subject.searchOriginal(100, true)).isEqualTo(6);
+    }
+
+    @Test
+    public void searchAdjusted_shouldReturnFirstMatchingIndex() {
+        assertThat(subject.searchAdjusted(6, true)).isEqualTo(2);
+        assertThat(subject.searchAdjusted(6, false)).isEqualTo(3);
+        assertThat(subject.searchAdjusted(7, true)).isEqualTo(3);
+        assertThat(subject.searchAdjusted(13, false)).isEqualTo(5);
+    }
+
+    @Test
+    public void indexOfAdjusted_shouldReturnIndexOrMinusOne() {
+        assertThat(subject.indexOfAdjusted(9)).isEqualTo(3);
+        assertThat(subject.indexOfAdjusted(10)).isEqualTo(-1);
+        assertThat(subject.indexOfAdjusted(100)).isEqualTo(-1);
+    }
+
+    @Test
+    public void randomOperations_shouldMatchList() {
+        final Random random = new Random(0);
+        final List<Integer> expected = new ArrayList<>();
+        subject = new PositionTree();
+
+        for (int i = 0; i < 5000; i++) {
+            final int index = random.nextInt(expected.size() + 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    final int value = random.nextInt(1000);
+                    subject.insert(index, new PositionTree.Entry(value, value, null));
+                    expected.add(index, value);
+                    break;
+                case 1:
+                    if (index < expected.size()) {
+                        assertThat(subject.remove(index).adjusted)
+                                .isEqualTo(expected.remove(index));
+                    }
+                    break;
+                default:
+                    subject.addToSuffix(index, 0, 5);
+                    for (int j = index; j < expected.size(); j++) {
+                        expected.set(j, expected.get(j) + 5);
+                    }
+                    break;
+            }
+        }
+
+        assertThat(subject.size()).isEqualTo(expected.size());
+        final int[] actual = subject.getAdjustedPositions();
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual[i]).isEqualTo(expected.get(i));
+            assertThat(subject.get(i).adjusted).isEqualTo(expected.get(i));
+        }
+    }
+}
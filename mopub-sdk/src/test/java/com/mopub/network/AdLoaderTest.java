@@ -29,6 +29,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.mopub.mobileads.MoPubErrorCode.UNSPECIFIED;
@@ -285,6 +286,54 @@ public class AdLoaderTest {
         assertThat(subject.hasMoreAds()).isTrue();
     }
 
+    @Test
+    public void takePreloadedAds_shouldReturnRemainingAdsInOrder_shouldNotExceedMaxCount() throws JSONException, MoPubNetworkError, NoSuchFieldException, IllegalAccessException {
+        JSONObject adResponseJson1 = createAdResponseJson("trackingUrl1", "content_1");
+        JSONObject adResponseJson2 = createAdResponseJson("trackingUrl2", "content_2");
+        JSONObject adResponseJson3 = createAdResponseJson("trackingUrl3", "content_3");
+        byte[] body = createResponseBody(null, new JSONObject[]{adResponseJson1, adResponseJson2, adResponseJson3});
+        NetworkResponse testResponse = new NetworkResponse(200, body, headers, false);
+        MultiAdResponse multiAdResponse = new MultiAdResponse(activity, testResponse, AdFormat.BANNER, adUnitId);
+
+        // set subject MultiAdResponse
+        Field field = getPrivateField("mMultiAdResponse");
+        field.set(subject, multiAdResponse);
+
+        subject.loadNextAd(null);
+        verify(mockListener, times(1)).onSuccess(any(AdResponse.class));
+
+        List<AdResponse> preloadedAds = subject.takePreloadedAds(1);
+        assertThat(preloadedAds).hasSize(1);
+        assertThat(preloadedAds.get(0).getStringBody()).isEqualTo("content_2");
+        assertThat(subject.hasMoreAds()).isTrue();
+
+        preloadedAds = subject.takePreloadedAds(5);
+        assertThat(preloadedAds).hasSize(1);
+        assertThat(preloadedAds.get(0).getStringBody()).isEqualTo("content_3");
+        assertThat(subject.takePreloadedAds(5)).isEmpty();
+    }
+
+    @Test
+    public void creativeDownloadSuccess_withPreloadedAd_shouldStopWaterfall() throws JSONException, MoPubNetworkError, NoSuchFieldException, IllegalAccessException {
+        JSONObject adResponseJson1 = createAdResponseJson("trackingUrl1", "content_1");
+        JSONObject adResponseJson2 = createAdResponseJson("trackingUrl2", "content_2");
+        byte[] body = createResponseBody("fail_url", new JSONObject[]{adResponseJson1, adResponseJson2});
+        NetworkResponse testResponse = new NetworkResponse(200, body, headers, false);
+        MultiAdResponse multiAdResponse = new MultiAdResponse(activity, testResponse, AdFormat.BANNER, adUnitId);
+
+        // set subject MultiAdResponse
+        Field field = getPrivateField("mMultiAdResponse");
+        field.set(subject, multiAdResponse);
+
+        subject.loadNextAd(null);
+        final List<AdResponse> preloadedAds = subject.takePreloadedAds(1);
+        assertThat(subject.hasMoreAds()).isTrue();
+
+        subject.creativeDownloadSuccess(preloadedAds.get(0));
+
+        assertThat(subject.hasMoreAds()).isFalse();
+    }
+
     // -----------  utils  -----------
     private static Field getPrivateField(final String name) throws NoSuchFieldException {
         Field declaredField = AdLoader.class.getDeclaredField(name);
@@ -0,0 +1,84 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.Bitmap;
+import android.graphics.Point;
+import android.widget.ImageView.ScaleType;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class BitmapDecoderTest {
+
+    @Test
+    public void getTargetSize_withNoLimits_shouldReturnActualSize() {
+        assertThat(BitmapDecoder.getTargetSize(1200, 627, 0, 0, ScaleType.CENTER_INSIDE))
+                .isEqualTo(new Point(1200, 627));
+    }
+
+    @Test
+    public void getTargetSize_withCenterInside_shouldFitInsideBox() {
+        assertThat(BitmapDecoder.getTargetSize(1200, 600, 300, 300, ScaleType.CENTER_INSIDE))
+                .isEqualTo(new Point(300, 150));
+    }
+
+    @Test
+    public void getTargetSize_withCenterCrop_shouldCoverBox() {
+        assertThat(BitmapDecoder.getTargetSize(1200, 600, 300, 300, ScaleType.CENTER_CROP))
+                .isEqualTo(new Point(600, 300));
+    }
+
+    @Test
+    public void getTargetSize_withOnlyWidthLimit_shouldScaleByWidth() {
+        assertThat(BitmapDecoder.getTargetSize(2000, 4000, 1000, 0, ScaleType.CENTER_INSIDE))
+                .isEqualTo(new Point(1000, 2000));
+    }
+
+    @Test
+    public void getTargetSize_withSmallerImage_shouldNotScaleUp() {
+        assertThat(BitmapDecoder.getTargetSize(100, 100, 300, 300, ScaleType.CENTER_INSIDE))
+                .isEqualTo(new Point(100, 100));
+    }
+
+    @Test
+    public void getSampleSize_shouldReturnLargestPowerOfTwoAboveTarget() {
+        assertThat(BitmapDecoder.getSampleSize(1200, 1200, 150, 150)).isEqualTo(8);
+        assertThat(BitmapDecoder.getSampleSize(1200, 1200, 151, 151)).isEqualTo(4);
+        assertThat(BitmapDecoder.getSampleSize(1200, 1200, 1200, 1200)).isEqualTo(1);
+    }
+
+    /**
+     * Heap needed for the images of one rendered native ad: a 1200x1200 icon shown at 150x150 and
+     * a 1200x627 main image shown at 1080x564, on a 1080x1920 display.
+     */
+    @Test
+    public void heapPerRenderedAd_shouldBeMuchSmallerThanDecodingAtDisplayWidth() {
+        final int bytesPerPixel = BitmapPool.getBytesPerPixel(Bitmap.Config.RGB_565);
+
+        // Before: everything was decoded at the skinny side of the display.
+        final Point oldIcon = BitmapDecoder.getTargetSize(1200, 1200, 1080, 0,
+                ScaleType.CENTER_INSIDE);
+        final Point oldMain = BitmapDecoder.getTargetSize(1200, 627, 1080, 0,
+                ScaleType.CENTER_INSIDE);
+        final long oldBytes = ((long) oldIcon.x * oldIcon.y + (long) oldMain.x * oldMain.y) *
+                bytesPerPixel;
+
+        final Point newIcon = BitmapDecoder.getTargetSize(1200, 1200, 150, 150,
+                ScaleType.CENTER_INSIDE);
+        final Point newMain = BitmapDecoder.getTargetSize(1200, 627, 1080, 564,
+                ScaleType.CENTER_INSIDE);
+        final long newBytes = ((long) newIcon.x * newIcon.y + (long) newMain.x * newMain.y) *
+                bytesPerPixel;
+
+        assertThat(oldBytes).isEqualTo(3551040);
+        assertThat(newBytes).isLessThan(oldBytes / 2);
+    }
+}
@@ -0,0 +1,83 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import android.graphics.Bitmap;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class BitmapPoolTest {
+    private BitmapPool subject;
+
+    @Before
+    public void setUp() {
+        subject = new BitmapPool(1024 * 1024);
+    }
+
+    @Test
+    public void get_withEmptyPool_shouldReturnNull() {
+        assertThat(subject.get(10, 10, Bitmap.Config.RGB_565)).isNull();
+        assertThat(subject.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_withLargeEnoughBitmap_shouldReturnIt_shouldRemoveItFromPool() {
+        final Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.RGB_565);
+        subject.put(bitmap);
+
+        assertThat(subject.get(80, 80, Bitmap.Config.RGB_565)).isSameAs(bitmap);
+        assertThat(subject.getCurrentBytes()).isEqualTo(0);
+        assertThat(subject.getHitCount()).isEqualTo(1);
+        assertThat(subject.get(80, 80, Bitmap.Config.RGB_565)).isNull();
+    }
+
+    @Test
+    public void get_shouldReturnSmallestBitmapThatFits() {
+        final Bitmap small = Bitmap.createBitmap(50, 50, Bitmap.Config.RGB_565);
+        final Bitmap medium = Bitmap.createBitmap(100, 100, Bitmap.Config.RGB_565);
+        final Bitmap large = Bitmap.createBitmap(200, 200, Bitmap.Config.RGB_565);
+        subject.put(large);
+        subject.put(small);
+        subject.put(medium);
+
+        assertThat(subject.get(60, 60, Bitmap.Config.RGB_565)).isSameAs(medium);
+    }
+
+    @Test
+    public void get_withOnlyMuchLargerBitmaps_shouldReturnNull() {
+        subject.put(Bitmap.createBitmap(400, 400, Bitmap.Config.RGB_565));
+
+        assertThat(subject.get(50, 50, Bitmap.Config.RGB_565)).isNull();
+    }
+
+    @Test
+    public void put_withImmutableBitmap_shouldIgnoreIt() {
+        final Bitmap mutable = Bitmap.createBitmap(10, 10, Bitmap.Config.RGB_565);
+        subject.put(Bitmap.createBitmap(mutable));
+
+        assertThat(subject.getCurrentBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void put_whenFull_shouldDropLargestBitmapsFirst() {
+        subject = new BitmapPool(3 * 100 * 100 * 2);
+        final Bitmap small = Bitmap.createBitmap(100, 100, Bitmap.Config.RGB_565);
+        final Bitmap large = Bitmap.createBitmap(100, 200, Bitmap.Config.RGB_565);
+        subject.put(small);
+        subject.put(large);
+        subject.put(Bitmap.createBitmap(100, 100, Bitmap.Config.RGB_565));
+
+        assertThat(subject.getCurrentBytes()).isEqualTo(2 * 100 * 100 * 2);
+        assertThat(subject.get(100, 150, Bitmap.Config.RGB_565)).isNull();
+        assertThat(subject.get(100, 100, Bitmap.Config.RGB_565)).isSameAs(small);
+    }
+}
@@ -0,0 +1,48 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.SdkTestRunner;
+import com.mopub.volley.Cache;
+import com.mopub.volley.NetworkResponse;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class EncodedImageRequestTest {
+    private static final byte[] IMAGE_DATA = new byte[] {1, 2, 3};
+
+    @Test
+    public void getCacheEntry_withNoStoreResponse_shouldKeepImageForAdLifetime() {
+        final long now = System.currentTimeMillis();
+        final NetworkResponse response = new NetworkResponse(200, IMAGE_DATA,
+                Collections.singletonMap("Cache-Control", "no-store"), false);
+
+        final Cache.Entry entry = EncodedImageRequest.getCacheEntry(response, now);
+
+        assertThat(entry.data).isEqualTo(IMAGE_DATA);
+        assertThat(entry.ttl).isEqualTo(now + EncodedImageRequest.MIN_CACHE_TTL_MILLIS);
+        assertThat(entry.softTtl).isEqualTo(now + EncodedImageRequest.MIN_CACHE_TTL_MILLIS);
+    }
+
+    @Test
+    public void getCacheEntry_withLongerServerMaxAge_shouldKeepServerTtl() {
+        final long now = System.currentTimeMillis();
+        final long maxAgeMillis = EncodedImageRequest.MIN_CACHE_TTL_MILLIS * 2;
+        final NetworkResponse response = new NetworkResponse(200, IMAGE_DATA,
+                Collections.singletonMap("Cache-Control",
+                        "max-age=" + TimeUnit.MILLISECONDS.toSeconds(maxAgeMillis)), false);
+
+        final Cache.Entry entry = EncodedImageRequest.getCacheEntry(response, now);
+
+        assertThat(entry.ttl).isGreaterThanOrEqualTo(now + maxAgeMillis);
+    }
+}
@@ -8,6 +8,7 @@ package com.mopub.network;
 import android.app.Activity;
 
 import com.mopub.common.AdFormat;
+import com.mopub.common.AdLoadTracer;
 import com.mopub.common.MoPub;
 import com.mopub.common.test.support.SdkTestRunner;
 import com.mopub.common.util.ResponseHeader;
@@ -26,6 +27,7 @@ import org.robolectric.Robolectric;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -161,6 +163,22 @@ public class MultiAdRequestTest {
         assertThat(response.result).isNull();
     }
 
+    @Test
+    public void parseNetworkResponse_withInvalidData_shouldTraceNetworkSuccessAndParseFailure() {
+        subject.mSubmitUptimeMillis = AdLoadTracer.now();
+        NetworkResponse testResponse = new NetworkResponse("invalid_json".getBytes());
+
+        subject.parseNetworkResponse(testResponse);
+
+        final List<AdLoadTracer.Span> spans = AdLoadTracer.getRecentSpans();
+        final AdLoadTracer.Span networkSpan = spans.get(spans.size() - 2);
+        final AdLoadTracer.Span parseSpan = spans.get(spans.size() - 1);
+        assertThat(networkSpan.getStage()).isEqualTo(AdLoadTracer.Stage.NETWORK);
+        assertThat(networkSpan.isSuccess()).isTrue();
+        assertThat(parseSpan.getStage()).isEqualTo(AdLoadTracer.Stage.PARSE);
+        assertThat(parseSpan.isSuccess()).isFalse();
+    }
+
     @Test
     public void equals_shouldReturnTrue(){
         MultiAdRequest that = new MultiAdRequest("testUrl", AdFormat.BANNER, adUnitId, activity, mockListener);
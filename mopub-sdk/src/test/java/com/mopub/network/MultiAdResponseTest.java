@@ -786,6 +786,52 @@ public class MultiAdResponseTest {
         assertThat(serverExtras.get(DataKeys.IMPRESSION_VISIBLE_MS)).isEqualTo("900");
     }
 
+    @Test
+    public void parseNetworkResponse_forNatvieStatic_shouldParseNativeAdPayload() throws MoPubNetworkError, JSONException {
+        final JSONObject content = new JSONObject();
+        content.put("imptracker", new JSONArray("[\"impurl\"]"));
+        content.put("clktracker", "clickurl");
+        content.put("mainimage", "mainimageurl");
+        singleAdResponse.put(ResponseHeader.CONTENT.getKey(), content);
+        JSONObject metadata = (JSONObject) singleAdResponse.get(ResponseHeader.METADATA.getKey());
+        metadata.put(ResponseHeader.AD_TYPE.getKey(), AdType.STATIC_NATIVE);
+        NetworkResponse networkResponse = new NetworkResponse(singleAdResponse.toString().getBytes());
+
+        AdResponse subject = MultiAdResponse.parseSingleAdResponse(activity.getApplicationContext(),
+                networkResponse,
+                singleAdResponse,
+                adUnitId,
+                AdFormat.BANNER,
+                ADUNIT_FORMAT,
+                REQUEST_ID_VALUE);
+
+        final NativeAdPayload payload = subject.getNativeAdPayload();
+        assertNotNull(payload);
+        assertThat(payload.getImpressionTrackers()).containsExactly("impurl");
+        assertThat(payload.getClickTrackers()).containsExactly("clickurl");
+        assertThat(payload.getRequiredImageUrls()).containsExactly("mainimageurl");
+        assertThat(subject.getJsonBody()).isNotNull();
+    }
+
+    @Test
+    public void parseNetworkResponse_forNatvieStatic_withoutTrackers_shouldKeepJsonBody_shouldNotParseNativeAdPayload() throws MoPubNetworkError, JSONException {
+        singleAdResponse.put(ResponseHeader.CONTENT.getKey(), new JSONObject());
+        JSONObject metadata = (JSONObject) singleAdResponse.get(ResponseHeader.METADATA.getKey());
+        metadata.put(ResponseHeader.AD_TYPE.getKey(), AdType.STATIC_NATIVE);
+        NetworkResponse networkResponse = new NetworkResponse(singleAdResponse.toString().getBytes());
+
+        AdResponse subject = MultiAdResponse.parseSingleAdResponse(activity.getApplicationContext(),
+                networkResponse,
+                singleAdResponse,
+                adUnitId,
+                AdFormat.BANNER,
+                ADUNIT_FORMAT,
+                REQUEST_ID_VALUE);
+
+        assertThat(subject.getJsonBody()).isNotNull();
+        assertThat(subject.getNativeAdPayload()).isNull();
+    }
+
     @Test
     public void parseNetworkResponse_forNatvieStatic_withAdvancedBidding_shouldSucceed() throws MoPubNetworkError, JSONException {
         singleAdResponse.put(ResponseHeader.CONTENT.getKey(), new JSONObject());
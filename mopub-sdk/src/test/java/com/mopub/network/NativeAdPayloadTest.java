@@ -0,0 +1,133 @@
+// Copyright 2018-2021 Twitter, Inc.
+// Licensed under the MoPub SDK License Agreement
+// https://www.mopub.com/legal/sdk-license-agreement/
+
+package com.mopub.network;
+
+import com.mopub.common.test.support.SdkTestRunner;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+@RunWith(SdkTestRunner.class)
+public class NativeAdPayloadTest {
+    private JSONObject jsonObject;
+
+    @Before
+    public void setUp() throws Exception {
+        jsonObject = new JSONObject();
+        jsonObject.put("imptracker", new JSONArray("[\"url1\", \"url2\"]"));
+        jsonObject.put("clktracker", "clicktracker");
+    }
+
+    @Test
+    public void fromJson_shouldParseKnownFields() throws Exception {
+        jsonObject.put("title", "title");
+        jsonObject.put("text", "text");
+        jsonObject.put("mainimage", "mainimageurl");
+        jsonObject.put("iconimage", "iconimageurl");
+        jsonObject.put("clk", "clickurl");
+        jsonObject.put("ctatext", "cta");
+        jsonObject.put("starrating", "4.5");
+        jsonObject.put("privacyicon", "privacyiconurl");
+        jsonObject.put("privacyclkurl", "privacyclickurl");
+        jsonObject.put("sponsored", "sponsor");
+
+        final NativeAdPayload subject = NativeAdPayload.fromJson(jsonObject);
+
+        assertThat(subject.getTitle()).isEqualTo("title");
+        assertThat(subject.getText()).isEqualTo("text");
+        assertThat(subject.getMainImageUrl()).isEqualTo("mainimageurl");
+        assertThat(subject.getIconImageUrl()).isEqualTo("iconimageurl");
+        assertThat(subject.getClickDestinationUrl()).isEqualTo("clickurl");
+        assertThat(subject.getCallToAction()).isEqualTo("cta");
+        assertThat(subject.getStarRating()).isEqualTo(4.5);
+        assertThat(subject.getPrivacyInformationIconImageUrl()).isEqualTo("privacyiconurl");
+        assertThat(subject.getPrivacyInformationIconClickThroughUrl())
+                .isEqualTo("privacyclickurl");
+        assertThat(subject.getSponsored()).isEqualTo("sponsor");
+        assertThat(subject.getImpressionTrackers()).containsExactly("url1", "url2");
+        assertThat(subject.getClickTrackers()).containsExactly("clicktracker");
+        assertThat(subject.getExtras()).isEmpty();
+    }
+
+    @Test
+    public void fromJson_withClickTrackerArray_shouldParseEveryClickTracker() throws Exception {
+        jsonObject.put("clktracker", new JSONArray("[\"click1\", \"click2\"]"));
+
+        final NativeAdPayload subject = NativeAdPayload.fromJson(jsonObject);
+
+        assertThat(subject.getClickTrackers()).containsExactly("click1", "click2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromJson_withoutClickTracker_shouldThrowIllegalArgumentException() {
+        jsonObject.remove("clktracker");
+
+        NativeAdPayload.fromJson(jsonObject);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromJson_withImpressionTrackerOfWrongType_shouldThrowIllegalArgumentException()
+            throws Exception {
+        jsonObject.put("imptracker", "url1");
+
+        NativeAdPayload.fromJson(jsonObject);
+    }
+
+    @Test
+    public void fromJson_withOptionalFieldOfWrongType_shouldIgnoreIt() throws Exception {
+        jsonObject.put("title", 12);
+        jsonObject.put("mainimage", JSONObject.NULL);
+        jsonObject.put("starrating", "not a number");
+
+        final NativeAdPayload subject = NativeAdPayload.fromJson(jsonObject);
+
+        assertThat(subject.getTitle()).isNull();
+        assertThat(subject.getMainImageUrl()).isNull();
+        assertThat(subject.getStarRating()).isNull();
+        assertThat(subject.getExtras()).isEmpty();
+    }
+
+    @Test
+    public void fromJson_shouldKeepUnknownKeysAsExtras_shouldPrecomputeImageUrls()
+            throws Exception {
+        jsonObject.put("mainimage", "mainimageurl");
+        jsonObject.put("iconimage", "iconimageurl");
+        jsonObject.put("privacyicon", "privacyiconurl");
+        jsonObject.put("extra_IMAGE", "extraimageurl");
+        jsonObject.put("imageAtFront", "notanimage");
+        jsonObject.put("numberimage", 5);
+        jsonObject.put("fallback", "fallbackurl");
+
+        final NativeAdPayload subject = NativeAdPayload.fromJson(jsonObject);
+
+        assertThat(subject.getExtras()).hasSize(3);
+        assertThat(subject.getExtras().get("numberimage")).isEqualTo(5);
+        assertThat(subject.getExtras().containsKey("fallback")).isFalse();
+        assertThat(subject.getExtrasImageUrls()).containsExactly("extraimageurl");
+        assertThat(subject.getRequiredImageUrls()).containsExactly("mainimageurl", "iconimageurl");
+        assertThat(subject.getOptionalImageUrls())
+                .containsExactly("privacyiconurl", "extraimageurl");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getImpressionTrackers_shouldNotBeModifiable() {
+        NativeAdPayload.fromJson(jsonObject).getImpressionTrackers().add("url3");
+    }
+
+    @Test
+    public void isImageKey_shouldMatchCaseInsensitiveImageSuffix() {
+        assertThat(NativeAdPayload.isImageKey("image")).isTrue();
+        assertThat(NativeAdPayload.isImageKey("someImage")).isTrue();
+        assertThat(NativeAdPayload.isImageKey("OTHERIMAGE")).isTrue();
+        assertThat(NativeAdPayload.isImageKey("imageurl")).isFalse();
+        assertThat(NativeAdPayload.isImageKey("img")).isFalse();
+        assertThat(NativeAdPayload.isImageKey("")).isFalse();
+    }
+}